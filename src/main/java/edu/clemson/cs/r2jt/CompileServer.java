@@ -0,0 +1,292 @@
+package edu.clemson.cs.r2jt;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import edu.clemson.cs.r2jt.compilereport.CompileReport;
+import edu.clemson.cs.r2jt.init.WarmLibrary;
+
+/**
+ * <p>A compiler that stays resident between compilations, so that a client
+ * such as the web interface can send it one request after another without
+ * starting a new JVM, and without the library modules every request imports
+ * being compiled again each time.  Each request is compiled in a fresh
+ * <code>CompileEnvironment</code> with its own <code>ErrorHandler</code> and
+ * <code>CompileReport</code>; only the analyzed library modules, held in a
+ * {@link WarmLibrary}, carry over from one request to the next.</p>
+ *
+ * <p>Requests are read from standard input, or, given <code>-port</code>,
+ * from connections to that port on the loopback interface.  Either way they
+ * are compiled one at a time.  A request looks like this:</p>
+ *
+ * <pre>
+ * COMPILE &lt;compiler arguments, separated by spaces&gt;
+ * FILE &lt;name&gt; &lt;concept&gt; &lt;package&gt; &lt;kind&gt; &lt;lines&gt;
+ * &lt;that many lines of source&gt;
+ * ...
+ * END
+ * </pre>
+ *
+ * <p>Each <code>FILE</code> becomes one of the request's user files, exactly
+ * as if passed to {@link ResolveCompiler#createMeta createMeta()}, and the last
+ * one is the file compiled.  A <code>concept</code> of <code>-</code> stands
+ * for none, <code>kind</code> is one of the names <code>createMeta()</code>
+ * accepts, and <code>lines</code> is the number of lines of source that
+ * follow.  The reply is a single line of JSON holding the compile report.
+ * <code>STATUS</code> replies with the number of library modules held,
+ * <code>FORGET</code> discards them and <code>QUIT</code> ends the
+ * session.</p>
+ */
+public class CompileServer {
+
+    private static final String NO_CONCEPT = "-";
+
+    private final WarmLibrary myLibrary;
+
+    public CompileServer() {
+        this(new WarmLibrary());
+    }
+
+    /* Lets tests see and seed the library. */
+    CompileServer(WarmLibrary library) {
+        myLibrary = library;
+    }
+
+    public static void main(String[] args) throws IOException {
+        CompileServer server = new CompileServer();
+
+        if (args.length == 2 && args[0].equals("-port")) {
+            server.serve(Integer.parseInt(args[1]));
+        }
+        else if (args.length == 0) {
+            //The compiler writes progress to System.out, so keep that away
+            //from the replies
+            PrintStream replies = System.out;
+            System.setOut(System.err);
+
+            server.serve(new InputStreamReader(System.in),
+                    new OutputStreamWriter(replies));
+        }
+        else {
+            System.err.println("Usage: CompileServer [-port <port>]");
+        }
+    }
+
+    /**
+     * <p>Accepts connections on <code>port</code> of the loopback interface
+     * and serves them one after another, forever.</p>
+     *
+     * @param port The port.
+     *
+     * @throws IOException If the port cannot be listened on.
+     */
+    public void serve(int port) throws IOException {
+        ServerSocket socket =
+                new ServerSocket(port, 0, InetAddress.getByName(null));
+
+        while (true) {
+            Socket client = socket.accept();
+            try {
+                serve(new InputStreamReader(client.getInputStream()),
+                        new OutputStreamWriter(client.getOutputStream()));
+            }
+            catch (IOException ioe) {
+                System.err.println("Lost connection: " + ioe.getMessage());
+            }
+            catch (RuntimeException re) {
+                System.err.println("Dropped connection: " + re);
+            }
+            finally {
+                client.close();
+            }
+        }
+    }
+
+    /**
+     * <p>Serves the requests read from <code>in</code>, replying to
+     * <code>out</code>, until the input ends or a <code>QUIT</code> is
+     * read.</p>
+     *
+     * @param in Where the requests come from.
+     * @param out Where the replies go.
+     *
+     * @throws IOException If the requests cannot be read.
+     */
+    public void serve(Reader in, Writer out) throws IOException {
+        BufferedReader requests = new BufferedReader(in);
+        PrintWriter replies = new PrintWriter(out, true);
+
+        String line = requests.readLine();
+        while (line != null && !line.equals("QUIT")) {
+            String reply;
+            try {
+                reply = reply(line, requests);
+            }
+            catch (RuntimeException re) {
+                //One bad request mustn't take the server down for the others
+                reply = failure(re.toString());
+            }
+
+            if (reply != null) {
+                replies.println(reply);
+            }
+
+            line = requests.readLine();
+        }
+    }
+
+    private String reply(String request, BufferedReader requests)
+            throws IOException {
+        String retval = null;
+
+        if (request.startsWith("COMPILE")) {
+            retval = compile(request, requests);
+        }
+        else if (request.equals("STATUS")) {
+            retval = "{\"libraryModules\":" + myLibrary.size() + "}";
+        }
+        else if (request.equals("FORGET")) {
+            myLibrary.forget();
+            retval = "{\"libraryModules\":0}";
+        }
+        else if (request.length() > 0) {
+            retval = failure("Unknown request: " + request);
+        }
+
+        return retval;
+    }
+
+    private String compile(String command, BufferedReader requests)
+            throws IOException {
+
+        String[] args =
+                command.substring("COMPILE".length()).trim().split(" +");
+        if (args.length == 1 && args[0].length() == 0) {
+            args = new String[0];
+        }
+
+        String retval = null;
+
+        ResolveCompiler compiler = null;
+        try {
+            compiler = new ResolveCompiler(args);
+        }
+        catch (RuntimeException re) {
+            retval = failure("Bad compiler arguments: " + re);
+        }
+
+        //Read the whole request even once it has failed, so that what is left
+        //of it isn't taken for the requests that follow
+        String line = requests.readLine();
+        while (line != null && !line.equals("END")) {
+            String[] header = line.split(" +");
+            if (header.length != 6 || !header[0].equals("FILE")) {
+                if (retval == null) {
+                    retval = failure("Expected FILE or END: " + line);
+                }
+            }
+            else {
+                int lineCount = 0;
+                try {
+                    lineCount = Integer.parseInt(header[5]);
+                }
+                catch (NumberFormatException nfe) {
+                    if (retval == null) {
+                        retval = failure("Bad line count: " + line);
+                    }
+                }
+
+                StringBuilder source = new StringBuilder();
+                for (int i = 0; i < lineCount; i++) {
+                    String sourceLine = requests.readLine();
+                    if (sourceLine != null) {
+                        source.append(sourceLine);
+                        source.append("\n");
+                    }
+                }
+
+                if (retval == null) {
+                    String concept =
+                            header[2].equals(NO_CONCEPT) ? "" : header[2];
+                    try {
+                        compiler.createMeta(header[1], concept, header[3],
+                                source.toString(), header[4]);
+                    }
+                    catch (RuntimeException re) {
+                        retval = failure("Bad file " + header[1] + ": " + re);
+                    }
+                }
+            }
+
+            line = requests.readLine();
+        }
+
+        if (retval == null) {
+            try {
+                runCompiler(compiler, args);
+                retval = toJSON(compiler.getReport());
+            }
+            catch (RuntimeException re) {
+                //The library may be half-way through being changed
+                myLibrary.forget();
+                retval = failure(re.toString());
+            }
+            catch (AssertionError ae) {
+                myLibrary.forget();
+                retval = failure(ae.toString());
+            }
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Compiles the request whose files have all been given to
+     * <code>compiler</code>, importing the library's modules and adding to it
+     * any new ones.  Tests override this to stand in for the compiler.</p>
+     */
+    void runCompiler(ResolveCompiler compiler, String[] args) {
+        compiler.compile(args, myLibrary);
+    }
+
+    private String toJSON(CompileReport report) {
+        StringBuilder retval = new StringBuilder();
+
+        retval.append("{\"error\":" + report.hasError());
+        retval.append(",\"vcSuccess\":" + report.vcSuccess());
+        retval.append(",\"proveSuccess\":" + report.proveSuccess());
+        retval.append(",\"translateSuccess\":" + report.translateSuccess());
+        retval.append(",\"jarSuccess\":" + report.jarSuccess());
+        retval.append("," + report.getErrors());
+        retval.append("," + report.getBugReports());
+        retval.append(",\"vcs\":\"" + encode(report.getProveVCs()) + "\"");
+        retval.append(",\"output\":\"" + encode(report.getOutput()) + "\"");
+        retval.append(",\"libraryModules\":" + myLibrary.size());
+        retval.append("}");
+
+        return retval.toString();
+    }
+
+    private static String failure(String message) {
+        return "{\"error\":true,\"failure\":\"" + encode(message) + "\"}";
+    }
+
+    private static String encode(String s) {
+        String retval = "";
+
+        if (s != null) {
+            retval = ResolveCompiler.webEncode(s);
+        }
+
+        return retval;
+    }
+}
@@ -74,6 +74,7 @@ import edu.clemson.cs.r2jt.errors.ErrorHandler;
 import edu.clemson.cs.r2jt.init.CompileEnvironment;
 import edu.clemson.cs.r2jt.init.Controller;
 import edu.clemson.cs.r2jt.init.Environment;
+import edu.clemson.cs.r2jt.init.WarmLibrary;
 import edu.clemson.cs.r2jt.parsing.RSimpleTrans;
 import edu.clemson.cs.r2jt.proofchecking.ProofChecker;
 import edu.clemson.cs.r2jt.proving.Prover;
@@ -222,10 +223,29 @@ public class Main {
      */
     public static void runMain(String[] args, CompileReport rep,
             MetaFile inputFile, HashMap<String, MetaFile> userFileMap) {
+        runMain(args, rep, inputFile, userFileMap, null);
+    }
+
+    /**
+     * <p>As {@link #runMain(String[], CompileReport, MetaFile, HashMap)}, but
+     * imports the library modules held by <code>library</code> instead of
+     * compiling them again, and adds to it any new ones this run compiles.
+     * Used by the {@link CompileServer}.  <code>library</code> may be
+     * <code>null</code>.</p>
+     */
+    public static void runMain(String[] args, CompileReport rep,
+            MetaFile inputFile, HashMap<String, MetaFile> userFileMap,
+            WarmLibrary library) {
         //Environment.newInstance();
         //env = Environment.getInstance();
 
         setUpFlagDependencies();
+
+        //Don't let the -R and -D of an earlier run in this process carry over
+        compileDirs = false;
+        mainDirName = "Main";
+
+        String[] libraryArgs = args;
         String fileName = inputFile.getMyFileName();
         String fileSource = inputFile.getMyFileSource();
         try {
@@ -306,7 +326,13 @@ public class Main {
                 }
 
                 setupEnv(preferredMainDirectory, compileEnvironment);
+                if (library != null) {
+                    library.seed(compileEnvironment, libraryArgs, inputFile);
+                }
                 compileFiles(files, compileEnvironment, inputFile);
+                if (library != null) {
+                    library.absorb(compileEnvironment, libraryArgs, inputFile);
+                }
             }
             else {
                 printHelpMessage(compileEnvironment);
@@ -541,9 +567,10 @@ public class Main {
     /**
      * <p>This method sets up dependencies between compiler flags.  If you are
      * integrating your module into the compiler flag management system, this is
-     * where to do it.</p>
+     * where to do it.  Does nothing if the flags have already been set up, so
+     * anything else that needs them, such as a test, may call it first.</p>
      */
-    private synchronized static void setUpFlagDependencies() {
+    public synchronized static void setUpFlagDependencies() {
 
         if (!FlagDependencies.isSealed()) {
 
@@ -562,6 +589,7 @@ public class Main {
             PrettyJavaTranslator.setUpFlags();
             RSimpleTrans.setUpFlags();
             VCGenerator.setUpFlags();
+            Controller.setUpFlags();
 
             FlagDependencies.seal();
         }
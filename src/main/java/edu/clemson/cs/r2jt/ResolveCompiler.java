@@ -7,6 +7,7 @@ import java.util.HashMap;
 import edu.clemson.cs.r2jt.compilereport.CompileReport;
 import edu.clemson.cs.r2jt.data.MetaFile;
 import edu.clemson.cs.r2jt.data.ModuleKind;
+import edu.clemson.cs.r2jt.init.WarmLibrary;
 import edu.clemson.cs.r2jt.proving.Prover;
 import edu.clemson.cs.r2jt.utilities.Flag;
 import edu.clemson.cs.r2jt.utilities.FlagDependencies;
@@ -150,6 +151,17 @@ public class ResolveCompiler {
         Main.runMain(args, myCompileReport, myInputFile, myUserFileMap);
     }
 
+    /**
+     * <p>Compiles as {@link #compile(String[])} does, but imports the library
+     * modules already held by <code>library</code> rather than compiling them
+     * again.</p>
+     */
+    public void compile(String[] args, WarmLibrary library) {
+        Main
+                .runMain(args, myCompileReport, myInputFile, myUserFileMap,
+                        library);
+    }
+
     /*public void wsCompile(String[] args, WebSocketWriter writer){
             myWsWriter = writer;
             //myCompileReport.setWsWriter(writer);
@@ -65,6 +65,8 @@ import edu.clemson.cs.r2jt.analysis.TypeResolutionException;
 
 public class AltItemExp extends Exp {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
@@ -63,6 +63,8 @@ import edu.clemson.cs.r2jt.data.Symbol;
 
 public class AuxVarDec extends Dec {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
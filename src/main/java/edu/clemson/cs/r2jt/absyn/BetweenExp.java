@@ -67,6 +67,8 @@ import edu.clemson.cs.r2jt.collections.Iterator;
 
 public class BetweenExp extends Exp {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
@@ -7,6 +7,8 @@ import edu.clemson.cs.r2jt.type.Type;
 
 public class BooleanTy extends Ty {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
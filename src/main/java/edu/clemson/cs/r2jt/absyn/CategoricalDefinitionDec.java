@@ -4,6 +4,8 @@ import edu.clemson.cs.r2jt.data.PosSymbol;
 
 public class CategoricalDefinitionDec extends Dec {
 
+    private static final long serialVersionUID = 1L;
+
     @Override
     public void accept(ResolveConceptualVisitor v) {
     // TODO Auto-generated method stub
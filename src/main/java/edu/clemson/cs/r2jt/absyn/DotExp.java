@@ -68,6 +68,8 @@ import edu.clemson.cs.r2jt.collections.Iterator;
 
 public class DotExp extends Exp {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
@@ -65,6 +65,8 @@ import edu.clemson.cs.r2jt.data.Symbol;
 
 public class EnhancementBodyModuleDec extends ModuleDec {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
@@ -63,6 +63,8 @@ import edu.clemson.cs.r2jt.data.PosSymbol;
 
 public class EnhancementItem extends ResolveConceptualElement {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
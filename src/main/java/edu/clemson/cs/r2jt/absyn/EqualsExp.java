@@ -66,6 +66,8 @@ import edu.clemson.cs.r2jt.analysis.TypeResolutionException;
 
 public class EqualsExp extends Exp {
 
+    private static final long serialVersionUID = 1L;
+
     //private ErrorHandler err = ErrorHandler.getInstance();
 
     // ===========================================================
@@ -105,6 +107,10 @@ public class EqualsExp extends Exp {
         super.bType = BooleanType.INSTANCE;
     }
 
+    public int structureHash() {
+        return 31 * getClass().hashCode() + operator;
+    }
+
     public boolean equivalent(Exp e) {
         boolean retval = e instanceof EqualsExp;
 
@@ -193,11 +199,19 @@ public class EqualsExp extends Exp {
     }
 
     public Exp substituteChildren(java.util.Map<Exp, Exp> substitutions) {
-        Exp retval =
-                new EqualsExp(location, substitute(left, substitutions),
-                        operator, substitute(right, substitutions));
+        Exp retval;
 
-        retval.setType(type);
+        Exp newLeft = substitute(left, substitutions);
+        Exp newRight = substitute(right, substitutions);
+
+        if (sharesUnchanged(substitutions) && newLeft == left
+                && newRight == right) {
+            retval = this;
+        }
+        else {
+            retval = new EqualsExp(location, newLeft, operator, newRight);
+            retval.setType(type);
+        }
 
         return retval;
     }
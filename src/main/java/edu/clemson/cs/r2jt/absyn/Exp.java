@@ -58,9 +58,6 @@
 
 package edu.clemson.cs.r2jt.absyn;
 
-import java.util.Iterator;
-import java.util.Set;
-
 import edu.clemson.cs.r2jt.collections.List;
 import edu.clemson.cs.r2jt.data.Location;
 import edu.clemson.cs.r2jt.data.PosSymbol;
@@ -71,6 +68,8 @@ import edu.clemson.cs.r2jt.analysis.TypeResolutionException;
 
 public abstract class Exp extends ResolveConceptualElement implements Cloneable {
 
+    private static final long serialVersionUID = 1L;
+
     /*
      * These variables are useful to the proof checking classes and
      * will only be set if the -proofcheck flag in the environment is ON --
@@ -136,6 +135,9 @@ public abstract class Exp extends ResolveConceptualElement implements Cloneable
      * function names are additionally matched, even though they would not
      * ordinarily match via <code>equivalent()</code>, so function names can
      * be substituted without affecting their arguments.</p>
+     * 
+     * <p>Keys are looked up by their {@link #structureHash() structureHash()},
+     * so large maps cost little more per node than small ones.</p>
      *   
      * @param substitutions A mapping from <code>Exp</code>s that should be
      *                      substituted out to the <code>Exp</code> that should
@@ -146,34 +148,16 @@ public abstract class Exp extends ResolveConceptualElement implements Cloneable
     public final Exp substitute(java.util.Map<Exp, Exp> substitutions) {
         Exp retval;
 
-        boolean match = false;
-
-        java.util.Map.Entry<Exp, Exp> curEntry = null;
         if (substitutions.size() > 0) {
-            Set<java.util.Map.Entry<Exp, Exp>> entries =
-                    substitutions.entrySet();
-            Iterator<java.util.Map.Entry<Exp, Exp>> entryIter =
-                    entries.iterator();
-            //System.out.println("Recursing: " + this.toString(0) + " : " + this.getClass());
-            while (entryIter.hasNext() && !match) {
-                curEntry = entryIter.next();
-                //System.out.print(curEntry.getKey().toString(0) + " --?-> " + curEntry.getValue().toString(0));
-                match = curEntry.getKey().equivalent(this);
-
-                /*if (match) {
-                	System.out.println(" [Yes] ");
-                }
-                else {
-                	System.out.println(" [ No] ");
-                }*/
-            }
+            SubstitutionIndex index =
+                    SubstitutionIndex.of(substitutions, false);
+            java.util.Map.Entry<Exp, Exp> match = index.lookup(this);
 
-            if (match) {
-                //System.out.println(curEntry.getKey().toString(0) + " --> " + curEntry.getValue().toString(0));
-                retval = curEntry.getValue();
+            if (match != null) {
+                retval = match.getValue();
             }
             else {
-                retval = substituteChildren(substitutions);
+                retval = substituteChildren(index);
             }
         }
         else {
@@ -183,12 +167,50 @@ public abstract class Exp extends ResolveConceptualElement implements Cloneable
         return retval;
     }
 
+    /**
+     * <p>As <code>substitute()</code>, but subexpressions that contain no
+     * match are returned as they are rather than copied, so only the nodes on
+     * the path to a substitution are new.  If nothing matches, this
+     * <code>Exp</code> itself is returned.</p>
+     * 
+     * <p>The result shares structure with this <code>Exp</code>, so it is only
+     * suitable where neither will be modified in place.</p>
+     * 
+     * @param substitutions A mapping from <code>Exp</code>s that should be
+     *                      substituted out to the <code>Exp</code> that should
+     *                      replace them.
+     * @return An <code>Exp</code> with the provided substitutions made.
+     */
+    public final Exp substituteSharing(java.util.Map<Exp, Exp> substitutions) {
+        Exp retval;
+
+        if (substitutions.size() > 0) {
+            SubstitutionIndex index = SubstitutionIndex.of(substitutions, true);
+            java.util.Map.Entry<Exp, Exp> match = index.lookup(this);
+
+            if (match != null) {
+                retval = match.getValue();
+            }
+            else {
+                retval = substituteChildren(index);
+            }
+        }
+        else {
+            retval = this;
+        }
+
+        return retval;
+    }
+
     protected static Exp substitute(Exp e, java.util.Map<Exp, Exp> substitutions) {
         Exp retval;
 
         if (e == null) {
             retval = null;
         }
+        else if (sharesUnchanged(substitutions)) {
+            retval = e.substituteSharing(substitutions);
+        }
         else {
             retval = e.substitute(substitutions);
         }
@@ -196,6 +218,22 @@ public abstract class Exp extends ResolveConceptualElement implements Cloneable
         return retval;
     }
 
+    /**
+     * <p>For use by <code>substituteChildren()</code>.  Returns
+     * <code>true</code> <strong>iff</strong> the current substitution was
+     * started with <code>substituteSharing()</code>, in which case a node
+     * whose children all came back unchanged may return itself rather than a
+     * copy.</p>
+     * 
+     * @param substitutions The map passed to <code>substituteChildren()</code>.
+     * @return Whether unchanged nodes may be shared.
+     */
+    protected static boolean sharesUnchanged(
+            java.util.Map<Exp, Exp> substitutions) {
+        return substitutions instanceof SubstitutionIndex
+                && ((SubstitutionIndex) substitutions).sharesUnchanged();
+    }
+
     /**
      * <p>Implemented by concrete subclasses of <code>Exp</code> to manufacture
      * a copy of themselves where all subexpressions have been appropriately
@@ -391,6 +429,38 @@ public abstract class Exp extends ResolveConceptualElement implements Cloneable
                 && ((s1 == null && s2 == null) || (s1.equals(s2)));
     }
 
+    /**
+     * <p>Returns a hash of this expression that is consistent with
+     * <code>equivalent()</code>: any two equivalent expressions have the same
+     * structure hash.  Only this node's own class and symbols are hashed, not
+     * its subexpressions, so it is cheap enough to compute at every node of a
+     * substitution.  Subclasses that override <code>equivalent()</code> should
+     * override this to hash whatever name or operator they compare.</p>
+     * 
+     * @return The structure hash.
+     */
+    public int structureHash() {
+        return getClass().hashCode();
+    }
+
+    /**
+     * <p>Helper for <code>structureHash()</code> that hashes the name of a
+     * <code>PosSymbol</code> that might be null, consistent with
+     * <code>posSymbolEquivalent()</code>.</p>
+     * 
+     * @param s The <code>PosSymbol</code>.
+     * @return A hash of its name.
+     */
+    protected static int posSymbolHash(PosSymbol s) {
+        int retval = 0;
+
+        if (s != null && s.getName() != null) {
+            retval = s.getName().hashCode();
+        }
+
+        return retval;
+    }
+
     public boolean shallowCompare(Exp e2) {
         return false;
     }
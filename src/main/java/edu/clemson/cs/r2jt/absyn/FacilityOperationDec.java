@@ -64,6 +64,8 @@ import edu.clemson.cs.r2jt.data.PosSymbol;
 
 public class FacilityOperationDec extends Dec {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
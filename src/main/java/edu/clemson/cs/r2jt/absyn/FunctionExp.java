@@ -74,6 +74,8 @@ import edu.clemson.cs.r2jt.collections.Iterator;
 
 public class FunctionExp extends Exp {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
@@ -138,6 +140,10 @@ public class FunctionExp extends Exp {
         this.quantification = quantification;
     }
 
+    public int structureHash() {
+        return 31 * getClass().hashCode() + posSymbolHash(name);
+    }
+
     public boolean equivalent(Exp e) {
         boolean retval = e instanceof FunctionExp;
 
@@ -289,24 +295,29 @@ public class FunctionExp extends Exp {
      * if it matches a <code>VarExp</code> in the map.</p>
      */
     public Exp substituteChildren(java.util.Map<Exp, Exp> substitutions) {
-        FunctionExp retval;
+        Exp retval;
 
+        boolean changed = false;
         List<FunctionArgList> newParamList = new List<FunctionArgList>();
         List<Exp> oldArguments;
         List<Exp> newArguments;
+        Exp newArgument;
         for (FunctionArgList l : paramList) {
             oldArguments = l.getArguments();
             newArguments = new List<Exp>();
             for (Exp a : oldArguments) {
-                newArguments.add(substitute(a, substitutions));
+                newArgument = substitute(a, substitutions);
+                changed |= (newArgument != a);
+                newArguments.add(newArgument);
             }
             newParamList.add(new FunctionArgList(newArguments));
         }
 
-        VarExp newName = new VarExp(location, qualifier, name, quantification);
+        VarExp oldName = new VarExp(location, qualifier, name, quantification);
+        VarExp newName;
 
         try {
-            newName = (VarExp) newName.substitute(substitutions);
+            newName = (VarExp) substitute(oldName, substitutions);
         }
         catch (ClassCastException e) {
             //There really is no good reason that this shouldn't be able to 
@@ -315,12 +326,18 @@ public class FunctionExp extends Exp {
             throw new RuntimeException(e);
         }
 
-        retval =
-                new FunctionExp(location, qualifier, newName.getName(),
-                        substitute(natural, substitutions), newParamList,
-                        quantification);
+        Exp newNatural = substitute(natural, substitutions);
+        changed |= (newName != oldName) || (newNatural != natural);
 
-        retval.setType(type);
+        if (changed || !sharesUnchanged(substitutions)) {
+            retval =
+                    new FunctionExp(location, qualifier, newName.getName(),
+                            newNatural, newParamList, quantification);
+            retval.setType(type);
+        }
+        else {
+            retval = this;
+        }
 
         return retval;
     }
@@ -63,6 +63,8 @@ import edu.clemson.cs.r2jt.analysis.TypeResolutionException;
 
 public class FunctionTy extends Ty {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
@@ -66,6 +66,8 @@ import edu.clemson.cs.r2jt.analysis.TypeResolutionException;
 
 public class GoalExp extends LineNumberedExp {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
@@ -63,6 +63,8 @@ import edu.clemson.cs.r2jt.collections.List;
 
 public class IfStmt extends Statement {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
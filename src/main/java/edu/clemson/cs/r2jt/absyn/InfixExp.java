@@ -71,6 +71,8 @@ import edu.clemson.cs.r2jt.verification.*;
 
 public class InfixExp extends Exp {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Constants
     // ===========================================================
@@ -128,14 +130,24 @@ public class InfixExp extends Exp {
         return retval;
     }
 
+    public int structureHash() {
+        return 31 * getClass().hashCode() + posSymbolHash(opName);
+    }
+
     public Exp substituteChildren(java.util.Map<Exp, Exp> substitutions) {
         Exp retval;
 
-        retval =
-                new InfixExp(location, substitute(left, substitutions), opName,
-                        substitute(right, substitutions));
+        Exp newLeft = substitute(left, substitutions);
+        Exp newRight = substitute(right, substitutions);
 
-        retval.setType(type);
+        if (sharesUnchanged(substitutions) && newLeft == left
+                && newRight == right) {
+            retval = this;
+        }
+        else {
+            retval = new InfixExp(location, newLeft, opName, newRight);
+            retval.setType(type);
+        }
 
         return retval;
     }
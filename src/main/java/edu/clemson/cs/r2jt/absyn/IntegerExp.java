@@ -66,6 +66,8 @@ import edu.clemson.cs.r2jt.analysis.TypeResolutionException;
 
 public class IntegerExp extends Exp {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
@@ -91,8 +93,16 @@ public class IntegerExp extends Exp {
     }
 
     public Exp substituteChildren(java.util.Map<Exp, Exp> substitutions) {
-        Exp retval = new IntegerExp(location, qualifier, value);
-        retval.setType(type);
+        Exp retval;
+
+        if (sharesUnchanged(substitutions)) {
+            retval = this;
+        }
+        else {
+            retval = new IntegerExp(location, qualifier, value);
+            retval.setType(type);
+        }
+
         return retval;
     }
 
@@ -244,6 +254,10 @@ public class IntegerExp extends Exp {
         return retval;
     }
 
+    public int structureHash() {
+        return 31 * getClass().hashCode() + value;
+    }
+
     public boolean equivalent(Exp e) {
         boolean retval = e instanceof IntegerExp;
 
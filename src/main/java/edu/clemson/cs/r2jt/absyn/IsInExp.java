@@ -10,6 +10,8 @@ import edu.clemson.cs.r2jt.type.Type;
 
 public class IsInExp extends Exp {
 
+    private static final long serialVersionUID = 1L;
+
     //private ErrorHandler err = ErrorHandler.getInstance();
 
     // ===========================================================
@@ -4,6 +4,8 @@ import edu.clemson.cs.r2jt.data.PosSymbol;
 
 public abstract class LineNumberedExp extends Exp {
 
+    private static final long serialVersionUID = 1L;
+
     protected PosSymbol myLineNumber;
 
     public LineNumberedExp(PosSymbol lineNumber) {
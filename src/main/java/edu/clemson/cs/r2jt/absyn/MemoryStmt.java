@@ -62,6 +62,8 @@ import edu.clemson.cs.r2jt.data.Location;
 
 public class MemoryStmt extends Statement {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
@@ -62,6 +62,8 @@ import edu.clemson.cs.r2jt.collections.List;
 
 public abstract class ModuleDec extends Dec {
 
+    private static final long serialVersionUID = 1L;
+
     public abstract void accept(ResolveConceptualVisitor v);
 
     public abstract String asString(int indent, int increment);
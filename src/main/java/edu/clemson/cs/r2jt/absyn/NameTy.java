@@ -64,6 +64,8 @@ import edu.clemson.cs.r2jt.analysis.TypeResolutionException;
 
 public class NameTy extends Ty {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
@@ -65,6 +65,8 @@ import edu.clemson.cs.r2jt.analysis.TypeResolutionException;
 
 public class OutfixExp extends Exp {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Constants
     // ===========================================================
@@ -106,6 +108,10 @@ public class OutfixExp extends Exp {
         this.argument = argument;
     }
 
+    public int structureHash() {
+        return 31 * getClass().hashCode() + operator;
+    }
+
     public boolean equivalent(Exp e) {
         boolean retval = e instanceof OutfixExp;
 
@@ -120,10 +126,18 @@ public class OutfixExp extends Exp {
     }
 
     public Exp substituteChildren(java.util.Map<Exp, Exp> substitutions) {
-        Exp retval =
-                new OutfixExp(location, operator, substitute(argument,
-                        substitutions));
-        retval.setType(type);
+        Exp retval;
+
+        Exp newArgument = substitute(argument, substitutions);
+
+        if (sharesUnchanged(substitutions) && newArgument == argument) {
+            retval = this;
+        }
+        else {
+            retval = new OutfixExp(location, operator, newArgument);
+            retval.setType(type);
+        }
+
         return retval;
     }
 
@@ -64,6 +64,8 @@ import edu.clemson.cs.r2jt.data.Location;
 
 public class PerformanceInitItem extends ResolveConceptualElement {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
@@ -66,6 +66,8 @@ import edu.clemson.cs.r2jt.data.Symbol;
 
 public class PerformanceModuleDec extends ModuleDec {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
@@ -66,6 +66,8 @@ import edu.clemson.cs.r2jt.analysis.TypeResolutionException;
 
 public class PrefixExp extends Exp {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
@@ -114,11 +116,17 @@ public class PrefixExp extends Exp {
     }
 
     public Exp substituteChildren(java.util.Map<Exp, Exp> substitutions) {
-        PrefixExp retval =
-                new PrefixExp(location, symbol, substitute(argument,
-                        substitutions));
+        Exp retval;
 
-        retval.setType(type);
+        Exp newArgument = substitute(argument, substitutions);
+
+        if (sharesUnchanged(substitutions) && newArgument == argument) {
+            retval = this;
+        }
+        else {
+            retval = new PrefixExp(location, symbol, newArgument);
+            retval.setType(type);
+        }
 
         return retval;
     }
@@ -247,6 +255,10 @@ public class PrefixExp extends Exp {
         return true;
     }
 
+    public int structureHash() {
+        return 31 * getClass().hashCode() + posSymbolHash(symbol);
+    }
+
     public boolean equivalent(Exp e) {
         boolean retval = (e instanceof PrefixExp);
 
@@ -64,6 +64,8 @@ import edu.clemson.cs.r2jt.collections.Iterator;
 
 public class ProcedureDec extends Dec {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
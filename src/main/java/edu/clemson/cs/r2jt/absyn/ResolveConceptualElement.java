@@ -58,15 +58,22 @@
 
 package edu.clemson.cs.r2jt.absyn;
 
+import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import edu.clemson.cs.r2jt.collections.List;
 import edu.clemson.cs.r2jt.data.AsStringCapability;
 import java.lang.reflect.ParameterizedType;
 
-public abstract class ResolveConceptualElement implements AsStringCapability {
+public abstract class ResolveConceptualElement
+        implements
+            AsStringCapability,
+            Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     public abstract void accept(ResolveConceptualVisitor v);
 
@@ -85,35 +92,23 @@ public abstract class ResolveConceptualElement implements AsStringCapability {
     public List<ResolveConceptualElement> getChildren() {
         List<ResolveConceptualElement> children =
                 new List<ResolveConceptualElement>();
-        // get a list of all the declared and inherited members of this object
-        ArrayList<Field> fields = new ArrayList<Field>();
-        Class<?> curClass = this.getClass();
-        while (curClass != ResolveConceptualElement.class) {
-            Field[] curFields = curClass.getDeclaredFields();
-            for (int i = 0; i < curFields.length; ++i) {
-                fields.add(curFields[i]);
-            }
-            curClass = curClass.getSuperclass();
-        }
 
-        // loop through all the class members
-        Iterator<Field> iterFields = fields.iterator();
-        while (iterFields.hasNext()) {
-            Field curField = iterFields.next();
-            curField.setAccessible(true);
-            Class<?> fieldType = curField.getType();
+        // loop through the class members that could hold children
+        ChildField[] childFields = getChildFields(this.getClass());
+        for (int i = 0; i < childFields.length; ++i) {
+            Field curField = childFields[i].field;
 
             try {
                 // is this member a ResolveConceptualElement?
                 // if so, add it as a child
-                if (ResolveConceptualElement.class.isAssignableFrom(fieldType)) {
+                if (!childFields[i].isList) {
                     //System.out.println("Walking: " + curField.getName());
                     children.add(ResolveConceptualElement.class.cast(curField
                             .get(this)));
                 }
                 // is this member a list of ResolveConceptualElements?
                 // if so, add the elements to the list of children
-                else if (List.class.isAssignableFrom(fieldType)) {
+                else {
                     List<?> fieldList = List.class.cast(curField.get(this));
                     if (fieldList != null
                             && fieldList.size() > 0
@@ -123,9 +118,7 @@ public abstract class ResolveConceptualElement implements AsStringCapability {
                         children.add(new VirtualListNode(this, curField
                                 .getName(),
                                 (List<ResolveConceptualElement>) fieldList,
-                                (Class<?>) ((ParameterizedType) curField
-                                        .getGenericType())
-                                        .getActualTypeArguments()[0]));
+                                childFields[i].getListType()));
                     }
 
                 }
@@ -136,4 +129,61 @@ public abstract class ResolveConceptualElement implements AsStringCapability {
         }
         return children;
     }
+
+    /**
+     * Returns the declared and inherited members of the given class that may
+     * hold children, i.e., those that are
+     * <code>ResolveConceptualElement</code>s or <code>List</code>s.  These are
+     * found by reflection only the first time a class is asked about.
+     */
+    private static ChildField[] getChildFields(Class<?> c) {
+        ChildField[] result = CHILD_FIELDS.get(c);
+        if (result == null) {
+            ArrayList<ChildField> fields = new ArrayList<ChildField>();
+            Class<?> curClass = c;
+            while (curClass != ResolveConceptualElement.class) {
+                Field[] curFields = curClass.getDeclaredFields();
+                for (int i = 0; i < curFields.length; ++i) {
+                    Class<?> fieldType = curFields[i].getType();
+                    if (ResolveConceptualElement.class
+                            .isAssignableFrom(fieldType)) {
+                        fields.add(new ChildField(curFields[i], false));
+                    }
+                    else if (List.class.isAssignableFrom(fieldType)) {
+                        fields.add(new ChildField(curFields[i], true));
+                    }
+                }
+                curClass = curClass.getSuperclass();
+            }
+            result = fields.toArray(new ChildField[fields.size()]);
+            CHILD_FIELDS.put(c, result);
+        }
+        return result;
+    }
+
+    private static final Map<Class<?>, ChildField[]> CHILD_FIELDS =
+            new ConcurrentHashMap<Class<?>, ChildField[]>();
+
+    private static class ChildField {
+
+        public final Field field;
+        public final boolean isList;
+
+        private Class<?> listType;
+
+        public ChildField(Field field, boolean isList) {
+            field.setAccessible(true);
+            this.field = field;
+            this.isList = isList;
+        }
+
+        public Class<?> getListType() {
+            if (listType == null) {
+                listType =
+                        (Class<?>) ((ParameterizedType) field.getGenericType())
+                                .getActualTypeArguments()[0];
+            }
+            return listType;
+        }
+    }
 }
@@ -62,6 +62,8 @@ import edu.clemson.cs.r2jt.collections.List;
 
 public class SelectionStmt extends Statement {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
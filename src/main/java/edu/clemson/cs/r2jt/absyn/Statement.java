@@ -62,6 +62,8 @@ public abstract class Statement extends ResolveConceptualElement
         implements
             Cloneable {
 
+    private static final long serialVersionUID = 1L;
+
     public abstract void accept(ResolveConceptualVisitor v);
 
     public abstract String asString(int indent, int increment);
@@ -0,0 +1,127 @@
+package edu.clemson.cs.r2jt.absyn;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>A read-only view of a substitution map that buckets its keys by
+ * {@link Exp#structureHash() structureHash()}, so that finding the key that
+ * matches some expression only calls <code>equivalent()</code> on the keys
+ * that could possibly match rather than on every key in the map.</p>
+ *
+ * <p>One index is built when a substitution starts and is then passed down
+ * through <code>substituteChildren()</code> in place of the original map, so
+ * the keys are hashed once per substitution rather than once per node.  Within
+ * a bucket, keys are kept in the original map's iteration order, so the key
+ * chosen when several match is the same one a linear scan would have
+ * chosen.</p>
+ */
+class SubstitutionIndex extends AbstractMap<Exp, Exp> {
+
+    private final Map<Exp, Exp> mySubstitutions;
+
+    private final Map<Integer, java.util.List<Map.Entry<Exp, Exp>>> myBuckets =
+            new HashMap<Integer, java.util.List<Map.Entry<Exp, Exp>>>();
+
+    private final boolean mySharesUnchanged;
+
+    private SubstitutionIndex(Map<Exp, Exp> substitutions,
+            boolean sharesUnchanged) {
+        mySubstitutions = substitutions;
+        mySharesUnchanged = sharesUnchanged;
+
+        for (Map.Entry<Exp, Exp> entry : substitutions.entrySet()) {
+            Integer hash = entry.getKey().structureHash();
+
+            java.util.List<Map.Entry<Exp, Exp>> bucket = myBuckets.get(hash);
+            if (bucket == null) {
+                bucket = new ArrayList<Map.Entry<Exp, Exp>>(1);
+                myBuckets.put(hash, bucket);
+            }
+
+            bucket.add(entry);
+        }
+    }
+
+    /**
+     * <p>Returns an index over <code>substitutions</code>, reusing it if it is
+     * already an index of the right kind.</p>
+     *
+     * @param substitutions The substitutions to index.
+     * @param sharesUnchanged Whether subexpressions left unchanged by the
+     *                        substitution should be shared with the original
+     *                        rather than copied.
+     *
+     * @return The index.
+     */
+    public static SubstitutionIndex of(Map<Exp, Exp> substitutions,
+            boolean sharesUnchanged) {
+
+        SubstitutionIndex retval;
+
+        if (substitutions instanceof SubstitutionIndex
+                && ((SubstitutionIndex) substitutions).mySharesUnchanged
+                        == sharesUnchanged) {
+            retval = (SubstitutionIndex) substitutions;
+        }
+        else {
+            retval = new SubstitutionIndex(substitutions, sharesUnchanged);
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Returns the entry whose key is <code>equivalent()</code> to
+     * <code>e</code>, or <code>null</code> if there is none.</p>
+     *
+     * @param e The expression to look up.
+     *
+     * @return The matching entry, or <code>null</code>.
+     */
+    public Map.Entry<Exp, Exp> lookup(Exp e) {
+        Map.Entry<Exp, Exp> retval = null;
+
+        java.util.List<Map.Entry<Exp, Exp>> bucket =
+                myBuckets.get(e.structureHash());
+        if (bucket != null) {
+            int size = bucket.size();
+            for (int i = 0; retval == null && i < size; i++) {
+                if (bucket.get(i).getKey().equivalent(e)) {
+                    retval = bucket.get(i);
+                }
+            }
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Returns <code>true</code> <strong>iff</strong> subexpressions that
+     * the substitution leaves unchanged may be returned as they are.</p>
+     *
+     * @return Whether unchanged subexpressions are shared.
+     */
+    public boolean sharesUnchanged() {
+        return mySharesUnchanged;
+    }
+
+    @Override
+    public int size() {
+        return mySubstitutions.size();
+    }
+
+    @Override
+    public Exp get(Object key) {
+        return mySubstitutions.get(key);
+    }
+
+    @Override
+    public Set<Map.Entry<Exp, Exp>> entrySet() {
+        return Collections.unmodifiableMap(mySubstitutions).entrySet();
+    }
+}
@@ -66,6 +66,8 @@ import edu.clemson.cs.r2jt.collections.Iterator;
 
 public class TupleExp extends Exp {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
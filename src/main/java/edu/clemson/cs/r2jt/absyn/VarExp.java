@@ -67,6 +67,8 @@ import edu.clemson.cs.r2jt.analysis.TypeResolutionException;
 
 public class VarExp extends Exp {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
@@ -138,9 +140,20 @@ public class VarExp extends Exp {
         return retval;
     }
 
+    public int structureHash() {
+        return 31 * getClass().hashCode() + posSymbolHash(name);
+    }
+
     public Exp substituteChildren(java.util.Map<Exp, Exp> substitutions) {
-        Exp retval = new VarExp(location, qualifier, name, quantification);
-        retval.setType(type);
+        Exp retval;
+
+        if (sharesUnchanged(substitutions)) {
+            retval = this;
+        }
+        else {
+            retval = new VarExp(location, qualifier, name, quantification);
+            retval.setType(type);
+        }
 
         return retval;
     }
@@ -63,6 +63,8 @@ import edu.clemson.cs.r2jt.analysis.TypeResolutionException;
 
 public abstract class VariableExp extends ProgramExp {
 
+    private static final long serialVersionUID = 1L;
+
     public abstract void accept(ResolveConceptualVisitor v);
 
     public abstract Type accept(TypeResolutionVisitor v)
@@ -96,6 +96,10 @@ public class MathExpTypeResolver extends TypeResolutionVisitor {
 
     private TypeMatcher tm;
 
+    private final TypeMatchCache matchCache;
+
+    private final OverloadResolutionCache overloadCache;
+
     private CompileEnvironment myInstanceEnvironment;
 
     private ErrorHandler err;
@@ -114,6 +118,11 @@ public class MathExpTypeResolver extends TypeResolutionVisitor {
 
     private boolean printVarErrors = true;
 
+    /* Set when getFunctionExpType2() resolves a function-valued variable,
+     * the one case in which it returns a type without giving it to the
+     * expression. */
+    private boolean resolvedWithoutSettingType = false;
+
     // In the case of indexed expressions within an inductive
     //     definition and return statements on operations/proc-
     //     edures, we may encounter this:
@@ -141,6 +150,8 @@ public class MathExpTypeResolver extends TypeResolutionVisitor {
         myInstanceEnvironment = instanceEnvironment;
         this.table = table;
         this.tm = tm;
+        this.matchCache = new TypeMatchCache(table);
+        this.overloadCache = new OverloadResolutionCache(table);
         this.err = instanceEnvironment.getErrorHandler();
     }
 
@@ -152,6 +163,13 @@ public class MathExpTypeResolver extends TypeResolutionVisitor {
         return tm;
     }
 
+    /** Returns the cache of outcomes from {@link #matchTypes matchTypes()}
+     *  for this resolver's type matcher.
+     */
+    public TypeMatchCache getTypeMatchCache() {
+        return matchCache;
+    }
+
     public SymbolTable getSymbolTable() {
         return table;
     }
@@ -276,12 +294,31 @@ public class MathExpTypeResolver extends TypeResolutionVisitor {
         return true;
     }
 
-    // Matches two math types t1 & t2
+    // Matches two math types t1 & t2.  Outcomes are cached; a failed match
+    // that must be reported is recomputed so the error names the right types.
     public boolean matchTypes(Location loc, Type t1, Type t2, boolean quiet,
             boolean strict) throws TypeResolutionException {
 
         if (t1 == null || t2 == null)
             return true;
+        Boolean cached = matchCache.getOutcome(t1, t2, strict);
+        if (cached != null && (cached || quiet)) {
+            return cached;
+        }
+        boolean matches;
+        try {
+            matches = computeMatchTypes(loc, t1, t2, quiet, strict);
+        }
+        catch (TypeResolutionException trex) {
+            matchCache.putOutcome(t1, t2, strict, false);
+            throw trex;
+        }
+        matchCache.putOutcome(t1, t2, strict, matches);
+        return matches;
+    }
+
+    private boolean computeMatchTypes(Location loc, Type t1, Type t2,
+            boolean quiet, boolean strict) throws TypeResolutionException {
         List<Type> t1Correspondences = table.getTypeCorrespondences(t1, tm);
         Iterator<Type> t1It = t1Correspondences.iterator();
         List<Type> t2Correspondences;
@@ -1344,7 +1381,7 @@ public class MathExpTypeResolver extends TypeResolutionVisitor {
         List<Type> argtypes = getFunctionExpParamList(exp);
         Type retType = null;
         if (exp.getBtype() == null) {
-            retType = tryParamTypeConfiguration(exp, argtypes, 0);
+            retType = resolveFunctionExpType(exp, argtypes);
         }
         else {
             retType = exp.getBtype();
@@ -1417,44 +1454,161 @@ public class MathExpTypeResolver extends TypeResolutionVisitor {
     return null;
     }*/
 
-    public Type tryParamTypeConfiguration(FunctionExp exp, List<Type> argtypes,
-            int whichArg) {
+    /** Returns the type of applying <code>exp</code> to arguments of the
+     *  given types in the current scope, or <code>null</code> if it cannot be
+     *  resolved, searching the correspondences of the argument types only if
+     *  this application has not been resolved in this scope before.
+     */
+    private Type resolveFunctionExpType(FunctionExp exp, List<Type> argtypes) {
+        Scope scope = table.getCurrentScope();
 
-        try {
-            if (exp.getName().getName().equals("NB")) {
-                System.out
-                        .println("MathExpTypeResolver.tryParamTypeConfiguration: "
-                                + argtypes);
-            }
+        Type retType;
+        OverloadResolutionCache.Resolution resolution =
+                overloadCache.getResolution(scope, exp.getQualifier(), exp
+                        .getName(), argtypes);
+
+        if (resolution == null) {
+            resolvedWithoutSettingType = false;
+            retType = tryParamTypeConfiguration(exp, argtypes, 0);
 
-            Type retType = getFunctionExpType2(exp, argtypes, true);
             if (retType != null) {
-                return retType;
+                overloadCache.putResolution(scope, exp.getQualifier(), exp
+                        .getName(), argtypes, retType,
+                        !resolvedWithoutSettingType);
             }
-            else {
-                throw new TypeResolutionException();
+        }
+        else {
+            retType = resolution.getType();
+            if (resolution.setsType()) {
+                exp.setType(retType);
             }
         }
+
+        return retType;
+    }
+
+    /** Tries <code>exp</code> against <code>argtypes</code> and then against
+     *  every configuration obtained by replacing the arguments from
+     *  <code>whichArg</code> on with types they correspond to, in order,
+     *  returning the first type found or <code>null</code> if there is none.
+     *  If nothing visible by <code>exp</code>'s name could accept arguments
+     *  of other types, only <code>argtypes</code> itself is tried.
+     */
+    public Type tryParamTypeConfiguration(FunctionExp exp, List<Type> argtypes,
+            int whichArg) {
+
+        int lastArg = argtypes.size();
+        if (exp.getQualifier() == null
+                && !hasCandidateOfArity(exp, argtypes.size())) {
+            lastArg = whichArg;
+        }
+
+        List<Type> configuration = new List<Type>();
+        configuration.addAll(argtypes);
+
+        return tryParamTypeConfiguration(exp, configuration, whichArg, lastArg,
+                false);
+    }
+
+    // Searches the configurations depth-first, changing configuration in
+    //     place and restoring it before returning.  Each argument's first
+    //     correspondence is the argument's own type, which leaves the
+    //     configuration as it was, so that configuration is not tried twice.
+    private Type tryParamTypeConfiguration(FunctionExp exp,
+            List<Type> configuration, int whichArg, int lastArg,
+            boolean alreadyTried) {
+
+        Type retType = null;
+        if (!alreadyTried) {
+            retType = tryConfiguration(exp, configuration);
+        }
+
+        if (retType == null && whichArg < lastArg) {
+            Type original = configuration.get(whichArg);
+            Iterator<Type> it =
+                    table.getTypeCorrespondences(original, tm).iterator();
+
+            Type next;
+            while (retType == null && it.hasNext()) {
+                next = it.next();
+                configuration.set(whichArg, next);
+                retType =
+                        tryParamTypeConfiguration(exp, configuration,
+                                whichArg + 1, lastArg, next == original);
+            }
+
+            configuration.set(whichArg, original);
+        }
+
+        return retType;
+    }
+
+    // Returns the type of exp applied to arguments of exactly the given types,
+    //     or null if it has none
+    private Type tryConfiguration(FunctionExp exp, List<Type> argtypes) {
+        if (exp.getName().getName().equals("NB")) {
+            System.out
+                    .println("MathExpTypeResolver.tryParamTypeConfiguration: "
+                            + argtypes);
+        }
+
+        Type retType;
+        try {
+            retType = getFunctionExpType2(exp, argtypes, true);
+        }
         catch (TypeResolutionException trex) {
-            if (whichArg >= argtypes.size()) {
-                return null;
+            retType = null;
+        }
+
+        return retType;
+    }
+
+    /** Returns true unless there is certainly no definition with
+     *  <code>exp</code>'s name taking <code>arity</code> arguments and no
+     *  function-valued variable by that name it could be applied to, in which
+     *  case the types of its arguments make no difference to whether it
+     *  resolves.
+     */
+    private boolean hasCandidateOfArity(FunctionExp exp, int arity) {
+        boolean retval = false;
+
+        DefinitionLocator locator =
+                new DefinitionLocator(table, false, tm, err);
+        try {
+            Iterator<DefinitionEntry> defs =
+                    locator.locateDefinitions(exp.getName()).iterator();
+            while (!retval && defs.hasNext()) {
+                retval = (countParameters(defs.next()) == arity);
             }
-            List<Type> whichArgTypes =
-                    table.getTypeCorrespondences(argtypes.get(whichArg), tm);
-            Iterator<Type> it = whichArgTypes.iterator();
-            List<Type> newArgs = null;
-            Type retValue = null;
-            while (it.hasNext()) {
-                newArgs = new List<Type>();
-                newArgs.addAll(argtypes);
-                newArgs.set(whichArg, it.next());
-                retValue =
-                        tryParamTypeConfiguration(exp, newArgs, whichArg + 1);
-                if (retValue != null)
-                    return retValue;
+        }
+        catch (SymbolSearchException ex) {
+            retval = true;
+        }
+
+        if (!retval && arity == 1) {
+            VariableLocator vlocator = new VariableLocator(table, false, err);
+            try {
+                vlocator.locateMathVariable(exp.getName());
+                retval = true;
             }
-            return null;
+            catch (SymbolSearchException ex) {
+                retval = false;
+            }
+        }
+
+        return retval;
+    }
+
+    private int countParameters(DefinitionEntry def) {
+        int count = 0;
+
+        Iterator<VarEntry> params = def.getParameters();
+        while (params.hasNext()) {
+            params.next();
+            count++;
         }
+
+        return count;
     }
 
     public Type getFunctionExpType2(FunctionExp exp, List<Type> argtypes,
@@ -1518,6 +1672,7 @@ public class MathExpTypeResolver extends TypeResolutionVisitor {
                 //if(tempT instanceof FunctionType || tempT instanceof TupleType) {
                 //	throw new TypeResolutionException();
                 if (tempT instanceof FunctionType) {
+                    resolvedWithoutSettingType = true;
                     return ((FunctionType) tempT).getRange();
                 }
                 else if (tempT instanceof TupleType) {
@@ -0,0 +1,223 @@
+package edu.clemson.cs.r2jt.analysis;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import edu.clemson.cs.r2jt.data.PosSymbol;
+import edu.clemson.cs.r2jt.scope.Scope;
+import edu.clemson.cs.r2jt.scope.SymbolTable;
+import edu.clemson.cs.r2jt.type.Type;
+
+/**
+ * <p>An <code>OverloadResolutionCache</code> remembers the type each function
+ * application resolved to, keyed on the scope it appeared in, its qualifier
+ * and name, and the types of its arguments, so that
+ * {@link MathExpTypeResolver#getFunctionExpType getFunctionExpType()} need
+ * only search the correspondences of an operator's argument types once for
+ * each way it is applied in a scope.  A theory that applies the same
+ * overloaded operator to the same types over and over resolves it once.</p>
+ *
+ * <p>Only successful resolutions are kept, since a function that cannot be
+ * resolved now may be once more of the module has been analyzed.  Everything
+ * is forgotten whenever the type correspondences visible from the resolver's
+ * symbol table change, and a scope's resolutions are forgotten whenever the
+ * definitions visible from it do.  Scopes and types compare by identity, and
+ * entries are held only as long as their scope is otherwise reachable.</p>
+ *
+ * <p>A cache must only be used with a single <code>TypeMatcher</code>, like a
+ * {@link TypeMatchCache}.  It is safe to share between threads.</p>
+ */
+public class OverloadResolutionCache {
+
+    private final Map<Scope, ScopeResolutions> myResolutions =
+            new WeakHashMap<Scope, ScopeResolutions>();
+
+    private final SymbolTable myTable;
+
+    private long myVersion = -1;
+
+    /**
+     * <p>Creates an empty cache for a resolver working in <code>table</code>,
+     * whose visible type correspondences and definitions decide when entries
+     * go stale.  <code>table</code> may be <code>null</code>, in which case
+     * entries never do.</p>
+     */
+    public OverloadResolutionCache(SymbolTable table) {
+        myTable = table;
+    }
+
+    /**
+     * <p>Returns the resolution recorded for applying the named function to
+     * arguments of the given types in <code>scope</code>, or <code>null</code>
+     * if there is none.</p>
+     */
+    public synchronized Resolution getResolution(Scope scope,
+            PosSymbol qualifier, PosSymbol name,
+            java.util.List<Type> argTypes) {
+
+        Resolution retval = null;
+
+        Map<Application, Resolution> resolutions =
+                getResolutionsFor(scope, false);
+        if (resolutions != null) {
+            retval =
+                    resolutions.get(new Application(qualifier, name, argTypes));
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Records the type that applying the named function to arguments of the
+     * given types in <code>scope</code> resolved to, and whether resolving it
+     * gave that type to the application.</p>
+     */
+    public synchronized void putResolution(Scope scope, PosSymbol qualifier,
+            PosSymbol name, java.util.List<Type> argTypes, Type resolution,
+            boolean setsType) {
+
+        getResolutionsFor(scope, true).put(
+                new Application(qualifier, name, argTypes),
+                new Resolution(resolution, setsType));
+    }
+
+    /**
+     * <p>Forgets every recorded resolution.</p>
+     */
+    public synchronized void clear() {
+        myResolutions.clear();
+    }
+
+    private Map<Application, Resolution> getResolutionsFor(Scope scope,
+            boolean create) {
+
+        long version = 0;
+        long definitionVersion = 0;
+        if (myTable != null) {
+            version = myTable.getCorrespondenceVersion();
+            definitionVersion = myTable.getDefinitionVersion();
+        }
+        if (version != myVersion) {
+            clear();
+            myVersion = version;
+        }
+
+        ScopeResolutions resolutions = myResolutions.get(scope);
+        if (resolutions != null
+                && resolutions.myDefinitionVersion != definitionVersion) {
+            myResolutions.remove(scope);
+            resolutions = null;
+        }
+        if (resolutions == null && create) {
+            resolutions = new ScopeResolutions(definitionVersion);
+            myResolutions.put(scope, resolutions);
+        }
+
+        Map<Application, Resolution> retval = null;
+        if (resolutions != null) {
+            retval = resolutions.myResolutions;
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>The type an application resolved to, and whether resolving it also
+     * gave the application that type.</p>
+     */
+    public static class Resolution {
+
+        private final Type myType;
+        private final boolean mySetsType;
+
+        public Resolution(Type type, boolean setsType) {
+            myType = type;
+            mySetsType = setsType;
+        }
+
+        public Type getType() {
+            return myType;
+        }
+
+        public boolean setsType() {
+            return mySetsType;
+        }
+    }
+
+    /**
+     * <p>The resolutions recorded in one scope, all made while the definitions
+     * visible from it were at the given version.</p>
+     */
+    private static class ScopeResolutions {
+
+        private final long myDefinitionVersion;
+
+        private final Map<Application, Resolution> myResolutions =
+                new HashMap<Application, Resolution>();
+
+        public ScopeResolutions(long definitionVersion) {
+            myDefinitionVersion = definitionVersion;
+        }
+    }
+
+    /**
+     * <p>A function name together with the types of the arguments it is
+     * applied to, compared by identity.</p>
+     */
+    private static class Application {
+
+        private final String myQualifier;
+        private final String myName;
+        private final Type[] myArgTypes;
+        private final int myHashCode;
+
+        public Application(PosSymbol qualifier, PosSymbol name,
+                java.util.List<Type> argTypes) {
+
+            myQualifier = (qualifier == null) ? null : qualifier.getName();
+            myName = name.getName();
+            myArgTypes = argTypes.toArray(new Type[argTypes.size()]);
+
+            int hash = myName.hashCode();
+            for (Type t : myArgTypes) {
+                hash = 31 * hash + System.identityHashCode(t);
+            }
+            myHashCode = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            boolean retval = (o instanceof Application);
+
+            if (retval) {
+                Application other = (Application) o;
+
+                retval =
+                        myHashCode == other.myHashCode
+                                && myName.equals(other.myName)
+                                && (myQualifier == null
+                                        ? other.myQualifier == null
+                                        : myQualifier.equals(other.myQualifier))
+                                && myArgTypes.length == other.myArgTypes.length;
+
+                for (int i = 0; retval && i < myArgTypes.length; i++) {
+                    retval = (myArgTypes[i] == other.myArgTypes[i]);
+                }
+            }
+
+            return retval;
+        }
+
+        @Override
+        public int hashCode() {
+            return myHashCode;
+        }
+
+        @Override
+        public String toString() {
+            return myName + Arrays.toString(myArgTypes);
+        }
+    }
+}
@@ -59,6 +59,8 @@
 
 package edu.clemson.cs.r2jt.analysis;
 
+import java.io.Serializable;
+
 import edu.clemson.cs.r2jt.type.Type;
 
 /**
@@ -67,7 +69,9 @@ import edu.clemson.cs.r2jt.type.Type;
  * <code>type1</code> is the type you'd like and <code>type2</code> is the type
  * you're willing to accept.</p>
  */
-public class TypeCorrespondence {
+public class TypeCorrespondence implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private Type type1;
 
@@ -0,0 +1,109 @@
+package edu.clemson.cs.r2jt.analysis;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import edu.clemson.cs.r2jt.scope.SymbolTable;
+import edu.clemson.cs.r2jt.type.Type;
+
+/**
+ * <p>A <code>TypeMatchCache</code> remembers the outcome of matching one math
+ * type against another, in either strict or loose mode, so that the
+ * correspondence search behind
+ * {@link MathExpTypeResolver#matchTypes matchTypes()} need only be done once
+ * per pair of types.</p>
+ * 
+ * <p>Outcomes are forgotten whenever the type correspondences visible from
+ * the resolver's symbol table change.  Types compare by identity, and
+ * entries are held only as long as their first type is otherwise
+ * reachable.</p>
+ * 
+ * <p>A cache must only be used with a single <code>TypeMatcher</code>, since
+ * matchers record bindings for formal types as they go.  It is safe to share
+ * between threads.</p>
+ */
+public class TypeMatchCache {
+
+    private final Map<Type, Map<Type, Boolean>> myStrictOutcomes =
+            new WeakHashMap<Type, Map<Type, Boolean>>();
+
+    private final Map<Type, Map<Type, Boolean>> myLooseOutcomes =
+            new WeakHashMap<Type, Map<Type, Boolean>>();
+
+    private final SymbolTable myTable;
+
+    private long myVersion = -1;
+
+    /**
+     * <p>Creates an empty cache for a resolver working in <code>table</code>,
+     * whose visible type correspondences decide when entries go stale.
+     * <code>table</code> may be <code>null</code>, in which case entries
+     * never do.</p>
+     */
+    public TypeMatchCache(SymbolTable table) {
+        myTable = table;
+    }
+
+    /**
+     * <p>Returns the recorded outcome of matching <code>t1</code> against
+     * <code>t2</code> in the given mode, or <code>null</code> if there is
+     * none.</p>
+     */
+    public synchronized Boolean getOutcome(Type t1, Type t2, boolean strict) {
+        Boolean retval = null;
+
+        Map<Type, Boolean> outcomes = getOutcomesFor(t1, strict, false);
+        if (outcomes != null) {
+            retval = outcomes.get(t2);
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Records the outcome of matching <code>t1</code> against
+     * <code>t2</code> in the given mode.</p>
+     */
+    public synchronized void putOutcome(Type t1, Type t2, boolean strict,
+            boolean matches) {
+
+        getOutcomesFor(t1, strict, true).put(t2, matches);
+    }
+
+    /**
+     * <p>Forgets every recorded outcome.</p>
+     */
+    public synchronized void clear() {
+        myStrictOutcomes.clear();
+        myLooseOutcomes.clear();
+    }
+
+    private Map<Type, Boolean> getOutcomesFor(Type t1, boolean strict,
+            boolean create) {
+
+        long version = 0;
+        if (myTable != null) {
+            version = myTable.getCorrespondenceVersion();
+        }
+        if (version != myVersion) {
+            clear();
+            myVersion = version;
+        }
+
+        Map<Type, Map<Type, Boolean>> outcomes;
+        if (strict) {
+            outcomes = myStrictOutcomes;
+        }
+        else {
+            outcomes = myLooseOutcomes;
+        }
+
+        Map<Type, Boolean> retval = outcomes.get(t1);
+        if (retval == null && create) {
+            retval = new WeakHashMap<Type, Boolean>();
+            outcomes.put(t1, retval);
+        }
+
+        return retval;
+    }
+}
@@ -1,5 +1,7 @@
 package edu.clemson.cs.r2jt.compilereport;
 
+import java.util.LinkedList;
+
 import edu.clemson.cs.r2jt.ResolveCompiler;
 import edu.clemson.cs.r2jt.collections.List;
 
@@ -14,7 +16,10 @@ public class CompileReport {
     private boolean jar = false;
     private boolean error = false;
     private String facilityName = "";
-    private String proveVCs = null;
+    private StringBuilder proveVCs = null;
+    private boolean myRetainProveVCs = true;
+    private java.util.List<VCResultListener> myVCResultListeners =
+            new LinkedList<VCResultListener>();
     private boolean myErrors = false;
     private StringBuilder myErrorBuffer = new StringBuilder();
     private boolean myBugReports = false;
@@ -51,7 +56,54 @@ public class CompileReport {
     }
 
     public void setProveVCs(String s) {
-        proveVCs = s;
+        proveVCs = new StringBuilder(s);
+    }
+
+    /**
+     * <p>Starts the VC text of a new module, so that
+     * <code>getProveVCs()</code> returns only that module's VCs, as it did
+     * when each module's prover replaced the text.  Listeners are not
+     * affected.</p>
+     */
+    public void startProveVCs() {
+        proveVCs = null;
+    }
+
+    /**
+     * <p>Records the result of one VC: appends its text to what
+     * <code>getProveVCs()</code> returns for the current module and passes it
+     * to each listener.  The text is only appended, so reporting <em>n</em>
+     * VCs costs time linear in their total length.</p>
+     */
+    public void addVCResult(VCResult result) {
+        if (myRetainProveVCs) {
+            if (proveVCs == null) {
+                proveVCs = new StringBuilder();
+            }
+            proveVCs.append(result.getReportText());
+        }
+
+        for (VCResultListener l : myVCResultListeners) {
+            l.vcFinished(result);
+        }
+    }
+
+    public void addVCResultListener(VCResultListener l) {
+        myVCResultListeners.add(l);
+    }
+
+    public void removeVCResultListener(VCResultListener l) {
+        myVCResultListeners.remove(l);
+    }
+
+    /**
+     * <p>A host that takes each result from a listener can turn this off, so
+     * the report does not also keep the text of every VC until the compile
+     * ends.  <code>getProveVCs()</code> then returns only text set by
+     * <code>setProveVCs()</code>.</p>
+     */
+    public void setRetainProveVCs(boolean retain) {
+        myRetainProveVCs = retain;
     }
 
     public void setTranslateSuccess() {
@@ -83,7 +135,11 @@ public class CompileReport {
     }
 
     public String getProveVCs() {
-        return proveVCs;
+        String retval = null;
+        if (proveVCs != null) {
+            retval = proveVCs.toString();
+        }
+        return retval;
     }
 
     public boolean translateSuccess() {
@@ -0,0 +1,70 @@
+package edu.clemson.cs.r2jt.compilereport;
+
+/**
+ * <p>The result of one attempt to prove a VC, as reported to
+ * {@link VCResultListener}s when the attempt finishes.</p>
+ */
+public class VCResult {
+
+    public static enum Status {
+        PROVED, TIMED_OUT, SKIPPED
+    }
+
+    private final String myName;
+    private final Status myStatus;
+    private final long myMilliseconds;
+    private final long myProofsConsidered;
+    private final long myBacktracks;
+    private final String myReportText;
+
+    public VCResult(String name, Status status, long milliseconds,
+            long proofsConsidered, long backtracks, String reportText) {
+        myName = name;
+        myStatus = status;
+        myMilliseconds = milliseconds;
+        myProofsConsidered = proofsConsidered;
+        myBacktracks = backtracks;
+        myReportText = reportText;
+    }
+
+    public String getName() {
+        return myName;
+    }
+
+    public Status getStatus() {
+        return myStatus;
+    }
+
+    public boolean isProved() {
+        return myStatus == Status.PROVED;
+    }
+
+    /**
+     * <p>Returns how long the attempt took, in milliseconds.</p>
+     */
+    public long getMilliseconds() {
+        return myMilliseconds;
+    }
+
+    /**
+     * <p>Returns the number of proofs the prover directly considered.</p>
+     */
+    public long getProofsConsidered() {
+        return myProofsConsidered;
+    }
+
+    /**
+     * <p>Returns the number of useful backtracks the prover performed.</p>
+     */
+    public long getBacktracks() {
+        return myBacktracks;
+    }
+
+    /**
+     * <p>Returns the text the prover writes for this VC, in the format of
+     * {@link CompileReport#getProveVCs() getProveVCs()}.</p>
+     */
+    public String getReportText() {
+        return myReportText;
+    }
+}
@@ -0,0 +1,16 @@
+package edu.clemson.cs.r2jt.compilereport;
+
+/**
+ * <p>Receives the result of each VC as the prover finishes with it, so that a
+ * host such as the web interface can show results while the compile is still
+ * running.</p>
+ */
+public interface VCResultListener {
+
+    /**
+     * <p>Called on the compiling thread, in VC order, once for each VC.</p>
+     *
+     * @param result The result of proving the VC.
+     */
+    public void vcFinished(VCResult result);
+}
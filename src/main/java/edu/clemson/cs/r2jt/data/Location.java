@@ -64,7 +64,9 @@ import edu.clemson.cs.r2jt.absyn.EqualsExp;
 import edu.clemson.cs.r2jt.absyn.Exp;
 import edu.clemson.cs.r2jt.init.Environment;
 
-public class Location {
+public class Location implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     // ===========================================================
     // Variables
@@ -120,10 +122,7 @@ public class Location {
     public String printErrorLine() {
         StringBuffer sb = new StringBuffer();
         try {
-            FileReader fileReader = new FileReader(file);
-            LineNumberReader reader = new LineNumberReader(fileReader);
-            reader.setLineNumber(pos.getLine());
-            sb.append(reader.readLine() + "\n");
+            sb.append(SourceText.load(file).getLine(pos.getLine()) + "\n");
             sb.append(printSpace(pos.getColumn()));
             sb.append("^\n");
         }
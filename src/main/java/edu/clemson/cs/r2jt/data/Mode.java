@@ -59,8 +59,12 @@
 
 package edu.clemson.cs.r2jt.data;
 
+import java.io.Serializable;
+
 /** Provides access to type checkable variable modes. */
-public class Mode {
+public class Mode implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     // ===========================================================
     // Variables
@@ -100,6 +104,11 @@ public class Mode {
     public final static Mode EXEMPLAR = new Mode("Exemplar");
     public final static Mode MATH_FIELD = new Mode("Math_Field");
 
+    private final static Mode[] ALL_MODES =
+            { UPDATES, RESTORES, REPLACES, PRESERVES, EVALUATES, REASSIGNS,
+                    CLEARS, ALTERS, STATE, OPER_NAME, LOCAL, FIELD, MATH,
+                    DEFINITION, DEF_PARAM, CONCEPTUAL, EXEMPLAR, MATH_FIELD };
+
     // ===========================================================
     // Public Methods
     // ===========================================================
@@ -443,4 +452,15 @@ public class Mode {
         }
         return result;
     }
+
+    /** Keeps the constants unique when a mode is read back from disk. */
+    private Object readResolve() {
+        Mode result = this;
+        for (int i = 0; i < ALL_MODES.length; i++) {
+            if (ALL_MODES[i].modeName.equals(modeName)) {
+                result = ALL_MODES[i];
+            }
+        }
+        return result;
+    }
 }
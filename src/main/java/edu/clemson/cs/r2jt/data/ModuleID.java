@@ -58,9 +58,13 @@
 
 package edu.clemson.cs.r2jt.data;
 
+import java.io.Serializable;
+
 import edu.clemson.cs.r2jt.absyn.*;
 
-public class ModuleID {
+public class ModuleID implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     // ===========================================================
     // Variables
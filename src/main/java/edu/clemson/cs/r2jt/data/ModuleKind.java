@@ -59,8 +59,12 @@
 
 package edu.clemson.cs.r2jt.data;
 
+import java.io.Serializable;
+
 /** Provides access to type checkable module types. */
-public class ModuleKind {
+public class ModuleKind implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     // ===========================================================
     // Variables 
@@ -99,6 +103,11 @@ public class ModuleKind {
             new ModuleKind("Performance Module");
     public final static ModuleKind UNDEFINED = new ModuleKind("Undefined");
 
+    private final static ModuleKind[] ALL_KINDS =
+            { THEORY, PROOFS, CONCEPT, ENHANCEMENT, REALIZATION, CONCEPT_BODY,
+                    ENHANCEMENT_BODY, FACILITY, LONG_FACILITY, SHORT_FACILITY,
+                    USES_ITEM, PERFORMANCE, UNDEFINED };
+
     // ===========================================================
     // Public Methods
     // ===========================================================
@@ -138,4 +147,14 @@ public class ModuleKind {
         return name;
     }
 
+    /** Keeps the constants unique when a kind is read back from disk. */
+    private Object readResolve() {
+        ModuleKind result = this;
+        for (int i = 0; i < ALL_KINDS.length; i++) {
+            if (ALL_KINDS[i].name.equals(name)) {
+                result = ALL_KINDS[i];
+            }
+        }
+        return result;
+    }
 }
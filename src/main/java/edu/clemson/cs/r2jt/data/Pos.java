@@ -59,11 +59,15 @@
 
 package edu.clemson.cs.r2jt.data;
 
+import java.io.Serializable;
+
 /**
  * This class stores two integers representing the line and column
  * position in an input file.
  */
-public class Pos {
+public class Pos implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     // ===========================================================
     // Variables
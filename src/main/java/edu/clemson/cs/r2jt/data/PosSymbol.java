@@ -59,8 +59,11 @@
 package edu.clemson.cs.r2jt.data;
 
 import java.io.File;
+import java.io.Serializable;
 
-public class PosSymbol implements AsStringCapability {
+public class PosSymbol implements AsStringCapability, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     // ===========================================================
     // Variables
@@ -0,0 +1,206 @@
+package edu.clemson.cs.r2jt.data;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * <p>The text of a source file, loaded once and indexed by the offset at which
+ * each line starts, so that any line can be fetched without reading the file
+ * again from the top.</p>
+ *
+ * <p>Files are decoded with the platform's default encoding, just as
+ * <code>ANTLRFileStream</code> decodes them, so the lexer can work from the
+ * same characters.  Large files are memory-mapped rather than read through a
+ * stream.  A line ends at <code>\n</code>, <code>\r</code> or
+ * <code>\r\n</code>, as it does for <code>LineNumberReader</code>.</p>
+ */
+public class SourceText {
+
+    /**
+     * <p>Files at least this long are memory-mapped.</p>
+     */
+    private static final long MAP_THRESHOLD = 1 << 20;
+
+    private final char[] myText;
+    private final int myLength;
+
+    /**
+     * <p>The offset of the first character of each line.  Line
+     * <code>n</code> starts at <code>myLineStarts[n - 1]</code>.</p>
+     */
+    private final int[] myLineStarts;
+
+    private final long myLastModified;
+    private final long myFileLength;
+
+    public SourceText(String text) {
+        this(text.toCharArray(), text.length(), 0, -1);
+    }
+
+    private SourceText(char[] text, int length, long lastModified,
+            long fileLength) {
+        myText = text;
+        myLength = length;
+        myLastModified = lastModified;
+        myFileLength = fileLength;
+        myLineStarts = indexLines(text, length);
+    }
+
+    /**
+     * <p>Loads the text of <code>file</code>.</p>
+     *
+     * @param file The source file.
+     *
+     * @return Its text.
+     *
+     * @throws IOException If the file cannot be read.
+     */
+    public static SourceText load(File file) throws IOException {
+        long lastModified = file.lastModified();
+        long fileLength = file.length();
+
+        CharBuffer chars;
+        FileInputStream in = new FileInputStream(file);
+        try {
+            if (fileLength >= MAP_THRESHOLD) {
+                FileChannel channel = in.getChannel();
+                MappedByteBuffer bytes =
+                        channel.map(FileChannel.MapMode.READ_ONLY, 0, channel
+                                .size());
+                chars = Charset.defaultCharset().decode(bytes);
+            }
+            else {
+                chars = readAll(new InputStreamReader(in), (int) fileLength);
+            }
+        }
+        finally {
+            in.close();
+        }
+
+        char[] text;
+        if (chars.hasArray() && chars.arrayOffset() == 0) {
+            text = chars.array();
+        }
+        else {
+            text = new char[chars.remaining()];
+            chars.get(text);
+        }
+
+        return new SourceText(text, chars.limit(), lastModified, fileLength);
+    }
+
+    /**
+     * <p>Returns <code>true</code> <strong>iff</strong> this text was loaded
+     * from <code>file</code> as it is now, judging by its modification time
+     * and length.</p>
+     *
+     * @param file The file this text was loaded from.
+     *
+     * @return Whether the file is unchanged since it was loaded.
+     */
+    public boolean isCurrent(File file) {
+        return myFileLength >= 0 && file.lastModified() == myLastModified
+                && file.length() == myFileLength;
+    }
+
+    /**
+     * <p>Returns the characters of the text.  Only the first
+     * {@link #getLength() getLength()} are part of it, and the array must not
+     * be modified.  This lets a lexer read the text without copying it.</p>
+     *
+     * @return The characters.
+     */
+    public char[] getCharacters() {
+        return myText;
+    }
+
+    public int getLength() {
+        return myLength;
+    }
+
+    public int getLineCount() {
+        return myLineStarts.length;
+    }
+
+    /**
+     * <p>Returns line <code>n</code> of the text, without its line terminator,
+     * or <code>null</code> if there is no such line.</p>
+     *
+     * @param n The line number, counting from 1.
+     *
+     * @return The line.
+     */
+    public String getLine(int n) {
+        String retval = null;
+
+        if (n >= 1 && n <= myLineStarts.length) {
+            int start = myLineStarts[n - 1];
+            int end = start;
+            while (end < myLength && myText[end] != '\n'
+                    && myText[end] != '\r') {
+                end++;
+            }
+
+            retval = new String(myText, start, end - start);
+        }
+
+        return retval;
+    }
+
+    private static CharBuffer readAll(Reader reader, int expectedLength)
+            throws IOException {
+
+        char[] buffer = new char[Math.max(expectedLength, 16)];
+        int length = 0;
+
+        int read = reader.read(buffer, length, buffer.length - length);
+        while (read != -1) {
+            length += read;
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            read = reader.read(buffer, length, buffer.length - length);
+        }
+
+        return CharBuffer.wrap(buffer, 0, length);
+    }
+
+    private static int[] indexLines(char[] text, int length) {
+        int[] starts = new int[16];
+        int count = 0;
+
+        starts[count++] = 0;
+        for (int i = 0; i < length; i++) {
+            boolean endOfLine = false;
+
+            if (text[i] == '\n') {
+                endOfLine = true;
+            }
+            else if (text[i] == '\r') {
+                endOfLine = true;
+                if (i + 1 < length && text[i + 1] == '\n') {
+                    i++;
+                }
+            }
+
+            //As with LineNumberReader, a terminator at the very end does not
+            //begin another line
+            if (endOfLine && i + 1 < length) {
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                }
+                starts[count++] = i + 1;
+            }
+        }
+
+        return Arrays.copyOf(starts, count);
+    }
+}
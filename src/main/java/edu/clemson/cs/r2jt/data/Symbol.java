@@ -59,9 +59,15 @@
 
 package edu.clemson.cs.r2jt.data;
 
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
 import edu.clemson.cs.r2jt.collections.Map;
 
-public class Symbol implements Comparable<Symbol> {
+public class Symbol implements Comparable<Symbol>, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     // ===========================================================
     // Variables
@@ -69,7 +75,15 @@ public class Symbol implements Comparable<Symbol> {
 
     private String name;
 
-    private static java.util.Dictionary dict = new java.util.Hashtable();
+    /**
+     * <p>The interned symbols.  Entries are held weakly, so that in a process
+     * that outlives many compilations, such as a compile server, the symbols
+     * of modules that are no longer referenced can be collected.  A symbol
+     * that is still in use keeps its name, and therefore its entry, alive,
+     * so identity comparison is unaffected.</p>
+     */
+    private static final WeakHashMap<String, WeakReference<Symbol>> dict =
+            new WeakHashMap<String, WeakReference<Symbol>>();
 
     // ===========================================================
     // Constructors
@@ -95,13 +109,17 @@ public class Symbol implements Comparable<Symbol> {
         return (this == sym);
     }
 
-    /** Returns the unique symbol associated with a string. */
-    public static Symbol symbol(String str) {
+    /**
+     * Returns the unique symbol associated with a string.  Synchronized
+     * because modules may be parsed on several threads at once.
+     */
+    public static synchronized Symbol symbol(String str) {
         String inStr = str.intern();
-        Symbol sym = (Symbol) dict.get(inStr);
+        WeakReference<Symbol> ref = dict.get(inStr);
+        Symbol sym = (ref == null) ? null : ref.get();
         if (sym == null) {
             sym = new Symbol(inStr);
-            dict.put(inStr, sym);
+            dict.put(inStr, new WeakReference<Symbol>(sym));
         }
         return sym;
     }
@@ -127,4 +145,9 @@ public class Symbol implements Comparable<Symbol> {
     public int compareTo(Symbol o) {
         return name.compareTo(o.name);
     }
+
+    /** Symbols are compared by identity, so a read one must be interned. */
+    private Object readResolve() {
+        return Symbol.symbol(name);
+    }
 }
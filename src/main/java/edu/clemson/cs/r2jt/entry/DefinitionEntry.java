@@ -72,6 +72,8 @@ import edu.clemson.cs.r2jt.type.Type;
 
 public class DefinitionEntry extends Entry {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
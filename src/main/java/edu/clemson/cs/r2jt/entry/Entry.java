@@ -59,11 +59,15 @@
 
 package edu.clemson.cs.r2jt.entry;
 
+import java.io.Serializable;
+
 import edu.clemson.cs.r2jt.data.Location;
 import edu.clemson.cs.r2jt.data.PosSymbol;
 import edu.clemson.cs.r2jt.data.Symbol;
 
-public abstract class Entry {
+public abstract class Entry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     public abstract Location getLocation();
 
@@ -68,6 +68,8 @@ import edu.clemson.cs.r2jt.scope.ModuleScope;
 
 public class ModuleEntry extends Entry {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
@@ -66,6 +66,8 @@ import edu.clemson.cs.r2jt.data.Symbol;
 
 public class TheoremEntry extends Entry {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
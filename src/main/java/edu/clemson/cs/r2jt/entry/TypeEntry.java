@@ -71,6 +71,8 @@ import edu.clemson.cs.r2jt.type.Type;
 
 public class TypeEntry extends Entry {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
@@ -70,6 +70,8 @@ import edu.clemson.cs.r2jt.type.Type;
 
 public class VarEntry extends Entry {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
@@ -65,8 +65,8 @@ import antlr.Token;
 import antlr.collections.AST;
 import java.io.*;
 import edu.clemson.cs.r2jt.data.Location;
-import edu.clemson.cs.r2jt.data.MetaFile;
 import edu.clemson.cs.r2jt.data.Pos;
+import edu.clemson.cs.r2jt.data.SourceText;
 import edu.clemson.cs.r2jt.init.CompileEnvironment;
 import edu.clemson.cs.r2jt.init.Environment;
 import edu.clemson.cs.r2jt.parsing.ColsAST;
@@ -90,7 +90,11 @@ public class ErrorHandler {
 
     /* The "true" argument indicates that calls to out.println() will
      * flush the buffer. */
-    private static PrintWriter err = new PrintWriter(System.err, true);
+    private static final PrintWriter STANDARD_ERROR =
+            new PrintWriter(System.err, true);
+
+    /* Where this handler's output goes. */
+    private final PrintWriter err;
 
     private int errorCount = 0;
 
@@ -106,6 +110,11 @@ public class ErrorHandler {
 
     private boolean webOutput;
 
+    /* The handler, if any, that everything reported through this one on a
+     * given thread goes to instead. */
+    private final ThreadLocal<ErrorHandler> myRedirection =
+            new ThreadLocal<ErrorHandler>();
+
     // ===========================================================
     // Constructors
     // ===========================================================
@@ -115,34 +124,79 @@ public class ErrorHandler {
 
     public ErrorHandler(CompileEnvironment env) {
         myInstanceEnvironment = env;
+        err = STANDARD_ERROR;
         webOutput = env.flags.isFlagSet(ResolveCompiler.FLAG_WEB);
     }
 
+    /**
+     * Creates a handler that writes everything to <code>output</code> instead
+     * of standard error or the compile report, for work whose diagnostics
+     * may be thrown away, such as parsing ahead on another thread.
+     */
+    public ErrorHandler(CompileEnvironment env, PrintWriter output) {
+        myInstanceEnvironment = env;
+        err = output;
+        webOutput = false;
+    }
+
     // ===========================================================
     // Accessor Methods
     // ===========================================================
 
     public void setIgnore(boolean ignore) {
+        ErrorHandler redirection = myRedirection.get();
+        if (redirection != null) {
+            redirection.setIgnore(ignore);
+            return;
+        }
+
         ignoreErrors = ignore;
     }
 
     public boolean getIgnore() {
+        ErrorHandler redirection = myRedirection.get();
+        if (redirection != null) {
+            return redirection.getIgnore();
+        }
+
         return ignoreErrors;
     }
 
     public String getFilename() {
+        ErrorHandler redirection = myRedirection.get();
+        if (redirection != null) {
+            return redirection.getFilename();
+        }
+
         return filename;
     }
 
     public void setFilename(String filename) {
+        ErrorHandler redirection = myRedirection.get();
+        if (redirection != null) {
+            redirection.setFilename(filename);
+            return;
+        }
+
         this.filename = filename;
     }
 
     public File getFile() {
+        ErrorHandler redirection = myRedirection.get();
+        if (redirection != null) {
+            return redirection.getFile();
+        }
+
         return myFile;
     }
 
     public void setFile(File file) {
+        ErrorHandler redirection = myRedirection.get();
+        if (redirection != null) {
+            redirection.setFile(file);
+            return;
+        }
+
         this.myFile = file;
     }
 
@@ -161,6 +215,12 @@ public class ErrorHandler {
 
     /** Outputs an informational message, not an error or warning. */
     public void message(String msg) {
+        ErrorHandler redirection = myRedirection.get();
+        if (redirection != null) {
+            redirection.message(msg);
+            return;
+        }
+
         if (!myInstanceEnvironment.debugOff()) {
             err.println(msg);
         }
@@ -202,6 +262,12 @@ public class ErrorHandler {
 
     /** Outputs an error message. */
     public void error(String msg) {
+        ErrorHandler redirection = myRedirection.get();
+        if (redirection != null) {
+            redirection.error(msg);
+            return;
+        }
+
         //doError("Error:" + filename + ":" + msg);
         if (webOutput) {
 
@@ -213,6 +279,12 @@ public class ErrorHandler {
 
     /** Outputs a positioned error message. */
     public void error(Pos pos, String msg) {
+        ErrorHandler redirection = myRedirection.get();
+        if (redirection != null) {
+            redirection.error(pos, msg);
+            return;
+        }
+
         if (webOutput) {
             String newMsg = msg + "\n" + printErrorLine(myFile, pos);
             doError(myFile.getName(), pos.getLine(), newMsg);
@@ -225,6 +297,12 @@ public class ErrorHandler {
 
     /** Outputs a positioned error message. */
     public void error(Location location, String msg) {
+        ErrorHandler redirection = myRedirection.get();
+        if (redirection != null) {
+            redirection.error(location, msg);
+            return;
+        }
+
         if (location == null) {
             error(msg);
         }
@@ -247,6 +325,12 @@ public class ErrorHandler {
 
     /** Outputs a positioned error message comparing two lines of code. */
     public void error(Location location1, Location location2, String msg) {
+        ErrorHandler redirection = myRedirection.get();
+        if (redirection != null) {
+            redirection.error(location1, location2, msg);
+            return;
+        }
+
         if (location1 == null) {
             error(msg);
         }
@@ -280,12 +364,24 @@ public class ErrorHandler {
 
     /** Outputs a warning message. */
     public void warning(String msg) {
+        ErrorHandler redirection = myRedirection.get();
+        if (redirection != null) {
+            redirection.warning(msg);
+            return;
+        }
+
         warningCount++;
         err.println("Warning:" + filename + ":" + msg);
     }
 
     /** Outputs a positioned warning message. */
     public void warning(Pos pos, String msg) {
+        ErrorHandler redirection = myRedirection.get();
+        if (redirection != null) {
+            redirection.warning(pos, msg);
+            return;
+        }
+
         warningCount++;
         err.println("Warning:" + filename + ":" + pos.getLine() + ","
                 + pos.getColumn() + ": " + msg);
@@ -293,12 +389,24 @@ public class ErrorHandler {
 
     /** Outputs a positioned warning message. */
     public void warning(Location location, String msg) {
+        ErrorHandler redirection = myRedirection.get();
+        if (redirection != null) {
+            redirection.warning(location, msg);
+            return;
+        }
+
         warningCount++;
         err.println("Warning: " + location.toString() + ": " + msg);
     }
 
     /** Outputs a panic message as a bug report */
     public void panic(String msg) {
+        ErrorHandler redirection = myRedirection.get();
+        if (redirection != null) {
+            redirection.panic(msg);
+            return;
+        }
+
         BugReport bug = new BugReport(msg);
         err.println("PANIC: " + bug.getReport());
         throw new RuntimeException();
@@ -306,6 +414,12 @@ public class ErrorHandler {
 
     /** Outputs a positioned panic message as a bug report. */
     public void panic(Pos pos, String msg) {
+        ErrorHandler redirection = myRedirection.get();
+        if (redirection != null) {
+            redirection.panic(pos, msg);
+            return;
+        }
+
         BugReport bug = new BugReport(msg);
         err.println("PANIC: " + pos.getLine() + "," + pos.getColumn() + ": "
                 + bug.getReport());
@@ -314,6 +428,12 @@ public class ErrorHandler {
 
     /** Outputs a positioned panic message as a bug report. */
     public void panic(Location location, String msg) {
+        ErrorHandler redirection = myRedirection.get();
+        if (redirection != null) {
+            redirection.panic(location, msg);
+            return;
+        }
+
         BugReport bug = new BugReport(msg);
         err.println("PANIC: " + location.toString() + ": " + bug.getReport());
         throw new RuntimeException();
@@ -432,6 +552,12 @@ public class ErrorHandler {
      * line is printed. If this is error 101, the program is aborted.
      */
     public void updateErrorCount() {
+        ErrorHandler redirection = myRedirection.get();
+        if (redirection != null) {
+            redirection.updateErrorCount();
+            return;
+        }
+
         if (errorCount == 0) {
             err.println();
         }
@@ -446,6 +572,11 @@ public class ErrorHandler {
      * since the last time resetCounts() was called.
      */
     public int getErrorCount() {
+        ErrorHandler redirection = myRedirection.get();
+        if (redirection != null) {
+            return redirection.getErrorCount();
+        }
+
         return errorCount;
     }
 
@@ -454,6 +585,11 @@ public class ErrorHandler {
      * since the last time resetCounts() was called.
      */
     public int getWarningCount() {
+        ErrorHandler redirection = myRedirection.get();
+        if (redirection != null) {
+            return redirection.getWarningCount();
+        }
+
         return warningCount;
     }
 
@@ -461,14 +597,66 @@ public class ErrorHandler {
      * Resets the warning and error counts to 0.
      */
     public void resetCounts() {
+        ErrorHandler redirection = myRedirection.get();
+        if (redirection != null) {
+            redirection.resetCounts();
+            return;
+        }
+
         errorCount = 0;
         warningCount = 0;
     }
 
     public boolean countExceeds(int n) {
+        ErrorHandler redirection = myRedirection.get();
+        if (redirection != null) {
+            return redirection.countExceeds(n);
+        }
+
         return (errorCount > n);
     }
 
+    // -----------------------------------------------------------
+    // Redirection Methods
+    // -----------------------------------------------------------
+
+    /**
+     * Sends everything reported through this handler on the calling thread,
+     * and every count and file asked of it there, to <code>target</code>
+     * instead, until this is called again with <code>null</code>.  This lets
+     * a module be compiled on another thread by code that reports through
+     * the environment's handler, without its diagnostics interleaving with
+     * those of the compiling thread.
+     */
+    public void redirect(ErrorHandler target) {
+        if (target == null) {
+            myRedirection.remove();
+        }
+        else {
+            myRedirection.set(target);
+        }
+    }
+
+    /**
+     * Passes on what <code>other</code> reported, usually on another thread:
+     * prints <code>output</code>, which is everything <code>other</code>
+     * wrote, and adds its error and warning counts to this handler's.
+     */
+    public void absorb(ErrorHandler other, String output) {
+        ErrorHandler redirection = myRedirection.get();
+        if (redirection != null) {
+            redirection.absorb(other, output);
+            return;
+        }
+
+        if (output.length() > 0) {
+            err.print(output);
+            err.flush();
+        }
+        errorCount += other.getErrorCount();
+        warningCount += other.getWarningCount();
+    }
+
     // ===========================================================
     // Private Methods
     // ===========================================================
@@ -529,38 +717,27 @@ public class ErrorHandler {
         //System.out.println("compilePosModule: "+targetFile.getName().getLocation());
         String key = pkg + "." + fileName;
         //System.out.println("Checking UserFileMap for: " + key + " (ErrorHandler(522)");
-        if (myInstanceEnvironment.isUserFile(key)) {
-            //System.out.println("found: "+key);
-            MetaFile inputFile = myInstanceEnvironment.getUserFileFromMap(key);
-            String source = inputFile.getMyFileSource();
-            StringReader sr = new StringReader(source);
-            LineNumberReader reader = new LineNumberReader(sr);
-            try {
-                for (int i = 1; i < n; i++) {
-                    reader.readLine();
-                }
-                str = reader.readLine();
-            }
-            catch (IOException ioEx) {
-                System.err.println(ioEx);
-            }
-        }
-        else {
-            try {
-                FileReader fileReader = new FileReader(file);
-                LineNumberReader reader = new LineNumberReader(fileReader);
-                for (int i = 1; i < n; i++) {
-                    reader.readLine();
-                }
-                str = reader.readLine();
+        try {
+            SourceText source;
+            if (myInstanceEnvironment.isUserFile(key)) {
+                //System.out.println("found: "+key);
+                source = myInstanceEnvironment.getUserSourceText(key);
             }
-            catch (FileNotFoundException fileEx) {
-                System.err.println(fileEx);
+            else {
+                source = myInstanceEnvironment.getSourceText(file);
             }
-            catch (IOException ioEx) {
-                System.err.println(ioEx);
+
+            String line = source.getLine(n);
+            if (line != null) {
+                str = line;
             }
         }
+        catch (FileNotFoundException fileEx) {
+            System.err.println(fileEx);
+        }
+        catch (IOException ioEx) {
+            System.err.println(ioEx);
+        }
         return str;
     }
 }
@@ -0,0 +1,413 @@
+package edu.clemson.cs.r2jt.init;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * <p>The modules a build has seen, what each of them imports, and a record of
+ * the outputs produced for each, kept on disk between runs of the compiler so
+ * that outputs whose inputs have not changed need not be produced again.</p>
+ *
+ * <p>Each module's <em>fingerprint</em> is a SHA-1 hash of its source file
+ * together with the fingerprints of the modules it imports, so it changes
+ * whenever the module or anything it depends on, however indirectly, is
+ * edited.  When an output such as a module's Java translation or its VCs is
+ * written, the module's current fingerprint is recorded against it; while the
+ * fingerprint stays the same, the output is up to date.  Modules that import
+ * one another through a cycle share one fingerprint, taken from all of their
+ * sources and the fingerprints of everything outside the cycle that they
+ * import, so an edit to any of them, or to anything any of them imports,
+ * changes it for all of them.</p>
+ *
+ * <p>What a module imports is taken from the last run that compiled it.  That
+ * can only change if the module's own source changes, in which case its
+ * fingerprint changes anyway.  Source files are hashed at most once per
+ * run.</p>
+ */
+class BuildGraph {
+
+    private static final String GRAPH_FILE_NAME = "build.graph";
+
+    private final File myFile;
+
+    private final HashMap<String, Node> myNodes;
+
+    /**
+     * <p>Modules whose imports have been recorded during this run.  Recording
+     * more imports for one of these adds to them, since the
+     * <code>PreProcessor</code> can add imports after the first scan.</p>
+     */
+    private final Set<String> myRescannedModules = new HashSet<String>();
+
+    private final Map<String, String> myHashes = new HashMap<String, String>();
+
+    /**
+     * <p>The fingerprints worked out this run, with <code>null</code> for
+     * modules that cannot be fingerprinted.</p>
+     */
+    private final Map<String, String> myFingerprints =
+            new HashMap<String, String>();
+
+    private BuildGraph(File file, HashMap<String, Node> nodes) {
+        myFile = file;
+        myNodes = nodes;
+    }
+
+    /**
+     * <p>Reads the graph kept in <code>directory</code>, or starts an empty one
+     * if there is none or it cannot be read.</p>
+     *
+     * @param directory The directory the graph is kept in.
+     *
+     * @return The graph.
+     */
+    @SuppressWarnings("unchecked")
+    public static BuildGraph load(File directory) {
+        File file = new File(directory, GRAPH_FILE_NAME);
+        HashMap<String, Node> nodes = null;
+
+        if (file.isFile()) {
+            try {
+                ObjectInputStream in =
+                        new ObjectInputStream(new BufferedInputStream(
+                                new FileInputStream(file)));
+                try {
+                    nodes = (HashMap<String, Node>) in.readObject();
+                }
+                finally {
+                    in.close();
+                }
+            }
+            catch (Exception e) {
+                //Damaged or from an older compiler, so every output will
+                //just be produced again
+                nodes = null;
+            }
+        }
+
+        if (nodes == null) {
+            nodes = new HashMap<String, Node>();
+        }
+
+        return new BuildGraph(file, nodes);
+    }
+
+    /**
+     * <p>Records that <code>module</code> imports <code>imports</code>.</p>
+     *
+     * @param module The source file of the importing module.
+     * @param imports The source files of the modules it imports.
+     */
+    public void recordImports(File module, Collection<File> imports) {
+        String key = keyOf(module);
+
+        Node node = myNodes.get(key);
+        if (node == null) {
+            node = new Node();
+            myNodes.put(key, node);
+        }
+
+        if (myRescannedModules.add(key)) {
+            node.imports.clear();
+        }
+
+        for (File f : imports) {
+            node.imports.add(keyOf(f));
+        }
+
+        myFingerprints.clear();
+    }
+
+    /**
+     * <p>Returns <code>true</code> <strong>iff</strong> <code>output</code>
+     * was produced for <code>module</code> from the same source and imports as
+     * it has now.</p>
+     *
+     * @param module The source file of the module.
+     * @param output The name of the output, which should say what settings it
+     *               was produced under where those matter.
+     *
+     * @return Whether the output is up to date.
+     */
+    public boolean isUpToDate(File module, String output) {
+        boolean retval = false;
+
+        Node node = myNodes.get(keyOf(module));
+        if (node != null) {
+            String fingerprint = getFingerprint(keyOf(module));
+            retval =
+                    fingerprint != null
+                            && fingerprint.equals(node.outputs.get(output));
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Records that <code>output</code> has just been produced for
+     * <code>module</code>.</p>
+     *
+     * @param module The source file of the module.
+     * @param output The name of the output.
+     */
+    public void recordOutput(File module, String output) {
+        Node node = myNodes.get(keyOf(module));
+        String fingerprint = getFingerprint(keyOf(module));
+
+        if (node != null && fingerprint != null) {
+            node.outputs.put(output, fingerprint);
+        }
+    }
+
+    /**
+     * <p>Writes the graph back to its directory.  Failing to write it is not
+     * an error; the outputs are just produced again next time.</p>
+     */
+    public void save() {
+        File directory = myFile.getParentFile();
+        if (directory.isDirectory() || directory.mkdirs()) {
+            File temp = null;
+
+            try {
+                temp = File.createTempFile("graph", ".tmp", directory);
+                ObjectOutputStream out =
+                        new ObjectOutputStream(new BufferedOutputStream(
+                                new FileOutputStream(temp)));
+                try {
+                    out.writeObject(myNodes);
+                }
+                finally {
+                    out.close();
+                }
+
+                //Renaming over an existing file fails on some platforms
+                myFile.delete();
+                if (!temp.renameTo(myFile)) {
+                    temp.delete();
+                }
+            }
+            catch (IOException ioe) {
+                if (temp != null) {
+                    temp.delete();
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>Returns the fingerprint of the module named by <code>key</code>, or
+     * <code>null</code> if it or anything it imports cannot be read.</p>
+     */
+    private String getFingerprint(String key) {
+        if (!myFingerprints.containsKey(key)) {
+            new ComponentFinder().visit(key);
+        }
+
+        return myFingerprints.get(key);
+    }
+
+    /**
+     * <p>Gives every module in <code>component</code>, a strongly connected
+     * component of the import graph whose imports outside it all have
+     * fingerprints already, their shared fingerprint.</p>
+     */
+    private void fingerprintComponent(Set<String> component) {
+        TreeSet<String> imported = new TreeSet<String>();
+        StringBuilder inputs = new StringBuilder();
+        boolean readable = true;
+
+        for (String member : new TreeSet<String>(component)) {
+            String hash = getHash(member);
+            if (hash == null) {
+                readable = false;
+            }
+            if (inputs.length() > 0) {
+                inputs.append(' ');
+            }
+            inputs.append(hash);
+
+            Node node = myNodes.get(member);
+            if (node != null) {
+                imported.addAll(node.imports);
+            }
+        }
+        imported.removeAll(component);
+
+        for (String importedKey : imported) {
+            String importedFingerprint = myFingerprints.get(importedKey);
+            if (importedFingerprint == null) {
+                readable = false;
+            }
+            inputs.append(' ');
+            inputs.append(importedFingerprint);
+        }
+
+        String fingerprint = null;
+        if (readable) {
+            fingerprint = digest(inputs.toString());
+        }
+
+        for (String member : component) {
+            myFingerprints.put(member, fingerprint);
+        }
+    }
+
+    /**
+     * <p>Returns the SHA-1 hash of the file named by <code>key</code>, or
+     * <code>null</code> if it cannot be read.</p>
+     */
+    private String getHash(String key) {
+        String retval = myHashes.get(key);
+
+        if (retval == null && !myHashes.containsKey(key)) {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-1");
+
+                InputStream in = new FileInputStream(key);
+                try {
+                    byte[] buffer = new byte[8192];
+                    int read = in.read(buffer);
+                    while (read != -1) {
+                        digest.update(buffer, 0, read);
+                        read = in.read(buffer);
+                    }
+                }
+                finally {
+                    in.close();
+                }
+
+                retval = toHex(digest.digest());
+            }
+            catch (NoSuchAlgorithmException nsae) {
+                retval = null;
+            }
+            catch (IOException ioe) {
+                retval = null;
+            }
+
+            myHashes.put(key, retval);
+        }
+
+        return retval;
+    }
+
+    private static String digest(String text) {
+        String retval = null;
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            retval = toHex(digest.digest(text.getBytes("UTF-8")));
+        }
+        catch (NoSuchAlgorithmException nsae) {
+            retval = null;
+        }
+        catch (UnsupportedEncodingException uee) {
+            retval = null;
+        }
+
+        return retval;
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder retval = new StringBuilder();
+        for (byte b : bytes) {
+            retval.append(Integer.toHexString((b & 0xFF) | 0x100).substring(1));
+        }
+
+        return retval.toString();
+    }
+
+    private static String keyOf(File file) {
+        return file.getAbsolutePath();
+    }
+
+    /**
+     * <p>Finds the strongly connected components of the import graph reachable
+     * from a module, by Tarjan's algorithm, and fingerprints each one as it is
+     * completed, which is only once every component it imports has been.
+     * Modules fingerprinted by an earlier search are not visited again.</p>
+     */
+    private class ComponentFinder {
+
+        private final Map<String, Integer> myIndices =
+                new HashMap<String, Integer>();
+
+        private final Map<String, Integer> myLowLinks =
+                new HashMap<String, Integer>();
+
+        private final LinkedList<String> myStack = new LinkedList<String>();
+
+        private final Set<String> myOnStack = new HashSet<String>();
+
+        public void visit(String key) {
+            int index = myIndices.size();
+            myIndices.put(key, index);
+            myLowLinks.put(key, index);
+            myStack.push(key);
+            myOnStack.add(key);
+
+            Node node = myNodes.get(key);
+            if (node != null) {
+                for (String imported : node.imports) {
+                    if (myFingerprints.containsKey(imported)) {
+                        //Already in a finished component
+                    }
+                    else if (!myIndices.containsKey(imported)) {
+                        visit(imported);
+                        myLowLinks.put(key, Math.min(myLowLinks.get(key),
+                                myLowLinks.get(imported)));
+                    }
+                    else if (myOnStack.contains(imported)) {
+                        myLowLinks.put(key, Math.min(myLowLinks.get(key),
+                                myIndices.get(imported)));
+                    }
+                }
+            }
+
+            if (myLowLinks.get(key) == index) {
+                Set<String> component = new HashSet<String>();
+
+                String member;
+                do {
+                    member = myStack.pop();
+                    myOnStack.remove(member);
+                    component.add(member);
+                } while (!member.equals(key));
+
+                fingerprintComponent(component);
+            }
+        }
+    }
+
+    private static class Node implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * <p>Sorted, so that the fingerprint does not depend on the order the
+         * imports were found in.</p>
+         */
+        public final TreeSet<String> imports = new TreeSet<String>();
+
+        public final HashMap<String, String> outputs =
+                new HashMap<String, String>();
+    }
+}
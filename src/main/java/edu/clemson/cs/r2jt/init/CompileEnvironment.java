@@ -1,10 +1,12 @@
 package edu.clemson.cs.r2jt.init;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
 
 import edu.clemson.cs.r2jt.absyn.ModuleDec;
-import edu.clemson.cs.r2jt.absyn.ProcedureDec;
 import edu.clemson.cs.r2jt.absyn.UsesItem;
 import edu.clemson.cs.r2jt.collections.Iterator;
 import edu.clemson.cs.r2jt.collections.List;
@@ -13,6 +15,7 @@ import edu.clemson.cs.r2jt.collections.Stack;
 import edu.clemson.cs.r2jt.compilereport.CompileReport;
 import edu.clemson.cs.r2jt.data.MetaFile;
 import edu.clemson.cs.r2jt.data.ModuleID;
+import edu.clemson.cs.r2jt.data.SourceText;
 import edu.clemson.cs.r2jt.errors.ErrorHandler;
 import edu.clemson.cs.r2jt.scope.ModuleScope;
 import edu.clemson.cs.r2jt.scope.SymbolTable;
@@ -56,12 +59,19 @@ public class CompileEnvironment {
     private Map<File, ModuleID> fmap = new Map<File, ModuleID>();
     private List<File> unparsables = new List<File>();
     private Stack<ModuleID> stack = new Stack<ModuleID>();
+    private Set<ModuleID> deferred = new HashSet<ModuleID>();
     private File mainDir = null;
     private File targetFile = null;
     private List<String> javaFiles = new List<String>();
     private List<ModuleID> modules = new List<ModuleID>();
     private HashMap<String, MetaFile> myUserFileMap = null;
 
+    // source texts, shared by the lexer and error reporting
+    private final HashMap<File, SourceText> mySourceTexts =
+            new HashMap<File, SourceText>();
+    private final HashMap<MetaFile, SourceText> myUserSourceTexts =
+            new HashMap<MetaFile, SourceText>();
+
     // -----------------------------------------------------------
     // Compiler flags
     // -----------------------------------------------------------
@@ -93,8 +103,6 @@ public class CompileEnvironment {
      */
     private List<List<UsesItem>> stdUsesDepends;
 
-    public List<ProcedureDec> encounteredProcedures;
-
     public CompileEnvironment(String[] args) throws FlagDependencyException {
 
         flags = new FlagManager(args);
@@ -167,6 +175,46 @@ public class CompileEnvironment {
         return myUserFileMap.get(key);
     }
 
+    /**
+     * Returns the map of user files, or <code>null</code> if none was set.
+     */
+    public HashMap<String, MetaFile> getUserFileMap() {
+        return myUserFileMap;
+    }
+
+    /**
+     * <p>Returns the text of <code>file</code>, reading it only the first time
+     * it is asked for or if it has changed since.  Safe to call from any
+     * thread.</p>
+     */
+    public synchronized SourceText getSourceText(File file) throws IOException {
+        File key = file.getAbsoluteFile();
+
+        SourceText text = mySourceTexts.get(key);
+        if (text == null || !text.isCurrent(key)) {
+            text = SourceText.load(key);
+            mySourceTexts.put(key, text);
+        }
+
+        return text;
+    }
+
+    /**
+     * <p>Returns the text of the user file stored under <code>key</code>,
+     * indexing it only the first time it is asked for.</p>
+     */
+    public synchronized SourceText getUserSourceText(String key) {
+        MetaFile file = getUserFileFromMap(key);
+
+        SourceText text = myUserSourceTexts.get(file);
+        if (text == null) {
+            text = new SourceText(file.getMyFileSource());
+            myUserSourceTexts.put(file, text);
+        }
+
+        return text;
+    }
+
     /**
      * Returns the array of Std_Fac names
      */
@@ -176,9 +224,12 @@ public class CompileEnvironment {
 
     /**
      * Returns the Lists of <code>List</code> of <code>UsesItem</code> which are the Std_Fac's,<br>
-     * dependencies and creates an empty List of Lists if it is empty
+     * dependencies and creates an empty List of Lists if it is empty.
+     * The lists are a copy, since imports are populated on other threads
+     * while the import scanner adds to them; changes must be made through
+     * <code>setStdUsesDepends</code>.
      */
-    public List<List<UsesItem>> getStdUsesDepends() {
+    public synchronized List<List<UsesItem>> getStdUsesDepends() {
         if (stdUsesDepends == null) {
             stdUsesDepends = new List<List<UsesItem>>();
             for (int i = 0; i < stdUses.length; i++) {
@@ -186,14 +237,20 @@ public class CompileEnvironment {
                 stdUsesDepends.add(temp);
             }
         }
-        return stdUsesDepends;
+        List<List<UsesItem>> retval = new List<List<UsesItem>>();
+        for (List<UsesItem> depends : stdUsesDepends) {
+            List<UsesItem> copy = new List<UsesItem>();
+            copy.addAll(depends);
+            retval.add(copy);
+        }
+        return retval;
     }
 
     /**
      * Sets the <code>stdUsesDepends</code> lists to the provided updated list
      * @param list The <code>List</code> of <code>List</code> of <code>UsesItem</code> which will be assigned to the global <code>stdUsesDepends</code>
      */
-    public void setStdUsesDepends(List<List<UsesItem>> list) {
+    public synchronized void setStdUsesDepends(List<List<UsesItem>> list) {
         stdUsesDepends = list;
     }
 
@@ -201,7 +258,7 @@ public class CompileEnvironment {
      * Sets the <code>stdUsesDepends</code> lists to the provided updated list
      * @param list The <code>List</code> of <code>List</code> of <code>UsesItem</code> which will be assigned to the global <code>stdUsesDepends</code>
      */
-    public List<SymbolTable> getSymbolTables() {
+    public synchronized List<SymbolTable> getSymbolTables() {
         List<SymbolTable> stList = new List<SymbolTable>();
         //Map<ModuleID, ModuleRecord> map = myOldEnvironment.getMap();
         for (java.util.Map.Entry<ModuleID, ModuleRecord> st : map.entrySet()) {
@@ -410,7 +467,7 @@ public class CompileEnvironment {
      * Returns true if the specified file is present in the compilation
      * environment, has an associated id and a valid module dec.
      */
-    public boolean contains(File file) {
+    public synchronized boolean contains(File file) {
         return fmap.containsKey(file);
     }
 
@@ -418,7 +475,7 @@ public class CompileEnvironment {
      * Returns true if the specified module is present in the compilation
      * environment, has an associated file and a valid module dec.
      */
-    public boolean contains(ModuleID id) {
+    public synchronized boolean contains(ModuleID id) {
         return map.containsKey(id);
     }
 
@@ -426,7 +483,7 @@ public class CompileEnvironment {
      * Returns true if the specified file has already been successfully
      * compiled.
      */
-    public boolean compileCompleted(File file) {
+    public synchronized boolean compileCompleted(File file) {
         if (!fmap.containsKey(file)) {
             return false;
         }
@@ -439,21 +496,31 @@ public class CompileEnvironment {
      * Returns true if compilation on the specified file has begun, has not
      * aborted, and has not completed.
      */
-    public boolean compileIncomplete(File file) {
+    public synchronized boolean compileIncomplete(File file) {
         if (!fmap.containsKey(file)) {
             return false;
         }
         else {
-            return (!map.get(fmap.get(file)).isComplete() && !map.get(
-                    fmap.get(file)).containsErrors());
+            return (!map.get(fmap.get(file)).isComplete()
+                    && !map.get(fmap.get(file)).containsErrors() && !deferred
+                    .contains(fmap.get(file)));
         }
     }
 
+    /**
+     * Returns true if the specified module has been deferred with
+     * <code>deferRecord</code> and has been neither completed nor aborted
+     * since.
+     */
+    public synchronized boolean compileDeferred(File file) {
+        return fmap.containsKey(file) && deferred.contains(fmap.get(file));
+    }
+
     /**
      * Returns true if a compile had been attempted on the specified file and
      * was aborted due to errors.
      */
-    public boolean compileAborted(File file) {
+    public synchronized boolean compileAborted(File file) {
         if (unparsables.contains(file)) {
             return true;
         }
@@ -468,35 +535,35 @@ public class CompileEnvironment {
     /**
      * Returns the module id associated with the specified file.
      */
-    public ModuleID getModuleID(File file) {
+    public synchronized ModuleID getModuleID(File file) {
         return fmap.get(file);
     }
 
     /**
      * Returns the file associated with the specified module.
      */
-    public File getFile(ModuleID id) {
+    public synchronized File getFile(ModuleID id) {
         return map.get(id).getFile();
     }
 
     /**
      * Returns the module dec associated with the specified module.
      */
-    public ModuleDec getModuleDec(ModuleID id) {
+    public synchronized ModuleDec getModuleDec(ModuleID id) {
         return map.get(id).getModuleDec();
     }
 
     /**
      * Returns a list of visible theories for the specified module.
      */
-    public List<ModuleID> getTheories(ModuleID id) {
+    public synchronized List<ModuleID> getTheories(ModuleID id) {
         return map.get(id).getTheories();
     }
 
     /**
      * Returns the symbol table associated with the specified module.
      */
-    public SymbolTable getSymbolTable(ModuleID id) {
+    public synchronized SymbolTable getSymbolTable(ModuleID id) {
         return map.get(id).getSymbolTable();
     }
 
@@ -510,7 +577,7 @@ public class CompileEnvironment {
     /**
      * Returns the module scope associated with the specified module.
      */
-    public ModuleScope getModuleScope(ModuleID id) {
+    public synchronized ModuleScope getModuleScope(ModuleID id) {
         assert map.get(id).getSymbolTable() != null : "symbol table for id is null";
         return map.get(id).getSymbolTable().getModuleScope();
     }
@@ -521,7 +588,8 @@ public class CompileEnvironment {
      * a stack that indicates compilation has begun on this module but has not
      * completed.
      */
-    public void constructRecord(ModuleID id, File file, ModuleDec dec) {
+    public synchronized void constructRecord(ModuleID id, File file,
+            ModuleDec dec) {
         ModuleRecord record = new ModuleRecord(id, file);
         record.setModuleDec(dec);
         assert !map.containsKey(id) : "map already contains key";
@@ -535,12 +603,27 @@ public class CompileEnvironment {
         }
     }
 
+    /**
+     * Places a record that has already been completed, usually by another
+     * environment, into the module environment. Unlike
+     * <code>constructRecord</code>, the module is not placed on the
+     * compilation stack, since its compilation is already over. The record
+     * may be shared with other environments and must not be changed.
+     */
+    public synchronized void addCompletedRecord(ModuleRecord record) {
+        assert record.isComplete() : "record is not complete";
+        assert !map.containsKey(record.getModuleID()) :
+                "map already contains key";
+        map.put(record.getModuleID(), record);
+        fmap.put(record.getFile(), record.getModuleID());
+    }
+
     /**
      * Associates a list of visible theories with the specified module. This
      * method may only be called once during the life of a module. The visible
      * theories must be accessible to a module before population begins.
      */
-    public void setTheories(ModuleID id, List<ModuleID> theories) {
+    public synchronized void setTheories(ModuleID id, List<ModuleID> theories) {
         ModuleRecord record = map.get(id);
         record.setTheories(theories);
     }
@@ -550,7 +633,7 @@ public class CompileEnvironment {
      * pops the module from the compilation stack, indicating that compilation
      * has been completed for this module.
      */
-    public void completeRecord(ModuleID id, SymbolTable table) {
+    public synchronized void completeRecord(ModuleID id, SymbolTable table) {
         ModuleRecord record = map.get(id);
         record.setSymbolTable(table);
         ModuleID id2 = stack.pop();
@@ -561,10 +644,60 @@ public class CompileEnvironment {
         }
     }
 
+    /**
+     * Pops a module whose imports have all been seen from the compilation
+     * stack, and notes that its compilation will be finished later, possibly
+     * on another thread, by <code>completeDeferredRecord</code> or
+     * <code>abortDeferredCompile</code>. Until then the module is neither
+     * complete nor incomplete, so importing it is not a circular dependency.
+     */
+    public synchronized void deferRecord(ModuleID id) {
+        ModuleID id2 = stack.pop();
+        assert id == id2 : "id != id2";
+        deferred.add(id);
+
+        if (!debugOff) {
+            err.message("Defer record: " + id.toString()); //DEBUG
+        }
+    }
+
+    /**
+     * Places the symbol table for a deferred module into the environment,
+     * indicating that compilation has been completed for this module.
+     */
+    public synchronized void completeDeferredRecord(ModuleID id,
+            SymbolTable table) {
+        assert deferred.contains(id) : "id is not deferred";
+        map.get(id).setSymbolTable(table);
+        deferred.remove(id);
+
+        if (!debugOff) {
+            err.message("Complete record: " + id.toString()); //DEBUG
+        }
+    }
+
+    /**
+     * Aborts compilation of a deferred module.
+     */
+    public synchronized void abortDeferredCompile(ModuleID id) {
+        assert deferred.contains(id) : "id is not deferred";
+        map.get(id).setErrorFlag();
+        deferred.remove(id);
+        err.message("Abort compile: " + id.toString()); //DEBUG
+    }
+
+    /**
+     * Replaces the module dec associated with the specified module, as when
+     * its analysis is read back from the module cache.
+     */
+    public synchronized void setModuleDec(ModuleID id, ModuleDec dec) {
+        map.get(id).setModuleDec(dec);
+    }
+
     /**
      * Adds a file to the environment which failed to parse.
      */
-    public void abortCompile(File file) {
+    public synchronized void abortCompile(File file) {
         if (fmap.containsKey(file)) {
             abortCompile(fmap.get(file));
         }
@@ -578,7 +711,7 @@ public class CompileEnvironment {
      * Aborts compilation of a module which parsed without errors, and pops this
      * module from the compilation stack.
      */
-    public void abortCompile(ModuleID id) {
+    public synchronized void abortCompile(ModuleID id) {
         map.get(id).setErrorFlag();
         ModuleID id2 = stack.pop();
         assert id == id2 : "id != id2";
@@ -588,7 +721,7 @@ public class CompileEnvironment {
     /**
      * Returns a string representation of the compilation environment.
      */
-    public String toString() {
+    public synchronized String toString() {
         StringBuffer sb = new StringBuffer();
         sb.append("=============================="
                 + "==============================\n");
@@ -645,7 +778,7 @@ public class CompileEnvironment {
      * The modules have arrows between them to indicate dependencies. This
      * method is used when reporting a circular module dependency error.
      */
-    public String printStackPath(ModuleID id) {
+    public synchronized String printStackPath(ModuleID id) {
         StringBuffer sb = new StringBuffer();
         Stack<ModuleID> stack2 = new Stack<ModuleID>();
         boolean printID = false;
@@ -64,7 +64,6 @@ import java.util.LinkedList;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import org.antlr.runtime.ANTLRFileStream;
 import org.antlr.runtime.ANTLRStringStream;
 import org.antlr.runtime.CharStream;
 import org.antlr.runtime.CommonTokenStream;
@@ -101,6 +100,8 @@ import edu.clemson.cs.r2jt.translation.PrettyJavaTranslation;
 import edu.clemson.cs.r2jt.translation.PrettyCTranslation;
 import edu.clemson.cs.r2jt.translation.Translator;
 import edu.clemson.cs.r2jt.type.TypeMatcher;
+import edu.clemson.cs.r2jt.utilities.Flag;
+import edu.clemson.cs.r2jt.utilities.FlagDependencies;
 import edu.clemson.cs.r2jt.verification.AssertiveCode;
 import edu.clemson.cs.r2jt.verification.Verifier;
 import edu.clemson.cs.r2jt.treewalk.*;
@@ -111,6 +112,73 @@ import edu.clemson.cs.r2jt.vcgeneration.VCGenerator;
  */
 public class Controller {
 
+    // ===========================================================
+    // Flags
+    // ===========================================================
+
+    private static final String FLAG_SECTION_NAME = "General";
+
+    private static final String FLAG_DESC_PARALLEL_IMPORTS =
+            "Parse imported modules ahead of time, and populate and analyze "
+                    + "each one as soon as its own imports are done, on one "
+                    + "thread per core.  Has no effect with -webinterface.";
+
+    /**
+     * <p>Tells the compiler to parse import files on a pool of worker threads
+     * while earlier imports are being analyzed, and to populate and analyze
+     * each import on another pool once the modules it imports have been
+     * compiled.</p>
+     */
+    public static final Flag FLAG_PARALLEL_IMPORTS =
+            new Flag(FLAG_SECTION_NAME, "parallelimports",
+                    FLAG_DESC_PARALLEL_IMPORTS, Flag.Type.HIDDEN);
+
+    private static final String FLAG_DESC_MODULE_CACHE =
+            "Keep the parsed form of each module in the given directory and "
+                    + "reuse it while the source is unchanged.  Imported "
+                    + "modules are also kept as analyzed, and reused while "
+                    + "neither they nor anything they import has changed.";
+
+    public static final String FLAG_MODULE_CACHE_ARG_NAME = "directory";
+
+    private static final String[] FLAG_MODULE_CACHE_ARGS =
+            { FLAG_MODULE_CACHE_ARG_NAME };
+
+    /**
+     * <p>Tells the compiler to read and write built module trees, and the
+     * analyzed trees and symbol tables of imported modules, from an on-disk
+     * cache rather than always parsing and analyzing the source.</p>
+     */
+    public static final Flag FLAG_MODULE_CACHE =
+            new Flag(FLAG_SECTION_NAME, "modulecache", FLAG_DESC_MODULE_CACHE,
+                    FLAG_MODULE_CACHE_ARGS, Flag.Type.HIDDEN);
+
+    private static final String FLAG_DESC_INCREMENTAL =
+            "Keep a record of module dependencies in the given directory and "
+                    + "skip translating or verifying modules whose source "
+                    + "and imports are unchanged.  Every module is still "
+                    + "parsed and analyzed.";
+
+    public static final String FLAG_INCREMENTAL_ARG_NAME = "directory";
+
+    private static final String[] FLAG_INCREMENTAL_ARGS =
+            { FLAG_INCREMENTAL_ARG_NAME };
+
+    /**
+     * <p>Tells the compiler to skip producing translations and VCs that are
+     * already up to date with the source of a module and everything it
+     * imports.  Only those outputs are skipped: the target and its imports are
+     * parsed and analyzed as usual, since the target's symbol table is built
+     * from them.</p>
+     */
+    public static final Flag FLAG_INCREMENTAL =
+            new Flag(FLAG_SECTION_NAME, "incremental", FLAG_DESC_INCREMENTAL,
+                    FLAG_INCREMENTAL_ARGS, Flag.Type.HIDDEN);
+
+    /* The names under which outputs are recorded in the build graph. */
+    private static final String TRANSLATION_OUTPUT = "translation";
+    private static final String VERIFICATION_OUTPUT = "verification";
+
     // ===========================================================
     // Variables
     // ===========================================================
@@ -127,6 +195,20 @@ public class Controller {
 
     private FileLocator locator = new FileLocator();
 
+    /* Non-null only while a target is being compiled with
+     * FLAG_PARALLEL_IMPORTS set. */
+    private ModuleParseScheduler parseScheduler = null;
+
+    /* Likewise, unless FLAG_WEB is also set, since diagnostics from other
+     * threads are printed rather than added to the compile report. */
+    private ModuleCompileScheduler compileScheduler = null;
+
+    /* Null unless FLAG_MODULE_CACHE is set. */
+    private final ModuleCache moduleCache;
+
+    /* Null unless FLAG_INCREMENTAL is set. */
+    private final BuildGraph buildGraph;
+
     private File astDumpFile = null;
 
     private String[] noImportList =
@@ -140,6 +222,23 @@ public class Controller {
         myInstanceEnvironment = e;
         err = e.getErrorHandler();
         myCompileReport = e.getCompileReport();
+        if (e.flags.isFlagSet(FLAG_MODULE_CACHE)) {
+            moduleCache =
+                    new ModuleCache(new File(e.flags.getFlagArgument(
+                            FLAG_MODULE_CACHE, FLAG_MODULE_CACHE_ARG_NAME)),
+                            e.flags.getSettings(), err);
+        }
+        else {
+            moduleCache = null;
+        }
+        if (e.flags.isFlagSet(FLAG_INCREMENTAL)) {
+            buildGraph =
+                    BuildGraph.load(new File(e.flags.getFlagArgument(
+                            FLAG_INCREMENTAL, FLAG_INCREMENTAL_ARG_NAME)));
+        }
+        else {
+            buildGraph = null;
+        }
         /*if(myInstanceEnvironment.flags.isFlagSet(Archiver.FLAG_ARCHIVE)){
         	myArchive = new Archiver(myInstanceEnvironment);
         }
@@ -152,6 +251,12 @@ public class Controller {
     // Public Methods
     // ===========================================================
 
+    public static void setUpFlags() {
+        //The module cache skips the parse that -exportAST dumps
+        FlagDependencies.addExcludes(FLAG_MODULE_CACHE,
+                ResolveCompiler.FLAG_EXPORT_AST);
+    }
+
     /*
      * Glossary:
      * 
@@ -202,7 +307,14 @@ public class Controller {
                 simpleTranslateNewTargetFile(file);
             }
             else {
-                compileNewTargetFile(file);
+                startImportSchedulers();
+                try {
+                    compileNewTargetFile(file);
+                }
+                finally {
+                    stopImportSchedulers();
+                    saveBuildGraph();
+                }
             }
             //compileNewTargetFile(file);
             if (myInstanceEnvironment.flags.isFlagSet(Archiver.FLAG_ARCHIVE)) {
@@ -256,7 +368,14 @@ public class Controller {
             else {
                 myArchive = null;
             }
-            compileNewTargetSource(inputFile);
+            startImportSchedulers();
+            try {
+                compileNewTargetSource(inputFile);
+            }
+            finally {
+                stopImportSchedulers();
+                saveBuildGraph();
+            }
             //compileNewTargetFile(file);
             if (myInstanceEnvironment.flags.isFlagSet(Archiver.FLAG_ARCHIVE)) {
                 //arc.printArchiveList();
@@ -427,13 +546,14 @@ public class Controller {
             /* Have compile imported modules bring in extra stuff that 
              * the PreProcessor may have added manually.
              */
-            compileImportedModules(dec);
+            java.util.List<File> imports = compileImportedModules(dec);
 
             if (myInstanceEnvironment.showEnv()) { // DEBUG
                 SymbolTable table = new SymbolTable(id, myInstanceEnvironment);
                 myInstanceEnvironment.completeRecord(id, table);
                 return;
             }
+            awaitImports(imports);
             myInstanceEnvironment.setCurrentTargetFileName(file.getName());
             MathExpTypeResolver context = analyzeModuleDec(dec);
             SymbolTable table = context.getSymbolTable();
@@ -548,13 +668,14 @@ public class Controller {
             /* Have compile imported modules bring in extra stuff that 
              * the PreProcessor may have added manually.
              */
-            compileImportedModules(dec);
+            java.util.List<File> imports = compileImportedModules(dec);
 
             if (myInstanceEnvironment.showEnv()) { // DEBUG
                 SymbolTable table = new SymbolTable(id, myInstanceEnvironment);
                 myInstanceEnvironment.completeRecord(id, table);
                 return;
             }
+            awaitImports(imports);
             myInstanceEnvironment.setCurrentTargetFileName(file.getName());
             MathExpTypeResolver context = analyzeModuleDec(dec);
             SymbolTable table = context.getSymbolTable();
@@ -928,7 +1049,8 @@ public class Controller {
     // -----------------------------------------------------------
 
     private void compileImportFile(File file) {
-        if (myInstanceEnvironment.compileCompleted(file)) {
+        if (myInstanceEnvironment.compileCompleted(file)
+                || myInstanceEnvironment.compileDeferred(file)) {
             if (myInstanceEnvironment.flags
                     .isFlagSet(ResolveCompiler.FLAG_NO_DEBUG)) {
                 String msg = importCompleteMessage(file.getName());
@@ -965,15 +1087,21 @@ public class Controller {
             /* Have compile imported modules bring in extra stuff that 
              * the PreProcessor may have added manually.
              */
-            compileImportedModules(dec);
+            java.util.List<File> imports = compileImportedModules(dec);
 
             if (myInstanceEnvironment.showEnv()) { // DEBUG
                 SymbolTable table = new SymbolTable(id, myInstanceEnvironment);
                 myInstanceEnvironment.completeRecord(id, table);
                 return;
             }
-            MathExpTypeResolver context = analyzeModuleDec(dec);
-            SymbolTable table = context.getSymbolTable();
+            boolean cacheable =
+                    moduleCache != null
+                            && moduleCache.fingerprint(file, imports) != null;
+            if (compileScheduler != null) {
+                scheduleImport(id, file, dec, imports, cacheable);
+                return;
+            }
+            SymbolTable table = analyzeImport(id, file, dec, cacheable);
 
             myInstanceEnvironment.completeRecord(id, table);
             // System.out.println(dec.asString(0,2));
@@ -981,7 +1109,8 @@ public class Controller {
             //if(arc.needToTranslate(file)) translateModuleDec(table, dec);
             //if(env.createJarOn() && arc.needToTranslate(file)){
             if (myInstanceEnvironment.flags.isFlagSet(Archiver.FLAG_ARCHIVE)) {
-                translateModuleDec(file, table, dec);
+                translateModuleDec(file, table, myInstanceEnvironment
+                        .getModuleDec(id));
                 //arc.addFiletoArchive(file);
                 //arc.printArchiveList();
             }
@@ -1000,6 +1129,111 @@ public class Controller {
         finally {}
     }
 
+    /*
+     * Populates and analyzes dec, the import in file, unless it is cacheable
+     * and the module cache holds its analysis, and returns its symbol table.
+     * Only a clean analysis is cached, as with parses. Runs on a worker when
+     * the import has been scheduled.
+     */
+    private SymbolTable analyzeImport(ModuleID id, File file, ModuleDec dec,
+            boolean cacheable) throws CompilerException {
+        SymbolTable retval;
+
+        ModuleCache.AnalyzedModule cached = null;
+        if (cacheable) {
+            cached = moduleCache.loadAnalysis(file, myInstanceEnvironment);
+        }
+        if (cached != null) {
+            retval = cached.getSymbolTable();
+            retval.setInstanceEnvironment(myInstanceEnvironment);
+            myInstanceEnvironment.setModuleDec(id, cached.getModuleDec());
+        }
+        else {
+            int initWarningCount = err.getWarningCount();
+            MathExpTypeResolver context = analyzeModuleDec(dec);
+            retval = context.getSymbolTable();
+            if (cacheable && err.getWarningCount() == initWarningCount) {
+                moduleCache.storeAnalysis(file, dec, retval,
+                        myInstanceEnvironment);
+            }
+        }
+
+        return retval;
+    }
+
+    /*
+     * Leaves the rest of the compile of dec, the import in file, to the
+     * compile scheduler, which runs it once the modules it imports have been
+     * compiled. awaitImports() passes on what it reports.
+     */
+    private void scheduleImport(final ModuleID id, final File file,
+            final ModuleDec dec, java.util.List<File> imports,
+            final boolean cacheable) {
+        myInstanceEnvironment.deferRecord(id);
+        compileScheduler.schedule(file, imports,
+                new ModuleCompileScheduler.Compilation() {
+
+                    public void compile() throws CompilerException {
+                        SymbolTable table =
+                                analyzeImport(id, file, dec, cacheable);
+                        myInstanceEnvironment.completeDeferredRecord(id,
+                                table);
+                    }
+                });
+    }
+
+    /*
+     * Waits for the imports the compile scheduler is still compiling, as
+     * finishImportCompiles() does, and then throws CompilerException if any
+     * of imports, the files a module about to be analyzed imports, failed.
+     */
+    private void awaitImports(java.util.List<File> imports)
+            throws CompilerException {
+        if (compileScheduler != null) {
+            finishImportCompiles();
+            for (File file : imports) {
+                if (myInstanceEnvironment.compileAborted(file)) {
+                    throw new CompilerException();
+                }
+            }
+        }
+    }
+
+    /*
+     * Waits for every import compile the scheduler has been given, and then,
+     * in the order they were scheduled, passes on what each one reported and
+     * aborts or translates it as compileNewImportFile() would have.
+     */
+    private void finishImportCompiles() {
+        for (ModuleCompileScheduler.ScheduledCompile compile : compileScheduler
+                .finish()) {
+            File file = compile.getFile();
+            ModuleID id = myInstanceEnvironment.getModuleID(file);
+            if (compile.getDiagnostics() != null) {
+                err.absorb(compile.getDiagnostics(), compile.getOutput());
+            }
+
+            Throwable failure = compile.getFailure();
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            else if (failure != null) {
+                BugReport.abortProgram((Exception) failure,
+                        myInstanceEnvironment);
+            }
+
+            if (!compile.succeeded()) {
+                myInstanceEnvironment.abortDeferredCompile(id);
+            }
+            else if (myInstanceEnvironment.flags
+                    .isFlagSet(Archiver.FLAG_ARCHIVE)) {
+                translateModuleDec(file, myInstanceEnvironment
+                        .getSymbolTable(id), myInstanceEnvironment
+                        .getModuleDec(id));
+            }
+        }
+    }
+
     private void compileNewImportSource(String name, MetaFile importFile) {
         try {
             myInstanceEnvironment.setCurrentTargetFileName(name);
@@ -1028,13 +1262,14 @@ public class Controller {
             /* Have compile imported modules bring in extra stuff that 
              * the PreProcessor may have added manually.
              */
-            compileImportedModules(dec);
+            java.util.List<File> imports = compileImportedModules(dec);
 
             if (myInstanceEnvironment.showEnv()) { // DEBUG
                 SymbolTable table = new SymbolTable(id, myInstanceEnvironment);
                 myInstanceEnvironment.completeRecord(id, table);
                 return;
             }
+            awaitImports(imports);
             MathExpTypeResolver context = analyzeModuleDec(dec);
             SymbolTable table = context.getSymbolTable();
 
@@ -1073,9 +1308,31 @@ public class Controller {
     private ModuleDec buildModuleDec(File file) throws Exception {
         // FIX: Is this the only place we mess with this?
         //err.setFile(file);
+        if (moduleCache != null) {
+            ModuleDec dec = moduleCache.load(file);
+            if (dec != null) {
+                err.setFile(file);
+                return dec;
+            }
+        }
+        if (parseScheduler != null) {
+            ModuleDec dec = parseScheduler.take(file);
+            if (dec != null) {
+                err.setFile(file);
+                if (moduleCache != null) {
+                    moduleCache.store(file, dec);
+                }
+                return dec;
+            }
+        }
+        int initWarningCount = err.getWarningCount();
         CommonTokenStream tokens = getFileTokenStream(file);
         CommonTree ast = getParseTree(file.toString(), tokens);
         ModuleDec dec = getModuleDec(ast);
+        /* Only a clean parse is cached, so warnings are still shown. */
+        if (moduleCache != null && err.getWarningCount() == initWarningCount) {
+            moduleCache.store(file, dec);
+        }
         return dec;
     }
 
@@ -1109,8 +1366,7 @@ public class Controller {
         try {
             err.setFile(file);
             int initErrorCount = err.getErrorCount();
-            String fileName = file.getAbsolutePath();
-            cs = new ANTLRFileStream(fileName);
+            cs = newFileStream(myInstanceEnvironment, file);
             RLexer lexer = new RLexer(cs);
             tokens = new CommonTokenStream();
             tokens.setTokenSource(lexer);
@@ -1125,6 +1381,22 @@ public class Controller {
         return tokens;
     }
 
+    /**
+     * <p>Returns a stream over the text of <code>file</code> for the lexer,
+     * reading the text the environment already holds for error reporting
+     * rather than reading the file again.</p>
+     */
+    static CharStream newFileStream(CompileEnvironment env, File file)
+            throws IOException {
+        SourceText text = env.getSourceText(file);
+
+        ANTLRStringStream retval =
+                new ANTLRStringStream(text.getCharacters(), text.getLength());
+        retval.name = file.getAbsolutePath();
+
+        return retval;
+    }
+
     private CommonTokenStream getSourceTokenStream(String fileName,
             String fileSource) {
         CharStream cs = null;
@@ -1184,7 +1456,12 @@ public class Controller {
     // Import Compilation Methods
     // -----------------------------------------------------------
 
-    private void compileImportedModules(ModuleDec dec) throws CompilerException {
+    /*
+     * Compiles every module dec imports that has not been compiled yet, and
+     * returns the files of all of the modules it imports.
+     */
+    private java.util.List<File> compileImportedModules(ModuleDec dec)
+            throws CompilerException {
         int initErrorCount = err.getErrorCount();
         /*
          * A set of visible theories must be accessible to the module scope
@@ -1199,22 +1476,36 @@ public class Controller {
         List<ModuleID> theories = new List<ModuleID>();
         ImportScanner scanner = new ImportScanner(myInstanceEnvironment);
         List<Import> imports = scanner.getImportList(dec);
+        if (parseScheduler != null) {
+            scheduleImportParses(imports, dec);
+        }
+        java.util.List<File> importFiles = new java.util.LinkedList<File>();
         Iterator<Import> i = imports.iterator();
         while (i.hasNext()) {
             Import pid = i.next();
             compilePosModule(pid, dec);
             ModuleID id2 = guessModuleID(pid);
 
+            if (myInstanceEnvironment.contains(id2)) {
+                importFiles.add(myInstanceEnvironment.getFile(id2));
+            }
+
             if (myInstanceEnvironment.contains(id2)
-                    && myInstanceEnvironment
+                    && (myInstanceEnvironment
                             .compileCompleted(myInstanceEnvironment
-                                    .getFile(id2))) {
+                                    .getFile(id2)) || myInstanceEnvironment
+                            .compileDeferred(myInstanceEnvironment
+                                    .getFile(id2)))) {
                 if (id2.getModuleKind() == ModuleKind.THEORY) {
                     theories.addUnique(id2);
                 }
                 theories.addAllUnique(myInstanceEnvironment.getTheories(id2));
             }
         }
+        if (buildGraph != null) {
+            buildGraph.recordImports(dec.getName().getLocation().getFile(),
+                    importFiles);
+        }
         if (id == null) {
             System.out.println("name: " + dec.getName().getName()
                     + " Controller(970)");
@@ -1228,6 +1519,112 @@ public class Controller {
         if (err.countExceeds(initErrorCount)) {
             throw new CompilerException();
         }
+        return importFiles;
+    }
+
+    /*
+     * Hands the import files that will have to be compiled to the parse
+     * scheduler, so they are parsed while the imports before them are
+     * analyzed. Files are found here without reporting anything or changing
+     * the environment; compilePosModule still does the real lookup, and a
+     * file guessed wrongly here is only parsed for nothing.
+     */
+    private void scheduleImportParses(List<Import> imports, ModuleDec dec) {
+        Iterator<Import> i = imports.iterator();
+        while (i.hasNext()) {
+            File file = locateImportQuietly(i.next(), dec);
+            if (file != null && !myInstanceEnvironment.contains(file)
+                    && !myInstanceEnvironment.compileAborted(file)
+                    && (moduleCache == null || !moduleCache.contains(file))) {
+                parseScheduler.schedule(file);
+            }
+        }
+    }
+
+    private File locateImportQuietly(Import pid, ModuleDec sourceFile) {
+        File file = null;
+        ModuleID mid = pid.getModuleID();
+        try {
+            if (mid.getModuleKind() == ModuleKind.USES_ITEM) {
+                PosSymbol ps = new PosSymbol(pid.getLocation(), mid.getName());
+                if (getUsesFilesFromEnv(ps).size() == 0) {
+                    file =
+                            locator.locateFileInTree(ModuleID.createConceptID(
+                                    ps).getFilename(), ModuleID
+                                    .createFacilityID(ps).getFilename(),
+                                    ModuleID.createTheoryID(ps).getFilename(),
+                                    myInstanceEnvironment.getMainDir());
+                }
+            }
+            else if (myInstanceEnvironment.contains(mid)) {
+                file = null;
+            }
+            else if (mid.getModuleKind() == ModuleKind.CONCEPT) {
+                file =
+                        locator.locateFileInTree(mid.getFilename(),
+                                myInstanceEnvironment.getMainDir());
+            }
+            else if (!onNoImportList(mid.getFilename())) {
+                ModuleID cid =
+                        ModuleID.createConceptID(new PosSymbol(pid
+                                .getLocation(), mid.getConceptName()));
+                File conceptFile;
+                if (myInstanceEnvironment.contains(cid)) {
+                    conceptFile = myInstanceEnvironment.getFile(cid);
+                }
+                else {
+                    conceptFile =
+                            locator.locateFileInTree(mid.getFilename(),
+                                    sourceFile.getName().getLocation()
+                                            .getFile().getParentFile());
+                }
+                file =
+                        locator.locateFileInDir(mid.getFilename(), conceptFile
+                                .getParentFile());
+            }
+        }
+        catch (FileLocatorException flex) {
+            file = null;
+        }
+        return file;
+    }
+
+    private void startImportSchedulers() {
+        if (myInstanceEnvironment.flags.isFlagSet(FLAG_PARALLEL_IMPORTS)) {
+            int workers = Runtime.getRuntime().availableProcessors();
+            parseScheduler =
+                    new ModuleParseScheduler(myInstanceEnvironment, workers);
+            if (!myInstanceEnvironment.flags
+                    .isFlagSet(ResolveCompiler.FLAG_WEB)) {
+                compileScheduler =
+                        new ModuleCompileScheduler(myInstanceEnvironment,
+                                workers);
+            }
+        }
+    }
+
+    private void stopImportSchedulers() {
+        if (parseScheduler != null) {
+            parseScheduler.shutdown();
+            parseScheduler = null;
+        }
+        if (compileScheduler != null) {
+            //Imports still compiling when the target failed early have
+            //their diagnostics shown all the same
+            try {
+                finishImportCompiles();
+            }
+            finally {
+                compileScheduler.shutdown();
+                compileScheduler = null;
+            }
+        }
+    }
+
+    private void saveBuildGraph() {
+        if (buildGraph != null) {
+            buildGraph.save();
+        }
     }
 
     private ModuleID guessModuleID(Import pid) {
@@ -1555,6 +1952,46 @@ public class Controller {
     private void verifyModuleDec(MathExpTypeResolver context, ModuleDec dec) {
         SymbolTable table = context.getSymbolTable();
         Verifier verifier = new Verifier(table, myInstanceEnvironment);
+
+        boolean prove =
+                myInstanceEnvironment.flags.isFlagSet(Prover.FLAG_LEGACY_PROVE)
+                        || myInstanceEnvironment.flags
+                                .isFlagSet(Prover.FLAG_PROVE);
+
+        // VCs and proofs are only written to files outside the web interface,
+        // so only there can the ones from an earlier run stand in for them.
+        // Output is only recorded once every VC is proved, so a module with a
+        // VC left unproved is proved again, and reported again, every run
+        File file = dec.getName().getLocation().getFile();
+        String verificationOutput =
+                VERIFICATION_OUTPUT + " "
+                        + myInstanceEnvironment.flags.getSettings();
+        boolean recordVerification =
+                buildGraph != null
+                        && !myInstanceEnvironment.flags
+                                .isFlagSet(ResolveCompiler.FLAG_WEB);
+        if (recordVerification
+                && buildGraph.isUpToDate(file, verificationOutput)
+                && new File(verifier.getMainFileName()).isFile()
+                && (!prove || new File(Prover
+                        .getProofFileName(myInstanceEnvironment)).isFile())) {
+            if (prove) {
+                err.message("VCs for " + file.getName()
+                        + " are up to date and proved in "
+                        + Prover.getProofFileName(myInstanceEnvironment));
+                CompileReport report = myInstanceEnvironment.getCompileReport();
+                if (!report.hasError()) {
+                    report.setProveSuccess();
+                }
+            }
+            else {
+                err.message("VCs for " + file.getName() + " are up to date in "
+                        + verifier.getMainFileName());
+            }
+            return;
+        }
+        int initErrorCount = err.getErrorCount();
+
         verifier.visitModuleDec(dec);
         verifier.outputAsrt();
 
@@ -1578,20 +2015,27 @@ public class Controller {
         }
         //End sanity check
 
-        if (myInstanceEnvironment.flags.isFlagSet(Prover.FLAG_LEGACY_PROVE)
-                || myInstanceEnvironment.flags.isFlagSet(Prover.FLAG_PROVE)) {
+        boolean allProved = true;
+        if (prove) {
 
             try {
                 //Make sure we've got at least one VC to prove so that we don't
                 //waste time and clutter output "proving" sets of zero VCs
                 if (vcsToProve.iterator().hasNext()) {
-                    new Prover(context, vcsToProve, myInstanceEnvironment);
+                    allProved =
+                            new Prover(context, vcsToProve,
+                                    myInstanceEnvironment).allProved;
                 }
             }
             catch (ProverException e) {
                 err.error(e.toString());
             }
         }
+
+        if (recordVerification && allProved
+                && !err.countExceeds(initErrorCount)) {
+            buildGraph.recordOutput(file, verificationOutput);
+        }
     }
 
     private Iterable<VerificationCondition> getVCsToProve(Verifier verifier,
@@ -1633,12 +2077,29 @@ public class Controller {
         }
         String targetFile = myInstanceEnvironment.getTargetFile().toString();
         String thisFile = dec.getName().getFile().toString();
-        // We only translate if this is the target file or if file is stale
-        if ((thisFile.equals(targetFile)) || translator.needToTranslate(file)) {
+        boolean translate;
+        if (buildGraph == null) {
+            // We only translate if this is the target file or if file is stale
+            translate =
+                    (thisFile.equals(targetFile))
+                            || translator.needToTranslate(file);
+        }
+        else {
+            // The build graph also knows if anything the file imports changed
+            translate =
+                    translator.needToTranslate(file)
+                            || (translator.isTranslatable(file) && !buildGraph
+                                    .isUpToDate(file, TRANSLATION_OUTPUT));
+        }
+        if (translate) {
+            int initErrorCount = err.getErrorCount();
             //System.out.println("Starting Translation: "+dec.getName().getName());
             translator.visitModuleDec(dec);
             //System.out.println("Translated: "+dec.getName().getName());
             translator.outputJavaCode(file);
+            if (buildGraph != null && !err.countExceeds(initErrorCount)) {
+                buildGraph.recordOutput(file, TRANSLATION_OUTPUT);
+            }
         }
     }
 
@@ -62,11 +62,24 @@ package edu.clemson.cs.r2jt.init;
 import java.io.File;
 import edu.clemson.cs.r2jt.collections.List;
 import edu.clemson.cs.r2jt.collections.Iterator;
+import edu.clemson.cs.r2jt.collections.Map;
 import edu.clemson.cs.r2jt.data.*;
 import edu.clemson.cs.r2jt.errors.*;
 
 public class FileLocator {
 
+    // ===========================================================
+    // Variables
+    // ===========================================================
+
+    /*
+     * The result of each recursive search, keyed by directory and name. The
+     * source tree does not change during a compile, and the same names are
+     * searched for once per importing module.
+     */
+    private Map<String, List<File>> treeSearches =
+            new Map<String, List<File>>();
+
     // ===========================================================
     // Constructors
     // ===========================================================
@@ -169,6 +182,16 @@ public class FileLocator {
     // ===========================================================
 
     private List<File> recursivelyLocateFiles(String name, File dir) {
+        String key = dir.getPath() + File.pathSeparator + name;
+        List<File> resultFiles = treeSearches.get(key);
+        if (resultFiles == null) {
+            resultFiles = searchTree(name, dir);
+            treeSearches.put(key, resultFiles);
+        }
+        return resultFiles;
+    }
+
+    private List<File> searchTree(String name, File dir) {
         List<File> resultFiles = new List<File>();
         File[] fileArray = dir.listFiles();
         List<File> files = new List<File>();
@@ -180,7 +203,7 @@ public class FileLocator {
         while (i.hasNext()) {
             File file = i.next();
             if (file.isDirectory()) {
-                resultFiles.addAll(recursivelyLocateFiles(name, file));
+                resultFiles.addAll(searchTree(name, file));
             }
             else if (file.getName().equals(name)) {
                 resultFiles.add(file);
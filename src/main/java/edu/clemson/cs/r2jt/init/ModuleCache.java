@@ -0,0 +1,577 @@
+package edu.clemson.cs.r2jt.init;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import edu.clemson.cs.r2jt.absyn.ModuleDec;
+import edu.clemson.cs.r2jt.data.ModuleID;
+import edu.clemson.cs.r2jt.errors.ErrorHandler;
+import edu.clemson.cs.r2jt.scope.ModuleScope;
+import edu.clemson.cs.r2jt.scope.SymbolTable;
+
+/**
+ * <p>An on-disk cache of the <code>ModuleDec</code>s built from source files,
+ * and of the symbol tables and analyzed trees that imported modules were
+ * compiled to, so that a later run of the compiler can read them back instead
+ * of lexing, parsing, populating and analyzing the file again.</p>
+ *
+ * <p>A tree entry is named by a SHA-1 hash of the source file's path and
+ * contents, so editing a file simply stops its old entry from being found.
+ * The hash is worked out once per file and reused for as long as the file's
+ * timestamp and length stay the same.  Trees are cached as the builder
+ * produces them, before the PreProcessor or any analysis touches them, so
+ * such an entry depends only on its own file.</p>
+ *
+ * <p>What analysis makes of a module also depends on everything it imports,
+ * so an analysis entry is instead named by the module's <em>fingerprint</em>:
+ * a hash of its tree entry's name, the compiler's flag settings and the
+ * fingerprints of its direct imports, which in turn cover their own imports.
+ * Editing any module in the import closure therefore changes the name looked
+ * for.  A module's fingerprint can only be worked out once its imports have
+ * been compiled in this run; see {@link #fingerprint(File, List)
+ * fingerprint()}.  Analysis entries refer to the module scopes of imported
+ * modules by <code>ModuleID</code> and are linked to the ones compiled in this
+ * run as they are read.</p>
+ *
+ * <p>Entries are written with Java serialization.  An entry that cannot be
+ * read is reported as a warning and treated as missing.  The serialized
+ * classes declare a fixed <code>serialVersionUID</code>, so a change to their
+ * fields will not by itself make old entries unreadable; such a change must
+ * bump {@link #FORMAT_VERSION}, which is part of every entry's name.</p>
+ */
+class ModuleCache {
+
+    /**
+     * <p>Identifies the layout of the serialized trees and tables.  Bump this
+     * whenever a serializable absyn, data, scope, entry or type class gains,
+     * loses or changes a field.</p>
+     */
+    private static final int FORMAT_VERSION = 2;
+
+    private static final String ENTRY_EXTENSION = ".ast";
+
+    private static final String ANALYSIS_EXTENSION = ".analysis";
+
+    private final File myDirectory;
+
+    private final String mySettings;
+
+    private final ErrorHandler myErrorHandler;
+
+    /* The entry worked out for each source file, so that contains(), load()
+     * and store() on the same file only hash it once. */
+    private final Map<File, Key> myKeys = new ConcurrentHashMap<File, Key>();
+
+    /* The fingerprint worked out for each module compiled in this run. */
+    private final Map<File, String> myFingerprints =
+            new ConcurrentHashMap<File, String>();
+
+    /**
+     * <p>Creates a cache kept in <code>directory</code>.</p>
+     *
+     * @param directory The directory holding the entries.
+     * @param settings A description of the compiler's flag settings, which
+     *                 are taken to affect what analysis makes of a module.
+     * @param err Where unreadable entries are reported.
+     */
+    public ModuleCache(File directory, String settings, ErrorHandler err) {
+        myDirectory = directory;
+        mySettings = settings;
+        myErrorHandler = err;
+    }
+
+    /**
+     * <p>Returns <code>true</code> <strong>iff</strong> there is an entry for
+     * the current contents of <code>source</code>.</p>
+     *
+     * @param source The source file.
+     *
+     * @return Whether the file has been cached.
+     */
+    public boolean contains(File source) {
+        File entry = getEntry(source);
+
+        return entry != null && entry.isFile();
+    }
+
+    /**
+     * <p>Returns a fresh copy of the module cached for the current contents of
+     * <code>source</code>, or <code>null</code> if there is no usable
+     * entry.</p>
+     *
+     * @param source The source file.
+     *
+     * @return The cached module, or <code>null</code>.
+     */
+    public ModuleDec load(File source) {
+        ModuleDec retval = null;
+
+        File entry = getEntry(source);
+        if (entry != null && entry.isFile()) {
+            try {
+                ObjectInputStream in =
+                        new ObjectInputStream(new BufferedInputStream(
+                                new FileInputStream(entry)));
+                try {
+                    retval = (ModuleDec) in.readObject();
+                }
+                finally {
+                    in.close();
+                }
+            }
+            catch (IOException ioe) {
+                retval = unreadable(entry, ioe);
+            }
+            catch (ClassNotFoundException cnfe) {
+                retval = unreadable(entry, cnfe);
+            }
+            catch (ClassCastException cce) {
+                retval = unreadable(entry, cce);
+            }
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Caches <code>dec</code> as the module built from the current contents
+     * of <code>source</code>.  Failing to write the entry is not an error; the
+     * module is just built from source next time.</p>
+     *
+     * @param source The source file.
+     * @param dec The module built from it.
+     */
+    public void store(File source, ModuleDec dec) {
+        File entry = getEntry(source);
+        if (entry != null) {
+            writeEntry(entry, dec, null);
+        }
+    }
+
+    /**
+     * <p>Works out and remembers the fingerprint of <code>source</code>, which
+     * imports exactly <code>imports</code>.  Every one of the imports must
+     * already have had its fingerprint worked out in this run, or there is no
+     * fingerprint and <code>source</code> cannot have its analysis
+     * cached.</p>
+     *
+     * @param source The source file.
+     * @param imports The files of the modules it imports.
+     *
+     * @return The fingerprint, or <code>null</code>.
+     */
+    public String fingerprint(File source, List<File> imports) {
+        String retval = null;
+
+        File absolute = source.getAbsoluteFile();
+        File entry = getEntry(absolute);
+
+        //Sorted, so that the order imports were found in doesn't matter
+        SortedMap<String, String> importFingerprints =
+                new TreeMap<String, String>();
+        boolean known = (entry != null);
+        for (File i : imports) {
+            File absoluteImport = i.getAbsoluteFile();
+            String importFingerprint = myFingerprints.get(absoluteImport);
+            if (importFingerprint == null) {
+                known = false;
+            }
+            else {
+                importFingerprints.put(absoluteImport.getPath(),
+                        importFingerprint);
+            }
+        }
+
+        if (known) {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-1");
+                digest.update((byte) FORMAT_VERSION);
+                update(digest, entry.getName());
+                update(digest, mySettings);
+                for (Map.Entry<String, String> i : importFingerprints
+                        .entrySet()) {
+                    update(digest, i.getKey());
+                    update(digest, i.getValue());
+                }
+
+                retval = toHex(digest.digest());
+            }
+            catch (NoSuchAlgorithmException nsae) {
+                retval = null;
+            }
+            catch (IOException ioe) {
+                retval = null;
+            }
+        }
+
+        if (retval == null) {
+            myFingerprints.remove(absolute);
+        }
+        else {
+            myFingerprints.put(absolute, retval);
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Returns the analyzed module cached under the fingerprint last worked
+     * out for <code>source</code>, or <code>null</code> if there is no usable
+     * entry.  The symbol table returned is linked to the imported modules'
+     * scopes in <code>env</code>, but must still be given <code>env</code>
+     * with <code>setInstanceEnvironment()</code>.</p>
+     *
+     * @param source The source file.
+     * @param env The environment its imports were compiled into.
+     *
+     * @return The cached module, or <code>null</code>.
+     */
+    public AnalyzedModule loadAnalysis(File source, CompileEnvironment env) {
+        AnalyzedModule retval = null;
+
+        File entry = getAnalysisEntry(source);
+        if (entry != null && entry.isFile()) {
+            try {
+                ObjectInputStream in =
+                        new ImportLinkingInputStream(new BufferedInputStream(
+                                new FileInputStream(entry)), env);
+                try {
+                    retval = (AnalyzedModule) in.readObject();
+                }
+                finally {
+                    in.close();
+                }
+            }
+            catch (IOException ioe) {
+                retval = unreadable(entry, ioe);
+            }
+            catch (ClassNotFoundException cnfe) {
+                retval = unreadable(entry, cnfe);
+            }
+            catch (ClassCastException cce) {
+                retval = unreadable(entry, cce);
+            }
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Caches <code>dec</code> and <code>table</code> as what analysis made
+     * of <code>source</code>, under the fingerprint last worked out for it.
+     * Nothing is cached if it has no fingerprint.  As with
+     * {@link #store(File, ModuleDec) store()}, failing to write the entry is
+     * not an error.</p>
+     *
+     * @param source The source file.
+     * @param dec The module, as analyzed.
+     * @param table Its complete symbol table.
+     * @param env The environment its imports were compiled into.
+     */
+    public void storeAnalysis(File source, ModuleDec dec, SymbolTable table,
+            CompileEnvironment env) {
+        File entry = getAnalysisEntry(source);
+        if (entry != null) {
+            writeEntry(entry, new AnalyzedModule(dec, table),
+                    getImportedScopes(table, env));
+        }
+    }
+
+    /*
+     * Writes value to entry, standing in for each of the scopes in
+     * importedScopes by its module's ID, if importedScopes isn't null.
+     */
+    private void writeEntry(File entry, Object value,
+            Map<ModuleScope, ModuleID> importedScopes) {
+        if (myDirectory.isDirectory() || myDirectory.mkdirs()) {
+            File temp = null;
+
+            try {
+                temp = File.createTempFile("module", ".tmp", myDirectory);
+                OutputStream file =
+                        new BufferedOutputStream(new FileOutputStream(temp));
+                ObjectOutputStream out;
+                if (importedScopes == null) {
+                    out = new ObjectOutputStream(file);
+                }
+                else {
+                    out = new ImportUnlinkingOutputStream(file, importedScopes);
+                }
+                try {
+                    out.writeObject(value);
+                }
+                finally {
+                    out.close();
+                }
+
+                //Written whole and then renamed, so that a concurrent run
+                //never reads half an entry
+                if (!temp.renameTo(entry)) {
+                    temp.delete();
+                }
+            }
+            catch (IOException ioe) {
+                if (temp != null) {
+                    temp.delete();
+                }
+            }
+        }
+    }
+
+    /*
+     * Reports that entry could not be read and will be ignored.  Always
+     * returns null, for the caller to treat as a miss.
+     */
+    private <T> T unreadable(File entry, Exception e) {
+        myErrorHandler.warning("Ignoring unreadable module cache entry "
+                + entry.getName() + ": " + e);
+        return null;
+    }
+
+    /*
+     * Returns the module scope of every module in env other than table's own,
+     * each with its module's ID.
+     */
+    private static Map<ModuleScope, ModuleID> getImportedScopes(
+            SymbolTable table, CompileEnvironment env) {
+        Map<ModuleScope, ModuleID> retval =
+                new IdentityHashMap<ModuleScope, ModuleID>();
+
+        for (SymbolTable imported : env.getSymbolTables()) {
+            if (imported != null && imported != table
+                    && imported.getModuleScope() != null) {
+                retval.put(imported.getModuleScope(), imported.getModuleID());
+            }
+        }
+
+        return retval;
+    }
+
+    private File getAnalysisEntry(File source) {
+        File retval = null;
+
+        String fingerprint = myFingerprints.get(source.getAbsoluteFile());
+        if (fingerprint != null) {
+            retval = new File(myDirectory, fingerprint + ANALYSIS_EXTENSION);
+        }
+
+        return retval;
+    }
+
+    private File getEntry(File source) {
+        File retval = null;
+
+        File absolute = source.getAbsoluteFile();
+        long lastModified = absolute.lastModified();
+        long length = absolute.length();
+
+        Key key = myKeys.get(absolute);
+        if (key != null && key.lastModified == lastModified
+                && key.length == length) {
+            retval = key.entry;
+        }
+        else {
+            retval = hashEntry(absolute);
+
+            if (retval != null) {
+                myKeys.put(absolute, new Key(lastModified, length, retval));
+            }
+        }
+
+        return retval;
+    }
+
+    private File hashEntry(File source) {
+        File retval = null;
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            digest.update((byte) FORMAT_VERSION);
+            digest.update(source.getPath().getBytes("UTF-8"));
+            digest.update((byte) 0);
+
+            InputStream in = new FileInputStream(source);
+            try {
+                byte[] buffer = new byte[8192];
+                int read = in.read(buffer);
+                while (read != -1) {
+                    digest.update(buffer, 0, read);
+                    read = in.read(buffer);
+                }
+            }
+            finally {
+                in.close();
+            }
+
+            retval =
+                    new File(myDirectory, toHex(digest.digest())
+                            + ENTRY_EXTENSION);
+        }
+        catch (NoSuchAlgorithmException nsae) {
+            retval = null;
+        }
+        catch (IOException ioe) {
+            retval = null;
+        }
+
+        return retval;
+    }
+
+    private static void update(MessageDigest digest, String text)
+            throws IOException {
+        digest.update(text.getBytes("UTF-8"));
+        digest.update((byte) 0);
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder retval = new StringBuilder();
+
+        for (byte b : bytes) {
+            retval.append(Integer.toHexString((b & 0xFF) | 0x100).substring(1));
+        }
+
+        return retval.toString();
+    }
+
+    /**
+     * <p>The entry a source file was hashed to, along with the timestamp and
+     * length the file had at the time.</p>
+     */
+    private static class Key {
+
+        public final long lastModified;
+        public final long length;
+        public final File entry;
+
+        public Key(long lastModified, long length, File entry) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.entry = entry;
+        }
+    }
+
+    /**
+     * <p>A module as analysis left it: its tree, with the PreProcessor's
+     * changes and the types analysis worked out, and its complete symbol
+     * table.  The two are written together so that the table's references
+     * into the tree survive.</p>
+     */
+    public static class AnalyzedModule implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ModuleDec myModuleDec;
+        private final SymbolTable mySymbolTable;
+
+        public AnalyzedModule(ModuleDec dec, SymbolTable table) {
+            myModuleDec = dec;
+            mySymbolTable = table;
+        }
+
+        public ModuleDec getModuleDec() {
+            return myModuleDec;
+        }
+
+        public SymbolTable getSymbolTable() {
+            return mySymbolTable;
+        }
+    }
+
+    /**
+     * <p>Stands in for the module scope of an imported module in an analysis
+     * entry.</p>
+     */
+    private static class ImportedScope implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        public final ModuleID id;
+
+        public ImportedScope(ModuleID id) {
+            this.id = id;
+        }
+    }
+
+    /**
+     * <p>Writes imported modules' scopes as <code>ImportedScope</code>s, so
+     * that an entry holds only its own module.</p>
+     */
+    private static class ImportUnlinkingOutputStream
+            extends
+                ObjectOutputStream {
+
+        private final Map<ModuleScope, ModuleID> myImportedScopes;
+
+        public ImportUnlinkingOutputStream(OutputStream out,
+                Map<ModuleScope, ModuleID> importedScopes) throws IOException {
+            super(out);
+            myImportedScopes = importedScopes;
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) {
+            Object retval = obj;
+
+            if (obj instanceof ModuleScope) {
+                ModuleID id = myImportedScopes.get(obj);
+                if (id != null) {
+                    retval = new ImportedScope(id);
+                }
+            }
+
+            return retval;
+        }
+    }
+
+    /**
+     * <p>Reads each <code>ImportedScope</code> back as the scope of that
+     * module in an environment.</p>
+     */
+    private static class ImportLinkingInputStream extends ObjectInputStream {
+
+        private final CompileEnvironment myEnvironment;
+
+        public ImportLinkingInputStream(InputStream in, CompileEnvironment env)
+                throws IOException {
+            super(in);
+            myEnvironment = env;
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Object resolveObject(Object obj) throws IOException {
+            Object retval = obj;
+
+            if (obj instanceof ImportedScope) {
+                ModuleID id = ((ImportedScope) obj).id;
+                if (!myEnvironment.contains(id)
+                        || myEnvironment.getSymbolTable(id) == null) {
+                    throw new InvalidObjectException("Imported module " + id
+                            + " has not been compiled");
+                }
+                retval = myEnvironment.getSymbolTable(id).getModuleScope();
+            }
+
+            return retval;
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package edu.clemson.cs.r2jt.init;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import edu.clemson.cs.r2jt.errors.ErrorHandler;
+
+/**
+ * <p>Finishes compiling import files on a pool of worker threads, each as soon
+ * as the imports it is waiting on have been compiled, so that modules that do
+ * not import one another are populated and analyzed at the same time.</p>
+ *
+ * <p>The <code>Controller</code> still finds, parses and pre-processes every
+ * module on the compiling thread, in import order, since that is what builds
+ * the import DAG and the compile stack.  It then hands each import's remaining
+ * work here, with the import files it depends on.  A compile whose import
+ * failed is not run, but fails too, as it would have without the
+ * scheduler.</p>
+ *
+ * <p>While a worker compiles a module, the environment's error handler is
+ * redirected on that thread to a handler of its own, so the diagnostics of
+ * modules compiled at the same time do not interleave.  The
+ * <code>Controller</code> passes them on, in the order the modules were
+ * scheduled, once <code>finish</code> returns.</p>
+ *
+ * <p>Compiles are scheduled and finished only from the compiling thread.</p>
+ */
+class ModuleCompileScheduler {
+
+    private final CompileEnvironment myEnvironment;
+
+    private final ExecutorService myWorkers;
+
+    /* Every compile scheduled since the last call to finish(), by file and
+     * in scheduling order. */
+    private final Map<File, ScheduledCompile> myCompiles =
+            new HashMap<File, ScheduledCompile>();
+    private final List<ScheduledCompile> myOrder =
+            new ArrayList<ScheduledCompile>();
+
+    private int myUnfinishedCount = 0;
+
+    public ModuleCompileScheduler(CompileEnvironment environment, int workers) {
+        myEnvironment = environment;
+        myWorkers = Executors.newFixedThreadPool(workers, new ThreadFactory() {
+
+            public Thread newThread(Runnable r) {
+                Thread retval = new Thread(r, "Module compiler");
+                retval.setDaemon(true);
+                return retval;
+            }
+        });
+    }
+
+    /**
+     * <p>Schedules <code>compilation</code>, the rest of the compile of
+     * <code>file</code>, to run once every one of <code>imports</code> that
+     * has been scheduled and not yet finished has compiled.  Imports that
+     * were never scheduled are taken to be compiled already.</p>
+     *
+     * @param file The import file.
+     * @param imports The files of the modules it imports.
+     * @param compilation The work left to compile it.
+     */
+    public synchronized void schedule(File file, Collection<File> imports,
+            Compilation compilation) {
+        ScheduledCompile compile = new ScheduledCompile(file, compilation);
+        myCompiles.put(file, compile);
+        myOrder.add(compile);
+        myUnfinishedCount++;
+
+        boolean importFailed = false;
+        for (File imported : imports) {
+            ScheduledCompile importedCompile = myCompiles.get(imported);
+            if (importedCompile != null) {
+                if (!importedCompile.myFinishedFlag) {
+                    compile.myWaitingCount++;
+                    importedCompile.myDependents.add(compile);
+                }
+                else if (!importedCompile.mySucceededFlag) {
+                    importFailed = true;
+                }
+            }
+        }
+
+        if (importFailed) {
+            finished(compile, false);
+        }
+        else if (compile.myWaitingCount == 0) {
+            start(compile);
+        }
+    }
+
+    /**
+     * <p>Waits until every scheduled compile has finished, and returns them
+     * in the order they were scheduled.  They are forgotten here, so each is
+     * returned only once.</p>
+     *
+     * @return The finished compiles.
+     */
+    public synchronized List<ScheduledCompile> finish() {
+        boolean interrupted = false;
+        while (myUnfinishedCount > 0) {
+            try {
+                wait();
+            }
+            catch (InterruptedException ie) {
+                //The compiles still have to be waited for, since the
+                //environment is left holding them otherwise
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<ScheduledCompile> retval =
+                new ArrayList<ScheduledCompile>(myOrder);
+        myOrder.clear();
+        myCompiles.clear();
+
+        return retval;
+    }
+
+    /**
+     * <p>Stops the workers.  Compiles that have not finished are
+     * abandoned.</p>
+     */
+    public void shutdown() {
+        myWorkers.shutdownNow();
+    }
+
+    private void start(final ScheduledCompile compile) {
+        myWorkers.execute(new Runnable() {
+
+            public void run() {
+                ModuleCompileScheduler.this.run(compile);
+            }
+        });
+    }
+
+    private void run(ScheduledCompile compile) {
+        StringWriter output = new StringWriter();
+        ErrorHandler local =
+                new ErrorHandler(myEnvironment, new PrintWriter(output));
+        local.setFile(compile.myFile);
+
+        boolean succeeded = false;
+        ErrorHandler err = myEnvironment.getErrorHandler();
+        err.redirect(local);
+        try {
+            compile.myCompilation.compile();
+            succeeded = true;
+        }
+        catch (CompilerException cex) {
+            //Reported through the handler already
+        }
+        catch (Throwable t) {
+            compile.myFailure = t;
+        }
+        finally {
+            err.redirect(null);
+        }
+
+        synchronized (this) {
+            compile.myDiagnostics = local;
+            compile.myOutput = output.toString();
+            finished(compile, succeeded);
+        }
+    }
+
+    /*
+     * Marks compile as finished, starts whatever was only waiting on it, or
+     * fails whatever imports it if it failed.  Called with the lock held.
+     */
+    private void finished(ScheduledCompile compile, boolean succeeded) {
+        compile.myFinishedFlag = true;
+        compile.mySucceededFlag = succeeded;
+        myUnfinishedCount--;
+
+        for (ScheduledCompile dependent : compile.myDependents) {
+            if (!dependent.myFinishedFlag) {
+                dependent.myWaitingCount--;
+                if (!succeeded) {
+                    finished(dependent, false);
+                }
+                else if (dependent.myWaitingCount == 0) {
+                    start(dependent);
+                }
+            }
+        }
+
+        notifyAll();
+    }
+
+    /**
+     * <p>The part of a module's compile that is left to a worker.</p>
+     */
+    public interface Compilation {
+
+        /**
+         * <p>Populates and analyzes the module and completes its record.</p>
+         *
+         * @throws CompilerException If the module has errors, which have
+         *             already been reported.
+         */
+        public void compile() throws CompilerException;
+    }
+
+    /**
+     * <p>A compile handed to the scheduler, and, once it has finished, what
+     * became of it.</p>
+     */
+    public static class ScheduledCompile {
+
+        private final File myFile;
+        private final Compilation myCompilation;
+
+        /* The compiles waiting on this one, and how many this one is still
+         * waiting on. */
+        private final List<ScheduledCompile> myDependents =
+                new ArrayList<ScheduledCompile>();
+        private int myWaitingCount = 0;
+
+        private boolean myFinishedFlag = false;
+        private boolean mySucceededFlag = false;
+        private ErrorHandler myDiagnostics = null;
+        private String myOutput = "";
+        private Throwable myFailure = null;
+
+        private ScheduledCompile(File file, Compilation compilation) {
+            myFile = file;
+            myCompilation = compilation;
+        }
+
+        public File getFile() {
+            return myFile;
+        }
+
+        /**
+         * <p>Returns true if the module compiled without errors.</p>
+         */
+        public boolean succeeded() {
+            return mySucceededFlag;
+        }
+
+        /**
+         * <p>Returns the handler everything was reported through while the
+         * module compiled, or <code>null</code> if it was never run because
+         * one of its imports failed.</p>
+         */
+        public ErrorHandler getDiagnostics() {
+            return myDiagnostics;
+        }
+
+        /**
+         * <p>Returns everything written to the handler from
+         * <code>getDiagnostics</code>.</p>
+         */
+        public String getOutput() {
+            return myOutput;
+        }
+
+        /**
+         * <p>Returns what the compile threw other than a
+         * <code>CompilerException</code>, or <code>null</code>.</p>
+         */
+        public Throwable getFailure() {
+            return myFailure;
+        }
+    }
+}
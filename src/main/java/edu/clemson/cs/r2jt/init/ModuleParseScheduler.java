@@ -0,0 +1,182 @@
+package edu.clemson.cs.r2jt.init;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.antlr.runtime.CharStream;
+import org.antlr.runtime.CommonTokenStream;
+import org.antlr.runtime.RecognitionException;
+import org.antlr.runtime.tree.CommonTree;
+import org.antlr.runtime.tree.CommonTreeNodeStream;
+
+import edu.clemson.cs.r2jt.absyn.ModuleDec;
+import edu.clemson.cs.r2jt.errors.ErrorHandler;
+import edu.clemson.cs.r2jt.parsing.ColsASTAdaptor;
+import edu.clemson.cs.r2jt.parsing.RBuilder;
+import edu.clemson.cs.r2jt.parsing.RLexer;
+import edu.clemson.cs.r2jt.parsing.RParser;
+
+/**
+ * <p>Lexes, parses and builds the <code>ModuleDec</code>s of import files on a
+ * pool of worker threads, so that while the <code>Controller</code> analyzes
+ * one import the ones after it are already being parsed.</p>
+ *
+ * <p>Only parsing happens here.  Building the import DAG needs each parsed
+ * module, so the <code>Controller</code> takes them on the compiling thread in
+ * import order, and the population and analysis that follow are left to a
+ * <code>ModuleCompileScheduler</code>.  A worker reports nothing: any file
+ * that produces even a warning is handed back as unparsed, and the
+ * <code>Controller</code> parses it again itself so that diagnostics and
+ * aborts are exactly as they would be without the scheduler.</p>
+ *
+ * <p>Files are scheduled and taken only from the compiling thread.</p>
+ */
+class ModuleParseScheduler {
+
+    private final CompileEnvironment myEnvironment;
+
+    private final ExecutorService myWorkers;
+
+    private final Map<File, Future<ModuleDec>> myParses =
+            new HashMap<File, Future<ModuleDec>>();
+
+    public ModuleParseScheduler(CompileEnvironment environment, int workers) {
+        myEnvironment = environment;
+        myWorkers = Executors.newFixedThreadPool(workers, new ThreadFactory() {
+
+            public Thread newThread(Runnable r) {
+                Thread retval = new Thread(r, "Module parser");
+                retval.setDaemon(true);
+                return retval;
+            }
+        });
+    }
+
+    /**
+     * <p>Starts parsing <code>file</code> if it has not already been
+     * scheduled.</p>
+     *
+     * @param file The import file.
+     */
+    public void schedule(final File file) {
+        if (!myParses.containsKey(file)) {
+            myParses.put(file, myWorkers.submit(new Callable<ModuleDec>() {
+
+                public ModuleDec call() throws Exception {
+                    return parse(file);
+                }
+            }));
+        }
+    }
+
+    /**
+     * <p>Returns the module parsed from <code>file</code>, waiting for it if a
+     * worker is still busy with it.  Returns <code>null</code> if the file was
+     * never scheduled, had not been started yet, or did not parse cleanly; the
+     * caller should then parse it itself.</p>
+     *
+     * @param file The import file.
+     *
+     * @return The parsed module, or <code>null</code>.
+     */
+    public ModuleDec take(File file) {
+        ModuleDec retval = null;
+
+        Future<ModuleDec> parse = myParses.remove(file);
+        if (parse != null && !parse.cancel(false)) {
+            try {
+                retval = parse.get();
+            }
+            catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+            catch (ExecutionException ee) {
+                //Parse it again on this thread and let the usual error
+                //handling see whatever went wrong
+            }
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Stops the workers and forgets any parses that were never taken.</p>
+     */
+    public void shutdown() {
+        myWorkers.shutdownNow();
+        myParses.clear();
+    }
+
+    private ModuleDec parse(File file) throws Exception {
+        StringWriter diagnostics = new StringWriter();
+        ErrorHandler err =
+                new ErrorHandler(myEnvironment, new PrintWriter(diagnostics));
+        err.setFile(file);
+
+        CharStream cs = Controller.newFileStream(myEnvironment, file);
+        QuietLexer lexer = new QuietLexer(cs);
+        CommonTokenStream tokens = new CommonTokenStream();
+        tokens.setTokenSource(lexer);
+
+        RParser parser = new RParser(tokens);
+        parser.setTreeAdaptor(new ColsASTAdaptor());
+        CommonTree ast = (CommonTree) parser.module(err).getTree();
+
+        ModuleDec retval = null;
+        if (!lexer.failed && diagnostics.getBuffer().length() == 0) {
+            QuietBuilder builder =
+                    new QuietBuilder(new CommonTreeNodeStream(ast));
+            builder.setTreeAdaptor(new ColsASTAdaptor());
+            retval = builder.module(err).dec;
+
+            if (builder.failed || diagnostics.getBuffer().length() != 0) {
+                retval = null;
+            }
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>A lexer that notes its errors rather than printing them.</p>
+     */
+    private static class QuietLexer extends RLexer {
+
+        public boolean failed = false;
+
+        public QuietLexer(CharStream input) {
+            super(input);
+        }
+
+        @Override
+        public void emitErrorMessage(String msg) {
+            failed = true;
+        }
+    }
+
+    /**
+     * <p>A builder that notes its errors rather than printing them.</p>
+     */
+    private static class QuietBuilder extends RBuilder {
+
+        public boolean failed = false;
+
+        public QuietBuilder(CommonTreeNodeStream input) {
+            super(input);
+        }
+
+        @Override
+        public void reportError(RecognitionException ex) {
+            failed = true;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package edu.clemson.cs.r2jt.init;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+
+import edu.clemson.cs.r2jt.absyn.UsesItem;
+import edu.clemson.cs.r2jt.collections.List;
+import edu.clemson.cs.r2jt.data.MetaFile;
+
+/**
+ * <p>The library modules that earlier compilations in this process have
+ * already analyzed, kept so that a later compilation can import them without
+ * parsing and populating them again.  This is what lets a long-lived compile
+ * server answer a request by compiling only the user's own files.</p>
+ *
+ * <p>A library module is one read from a file under the main directory that
+ * compiled without errors and that is not one of the request's user files.
+ * The records of these modules, and the symbol tables in them, are shared by
+ * every environment this library seeds and must be treated as read-only.
+ * Their symbol tables look up imports in, and report errors to, an
+ * environment, so seeding an environment hands it every table; environments
+ * seeded from one library must therefore compile one at a time, as the
+ * <code>CompileServer</code> does, and the library keeps only the most
+ * recently seeded environment alive between compilations.  A request whose
+ * user files replace a library module of the same name neither
+ * uses nor adds to the library, since the library's modules might have been
+ * analyzed against the module it replaces.</p>
+ *
+ * <p>The library only holds modules compiled under one main directory and one
+ * set of compiler arguments.  If either changes, or any of the library's files
+ * is changed on disk, everything is forgotten, since it is not recorded which
+ * library modules import which.</p>
+ */
+public class WarmLibrary {
+
+    private final HashMap<File, ModuleRecord> myRecords =
+            new HashMap<File, ModuleRecord>();
+
+    private final HashMap<File, Long> myModificationTimes =
+            new HashMap<File, Long>();
+
+    private final Set<String> myFileNames = new HashSet<String>();
+
+    private List<List<UsesItem>> myStdUsesDepends = null;
+
+    private File myMainDir = null;
+
+    private java.util.List<String> myArguments = null;
+
+    /**
+     * <p>Places every library module in <code>env</code> as an already
+     * completed compilation, if the library can be used for it.</p>
+     *
+     * @param env A new environment that has not compiled anything yet.
+     * @param args The arguments it was created with.
+     * @param inputFile The user file being compiled, or <code>null</code>.
+     *
+     * @return Whether the library was used.
+     */
+    public synchronized boolean seed(CompileEnvironment env, String[] args,
+            MetaFile inputFile) {
+
+        boolean retval = false;
+
+        if (!matches(env, args)) {
+            forget();
+        }
+        else if (!myRecords.isEmpty()
+                && !replacesLibraryModule(env, inputFile)) {
+
+            for (ModuleRecord record : myRecords.values()) {
+                record.getSymbolTable().setInstanceEnvironment(env);
+                env.addCompletedRecord(record);
+            }
+
+            env.setStdUsesDepends(copyOf(myStdUsesDepends));
+            retval = true;
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Adds to the library the library modules that <code>env</code>
+     * compiled and that it does not already have.</p>
+     *
+     * <p>If the library was built under another main directory or other
+     * arguments, or any of its files has changed on disk since, the whole
+     * library is dropped first, not just the changed modules and those that
+     * import them, since which library modules import which is not
+     * recorded.  The next request then compiles the library again from
+     * source.</p>
+     *
+     * @param env An environment that has finished compiling.
+     * @param args The arguments it was created with.
+     * @param inputFile The user file that was compiled, or <code>null</code>.
+     */
+    public synchronized void absorb(CompileEnvironment env, String[] args,
+            MetaFile inputFile) {
+
+        if (!matches(env, args)) {
+            forget();
+            myMainDir = env.getMainDir();
+            myArguments = Arrays.asList(args);
+        }
+
+        if (!replacesLibraryModule(env, inputFile)) {
+            Set<String> userFileNames = getUserFileNames(env, inputFile);
+
+            for (ModuleRecord record : env.getMap().values()) {
+                File file = record.getFile();
+
+                if (record.isComplete() && !record.containsErrors()
+                        && file.isFile() && !myRecords.containsKey(file)
+                        && !userFileNames.contains(file.getName())) {
+
+                    myRecords.put(file, record);
+                    myModificationTimes.put(file, file.lastModified());
+                    myFileNames.add(file.getName());
+                }
+            }
+
+            if (myStdUsesDepends == null && !myRecords.isEmpty()) {
+                myStdUsesDepends = copyOf(env.getStdUsesDepends());
+            }
+        }
+    }
+
+    /**
+     * <p>Returns the number of library modules currently held.</p>
+     *
+     * @return The number of modules.
+     */
+    public synchronized int size() {
+        return myRecords.size();
+    }
+
+    /**
+     * <p>Forgets every library module.</p>
+     */
+    public synchronized void forget() {
+        myRecords.clear();
+        myModificationTimes.clear();
+        myFileNames.clear();
+        myStdUsesDepends = null;
+        myMainDir = null;
+        myArguments = null;
+    }
+
+    /**
+     * <p>Returns <code>true</code> <strong>iff</strong> the library was built
+     * for the same main directory and arguments as <code>env</code> and none
+     * of its files has changed since.</p>
+     */
+    private boolean matches(CompileEnvironment env, String[] args) {
+        boolean retval =
+                myMainDir != null && myMainDir.equals(env.getMainDir())
+                        && myArguments.equals(Arrays.asList(args));
+
+        if (retval) {
+            for (java.util.Map.Entry<File, Long> e : myModificationTimes
+                    .entrySet()) {
+
+                if (e.getKey().lastModified() != e.getValue()) {
+                    retval = false;
+                }
+            }
+        }
+
+        return retval;
+    }
+
+    private boolean replacesLibraryModule(CompileEnvironment env,
+            MetaFile inputFile) {
+
+        boolean retval = false;
+
+        for (String name : getUserFileNames(env, inputFile)) {
+            if (myFileNames.contains(name)) {
+                retval = true;
+            }
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Returns the names of the files the user's modules stand in for.
+     * Modules are found by file name anywhere under the main directory, so
+     * this is what identifies them.</p>
+     */
+    private static Set<String> getUserFileNames(CompileEnvironment env,
+            MetaFile inputFile) {
+
+        Set<String> retval = new HashSet<String>();
+
+        java.util.List<MetaFile> userFiles = new ArrayList<MetaFile>();
+        if (env.getUserFileMap() != null) {
+            userFiles.addAll(env.getUserFileMap().values());
+        }
+        if (inputFile != null) {
+            userFiles.add(inputFile);
+        }
+
+        for (MetaFile f : userFiles) {
+            retval.add(f.getMyFile(env.getMainDir()).getName());
+        }
+
+        return retval;
+    }
+
+    private static List<List<UsesItem>> copyOf(List<List<UsesItem>> lists) {
+        List<List<UsesItem>> retval = new List<List<UsesItem>>();
+
+        for (List<UsesItem> l : lists) {
+            List<UsesItem> copy = new List<UsesItem>();
+            copy.addAll(l);
+            retval.add(copy);
+        }
+
+        return retval;
+    }
+}
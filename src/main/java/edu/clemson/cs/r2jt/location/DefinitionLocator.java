@@ -61,7 +61,6 @@ package edu.clemson.cs.r2jt.location;
 import edu.clemson.cs.r2jt.absyn.Exp;
 import edu.clemson.cs.r2jt.collections.Iterator;
 import edu.clemson.cs.r2jt.collections.List;
-import edu.clemson.cs.r2jt.collections.Stack;
 import edu.clemson.cs.r2jt.data.Location;
 import edu.clemson.cs.r2jt.data.ModuleID;
 import edu.clemson.cs.r2jt.data.PosSymbol;
@@ -135,11 +134,25 @@ public class DefinitionLocator {
 
     public DefinitionEntry locateDefinition(PosSymbol name, List<Type> argtypes)
             throws SymbolSearchException {
+        return getUniqueDefinition(name, argtypes, locateDefinitions(name));
+    }
+
+    /*
+     * Returns every definition with the given name that
+     * locateDefinition(name, argtypes) would choose among, whatever their
+     * parameters.  Outputs no errors.
+     *
+     * @param name The definitions to find.
+     *
+     * @return The definitions, which may be none.
+     */
+    public List<DefinitionEntry> locateDefinitions(PosSymbol name)
+            throws SymbolSearchException {
         List<DefinitionEntry> defs = locateDefinitionsInStack(name);
         if (defs.size() == 0) {
             defs = locateDefinitionsInImports(name);
         }
-        return getUniqueDefinition(name, argtypes, defs);
+        return defs;
     }
 
     /*
@@ -248,45 +261,33 @@ public class DefinitionLocator {
     private List<DefinitionEntry> locateDefinitionsInStack(PosSymbol name)
             throws SymbolSearchException {
         List<DefinitionEntry> defs = new List<DefinitionEntry>();
-        Stack<Scope> stack = table.getStack();
-        Stack<Scope> hold = new Stack<Scope>();
-        try {
-            while (!stack.isEmpty()) {
-                Scope scope = stack.pop();
-                hold.push(scope);
-                if (scope instanceof ProcedureScope) {
-                    defs.addAll(locateDefinitionsInProc(name,
-                            (ProcedureScope) scope));
-                    if (defs.size() > 0) {
-                        break;
-                    }
-                }
-                else if (scope instanceof ProofScope) {
-                    defs.addAll(locateDefinitionsInProof(name,
-                            (ProofScope) scope));
-                    if (defs.size() > 0) {
-                        break;
-                    }
+        for (Scope scope : table.getScopes()) {
+            if (scope instanceof ProcedureScope) {
+                defs.addAll(locateDefinitionsInProc(name,
+                        (ProcedureScope) scope));
+                if (defs.size() > 0) {
+                    break;
                 }
-                else if (scope instanceof ModuleScope) {
-                    ModuleScope mscope = (ModuleScope) scope;
-                    if (mscope.containsDefinition(name.getSymbol())) {
-                        defs.add(mscope.getDefinition(name.getSymbol()));
-                    }
-                    // FIX: Check for recursive operation
-                    // should be added here.
+            }
+            else if (scope instanceof ProofScope) {
+                defs.addAll(locateDefinitionsInProof(name, (ProofScope) scope));
+                if (defs.size() > 0) {
+                    break;
                 }
-                else {
-                    // continue
+            }
+            else if (scope instanceof ModuleScope) {
+                ModuleScope mscope = (ModuleScope) scope;
+                if (mscope.containsDefinition(name.getSymbol())) {
+                    defs.add(mscope.getDefinition(name.getSymbol()));
                 }
+                // FIX: Check for recursive operation
+                // should be added here.
             }
-            return defs;
-        }
-        finally {
-            while (!hold.isEmpty()) {
-                stack.push(hold.pop());
+            else {
+                // continue
             }
         }
+        return defs;
     }
 
     private List<DefinitionEntry> locateDefinitionsInProc(PosSymbol name,
@@ -60,7 +60,6 @@ package edu.clemson.cs.r2jt.location;
 
 import edu.clemson.cs.r2jt.collections.Iterator;
 import edu.clemson.cs.r2jt.collections.List;
-import edu.clemson.cs.r2jt.collections.Stack;
 import edu.clemson.cs.r2jt.data.Location;
 import edu.clemson.cs.r2jt.data.ModuleID;
 import edu.clemson.cs.r2jt.data.PosSymbol;
@@ -143,38 +142,27 @@ public class OperationLocator {
     private List<OperationEntry> locateOperationsInStack(PosSymbol name)
             throws SymbolSearchException {
         List<OperationEntry> opers = new List<OperationEntry>();
-        Stack<Scope> stack = table.getStack();
-        Stack<Scope> hold = new Stack<Scope>();
-        try {
-            while (!stack.isEmpty()) {
-                Scope scope = stack.pop();
-                hold.push(scope);
-                if (scope instanceof ProcedureScope) {
-                    opers.addAll(locateOperationsInProc(name,
-                            (ProcedureScope) scope));
-                    if (opers.size() > 0) {
-                        break;
-                    }
+        for (Scope scope : table.getScopes()) {
+            if (scope instanceof ProcedureScope) {
+                opers.addAll(locateOperationsInProc(name,
+                        (ProcedureScope) scope));
+                if (opers.size() > 0) {
+                    break;
                 }
-                else if (scope instanceof ModuleScope) {
-                    ModuleScope mscope = (ModuleScope) scope;
-                    if (mscope.containsOperation(name.getSymbol())) {
-                        opers.add(mscope.getOperation(name.getSymbol()));
-                    }
-                    // FIX: Check for recursive operation
-                    // should be added here.
-                }
-                else {
-                    // continue
+            }
+            else if (scope instanceof ModuleScope) {
+                ModuleScope mscope = (ModuleScope) scope;
+                if (mscope.containsOperation(name.getSymbol())) {
+                    opers.add(mscope.getOperation(name.getSymbol()));
                 }
+                // FIX: Check for recursive operation
+                // should be added here.
             }
-            return opers;
-        }
-        finally {
-            while (!hold.isEmpty()) {
-                stack.push(hold.pop());
+            else {
+                // continue
             }
         }
+        return opers;
     }
 
     private List<OperationEntry> locateOperationsInProc(PosSymbol name,
@@ -60,7 +60,6 @@ package edu.clemson.cs.r2jt.location;
 
 import edu.clemson.cs.r2jt.collections.Iterator;
 import edu.clemson.cs.r2jt.collections.List;
-import edu.clemson.cs.r2jt.collections.Stack;
 import edu.clemson.cs.r2jt.data.Location;
 import edu.clemson.cs.r2jt.data.ModuleID;
 import edu.clemson.cs.r2jt.data.PosSymbol;
@@ -147,28 +146,17 @@ public class ProofLocator {
     private List<ProofEntry> locateProofsInStack(PosSymbol name)
             throws SymbolSearchException {
         List<ProofEntry> proofs = new List<ProofEntry>();
-        Stack<Scope> stack = table.getStack();
-        Stack<Scope> hold = new Stack<Scope>();
-        try {
-            while (!stack.isEmpty()) {
-                Scope scope = stack.pop();
-                hold.push(scope);
-                if (scope instanceof ModuleScope) {
-                    ModuleScope mscope = (ModuleScope) scope;
-                    if (mscope.containsProof(name.getSymbol())) {
-                        proofs.add(mscope.getProof(name.getSymbol()));
-                    }
-                    // FIX: Check for recursive operation
-                    // should be added here.
+        for (Scope scope : table.getScopes()) {
+            if (scope instanceof ModuleScope) {
+                ModuleScope mscope = (ModuleScope) scope;
+                if (mscope.containsProof(name.getSymbol())) {
+                    proofs.add(mscope.getProof(name.getSymbol()));
                 }
-            }
-            return proofs;
-        }
-        finally {
-            while (!hold.isEmpty()) {
-                stack.push(hold.pop());
+                // FIX: Check for recursive operation
+                // should be added here.
             }
         }
+        return proofs;
     }
 
     private List<ProofEntry> locateProofsInImports(PosSymbol name)
@@ -60,7 +60,6 @@ package edu.clemson.cs.r2jt.location;
 
 import edu.clemson.cs.r2jt.collections.Iterator;
 import edu.clemson.cs.r2jt.collections.List;
-import edu.clemson.cs.r2jt.collections.Stack;
 import edu.clemson.cs.r2jt.data.Location;
 import edu.clemson.cs.r2jt.data.ModuleID;
 import edu.clemson.cs.r2jt.data.PosSymbol;
@@ -169,11 +168,7 @@ public class QualifierLocator {
 
     private ModuleScope locateModuleInStack(PosSymbol qual) {
         ModuleScope module = null;
-        Stack<Scope> stack = table.getStack();
-        Stack<Scope> hold = new Stack<Scope>();
-        while (!stack.isEmpty()) {
-            Scope scope = stack.pop();
-            hold.push(scope);
+        for (Scope scope : table.getScopes()) {
             if (scope instanceof ProcedureScope) {
                 module = locateModule(qual, (ProcedureScope) scope);
             }
@@ -187,9 +182,6 @@ public class QualifierLocator {
                 break;
             }
         }
-        while (!hold.isEmpty()) {
-            stack.push(hold.pop());
-        }
         return module;
     }
 
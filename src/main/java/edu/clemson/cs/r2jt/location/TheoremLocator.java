@@ -60,7 +60,6 @@ package edu.clemson.cs.r2jt.location;
 
 import edu.clemson.cs.r2jt.collections.Iterator;
 import edu.clemson.cs.r2jt.collections.List;
-import edu.clemson.cs.r2jt.collections.Stack;
 import edu.clemson.cs.r2jt.data.Location;
 import edu.clemson.cs.r2jt.data.ModuleID;
 import edu.clemson.cs.r2jt.data.PosSymbol;
@@ -150,28 +149,17 @@ public class TheoremLocator {
     private List<TheoremEntry> locateTheoremsInStack(PosSymbol name)
             throws SymbolSearchException {
         List<TheoremEntry> theorems = new List<TheoremEntry>();
-        Stack<Scope> stack = table.getStack();
-        Stack<Scope> hold = new Stack<Scope>();
-        try {
-            while (!stack.isEmpty()) {
-                Scope scope = stack.pop();
-                hold.push(scope);
-                if (scope instanceof ModuleScope) {
-                    ModuleScope mscope = (ModuleScope) scope;
-                    if (mscope.containsTheorem(name.getSymbol())) {
-                        theorems.add(mscope.getTheorem(name.getSymbol()));
-                    }
-                    // FIX: Check for recursive operation
-                    // should be added here.
+        for (Scope scope : table.getScopes()) {
+            if (scope instanceof ModuleScope) {
+                ModuleScope mscope = (ModuleScope) scope;
+                if (mscope.containsTheorem(name.getSymbol())) {
+                    theorems.add(mscope.getTheorem(name.getSymbol()));
                 }
-            }
-            return theorems;
-        }
-        finally {
-            while (!hold.isEmpty()) {
-                stack.push(hold.pop());
+                // FIX: Check for recursive operation
+                // should be added here.
             }
         }
+        return theorems;
     }
 
     private List<TheoremEntry> locateTheoremsInImports(PosSymbol name)
@@ -62,7 +62,6 @@ import edu.clemson.cs.r2jt.absyn.Exp;
 import edu.clemson.cs.r2jt.absyn.VarExp;
 import edu.clemson.cs.r2jt.collections.Iterator;
 import edu.clemson.cs.r2jt.collections.List;
-import edu.clemson.cs.r2jt.collections.Stack;
 import edu.clemson.cs.r2jt.data.Location;
 import edu.clemson.cs.r2jt.data.ModuleID;
 import edu.clemson.cs.r2jt.data.PosSymbol;
@@ -260,46 +259,51 @@ public class VariableLocator {
     public List<VarEntry> locateVariablesInStack(PosSymbol name)
             throws SymbolSearchException {
         List<VarEntry> vars = new List<VarEntry>();
-        Stack<Scope> stack = table.getStack();
-        Stack<Scope> hold = new Stack<Scope>();
-        try {
-            while (!stack.isEmpty()) {
-                Scope scope = stack.pop();
-                hold.push(scope);
-                if (scope.containsVariable(name.getSymbol())) {
-                    vars.add(scope.getVariable(name.getSymbol()));
-                    // if you find the variable in a procedure, mark it local (for the proof checker)
-                    if (scope instanceof ProcedureScope
-                            || scope instanceof DefinitionScope
-                            || scope instanceof OperationScope
-                            || scope instanceof ExpressionScope) {
-                        local = true;
-                    }
-                    break;
-                }
-                if (scope instanceof ProcedureScope) {
-                    vars.addAll(locateVariablesInProc(name,
-                            (ProcedureScope) scope));
-                    if (vars.size() > 0) {
-                        break;
-                    }
+        ScopeChain chain = table.getScopeChain();
+        if (chain == null) {
+            return vars;
+        }
+
+        ScopeChain.VariableResolution cached =
+                chain.getVariableResolution(name.getSymbol());
+        if (cached != null) {
+            local = local || cached.isLocal();
+            return cached.getVariables();
+        }
+
+        long version = chain.getSymbolVersion();
+        boolean foundLocal = false;
+        for (Scope scope : chain) {
+            if (scope.containsVariable(name.getSymbol())) {
+                vars.add(scope.getVariable(name.getSymbol()));
+                // if you find the variable in a procedure, mark it local (for the proof checker)
+                if (scope instanceof ProcedureScope
+                        || scope instanceof DefinitionScope
+                        || scope instanceof OperationScope
+                        || scope instanceof ExpressionScope) {
+                    foundLocal = true;
                 }
-                if (scope instanceof ProofScope) {
-                    vars
-                            .addAll(locateVariablesInProof(name,
-                                    (ProofScope) scope));
-                    if (vars.size() > 0) {
-                        break;
-                    }
+                break;
+            }
+            if (scope instanceof ProcedureScope) {
+                vars
+                        .addAll(locateVariablesInProc(name,
+                                (ProcedureScope) scope));
+                if (vars.size() > 0) {
+                    break;
                 }
             }
-            return vars;
-        }
-        finally {
-            while (!hold.isEmpty()) {
-                stack.push(hold.pop());
+            if (scope instanceof ProofScope) {
+                vars.addAll(locateVariablesInProof(name, (ProofScope) scope));
+                if (vars.size() > 0) {
+                    break;
+                }
             }
         }
+        chain.putVariableResolution(name.getSymbol(), version, vars,
+                foundLocal);
+        local = local || foundLocal;
+        return vars;
     }
 
     public List<VarEntry> locateMathVariablesInImports(PosSymbol name)
@@ -3020,24 +3020,12 @@ public class ProofChecker {
     // ==========================================================
 
     private ProofScope getProofScope() {
-        Stack<Scope> scopes = table.getStack();
-        Stack<Scope> scopes2 = new Stack<Scope>();
-        Scope temp = null;
-        boolean found = false;
-        while (!found && !(scopes.isEmpty())) {
-            temp = scopes.pop();
-            if (temp instanceof ProofScope) {
-                found = true;
-            }
-            scopes.push(temp);
+        ProofScope scope = null;
+        ScopeChain scopes = table.getScopeChain();
+        if (scopes != null) {
+            scope = scopes.getProofScope();
         }
-        while (!(scopes2.isEmpty())) {
-            scopes.push(scopes2.pop());
-        }
-        if (found)
-            return (ProofScope) temp;
-        else
-            return null;
+        return scope;
     }
 
     private boolean areLogicalOpposites(Exp e1, Exp e2) {
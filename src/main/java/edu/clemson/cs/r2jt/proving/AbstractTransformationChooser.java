@@ -19,8 +19,6 @@ public abstract class AbstractTransformationChooser
 
     protected final MathExpTypeResolver myTyper;
 
-    private ChainingIterable<VCTransformer> myPerVCSubstitutions;
-
     public AbstractTransformationChooser(Iterable<VCTransformer> library,
             MathExpTypeResolver r) {
 
@@ -58,9 +56,6 @@ public abstract class AbstractTransformationChooser
     public final Iterator<ProofPathSuggestion> suggestTransformations(VC vc,
             int curLength, Metrics metrics, ProofData d) {
 
-        myPerVCSubstitutions = new ChainingIterable<VCTransformer>();
-        myPerVCSubstitutions.add(myTransformerLibrary);
-
         List<VCTransformer> localTheorems = new LinkedList<VCTransformer>();
 
         RuleNormalizer n = new SubstitutionRuleNormalizer(myTyper, false);
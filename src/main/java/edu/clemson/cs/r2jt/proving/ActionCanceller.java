@@ -2,7 +2,12 @@ package edu.clemson.cs.r2jt.proving;
 
 public class ActionCanceller {
 
-    public boolean running;
+    /**
+     * <p>Volatile because the canceller is typically flipped by a thread other
+     * than the one doing the proving (a GUI button, or a racing strategy that
+     * has already won).</p>
+     */
+    public volatile boolean running;
 
     public ActionCanceller() {
         running = true;
@@ -16,11 +16,25 @@ public class AlternativeProver implements VCProver {
     private final MathExpTypeResolver myTyper;
     private final CompileEnvironment myInstanceEnvironment;
 
+    /**
+     * <p>The number of proof states this prover may consider for a single VC
+     * before giving up.</p>
+     */
+    private final long myMaxProofStates;
+
+    /**
+     * <p>The length beyond which a proof-in-progress will not be extended.</p>
+     */
+    private final int myMaxDepth;
+
     public AlternativeProver(CompileEnvironment e,
             TransformationChooser chooser, MathExpTypeResolver typer) {
         myChooser = chooser;
         myTyper = typer;
         myInstanceEnvironment = e;
+
+        myMaxProofStates = Prover.getMaxProofStates(e.flags);
+        myMaxDepth = Prover.getMaxProofDepth(e.flags);
     }
 
     @Override
@@ -47,10 +61,14 @@ public class AlternativeProver implements VCProver {
 
         metrics.actionCanceller = actionCanceller;
 
+        if (myInstanceEnvironment.flags.isFlagSet(Prover.FLAG_PROOF_METRICS)) {
+            metrics.recordTransformerStatistics();
+        }
+
         myChooser.preoptimizeForVC(vc);
 
         try {
-            continueProofFrom(vc, 0, metrics, new ProofData());
+            continueProofFrom(vc, 0, metrics, new ProofData(), timeoutAt);
         }
         catch (VCProvedException e) {
             e.setOriginal(vc);
@@ -61,17 +79,17 @@ public class AlternativeProver implements VCProver {
     }
 
     private void continueProofFrom(final VC vc, final int curLength,
-            final Metrics metrics, final ProofData proofData)
+            final Metrics metrics, final ProofData proofData, long timeoutAt)
             throws UnableToProveException,
                 VCProvedException,
                 VCInconsistentException {
 
-        if (curLength > 100) {
+        if (curLength > 100 && myMaxDepth == Integer.MAX_VALUE) {
             //Very deep recursion.  Probably an infinite loop.
             System.err.println("Warning: Very deep recursion.");
         }
 
-        metrics.incrementProofsConsidered();
+        metrics.incrementProofsConsidered(curLength);
 
         if (vc.getConsequent().size() == 0) {
             throw new VCProvedException(metrics);
@@ -83,11 +101,18 @@ public class AlternativeProver implements VCProver {
             throw new UnableToProveException(metrics);
         }
 
-        attemptStep(vc, curLength, metrics, proofData);
+        if (System.currentTimeMillis() >= timeoutAt
+                || metrics.getNumProofsConsidered() >= myMaxProofStates) {
+            throw new ProofBudgetExceededException(metrics);
+        }
+
+        if (curLength < myMaxDepth) {
+            attemptStep(vc, curLength, metrics, proofData, timeoutAt);
+        }
     }
 
     public void attemptStep(VC vc, int curLength, Metrics metrics,
-            ProofData proofData)
+            ProofData proofData, long timeoutAt)
             throws UnableToProveException,
                 VCProvedException,
                 VCInconsistentException {
@@ -101,7 +126,7 @@ public class AlternativeProver implements VCProver {
         while (suggestions.hasNext()) {
             suggestion = suggestions.next();
 
-            substitutions = suggestion.step.transform(vc);
+            substitutions = metrics.transform(suggestion.step, vc);
 
             while (substitutions.hasNext()) {
                 VC newVC = substitutions.next();
@@ -124,10 +149,11 @@ public class AlternativeProver implements VCProver {
 
                 try {
                     continueProofFrom(newVC, curLength + 1, metrics,
-                            suggestion.data.addStep(vc));
+                            suggestion.data.addStep(vc), timeoutAt);
                 }
                 catch (VCProvedException e) {
                     e.addStep(new AlternativeProofStep(suggestion, newVC));
+                    metrics.recordProofStep(suggestion.step);
                     throw e;
                 }
             }
@@ -6,7 +6,7 @@ import java.util.Map;
 import edu.clemson.cs.r2jt.absyn.Exp;
 import edu.clemson.cs.r2jt.absyn.VarExp;
 import edu.clemson.cs.r2jt.analysis.MathExpTypeResolver;
-import edu.clemson.cs.r2jt.proving.absyn.BindingException;
+import edu.clemson.cs.r2jt.proving.absyn.BindingFrame;
 import edu.clemson.cs.r2jt.proving.absyn.PExp;
 
 public class Antecedent extends ImmutableConjuncts {
@@ -166,7 +166,7 @@ public class Antecedent extends ImmutableConjuncts {
             retval = consequent.substitute(bindings).assumed();
         }
         else {
-            Map<PExp, PExp> subBinding = null;
+            BindingFrame subBinding = new BindingFrame();
 
             PExp curAntecedent = antecedents.get(0).substitute(bindings);
 
@@ -176,8 +176,8 @@ public class Antecedent extends ImmutableConjuncts {
 
             for (PExp assumption : assumptions) {
 
-                try {
-                    subBinding = curAntecedent.bindTo(assumption);
+                subBinding.clear();
+                if (curAntecedent.bindTo(assumption, subBinding)) {
 
                     if (subAntecedentList == null) {
                         subAntecedentList =
@@ -190,9 +190,6 @@ public class Antecedent extends ImmutableConjuncts {
 
                     retval = retval.appended(subAntecedent);
                 }
-                catch (BindingException e) {
-
-                }
             }
         }
 
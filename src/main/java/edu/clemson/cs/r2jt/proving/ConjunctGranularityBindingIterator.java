@@ -4,7 +4,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 
-import edu.clemson.cs.r2jt.proving.absyn.BindingException;
+import edu.clemson.cs.r2jt.proving.absyn.BindingFrame;
 import edu.clemson.cs.r2jt.proving.absyn.PExp;
 
 /**
@@ -28,7 +28,7 @@ public class ConjunctGranularityBindingIterator
     private final int myTargetSize;
 
     private int myLocalTargetConjunctIndex;
-    private Map<PExp, PExp> myLocalBindings;
+    private final BindingFrame myLocalBindings = new BindingFrame();
 
     private Iterator<BindingsAndRemainingConjuncts> myOtherBindings;
 
@@ -49,11 +49,12 @@ public class ConjunctGranularityBindingIterator
         else {
             myLocalPattern = null;
             myRemainingPattern = pattern;
-            myLocalBindings = new HashMap<PExp, PExp>(); //TODO: Replace with ready made component after we figure out who's changing this one
+            //TODO: Replace with ready made component after we figure out who's
+            //changing this one
             myOtherBindings =
                     new SingletonIterator<BindingsAndRemainingConjuncts>(
                             new BindingsAndRemainingConjuncts(
-                                    new HashMap<PExp, PExp>(), myTarget)); //TODO : Same as above
+                                    new HashMap<PExp, PExp>(), myTarget));
         }
 
         setUpNext();
@@ -67,16 +68,16 @@ public class ConjunctGranularityBindingIterator
 
             curLocalTargetConjunct = myTarget.get(myLocalTargetConjunctIndex);
 
-            try {
-                myLocalBindings = myLocalPattern.bindTo(curLocalTargetConjunct);
-
+            myLocalBindings.clear();
+            if (myLocalPattern
+                    .bindTo(curLocalTargetConjunct, myLocalBindings)) {
                 myOtherBindings =
                         new ConjunctGranularityBindingIterator(
                                 myRemainingPattern, myTarget.removed(
                                         myLocalTargetConjunctIndex).substitute(
                                         myLocalBindings));
             }
-            catch (BindingException e) {
+            else {
                 myOtherBindings = DummyIterator.getInstance(myOtherBindings);
             }
 
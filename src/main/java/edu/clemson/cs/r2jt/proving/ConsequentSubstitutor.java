@@ -4,6 +4,7 @@ import java.util.Iterator;
 
 public class ConsequentSubstitutor implements VCTransformer {
 
+    private final NewMatchReplace myMatcher;
     private final ConsequentTransformerAdapter myTransformer;
 
     private final Antecedent myTheoremAntecedent;
@@ -12,6 +13,7 @@ public class ConsequentSubstitutor implements VCTransformer {
     private final boolean myIntroducesQuantifiedVariablesFlag;
 
     public ConsequentSubstitutor(NewMatchReplace m) {
+        myMatcher = m;
 
         myTheoremAntecedent = new Antecedent(m.getPattern());
         myTheoremConsequent = new Consequent(m.getExpansionTemplate());
@@ -38,6 +40,14 @@ public class ConsequentSubstitutor implements VCTransformer {
         return myTransformer.toString();
     }
 
+    /**
+     * <p>Returns the matcher this step applies wherever it can replace some
+     * subexpression of the VC.</p>
+     */
+    public NewMatchReplace getMatcher() {
+        return myMatcher;
+    }
+
     @Override
     public Antecedent getPattern() {
         return myTheoremAntecedent;
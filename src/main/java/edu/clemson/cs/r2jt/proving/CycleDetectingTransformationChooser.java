@@ -1,6 +1,5 @@
 package edu.clemson.cs.r2jt.proving;
 
-import java.math.BigInteger;
 import java.util.Iterator;
 
 /**
@@ -40,8 +39,7 @@ public class CycleDetectingTransformationChooser
 
         if (cycle) {
             retval = DummyIterator.getInstance(TYPE_SAFE_ITERATOR);
-            metrics.numTimesBacktracked =
-                    metrics.numTimesBacktracked.add(BigInteger.ONE);
+            metrics.incrementTimesBacktracked();
         }
         else {
             retval =
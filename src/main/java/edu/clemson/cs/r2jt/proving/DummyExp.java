@@ -19,6 +19,8 @@ import edu.clemson.cs.r2jt.type.Type;
  */
 public class DummyExp extends Exp {
 
+    private static final long serialVersionUID = 1L;
+
     private Exp myWrappedExpression;
 
     public DummyExp(Exp e) {
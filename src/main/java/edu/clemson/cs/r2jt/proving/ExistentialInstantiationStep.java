@@ -1,9 +1,8 @@
 package edu.clemson.cs.r2jt.proving;
 
 import java.util.Iterator;
-import java.util.Map;
 
-import edu.clemson.cs.r2jt.proving.absyn.BindingException;
+import edu.clemson.cs.r2jt.proving.absyn.BindingFrame;
 import edu.clemson.cs.r2jt.proving.absyn.PExp;
 
 /**
@@ -67,6 +66,7 @@ public class ExistentialInstantiationStep implements VCTransformer {
         private final PExp myExistential;
         private final Consequent myOriginal;
         private final Iterator<PExp> myFactIterator;
+        private final BindingFrame myBinding = new BindingFrame();
         private Consequent myNextConsequent;
 
         public SingleExistentialInstantiator(PExp existentialExpression,
@@ -83,18 +83,16 @@ public class ExistentialInstantiationStep implements VCTransformer {
         private void setUpNext() {
 
             PExp curFact;
-            Map<PExp, PExp> binding = null;
-            while (myFactIterator.hasNext() && binding == null) {
+            boolean bound = false;
+            while (myFactIterator.hasNext() && !bound) {
                 curFact = myFactIterator.next();
 
-                try {
-                    binding = myExistential.bindTo(curFact);
-                }
-                catch (BindingException e) {}
+                myBinding.clear();
+                bound = myExistential.bindTo(curFact, myBinding);
             }
 
-            if (binding != null) {
-                myNextConsequent = myOriginal.substitute(binding);
+            if (bound) {
+                myNextConsequent = myOriginal.substitute(myBinding);
             }
             else {
                 myNextConsequent = null;
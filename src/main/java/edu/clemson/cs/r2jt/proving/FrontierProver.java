@@ -0,0 +1,485 @@
+package edu.clemson.cs.r2jt.proving;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+
+import edu.clemson.cs.r2jt.analysis.MathExpTypeResolver;
+import edu.clemson.cs.r2jt.init.CompileEnvironment;
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
+
+/**
+ * <p>A <code>VCProver</code> that searches the proof space suggested by a
+ * <code>TransformationChooser</code> just as {@link AlternativeProver} does,
+ * but keeps its frontier in an explicit data structure rather than on the Java
+ * call stack.  Each proof state points back to the state it was derived from,
+ * so the search itself simply returns the final state when a proof is found 
+ * and the steps of the proof are recovered from there.</p>
+ * 
+ * <p>In the depth-first orders, the frontier holds one lazy expansion per 
+ * level of the current proof-in-progress, so memory is linear in the depth of
+ * the search and deep searches do not risk a 
+ * <code>StackOverflowError</code>.</p>
+ */
+public class FrontierProver implements VCProver {
+
+    /**
+     * <p>The orders in which a <code>FrontierProver</code> may explore the
+     * proof space.</p>
+     */
+    public static enum SearchOrder {
+
+        /**
+         * <p>Explores proofs in exactly the order that 
+         * <code>AlternativeProver</code> does.</p>
+         */
+        DEPTH_FIRST,
+
+        /**
+         * <p>Explores all proofs of length one, then all proofs of length two,
+         * and so on, finding a shortest proof first at the cost of 
+         * re-exploring shallow states.</p>
+         */
+        ITERATIVE_DEEPENING,
+
+        /**
+         * <p>Always expands the most promising state seen so far--the one with
+         * the smallest remaining consequent.  Memory is proportional to the
+         * number of states seen rather than to proof depth.</p>
+         */
+        BEST_FIRST;
+
+        /**
+         * <p>Returns the order with the given name, ignoring case and allowing
+         * hyphens in place of underscores, so that "best-first" names
+         * <code>BEST_FIRST</code>.</p>
+         * 
+         * @param name The name of the order.
+         * 
+         * @return The order.
+         * 
+         * @throws IllegalArgumentException If no order has that name.
+         */
+        public static SearchOrder fromName(String name) {
+            return valueOf(name.trim().toUpperCase().replace('-', '_'));
+        }
+    }
+
+    /**
+     * <p>Orders states for best-first search: smallest remaining consequent
+     * first, with shallower states breaking ties.</p>
+     */
+    private static final Comparator<SearchNode> BEST_FIRST_ORDER =
+            new Comparator<SearchNode>() {
+
+                public int compare(SearchNode o1, SearchNode o2) {
+                    int retval = o1.getWeight() - o2.getWeight();
+
+                    if (retval == 0) {
+                        retval = o1.depth - o2.depth;
+                    }
+
+                    return retval;
+                }
+            };
+
+    private final TransformationChooser myChooser;
+    private final MathExpTypeResolver myTyper;
+    private final CompileEnvironment myInstanceEnvironment;
+    private final SearchOrder myOrder;
+
+    /**
+     * <p>The number of proof states this prover may consider for a single VC
+     * before giving up.</p>
+     */
+    private final long myMaxProofStates;
+
+    /**
+     * <p>The length beyond which a proof-in-progress will not be extended.</p>
+     */
+    private final int myMaxDepth;
+
+    public FrontierProver(CompileEnvironment e, TransformationChooser chooser,
+            MathExpTypeResolver typer, SearchOrder order) {
+        myChooser = chooser;
+        myTyper = typer;
+        myInstanceEnvironment = e;
+        myOrder = order;
+
+        myMaxProofStates = Prover.getMaxProofStates(e.flags);
+        myMaxDepth = Prover.getMaxProofDepth(e.flags);
+    }
+
+    @Override
+    public BigInteger getProofCountOrder() {
+        return BigInteger.valueOf(-1);
+    }
+
+    @Override
+    public void prove(VerificationCondition originalVC,
+            ProverListener progressListener, ActionCanceller actionCanceller,
+            long timeoutAt)
+            throws VCInconsistentException,
+                VCProvedException,
+                UnableToProveException {
+
+        VC vc = AlternativeProver.convertToImmutableVC(originalVC, myTyper);
+
+        Metrics metrics = new Metrics();
+        metrics.progressListener = progressListener;
+
+        if (actionCanceller == null) {
+            actionCanceller = new ActionCanceller();
+        }
+
+        metrics.actionCanceller = actionCanceller;
+
+        if (myInstanceEnvironment.flags.isFlagSet(Prover.FLAG_PROOF_METRICS)) {
+            metrics.recordTransformerStatistics();
+        }
+
+        myChooser.preoptimizeForVC(vc);
+
+        Attempt attempt = new Attempt(metrics, timeoutAt);
+        SearchNode root = new SearchNode(vc, null, null, new ProofData(), 0);
+
+        SearchNode proved;
+        switch (myOrder) {
+        case ITERATIVE_DEEPENING:
+            proved = iterativeDeepening(root, attempt);
+            break;
+        case BEST_FIRST:
+            proved = bestFirst(root, attempt);
+            break;
+        default:
+            proved = depthFirst(root, myMaxDepth, attempt);
+            break;
+        }
+
+        if (proved != null) {
+            VCProvedException e = new VCProvedException(metrics);
+
+            //VCProvedException expects the last step first
+            for (SearchNode n = proved; n.parent != null; n = n.parent) {
+                e.addStep(new AlternativeProofStep(n.step, n.vc));
+                metrics.recordProofStep(n.step.step);
+            }
+
+            e.setOriginal(vc);
+            throw e;
+        }
+
+        if (attempt.budgetExceeded) {
+            throw new ProofBudgetExceededException(metrics);
+        }
+
+        throw new UnableToProveException(metrics);
+    }
+
+    /**
+     * <p>Searches depth-first from <code>root</code>, extending no proof past
+     * <code>depthLimit</code> steps.</p>
+     * 
+     * @return The proved state, or <code>null</code> if no proof was found.
+     */
+    private SearchNode depthFirst(SearchNode root, int depthLimit,
+            Attempt attempt) {
+
+        SearchNode retval = null;
+        Status status = visit(root, attempt);
+
+        if (status == Status.PROVED) {
+            retval = root;
+        }
+        else if (status == Status.OPEN) {
+            Deque<Expansion> frontier = new ArrayDeque<Expansion>();
+            open(root, depthLimit, frontier, attempt);
+
+            SearchNode child;
+            while (retval == null && status != Status.STOPPED
+                    && !frontier.isEmpty()) {
+
+                child = frontier.peek().next();
+
+                if (child == null) {
+                    frontier.pop();
+                }
+                else {
+                    status = visit(child, attempt);
+
+                    if (status == Status.PROVED) {
+                        retval = child;
+                    }
+                    else if (status == Status.OPEN) {
+                        open(child, depthLimit, frontier, attempt);
+                    }
+                }
+            }
+        }
+
+        return retval;
+    }
+
+    private void open(SearchNode n, int depthLimit, Deque<Expansion> frontier,
+            Attempt attempt) {
+
+        if (n.depth < depthLimit) {
+            frontier.push(new Expansion(n, attempt.metrics));
+        }
+        else if (depthLimit < myMaxDepth) {
+            attempt.cutoff = true;
+        }
+    }
+
+    /**
+     * <p>Repeats a depth-first search with an increasing depth limit until a
+     * proof is found, no proof was cut short by the limit, or the maximum 
+     * depth is reached.</p>
+     * 
+     * @return The proved state, or <code>null</code> if no proof was found.
+     */
+    private SearchNode iterativeDeepening(SearchNode root, Attempt attempt) {
+        SearchNode retval = null;
+
+        int depthLimit = 0;
+        boolean keepGoing = true;
+        while (keepGoing) {
+            attempt.cutoff = false;
+            retval = depthFirst(root, depthLimit, attempt);
+
+            keepGoing =
+                    retval == null && attempt.cutoff && !attempt.stopped
+                            && depthLimit < myMaxDepth;
+            depthLimit++;
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Searches by always expanding the most promising known state.</p>
+     * 
+     * @return The proved state, or <code>null</code> if no proof was found.
+     */
+    private SearchNode bestFirst(SearchNode root, Attempt attempt) {
+        SearchNode retval = null;
+        Status status = visit(root, attempt);
+
+        if (status == Status.PROVED) {
+            retval = root;
+        }
+        else if (status == Status.OPEN) {
+            PriorityQueue<SearchNode> frontier =
+                    new PriorityQueue<SearchNode>(11, BEST_FIRST_ORDER);
+            frontier.add(root);
+
+            Expansion expansion;
+            SearchNode cur, child;
+            while (retval == null && status != Status.STOPPED
+                    && !frontier.isEmpty()) {
+
+                cur = frontier.poll();
+
+                if (cur.depth < myMaxDepth) {
+                    expansion = new Expansion(cur, attempt.metrics);
+
+                    child = expansion.next();
+                    while (retval == null && status != Status.STOPPED
+                            && child != null) {
+
+                        status = visit(child, attempt);
+
+                        if (status == Status.PROVED) {
+                            retval = child;
+                        }
+                        else if (status == Status.OPEN) {
+                            frontier.add(child);
+                            child = expansion.next();
+                        }
+                    }
+                }
+            }
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Accounts for a newly reached state and decides what should happen to
+     * it.</p>
+     */
+    private Status visit(SearchNode n, Attempt attempt) {
+        Metrics metrics = attempt.metrics;
+        metrics.incrementProofsConsidered(n.depth);
+
+        Status retval = Status.OPEN;
+
+        if (n.vc.getConsequent().size() == 0) {
+            retval = Status.PROVED;
+        }
+        else if (!metrics.actionCanceller.running) {
+            //Someone from the outside world told us to stop proving.
+            retval = Status.STOPPED;
+        }
+        else if (System.currentTimeMillis() >= attempt.timeoutAt
+                || metrics.getNumProofsConsidered() >= myMaxProofStates) {
+            attempt.budgetExceeded = true;
+            retval = Status.STOPPED;
+        }
+
+        if (retval == Status.STOPPED) {
+            attempt.stopped = true;
+        }
+
+        return retval;
+    }
+
+    private static enum Status {
+        PROVED, OPEN, STOPPED
+    }
+
+    /**
+     * <p>A single state in the proof space, linked to the state it was 
+     * derived from.</p>
+     */
+    private static class SearchNode {
+
+        public final VC vc;
+        public final SearchNode parent;
+
+        /**
+         * <p>The suggestion that took <code>parent</code> to this state, or
+         * <code>null</code> for the original VC.</p>
+         */
+        public final ProofPathSuggestion step;
+
+        public final ProofData data;
+        public final int depth;
+
+        private int myWeight = -1;
+
+        public SearchNode(VC vc, SearchNode parent, ProofPathSuggestion step,
+                ProofData data, int depth) {
+            this.vc = vc;
+            this.parent = parent;
+            this.step = step;
+            this.data = data;
+            this.depth = depth;
+        }
+
+        /**
+         * <p>Returns the number of conjuncts plus function applications 
+         * remaining in the consequent.</p>
+         */
+        public int getWeight() {
+            if (myWeight < 0) {
+                myWeight = 0;
+                for (PExp c : vc.getConsequent()) {
+                    myWeight += 1 + c.getFunctionApplications().size();
+                }
+            }
+
+            return myWeight;
+        }
+    }
+
+    /**
+     * <p>The lazily-generated children of a single state.  Suggestions and 
+     * transformations are only pulled from the chooser as children are
+     * requested, in exactly the order <code>AlternativeProver</code> would
+     * try them.</p>
+     */
+    private class Expansion {
+
+        private final SearchNode myParent;
+        private final Iterator<ProofPathSuggestion> mySuggestions;
+
+        private ProofPathSuggestion myCurrentSuggestion;
+        private Iterator<VC> myCurrentTransformations;
+
+        private final Metrics myMetrics;
+
+        public Expansion(SearchNode parent, Metrics metrics) {
+            myParent = parent;
+            myMetrics = metrics;
+            mySuggestions =
+                    myChooser.suggestTransformations(parent.vc, parent.depth,
+                            metrics, parent.data);
+            myCurrentTransformations = Collections.<VC> emptyList().iterator();
+        }
+
+        /**
+         * <p>Returns the next child state, or <code>null</code> if there are
+         * no more.</p>
+         */
+        public SearchNode next() {
+            while (!myCurrentTransformations.hasNext()) {
+                if (!mySuggestions.hasNext()) {
+                    return null;
+                }
+
+                myCurrentSuggestion = mySuggestions.next();
+                myCurrentTransformations =
+                        myMetrics.transform(myCurrentSuggestion.step,
+                                myParent.vc);
+            }
+
+            VC newVC = myCurrentTransformations.next();
+
+            if (myInstanceEnvironment.flags.isFlagSet(Prover.FLAG_VERBOSE)
+                    && myCurrentSuggestion.debugNote != null) {
+
+                VC vcToPrint;
+
+                if (myCurrentSuggestion.debugPrevious) {
+                    vcToPrint = myParent.vc;
+                }
+                else {
+                    vcToPrint = newVC;
+                }
+
+                System.out.println(myCurrentSuggestion.debugNote + "\n\n"
+                        + vcToPrint);
+            }
+
+            return new SearchNode(newVC, myParent, myCurrentSuggestion,
+                    myCurrentSuggestion.data.addStep(myParent.vc),
+                    myParent.depth + 1);
+        }
+    }
+
+    /**
+     * <p>The bookkeeping for a single call to <code>prove()</code>.</p>
+     */
+    private static class Attempt {
+
+        public final Metrics metrics;
+        public final long timeoutAt;
+
+        /**
+         * <p>Set when the search was stopped early, for whatever reason.</p>
+         */
+        public boolean stopped;
+
+        /**
+         * <p>Set when the search was stopped early because it ran out of time
+         * or proof states.</p>
+         */
+        public boolean budgetExceeded;
+
+        /**
+         * <p>Set when a depth-limited search declined to extend some proof
+         * that it would otherwise have extended.</p>
+         */
+        public boolean cutoff;
+
+        public Attempt(Metrics metrics, long timeoutAt) {
+            this.metrics = metrics;
+            this.timeoutAt = timeoutAt;
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package edu.clemson.cs.r2jt.proving;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -12,7 +15,6 @@ import edu.clemson.cs.r2jt.absyn.Exp;
 import edu.clemson.cs.r2jt.analysis.MathExpTypeResolver;
 import edu.clemson.cs.r2jt.proving.absyn.PExp;
 import edu.clemson.cs.r2jt.proving.absyn.PSymbol;
-import edu.clemson.cs.r2jt.proving.immutableadts.EmptyImmutableList;
 import edu.clemson.cs.r2jt.proving.immutableadts.ImmutableList;
 import edu.clemson.cs.r2jt.proving.immutableadts.SimpleImmutableList;
 
@@ -35,6 +37,22 @@ public class ImmutableConjuncts implements Iterable<PExp> {
     private Set<PSymbol> myCachedQuantifiedVariables;
     private List<PExp> myCachedFunctionApplications;
 
+    /**
+     * <p>The hash of each conjunct in the high 32 bits and its index in the
+     * low 32, sorted, so that conjuncts that might be equal sit next to each
+     * other.  Built the first time it is needed.  This is what lets equality,
+     * membership and the removal of duplicates avoid comparing every conjunct
+     * with every other.</p>
+     */
+    private volatile long[] myCachedHashIndex;
+
+    /**
+     * <p>A hash of the distinct conjunct hashes, the same for any two equal
+     * sets of conjuncts whatever their order.  Only meaningful once
+     * <code>myCachedHashIndex</code> has been built.</p>
+     */
+    private int myCachedFingerprint;
+
     /**
      * <p>Creates a new <code>ImmutableConjuncts</code> whose conjuncts are
      * deep copies of the top-level conjuncts of <code>e</code>.</p>
@@ -80,14 +98,11 @@ public class ImmutableConjuncts implements Iterable<PExp> {
                     expsAsImmutableConjuncts.myCachedQuantifiedVariables;
             myCachedFunctionApplications =
                     expsAsImmutableConjuncts.myCachedFunctionApplications;
+            myCachedHashIndex = expsAsImmutableConjuncts.myCachedHashIndex;
+            myCachedFingerprint = expsAsImmutableConjuncts.myCachedFingerprint;
         }
         else {
-            List<PExp> newExps = new LinkedList<PExp>();
-            for (PExp e : exps) {
-                newExps.add(e);
-            }
-
-            myConjuncts = new ImmutableList<PExp>(newExps);
+            myConjuncts = new ImmutableList<PExp>(exps);
         }
 
         myConjunctsSize = myConjuncts.size();
@@ -159,52 +174,48 @@ public class ImmutableConjuncts implements Iterable<PExp> {
      * @return A copy of <code>this</code> with redundant conjuncts removed.
      */
     public ImmutableConjuncts eliminateRedundantConjuncts() {
+        ImmutableConjuncts retval;
 
-        int runStart = 0, runLength = 0;
+        long[] index = getHashIndex();
 
-        SimpleImmutableList<PExp> newConjuncts = new EmptyImmutableList<PExp>();
+        //Within each run of equal hashes, indices are in ascending order, so
+        //the first occurrence of a conjunct is the one kept
+        BitSet redundant = new BitSet(myConjunctsSize);
+        int runStart = 0;
+        while (runStart < index.length) {
+            int runEnd = endOfRun(index, runStart);
 
-        HashSet<PExp> hashedConjuncts = new HashSet<PExp>();
-        Iterator<PExp> conjunctsIter = myConjuncts.iterator();
-        PExp curConjunct;
-        boolean unique;
-        while (conjunctsIter.hasNext()) {
-            curConjunct = conjunctsIter.next();
+            for (int i = runStart + 1; i < runEnd; i++) {
+                PExp candidate = myConjuncts.get(indexOf(index[i]));
 
-            unique = hashedConjuncts.add(curConjunct);
+                for (int j = runStart; j < i; j++) {
+                    int earlier = indexOf(index[j]);
+                    if (!redundant.get(earlier)
+                            && myConjuncts.get(earlier).equals(candidate)) {
 
-            if (unique) {
-                runLength++;
+                        redundant.set(indexOf(index[i]));
+                        break;
+                    }
+                }
             }
-            else {
-                newConjuncts =
-                        appendConjuncts(newConjuncts, runStart, runLength);
 
-                //Any new run will start AFTER this element.
-                runStart += runLength + 1;
-                runLength = 0;
-            }
+            runStart = runEnd;
         }
 
-        newConjuncts = appendConjuncts(newConjuncts, runStart, runLength);
-
-        return new ImmutableConjuncts(newConjuncts);
-    }
-
-    private SimpleImmutableList<PExp> appendConjuncts(
-            SimpleImmutableList<PExp> original, int startIndex, int length) {
-
-        SimpleImmutableList<PExp> retval;
+        if (redundant.isEmpty()) {
+            retval = this;
+        }
+        else {
+            PExp[] workingSpace = new PExp[myConjunctsSize];
+            int curIndex = 0;
+            for (int i = 0; i < myConjunctsSize; i++) {
+                if (!redundant.get(i)) {
+                    workingSpace[curIndex] = myConjuncts.get(i);
+                    curIndex++;
+                }
+            }
 
-        switch (length) {
-        case 0:
-            retval = original;
-            break;
-        case 1:
-            retval = original.appended(myConjuncts.get(startIndex));
-            break;
-        default:
-            retval = original.appended(myConjuncts.subList(startIndex, length));
+            retval = new ImmutableConjuncts(workingSpace, curIndex);
         }
 
         return retval;
@@ -246,7 +257,15 @@ public class ImmutableConjuncts implements Iterable<PExp> {
     public boolean equals(Object o) {
         boolean retval = (o instanceof Iterable<?>);
 
-        if (retval) {
+        if (o instanceof ImmutableConjuncts) {
+            ImmutableConjuncts oAsImmutableConjuncts = (ImmutableConjuncts) o;
+
+            retval =
+                    hashCode() == oAsImmutableConjuncts.hashCode()
+                            && oAsImmutableConjuncts.containsEqualOfEach(this)
+                            && containsEqualOfEach(oAsImmutableConjuncts);
+        }
+        else if (retval) {
             Iterable<?> conjuncts = (Iterable<?>) o;
 
             retval =
@@ -257,13 +276,28 @@ public class ImmutableConjuncts implements Iterable<PExp> {
         return retval;
     }
 
+    /**
+     * <p>Returns a hash of this set of conjuncts that does not depend on their
+     * order or on duplicates, consistent with {@link #equals(Object) equals()}
+     * for other <code>ImmutableConjuncts</code>.  Once computed it is kept, so
+     * comparing it is a cheap first test of whether two sets of conjuncts
+     * might be equal.</p>
+     * 
+     * @return The hash.
+     */
+    public int hashCode() {
+        getHashIndex();
+
+        return myCachedFingerprint;
+    }
+
     /**
      * <p>Returns a <code>List</code> of the conjuncts in <code>this</code>.</p>
      * 
      * @return A mutable copy of <code>this</code>.
      */
     public List<PExp> getMutableCopy() {
-        List<PExp> retval = new LinkedList<PExp>();
+        List<PExp> retval = new ArrayList<PExp>(myConjunctsSize);
 
         Iterator<PExp> conjuncts = myConjuncts.iterator();
         PExp e;
@@ -338,7 +372,94 @@ public class ImmutableConjuncts implements Iterable<PExp> {
      * @throws NullPointerException If <code>e</code> is <code>null</code>.
      */
     public boolean containsEqual(PExp e) {
-        return containsEqual(this, e);
+        long[] index = getHashIndex();
+
+        boolean retval = false;
+        int runStart = startOfRun(index, e.hashCode());
+        int runEnd = endOfRun(index, runStart);
+        for (int i = runStart; !retval && i < runEnd; i++) {
+            retval = myConjuncts.get(indexOf(index[i])).equals(e);
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Returns <code>true</code> <strong>iff</strong> every conjunct of
+     * <code>query</code> has an equal conjunct in <code>this</code>.</p>
+     */
+    private boolean containsEqualOfEach(ImmutableConjuncts query) {
+        boolean retval = true;
+
+        Iterator<PExp> queryIterator = query.myConjuncts.iterator();
+        while (retval && queryIterator.hasNext()) {
+            retval = containsEqual(queryIterator.next());
+        }
+
+        return retval;
+    }
+
+    private long[] getHashIndex() {
+        long[] retval = myCachedHashIndex;
+
+        if (retval == null) {
+            retval = new long[myConjunctsSize];
+            for (int i = 0; i < myConjunctsSize; i++) {
+                retval[i] =
+                        ((long) myConjuncts.get(i).hashCode() << 32)
+                                | (i & 0xFFFFFFFFL);
+            }
+            Arrays.sort(retval);
+
+            int fingerprint = 1;
+            for (int i = 0; i < retval.length; i = endOfRun(retval, i)) {
+                fingerprint = 31 * fingerprint + hashOf(retval[i]);
+            }
+
+            myCachedFingerprint = fingerprint;
+            myCachedHashIndex = retval;
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Returns the position in <code>index</code> of the first entry with
+     * hash <code>hash</code>, or of the entry it would precede if there is
+     * none.</p>
+     */
+    private static int startOfRun(long[] index, int hash) {
+        int retval = Arrays.binarySearch(index, (long) hash << 32);
+        if (retval < 0) {
+            retval = -(retval + 1);
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Returns the position in <code>index</code> just past the run of
+     * entries with the same hash as the one at <code>start</code>.</p>
+     */
+    private static int endOfRun(long[] index, int start) {
+        int retval = start;
+
+        if (start < index.length) {
+            int hash = hashOf(index[start]);
+            while (retval < index.length && hashOf(index[retval]) == hash) {
+                retval++;
+            }
+        }
+
+        return retval;
+    }
+
+    private static int hashOf(long indexEntry) {
+        return (int) (indexEntry >> 32);
+    }
+
+    private static int indexOf(long indexEntry) {
+        return (int) indexEntry;
     }
 
     public String toString() {
@@ -376,18 +497,31 @@ public class ImmutableConjuncts implements Iterable<PExp> {
      * @return A new <code>ImmutableConjuncts</code> with the mapping applied.
      */
     public ImmutableConjuncts substitute(Map<PExp, PExp> mapping) {
+        ImmutableConjuncts retval;
 
-        List<PExp> retvalConjuncts = new LinkedList<PExp>();
+        PExp[] workingSpace = new PExp[myConjunctsSize];
 
+        boolean conjunctChanged = false;
+        int curIndex = 0;
         Iterator<PExp> conjuncts = myConjuncts.iterator();
         PExp c;
         while (conjuncts.hasNext()) {
             c = conjuncts.next();
+            workingSpace[curIndex] = c.substitute(mapping);
 
-            retvalConjuncts.add(c.substitute(mapping));
+            conjunctChanged |= (workingSpace[curIndex] != c);
+
+            curIndex++;
+        }
+
+        if (conjunctChanged) {
+            retval = new ImmutableConjuncts(workingSpace, myConjunctsSize);
+        }
+        else {
+            retval = this;
         }
 
-        return new ImmutableConjuncts(retvalConjuncts);
+        return retval;
     }
 
     public ImmutableConjuncts overwritten(int index, PExp newConjunct) {
@@ -4,7 +4,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 
-import edu.clemson.cs.r2jt.proving.absyn.BindingException;
+import edu.clemson.cs.r2jt.proving.absyn.BindingFrame;
 import edu.clemson.cs.r2jt.proving.absyn.PExp;
 
 /**
@@ -58,7 +58,10 @@ public class IncrementalBindingIterator implements Iterator<Map<PExp, PExp>> {
 
     private final Map<PExp, PExp> myAssumedBindings;
 
-    private Map<PExp, PExp> myCurrentIncrementalBindings;
+    private final BindingFrame myCurrentIncrementalBindings =
+            new BindingFrame();
+
+    private boolean myBoundFlag;
 
     public IncrementalBindingIterator(PExp pattern, Iterator<PExp> facts,
             Map<PExp, PExp> assumedBindings) {
@@ -85,22 +88,18 @@ public class IncrementalBindingIterator implements Iterator<Map<PExp, PExp>> {
 
     private void setUpNext() {
 
-        myCurrentIncrementalBindings = null;
-        while (myCurrentIncrementalBindings == null && myFacts.hasNext()) {
+        myCurrentIncrementalBindings.clear();
+        myBoundFlag = false;
+        while (!myBoundFlag && myFacts.hasNext()) {
             PExp fact = myFacts.next().substitute(myAssumedBindings);
 
-            try {
-                myCurrentIncrementalBindings = myPattern.bindTo(fact);
-            }
-            catch (BindingException e) {
-
-            }
+            myBoundFlag = myPattern.bindTo(fact, myCurrentIncrementalBindings);
         }
     }
 
     @Override
     public boolean hasNext() {
-        return myCurrentIncrementalBindings != null;
+        return myBoundFlag;
     }
 
     @Override
@@ -4,6 +4,7 @@ import java.util.Iterator;
 
 public class MatchReplaceDevelopmentStep implements VCTransformer {
 
+    private final NewMatchReplace myMatcher;
     private final AntecedentTransformer myTransformer;
     private final Antecedent myTheoremAntecedent;
     private final Consequent myTheoremConsequent;
@@ -11,6 +12,7 @@ public class MatchReplaceDevelopmentStep implements VCTransformer {
     private final boolean myIntroducesQuantifiedVariablesFlag;
 
     public MatchReplaceDevelopmentStep(NewMatchReplace m) {
+        myMatcher = m;
         myTransformer =
                 new AntecedentTransformerAdapter(
                         new ApplicatorConjunctsTransformer(
@@ -36,6 +38,14 @@ public class MatchReplaceDevelopmentStep implements VCTransformer {
         return myTransformer.toString();
     }
 
+    /**
+     * <p>Returns the matcher this step applies wherever it can replace some
+     * subexpression of the VC.</p>
+     */
+    public NewMatchReplace getMatcher() {
+        return myMatcher;
+    }
+
     @Override
     public Antecedent getPattern() {
         return myTheoremAntecedent;
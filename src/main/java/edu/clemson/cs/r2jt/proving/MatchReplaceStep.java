@@ -36,6 +36,14 @@ public class MatchReplaceStep implements VCTransformer {
         return myMatcher.toString();
     }
 
+    /**
+     * <p>Returns the matcher this step applies wherever it can replace some
+     * subexpression of the VC.</p>
+     */
+    public NewMatchReplace getMatcher() {
+        return myMatcher;
+    }
+
     @Override
     public Antecedent getPattern() {
         return myTheoremAntecedent;
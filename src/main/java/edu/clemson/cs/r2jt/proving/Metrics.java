@@ -1,15 +1,36 @@
 package edu.clemson.cs.r2jt.proving;
 
-import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
 
 /**
  * <p>The <code>Metrics</code> class contains aggregate data about a full proof
  * attempt.</p>
+ *
+ * <p>A <code>Metrics</code> belongs to the single thread making the attempt,
+ * so its counters are plain primitives.  Attempts made on other threads, such
+ * as the strategies of a portfolio, each keep their own and are combined with
+ * {@link #accumulate(Metrics) accumulate()} once they finish.</p>
  */
 class Metrics {
 
-    public BigInteger numProofsConsidered;
-    public BigInteger numTimesBacktracked;
+    private long myNumProofsConsidered;
+    private long myNumTimesBacktracked;
+
+    /**
+     * <p>The number of proof states considered at each proof length, indexed
+     * by length.  Only as long as the longest proof-in-progress.</p>
+     */
+    private long[] myDepthCounts;
+
+    /**
+     * <p>What each transformer has done during this attempt, or
+     * <code>null</code> if that is not being recorded.  Keyed by identity,
+     * since a transformer's steps are only ever compared with themselves.</p>
+     */
+    private Map<VCTransformer, TransformerStatistics> myTransformerStatistics;
 
     public long ruleCount, rulesTried;
     public ProverListener progressListener;
@@ -20,23 +41,190 @@ class Metrics {
         clear();
     }
 
-    public BigInteger getNumProofsConsidered() {
-        return numProofsConsidered;
+    public long getNumProofsConsidered() {
+        return myNumProofsConsidered;
+    }
+
+    public long getNumTimesBacktracked() {
+        return myNumTimesBacktracked;
+    }
+
+    /**
+     * <p>Counts a proof state reached after <code>length</code> steps.</p>
+     *
+     * @param length The length of the proof-in-progress.
+     */
+    public void incrementProofsConsidered(int length) {
+        myNumProofsConsidered++;
+
+        if (length >= myDepthCounts.length) {
+            myDepthCounts =
+                    Arrays.copyOf(myDepthCounts, Math.max(length + 1,
+                            myDepthCounts.length * 2));
+        }
+        myDepthCounts[length]++;
+    }
+
+    public void incrementTimesBacktracked() {
+        myNumTimesBacktracked++;
+    }
+
+    /**
+     * <p>Returns the number of proof states considered at each proof length,
+     * up to the longest.</p>
+     *
+     * @return The counts, indexed by length.
+     */
+    public long[] getDepthCounts() {
+        int length = myDepthCounts.length;
+        while (length > 0 && myDepthCounts[length - 1] == 0) {
+            length--;
+        }
+
+        return Arrays.copyOf(myDepthCounts, length);
+    }
+
+    /**
+     * <p>Starts recording what each transformer does, from now until this
+     * <code>Metrics</code> is cleared.</p>
+     */
+    public void recordTransformerStatistics() {
+        myTransformerStatistics =
+                new IdentityHashMap<VCTransformer, TransformerStatistics>();
+    }
+
+    /**
+     * <p>Returns what each transformer has done, or <code>null</code> if that
+     * is not being recorded.</p>
+     *
+     * @return The statistics, by transformer.
+     */
+    public Map<VCTransformer, TransformerStatistics>
+            getTransformerStatistics() {
+        return myTransformerStatistics;
+    }
+
+    /**
+     * <p>Applies <code>step</code> to <code>vc</code>, just as
+     * <code>step.transform(vc)</code> would, recording the time spent and the
+     * number of states produced if transformer statistics are being
+     * recorded.</p>
+     *
+     * @param step The transformer.
+     * @param vc The VC to transform.
+     *
+     * @return The transformed VCs.
+     */
+    public Iterator<VC> transform(VCTransformer step, VC vc) {
+        Iterator<VC> retval;
+
+        if (myTransformerStatistics == null) {
+            retval = step.transform(vc);
+        }
+        else {
+            TransformerStatistics statistics = getStatistics(step);
+
+            long start = System.nanoTime();
+            retval = step.transform(vc);
+            statistics.nanoseconds += System.nanoTime() - start;
+            statistics.attempts++;
+
+            retval = new TimedTransformation(retval, statistics);
+        }
+
+        return retval;
     }
 
-    public void incrementProofsConsidered() {
-        numProofsConsidered = numProofsConsidered.add(BigInteger.ONE);
+    /**
+     * <p>Records that <code>step</code> was one of the steps of a proof.</p>
+     *
+     * @param step The transformer.
+     */
+    public void recordProofStep(VCTransformer step) {
+        if (myTransformerStatistics != null) {
+            getStatistics(step).proofSteps++;
+        }
     }
 
     public void accumulate(Metrics m) {
-        numProofsConsidered = numProofsConsidered.add(m.numProofsConsidered);
-        numTimesBacktracked = numTimesBacktracked.add(m.numTimesBacktracked);
+        myNumProofsConsidered += m.myNumProofsConsidered;
+        myNumTimesBacktracked += m.myNumTimesBacktracked;
+
+        if (m.myDepthCounts.length > myDepthCounts.length) {
+            myDepthCounts =
+                    Arrays.copyOf(myDepthCounts, m.myDepthCounts.length);
+        }
+        for (int i = 0; i < m.myDepthCounts.length; i++) {
+            myDepthCounts[i] += m.myDepthCounts[i];
+        }
+
+        if (m.myTransformerStatistics != null) {
+            if (myTransformerStatistics == null) {
+                recordTransformerStatistics();
+            }
+
+            for (Map.Entry<VCTransformer, TransformerStatistics> e
+                    : m.myTransformerStatistics.entrySet()) {
+                getStatistics(e.getKey()).add(e.getValue());
+            }
+        }
     }
 
     public void clear() {
-        numTimesBacktracked = BigInteger.ZERO;
-        numProofsConsidered = BigInteger.ZERO;
+        myNumTimesBacktracked = 0;
+        myNumProofsConsidered = 0;
+        myDepthCounts = new long[8];
+        myTransformerStatistics = null;
         ruleCount = 0;
         rulesTried = 0;
     }
+
+    private TransformerStatistics getStatistics(VCTransformer step) {
+        TransformerStatistics retval = myTransformerStatistics.get(step);
+
+        if (retval == null) {
+            retval = new TransformerStatistics();
+            myTransformerStatistics.put(step, retval);
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Counts the states a transformation produces, and the time spent
+     * producing them, as they are pulled from it.  The time spent exploring
+     * each state is not counted, since that happens between calls.</p>
+     */
+    private static class TimedTransformation implements Iterator<VC> {
+
+        private final Iterator<VC> myTransformations;
+        private final TransformerStatistics myStatistics;
+
+        public TimedTransformation(Iterator<VC> transformations,
+                TransformerStatistics statistics) {
+            myTransformations = transformations;
+            myStatistics = statistics;
+        }
+
+        public boolean hasNext() {
+            long start = System.nanoTime();
+            boolean retval = myTransformations.hasNext();
+            myStatistics.nanoseconds += System.nanoTime() - start;
+
+            return retval;
+        }
+
+        public VC next() {
+            long start = System.nanoTime();
+            VC retval = myTransformations.next();
+            myStatistics.nanoseconds += System.nanoTime() - start;
+            myStatistics.results++;
+
+            return retval;
+        }
+
+        public void remove() {
+            myTransformations.remove();
+        }
+    }
 }
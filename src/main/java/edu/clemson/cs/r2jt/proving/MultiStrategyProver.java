@@ -175,6 +175,8 @@ public class MultiStrategyProver implements VCProver {
         ProgressAccumulator progressAccumulator;
         progressAccumulator = new ProgressAccumulator(progressListener);
 
+        boolean budgetExceeded = false;
+
         for (VCProver p : myStrategies) {
             try {
                 p.prove(vC, progressAccumulator, actionCanceller, timeoutAt);
@@ -184,6 +186,17 @@ public class MultiStrategyProver implements VCProver {
                     throw e;
                 }
                 accumulatedMetrics.accumulate(e.getMetrics());
+
+                if (e instanceof ProofBudgetExceededException) {
+                    budgetExceeded = true;
+
+                    //The deadline applies to the VC as a whole, so there's no
+                    //time left for any later strategy either
+                    if (System.currentTimeMillis() >= timeoutAt) {
+                        throw new ProofBudgetExceededException(
+                                accumulatedMetrics);
+                    }
+                }
             }
             catch (VCProvedException e) {
                 accumulatedMetrics.accumulate(e.getMetrics());
@@ -196,6 +209,10 @@ public class MultiStrategyProver implements VCProver {
             progressAccumulator.startingNextStrategy();
         }
 
+        if (budgetExceeded) {
+            throw new ProofBudgetExceededException(accumulatedMetrics);
+        }
+
         throw new UnableToProveException(accumulatedMetrics);
     }
 
@@ -1,8 +1,6 @@
 package edu.clemson.cs.r2jt.proving;
 
-import java.util.Map;
-
-import edu.clemson.cs.r2jt.proving.absyn.BindingException;
+import edu.clemson.cs.r2jt.proving.absyn.BindingFrame;
 import edu.clemson.cs.r2jt.proving.absyn.PExp;
 
 /**
@@ -20,7 +18,7 @@ import edu.clemson.cs.r2jt.proving.absyn.PExp;
 public class NewBindReplace implements NewMatchReplace {
 
     private PExp myFindPattern, myReplacePattern;
-    private Map<PExp, PExp> myBindings;
+    private final BindingFrame myBindings = new BindingFrame();
 
     /**
      * <p>Creates a new <code>BindReplace</code> that will replace expressions 
@@ -39,16 +37,9 @@ public class NewBindReplace implements NewMatchReplace {
     }
 
     public boolean couldReplace(PExp e) {
-        myBindings = null;
-
-        try {
-            myBindings = myFindPattern.bindTo(e);
-        }
-        catch (BindingException ex) {
-
-        }
+        myBindings.clear();
 
-        return (myBindings != null);
+        return myFindPattern.bindTo(e, myBindings);
     }
 
     public PExp getReplacement() {
@@ -0,0 +1,253 @@
+package edu.clemson.cs.r2jt.proving;
+
+import java.math.BigInteger;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>A <code>VCProver</code> that races multiple strategies against each other
+ * rather than attempting them in sequence as {@link MultiStrategyProver} does.
+ * Each strategy works on its own copy of the VC on its own thread.  The first
+ * strategy to prove the VC wins and the rest are stopped through a shared
+ * <code>ActionCanceller</code>.  Only returns failure if all strategies 
+ * fail.</p>
+ * 
+ * <p>Strategies run concurrently, so no two strategies added to a 
+ * <code>PortfolioProver</code> may share mutable state--in particular, 
+ * <code>TransformationChooser</code>s that keep per-VC data must not be shared
+ * between strategies.  The theorem library itself may be shared.</p>
+ * 
+ * <p>The <code>Metrics</code> reported on completion are the sum of those of
+ * every strategy, including those that were cancelled.</p>
+ */
+public class PortfolioProver implements VCProver {
+
+    /**
+     * <p>How often, in milliseconds, the coordinating thread checks whether
+     * the outside world has asked us to stop.</p>
+     */
+    private static final long CANCEL_POLL_INTERVAL = 50;
+
+    /**
+     * <p>A constant <code>BigInteger</code> with a value of -1.</p>
+     */
+    private static final BigInteger NEGATIVE_ONE = BigInteger.valueOf(-1);
+
+    /**
+     * <p>The strategies to race.</p>
+     */
+    private final List<VCProver> myStrategies = new LinkedList<VCProver>();
+
+    /**
+     * <p>Adds a new strategy to the race.</p>
+     * 
+     * @param strategy The new strategy.
+     */
+    public void addStrategy(VCProver strategy) {
+        myStrategies.add(strategy);
+    }
+
+    public void prove(final VerificationCondition vC,
+            ProverListener progressListener, ActionCanceller actionCanceller,
+            final long timeoutAt)
+            throws VCInconsistentException,
+                VCProvedException,
+                UnableToProveException {
+
+        if (actionCanceller == null) {
+            actionCanceller = new ActionCanceller();
+        }
+
+        final ActionCanceller raceCanceller = new ActionCanceller();
+        final RaceProgress progress =
+                new RaceProgress(progressListener, myStrategies.size());
+
+        ExecutorService racers =
+                Executors.newFixedThreadPool(myStrategies.size());
+        CompletionService<ProverException> results =
+                new ExecutorCompletionService<ProverException>(racers);
+
+        int strategyIndex = 0;
+        for (final VCProver strategy : myStrategies) {
+            //Some strategies modify the VC they're given in place
+            final VerificationCondition vcCopy = vC.copy();
+            final ProverListener listener = progress.listenerFor(strategyIndex);
+
+            results.submit(new Callable<ProverException>() {
+
+                public ProverException call() throws VCInconsistentException {
+                    ProverException result;
+
+                    try {
+                        strategy.prove(vcCopy, listener, raceCanceller,
+                                timeoutAt);
+                        result = new UnableToProveException(new Metrics());
+                    }
+                    catch (VCProvedException e) {
+                        result = e;
+                    }
+                    catch (UnableToProveException e) {
+                        result = e;
+                    }
+
+                    return result;
+                }
+            });
+
+            strategyIndex++;
+        }
+
+        Metrics accumulatedMetrics = new Metrics();
+        boolean budgetExceeded = false;
+        VCProvedException winner = null;
+        Throwable failure = null;
+
+        int outstanding = myStrategies.size();
+        try {
+            while (outstanding > 0) {
+                Future<ProverException> finished =
+                        results.poll(CANCEL_POLL_INTERVAL,
+                                TimeUnit.MILLISECONDS);
+
+                if (finished == null) {
+                    if (!actionCanceller.running) {
+                        raceCanceller.cancel();
+                    }
+                }
+                else {
+                    outstanding--;
+
+                    try {
+                        ProverException result = finished.get();
+                        accumulatedMetrics.accumulate(result.getMetrics());
+                        budgetExceeded |=
+                                result instanceof ProofBudgetExceededException;
+
+                        if (winner == null
+                                && result instanceof VCProvedException) {
+                            winner = (VCProvedException) result;
+                            raceCanceller.cancel();
+                        }
+                    }
+                    catch (ExecutionException e) {
+                        raceCanceller.cancel();
+
+                        if (failure == null) {
+                            failure = e.getCause();
+                        }
+                    }
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            raceCanceller.cancel();
+            Thread.currentThread().interrupt();
+
+            throw new UnableToProveException(accumulatedMetrics);
+        }
+        finally {
+            racers.shutdown();
+        }
+
+        if (winner != null) {
+            winner.setMetrics(accumulatedMetrics);
+            throw winner;
+        }
+
+        if (failure instanceof VCInconsistentException) {
+            throw (VCInconsistentException) failure;
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+
+        if (budgetExceeded) {
+            throw new ProofBudgetExceededException(accumulatedMetrics);
+        }
+
+        throw new UnableToProveException(accumulatedMetrics);
+    }
+
+    /**
+     * <p>Since all strategies run at once, the proof space searched is the
+     * sum of the spaces of the individual strategies, exactly as for a
+     * <code>MultiStrategyProver</code>.  Returns -1 if any strategy cannot
+     * estimate its order.</p>
+     */
+    public BigInteger getProofCountOrder() {
+        BigInteger retval = BigInteger.ZERO;
+
+        for (VCProver strategy : myStrategies) {
+            BigInteger curOrder = strategy.getProofCountOrder();
+
+            if (curOrder.equals(NEGATIVE_ONE)) {
+                return NEGATIVE_ONE;
+            }
+
+            retval = retval.add(curOrder);
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>A helper class that reports the progress of the race to a single
+     * listener as the progress of the strategy that is furthest along, since
+     * that strategy is the one most likely to finish the race.</p>
+     */
+    private static class RaceProgress {
+
+        private final ProverListener myParent;
+        private final double[] myProgress;
+
+        /**
+         * <p>Creates a new <code>RaceProgress</code> for the given number of
+         * strategies.</p>
+         * 
+         * @param parent The listener to alert of overall progress, or 
+         *               <code>null</code> if no one needs to be notified.
+         * @param strategyCount The number of strategies in the race.
+         */
+        public RaceProgress(ProverListener parent, int strategyCount) {
+            myParent = parent;
+            myProgress = new double[strategyCount];
+        }
+
+        public ProverListener listenerFor(final int strategyIndex) {
+            ProverListener retval = null;
+
+            if (myParent != null) {
+                retval = new ProverListener() {
+
+                    public void progressUpdate(double progress) {
+                        update(strategyIndex, progress);
+                    }
+                };
+            }
+
+            return retval;
+        }
+
+        private synchronized void update(int strategyIndex, double progress) {
+            myProgress[strategyIndex] = progress;
+
+            double furthest = 0;
+            for (double p : myProgress) {
+                furthest = Math.max(furthest, p);
+            }
+
+            myParent.progressUpdate(furthest);
+        }
+    }
+}
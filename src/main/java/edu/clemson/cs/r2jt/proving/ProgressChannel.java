@@ -0,0 +1,165 @@
+package edu.clemson.cs.r2jt.proving;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Carries progress from the thread doing the proving to any number of
+ * listeners without letting them slow the proof search down.</p>
+ *
+ * <p>The prover sees a <code>ProgressChannel</code> as an ordinary
+ * <code>ProverListener</code>, but <code>progressUpdate()</code> only records
+ * the latest value in an atomic variable, with no locking, allocation, or
+ * calls out.  A daemon thread belonging to the channel looks at that value at
+ * a fixed rate and, if it has changed, passes it on to each listener.  Updates
+ * between two looks are coalesced, so listeners hear at most one update per
+ * period however often the prover reports, and a slow listener delays only
+ * later updates, never the prover.  Listeners are called on the channel's
+ * thread, so a Swing listener must hand its work to the event dispatch
+ * thread.</p>
+ *
+ * <p>Cancellation flows the other way: a listener that wants to skip the VC
+ * in progress calls {@link #cancel()}, which cancels the
+ * <code>ActionCanceller</code> the VC was begun with.</p>
+ */
+class ProgressChannel implements ProverListener {
+
+    private static final ThreadFactory DAEMON_THREADS = new ThreadFactory() {
+
+        public Thread newThread(Runnable r) {
+            Thread retval = new Thread(r, "Proof progress");
+            retval.setDaemon(true);
+            return retval;
+        }
+    };
+
+    private final AtomicLong myProgress = new AtomicLong(toBits(0));
+
+    private volatile String myVCName = "";
+    private volatile ActionCanceller myCanceller;
+
+    private final CopyOnWriteArrayList<ProverListener> myListeners =
+            new CopyOnWriteArrayList<ProverListener>();
+
+    private final ScheduledExecutorService myPublisher;
+
+    /**
+     * <p>Touched only by the publishing thread.</p>
+     */
+    private long myLastPublished = toBits(-1);
+    private String myLastPublishedName = null;
+
+    /**
+     * <p>Creates a channel that passes updates on to its listeners at most once
+     * every <code>periodMillis</code> milliseconds.</p>
+     *
+     * @param periodMillis The least time between two updates to a listener.
+     */
+    public ProgressChannel(long periodMillis) {
+        myPublisher =
+                Executors.newSingleThreadScheduledExecutor(DAEMON_THREADS);
+        myPublisher.scheduleAtFixedRate(new Runnable() {
+
+            public void run() {
+                publish();
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void addListener(ProverListener l) {
+        myListeners.add(l);
+    }
+
+    public void removeListener(ProverListener l) {
+        myListeners.remove(l);
+    }
+
+    /**
+     * <p>Notes that the named VC is now being proved, with no progress yet,
+     * and that it may be skipped through the given canceller.</p>
+     */
+    public void beginVC(String name, ActionCanceller canceller) {
+        myVCName = name;
+        myCanceller = canceller;
+        myProgress.set(toBits(0));
+    }
+
+    /**
+     * <p>Returns the name of the VC being proved.</p>
+     */
+    public String getVCName() {
+        return myVCName;
+    }
+
+    /**
+     * <p>Returns the latest progress reported on the VC being proved, between
+     * 0 and 1.</p>
+     */
+    public double getProgress() {
+        return Double.longBitsToDouble(myProgress.get());
+    }
+
+    /**
+     * <p>Asks the prover to give up on the VC being proved.  May be called from
+     * any thread.</p>
+     */
+    public void cancel() {
+        ActionCanceller c = myCanceller;
+        if (c != null) {
+            c.cancel();
+        }
+    }
+
+    /**
+     * <p>Records the latest progress.  Safe and cheap to call from any thread
+     * as often as it likes.</p>
+     */
+    public void progressUpdate(double progress) {
+        myProgress.set(toBits(progress));
+    }
+
+    /**
+     * <p>Stops passing on updates, waiting briefly for any update already
+     * being passed on, and lets the channel's thread finish.</p>
+     */
+    public void close() {
+        myPublisher.shutdown();
+
+        try {
+            myPublisher.awaitTermination(1, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void publish() {
+        String name = myVCName;
+        long latest = myProgress.get();
+
+        if (latest != myLastPublished || name != myLastPublishedName) {
+            myLastPublished = latest;
+            myLastPublishedName = name;
+
+            double progress = Double.longBitsToDouble(latest);
+            for (ProverListener l : myListeners) {
+                try {
+                    l.progressUpdate(progress);
+                }
+                catch (RuntimeException e) {
+                    // A misbehaving listener must not end publishing for the
+                    // others, since the executor would drop the task
+                    removeListener(l);
+                }
+            }
+        }
+    }
+
+    private static long toBits(double d) {
+        return Double.doubleToLongBits(d);
+    }
+}
@@ -0,0 +1,16 @@
+package edu.clemson.cs.r2jt.proving;
+
+/**
+ * <p>An <code>UnableToProveException</code> indicating that the prover gave up
+ * because it ran out of the time or proof states it was allotted for a VC,
+ * rather than because it exhausted its search space.  The attached 
+ * <code>Metrics</code> describe the partial search.</p>
+ */
+public class ProofBudgetExceededException extends UnableToProveException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ProofBudgetExceededException(Metrics metrics) {
+        super(metrics);
+    }
+}
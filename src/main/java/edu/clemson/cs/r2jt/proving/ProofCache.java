@@ -0,0 +1,405 @@
+package edu.clemson.cs.r2jt.proving;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import edu.clemson.cs.r2jt.compilereport.VCResult;
+import edu.clemson.cs.r2jt.proving.absyn.PAlternatives;
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
+import edu.clemson.cs.r2jt.proving.absyn.PExpVisitor;
+import edu.clemson.cs.r2jt.proving.absyn.PLambda;
+import edu.clemson.cs.r2jt.proving.absyn.PSymbol;
+
+/**
+ * <p>The results of earlier proof attempts, kept on disk so that a VC that has
+ * already been proved, or that the prover has already searched exhaustively,
+ * need not be searched again.  Regenerating the VCs of a module whose code has
+ * not changed in a way that affects them produces the same VCs, so re-running
+ * the prover over a library mostly hits this cache.</p>
+ *
+ * <p>A result is filed under a SHA-1 hash of the VC in a canonical form
+ * together with a fingerprint of the theorem library and prover settings it
+ * was found under.  In the canonical form, the name of the VC is dropped,
+ * quantified variables and lambda parameters are renamed in order of first
+ * appearance, and the antecedents and consequents are each sorted and have
+ * duplicates removed, so that the same VC generated with different variable
+ * names or in a different order is recognised.  Free names are kept, since
+ * theorems refer to them.  Anything that changes the library or the settings
+ * simply leads to different keys.</p>
+ *
+ * <p>Only results that do not depend on how fast the machine is are kept: VCs
+ * that were proved and VCs that were skipped after the search was exhausted.
+ * A VC that timed out is always attempted again, as is one whose search was
+ * stopped early, whether by the user, by a strategy racing it, or by an
+ * interrupt.  The cache may be shared by several threads and several
+ * compilers at once; failing to read or write it just means searching
+ * again.</p>
+ */
+class ProofCache {
+
+    private static final String ENTRY_SUFFIX = ".proof";
+
+    private final File myDirectory;
+
+    private final String myLibraryFingerprint;
+
+    /**
+     * <p>Creates a cache kept in <code>directory</code> for proofs against the
+     * library described by <code>library</code>.</p>
+     *
+     * @param directory The directory the cache is kept in.
+     * @param library Every theorem available to the prover and every setting
+     *                that affects what it can prove, in a form that is the
+     *                same whenever they are.
+     */
+    public ProofCache(File directory, String library) {
+        myDirectory = directory;
+        myLibraryFingerprint = digest(library);
+    }
+
+    /**
+     * <p>Returns the key <code>vc</code> is filed under, or <code>null</code>
+     * if it cannot be cached.</p>
+     *
+     * @param vc The VC.
+     *
+     * @return The key.
+     */
+    public String keyOf(VC vc) {
+        String retval = null;
+
+        if (myLibraryFingerprint != null) {
+            StringBuilder canonical = new StringBuilder(myLibraryFingerprint);
+
+            //Rendering each conjunct on its own gives an order that does not
+            //depend on variable names; rendering them again in that order with
+            //one set of names keeps which conjuncts share a variable
+            Renamer names = new Renamer();
+            canonical.append(render(sort(vc.getAntecedent()), names));
+            canonical.append("\n=>\n");
+            canonical.append(render(sort(vc.getConsequent()), names));
+
+            retval = digest(canonical.toString());
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Returns the result filed under <code>key</code>, or <code>null</code>
+     * if there is none.</p>
+     *
+     * @param key The key.
+     *
+     * @return The result.
+     */
+    public Entry lookup(String key) {
+        Entry retval = null;
+
+        File file = new File(myDirectory, key + ENTRY_SUFFIX);
+        if (file.isFile()) {
+            try {
+                ObjectInputStream in =
+                        new ObjectInputStream(new BufferedInputStream(
+                                new FileInputStream(file)));
+                try {
+                    retval = (Entry) in.readObject();
+                }
+                finally {
+                    in.close();
+                }
+            }
+            catch (Exception e) {
+                //Damaged or from an older compiler, so the VC will just be
+                //attempted again
+                retval = null;
+            }
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Files a result under <code>key</code>, if it is one worth keeping.
+     * Failing to write it is not an error.</p>
+     *
+     * @param key The key.
+     * @param status How the attempt ended.
+     * @param stopped Whether the search was stopped before it could finish,
+     *                in which case its result is not kept.
+     * @param proofText What the attempt wrote to the proof file.
+     */
+    public void store(String key, VCResult.Status status, boolean stopped,
+            String proofText) {
+
+        boolean keep =
+                !stopped
+                        && (status == VCResult.Status.PROVED
+                                || status == VCResult.Status.SKIPPED);
+
+        if (keep && (myDirectory.isDirectory() || myDirectory.mkdirs())) {
+
+            File temp = null;
+            try {
+                temp = File.createTempFile("proof", ".tmp", myDirectory);
+                ObjectOutputStream out =
+                        new ObjectOutputStream(new BufferedOutputStream(
+                                new FileOutputStream(temp)));
+                try {
+                    out.writeObject(new Entry(status, proofText));
+                }
+                finally {
+                    out.close();
+                }
+
+                //Another thread or compiler may have filed the same result
+                //already, in which case either copy will do
+                File file = new File(myDirectory, key + ENTRY_SUFFIX);
+                if (!temp.renameTo(file)) {
+                    file.delete();
+                    if (!temp.renameTo(file)) {
+                        temp.delete();
+                    }
+                }
+            }
+            catch (IOException ioe) {
+                if (temp != null) {
+                    temp.delete();
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>Renders <code>e</code> in the canonical form used for keys, naming its
+     * quantified variables and lambda parameters in order of first
+     * appearance.</p>
+     *
+     * @param e The expression.
+     *
+     * @return Its canonical form.
+     */
+    public static String render(PExp e) {
+        return render(e, new Renamer());
+    }
+
+    private static List<PExp> sort(Iterable<PExp> conjuncts) {
+        final Map<PExp, String> order = new HashMap<PExp, String>();
+        List<PExp> retval = new ArrayList<PExp>();
+
+        for (PExp conjunct : conjuncts) {
+            order.put(conjunct, render(conjunct));
+            retval.add(conjunct);
+        }
+
+        Collections.sort(retval, new Comparator<PExp>() {
+
+            public int compare(PExp o1, PExp o2) {
+                return order.get(o1).compareTo(order.get(o2));
+            }
+        });
+
+        return retval;
+    }
+
+    private static String render(List<PExp> conjuncts, Renamer names) {
+        TreeSet<String> rendered = new TreeSet<String>();
+        for (PExp conjunct : conjuncts) {
+            rendered.add(render(conjunct, names));
+        }
+
+        StringBuilder retval = new StringBuilder();
+        for (String r : rendered) {
+            retval.append(r);
+            retval.append('\n');
+        }
+
+        return retval.toString();
+    }
+
+    private static String render(PExp e, Renamer names) {
+        StringBuilder retval = new StringBuilder();
+        e.accept(new CanonicalRenderingVisitor(retval, names));
+
+        return retval.toString();
+    }
+
+    private static String digest(String text) {
+        String retval = null;
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] bytes = digest.digest(text.getBytes("UTF-8"));
+
+            StringBuilder hex = new StringBuilder();
+            for (byte b : bytes) {
+                hex
+                        .append(Integer.toHexString((b & 0xFF) | 0x100)
+                                .substring(1));
+            }
+            retval = hex.toString();
+        }
+        catch (NoSuchAlgorithmException nsae) {
+            retval = null;
+        }
+        catch (UnsupportedEncodingException uee) {
+            retval = null;
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>A result filed in the cache.</p>
+     */
+    public static class Entry implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        public final VCResult.Status status;
+        public final String proofText;
+
+        public Entry(VCResult.Status status, String proofText) {
+            this.status = status;
+            this.proofText = proofText;
+        }
+    }
+
+    /**
+     * <p>The canonical names given to the bound variables met so far.  Lambda
+     * parameters are only named within their lambda's body, where they hide
+     * any variable of the same name.</p>
+     */
+    private static class Renamer {
+
+        private final Map<String, String> myQuantified =
+                new HashMap<String, String>();
+
+        private final Map<String, String> myParameters =
+                new HashMap<String, String>();
+
+        private int myParameterCount = 0;
+
+        public String nameOf(PSymbol s) {
+            String retval = myParameters.get(s.name);
+
+            if (retval == null) {
+                if (s.quantification == PSymbol.Quantification.NONE) {
+                    retval = s.name;
+                }
+                else {
+                    String key = s.quantification + " " + s.name;
+
+                    retval = myQuantified.get(key);
+                    if (retval == null) {
+                        retval = "?" + myQuantified.size();
+                        myQuantified.put(key, retval);
+                    }
+                }
+            }
+
+            return retval;
+        }
+
+        public String parameterName(String parameter) {
+            return myParameters.get(parameter);
+        }
+
+        /**
+         * <p>Names <code>parameter</code> and returns whatever it hid, to be
+         * handed back to {@link #unbind unbind()}.</p>
+         */
+        public String bind(String parameter) {
+            String name = "\\" + myParameterCount;
+            myParameterCount++;
+
+            return myParameters.put(parameter, name);
+        }
+
+        public void unbind(String parameter, String hidden) {
+            if (hidden == null) {
+                myParameters.remove(parameter);
+            }
+            else {
+                myParameters.put(parameter, hidden);
+            }
+        }
+    }
+
+    /**
+     * <p>Renders every node with its type, fully parenthesized, so that two
+     * expressions render the same only if they are the same up to the names
+     * of their bound variables.</p>
+     */
+    private static class CanonicalRenderingVisitor extends PExpVisitor {
+
+        private final StringBuilder myOutput;
+        private final Renamer myNames;
+
+        /**
+         * <p>What each lambda currently being rendered hid.</p>
+         */
+        private final LinkedList<String> myHidden = new LinkedList<String>();
+
+        public CanonicalRenderingVisitor(StringBuilder output, Renamer names) {
+            myOutput = output;
+            myNames = names;
+        }
+
+        public void beginPSymbol(PSymbol p) {
+            myOutput.append('(');
+            myOutput.append(myNames.nameOf(p));
+            myOutput.append(':');
+            myOutput.append(p.getType());
+        }
+
+        public void endPSymbol(PSymbol p) {
+            myOutput.append(')');
+        }
+
+        public void beginPAlternatives(PAlternatives p) {
+            myOutput.append("{:");
+            myOutput.append(p.getType());
+        }
+
+        public void endPAlternatives(PAlternatives p) {
+            myOutput.append('}');
+        }
+
+        public void beginPLambda(PLambda p) {
+            //Lambdas do not show their bodies to visitors
+            myHidden.push(myNames.bind(p.variableName));
+
+            myOutput.append("(lambda ");
+            myOutput.append(myNames.parameterName(p.variableName));
+            myOutput.append(':');
+            myOutput.append(p.getType());
+            myOutput.append(' ');
+
+            p.getBody().accept(this);
+        }
+
+        public void endPLambda(PLambda p) {
+            myNames.unbind(p.variableName, myHidden.pop());
+            myOutput.append(')');
+        }
+    }
+}
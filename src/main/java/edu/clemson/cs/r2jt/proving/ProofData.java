@@ -1,10 +1,7 @@
 package edu.clemson.cs.r2jt.proving;
 
-import java.util.Deque;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.Map;
+import java.util.NoSuchElementException;
 
 /**
  * <p>The <code>ProofData</code> class is an immutable class that represents the
@@ -16,90 +13,153 @@ import java.util.Map;
  * <p><code>ProofData</code> is designed to be dynamically extensible so that
  * individual <code>TransformationChooser</code>s may record proof-state 
  * information.</p>
+ * 
+ * <p>Both the past states and the transformer data are kept as persistent
+ * linked lists that share their tails with the <code>ProofData</code> they
+ * were derived from, so adding a step or an attribute takes constant time and
+ * space no matter how long the proof-in-progress is.</p>
  */
 public class ProofData {
 
-    private Deque<VC> myPastStates = new LinkedList<VC>();
+    /**
+     * <p>The most recent past state, linked to those before it, or 
+     * <code>null</code> if there are no past states.</p>
+     */
+    private final StepNode myPastStates;
+
+    /**
+     * <p>The most recently set attribute, linked to those set before it, or
+     * <code>null</code> if no attributes have been set.  Attributes set later
+     * shadow earlier ones with the same chooser and key.</p>
+     */
+    private final AttributeNode myTransformerData;
+
+    public ProofData() {
+        this(null, null);
+    }
 
-    private Map<TransformerData, Object> myTransformerData =
-            new HashMap<TransformerData, Object>();
+    private ProofData(StepNode pastStates, AttributeNode transformerData) {
+        myPastStates = pastStates;
+        myTransformerData = transformerData;
+    }
 
     public ProofData addStep(VC step) {
-        ProofData retval = copy();
-        retval.myPastStates.push(step);
-
-        return retval;
+        return new ProofData(new StepNode(step, myPastStates),
+                myTransformerData);
     }
 
     public ProofData popStep() {
-        ProofData retval = copy();
-        retval.myPastStates.pop();
+        if (myPastStates == null) {
+            throw new NoSuchElementException();
+        }
 
-        return retval;
+        return new ProofData(myPastStates.previous, myTransformerData);
     }
 
+    /**
+     * <p>Returns an <code>Iterator</code> over the past states of this proof,
+     * starting with the most recent.</p>
+     * 
+     * @return The iterator.
+     */
     public Iterator<VC> stepIterator() {
-        return new ImmutableIteratorWrapper<VC>(myPastStates.iterator());
+        return new StepIterator(myPastStates);
     }
 
     public ProofData putAttribute(TransformationChooser c, Object key,
             Object value) {
 
-        ProofData retval = copy();
+        return new ProofData(myPastStates, new AttributeNode(c, key, value,
+                myTransformerData));
+    }
+
+    public boolean attributeDefined(TransformationChooser c, Object key) {
+        return findAttribute(c, key) != null;
+    }
 
-        TransformerData t = new TransformerData(c, key);
+    public Object getAttribute(TransformationChooser c, Object key) {
+        AttributeNode attribute = findAttribute(c, key);
 
-        retval.myTransformerData.put(t, value);
+        Object retval = null;
+        if (attribute != null) {
+            retval = attribute.value;
+        }
 
         return retval;
     }
 
-    public boolean attributeDefined(TransformationChooser c, Object key) {
+    /**
+     * <p>Since <code>ProofData</code> is immutable, a copy is simply the
+     * original.</p>
+     * 
+     * @return This <code>ProofData</code>.
+     */
+    public ProofData copy() {
+        return this;
+    }
 
-        TransformerData t = new TransformerData(c, key);
+    private AttributeNode findAttribute(TransformationChooser c, Object key) {
+        AttributeNode cur = myTransformerData;
 
-        return myTransformerData.containsKey(t);
-    }
+        while (cur != null && !(cur.chooser.equals(c) && cur.key.equals(key))) {
+            cur = cur.previous;
+        }
 
-    public Object getAttribute(TransformationChooser c, Object key) {
-        return myTransformerData.get(new TransformerData(c, key));
+        return cur;
     }
 
-    public ProofData copy() {
-        ProofData retval = new ProofData();
-        retval.myPastStates = new LinkedList<VC>(myPastStates);
-        retval.myTransformerData =
-                new HashMap<TransformerData, Object>(myTransformerData);
+    private static class StepNode {
 
-        return retval;
+        public final VC step;
+        public final StepNode previous;
+
+        public StepNode(VC step, StepNode previous) {
+            this.step = step;
+            this.previous = previous;
+        }
     }
 
-    private static class TransformerData {
+    private static class AttributeNode {
 
-        public TransformationChooser chooser;
-        public Object key;
+        public final TransformationChooser chooser;
+        public final Object key;
+        public final Object value;
+        public final AttributeNode previous;
 
-        public TransformerData(TransformationChooser c, Object k) {
+        public AttributeNode(TransformationChooser c, Object k, Object v,
+                AttributeNode previous) {
             chooser = c;
             key = k;
+            value = v;
+            this.previous = previous;
         }
+    }
 
-        public int hashCode() {
-            return chooser.hashCode() + key.hashCode();
-        }
+    private static class StepIterator implements Iterator<VC> {
+
+        private StepNode myNext;
 
-        public boolean equals(Object o) {
-            boolean retval = (o instanceof TransformerData);
+        public StepIterator(StepNode first) {
+            myNext = first;
+        }
 
-            if (retval) {
-                TransformerData oAsTransformerData = (TransformerData) o;
+        public boolean hasNext() {
+            return myNext != null;
+        }
 
-                retval =
-                        oAsTransformerData.chooser.equals(chooser)
-                                && oAsTransformerData.key.equals(key);
+        public VC next() {
+            if (myNext == null) {
+                throw new NoSuchElementException();
             }
 
+            VC retval = myNext.step;
+            myNext = myNext.previous;
+
             return retval;
         }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
     }
 }
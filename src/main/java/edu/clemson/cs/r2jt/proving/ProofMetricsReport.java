@@ -0,0 +1,212 @@
+package edu.clemson.cs.r2jt.proving;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.clemson.cs.r2jt.compilereport.VCResult;
+
+/**
+ * <p>Gathers the metrics of every proof attempt in a module and writes them
+ * out as a single JSON document, so that how the prover spends its time can be
+ * compared from one run, library, or setting to the next with ordinary
+ * tools.</p>
+ *
+ * <p>The document has an entry for each VC, in order, giving its status, the
+ * time taken, the number of proof states considered and backtracks made, and
+ * how many of those states were at each proof length.  It also gives the same
+ * histogram for the module as a whole, and, if transformer statistics were
+ * recorded, what each transformer did across the module, most expensive
+ * first.  Transformers are named by their <code>toString()</code>, which is
+ * also how they appear in proofs, so the same theorem used by several workers
+ * or strategies is reported once.</p>
+ *
+ * <p>Not thread-safe; the prover reports each VC from its main thread.</p>
+ */
+class ProofMetricsReport {
+
+    private final StringBuilder myVCs = new StringBuilder();
+
+    private long[] myDepthCounts = new long[0];
+
+    private final Map<String, TransformerStatistics> myTransformers =
+            new HashMap<String, TransformerStatistics>();
+
+    /**
+     * <p>Adds the outcome of a proof attempt.</p>
+     *
+     * @param result The result of the attempt.
+     * @param metrics The metrics gathered during the attempt, or
+     *                <code>null</code> if there was no search, as when a
+     *                cached result is reused.
+     */
+    public void add(VCResult result, Metrics metrics) {
+        if (myVCs.length() > 0) {
+            myVCs.append(",\n");
+        }
+
+        myVCs.append("    {\"name\": " + quote(result.getName()));
+        myVCs.append(", \"status\": " + quote(result.getStatus().toString()));
+        myVCs.append(", \"milliseconds\": " + result.getMilliseconds());
+        myVCs.append(", \"states\": " + result.getProofsConsidered());
+        myVCs.append(", \"backtracks\": " + result.getBacktracks());
+
+        long[] depthCounts;
+        if (metrics == null) {
+            depthCounts = new long[0];
+            myVCs.append(", \"reused\": true");
+        }
+        else {
+            depthCounts = metrics.getDepthCounts();
+            addTransformers(metrics);
+        }
+
+        myVCs.append(", \"depths\": ");
+        appendArray(myVCs, depthCounts);
+        myVCs.append("}");
+
+        if (depthCounts.length > myDepthCounts.length) {
+            myDepthCounts = Arrays.copyOf(myDepthCounts, depthCounts.length);
+        }
+        for (int i = 0; i < depthCounts.length; i++) {
+            myDepthCounts[i] += depthCounts[i];
+        }
+    }
+
+    /**
+     * <p>Writes the report to <code>file</code>.</p>
+     *
+     * @param file The file to write.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    public void write(File file) throws IOException {
+        StringBuilder report = new StringBuilder();
+
+        report.append("{\n  \"vcs\": [\n");
+        report.append(myVCs);
+        report.append("\n  ],\n  \"depths\": ");
+        appendArray(report, myDepthCounts);
+        report.append(",\n  \"transformers\": [");
+
+        List<Map.Entry<String, TransformerStatistics>> transformers =
+                new ArrayList<Map.Entry<String, TransformerStatistics>>(
+                        myTransformers.entrySet());
+        Collections.sort(transformers, new MostExpensiveFirst());
+
+        boolean first = true;
+        for (Map.Entry<String, TransformerStatistics> t : transformers) {
+            TransformerStatistics s = t.getValue();
+
+            report.append(first ? "\n" : ",\n");
+            report.append("    {\"transformer\": " + quote(t.getKey()));
+            report.append(", \"attempts\": " + s.attempts);
+            report.append(", \"results\": " + s.results);
+            report.append(", \"proofSteps\": " + s.proofSteps);
+            report.append(", \"microseconds\": " + s.nanoseconds / 1000);
+            report.append("}");
+
+            first = false;
+        }
+
+        report.append("\n  ]\n}\n");
+
+        FileWriter out = new FileWriter(file);
+        try {
+            out.write(report.toString());
+        }
+        finally {
+            out.close();
+        }
+    }
+
+    private void addTransformers(Metrics metrics) {
+        Map<VCTransformer, TransformerStatistics> statistics =
+                metrics.getTransformerStatistics();
+
+        if (statistics != null) {
+            for (Map.Entry<VCTransformer, TransformerStatistics> e : statistics
+                    .entrySet()) {
+
+                String name = e.getKey().toString();
+
+                TransformerStatistics total = myTransformers.get(name);
+                if (total == null) {
+                    total = new TransformerStatistics();
+                    myTransformers.put(name, total);
+                }
+
+                total.add(e.getValue());
+            }
+        }
+    }
+
+    private static void appendArray(StringBuilder b, long[] values) {
+        b.append('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                b.append(", ");
+            }
+            b.append(values[i]);
+        }
+        b.append(']');
+    }
+
+    private static String quote(String s) {
+        StringBuilder retval = new StringBuilder("\"");
+
+        char c;
+        for (int i = 0; i < s.length(); i++) {
+            c = s.charAt(i);
+
+            if (c == '"' || c == '\\') {
+                retval.append('\\');
+                retval.append(c);
+            }
+            else if (c == '\n') {
+                retval.append("\\n");
+            }
+            else if (c < ' ') {
+                retval.append(String.format("\\u%04x", (int) c));
+            }
+            else {
+                retval.append(c);
+            }
+        }
+
+        retval.append('"');
+
+        return retval.toString();
+    }
+
+    /*
+     * Orders transformers by the time spent in them, most first, then by name.
+     */
+    private static class MostExpensiveFirst
+            implements Comparator<Map.Entry<String, TransformerStatistics>> {
+
+        public int compare(Map.Entry<String, TransformerStatistics> o1,
+                Map.Entry<String, TransformerStatistics> o2) {
+
+            long t1 = o1.getValue().nanoseconds;
+            long t2 = o2.getValue().nanoseconds;
+
+            int retval;
+            if (t1 == t2) {
+                retval = o1.getKey().compareTo(o2.getKey());
+            }
+            else {
+                retval = (t1 > t2) ? -1 : 1;
+            }
+
+            return retval;
+        }
+    }
+}
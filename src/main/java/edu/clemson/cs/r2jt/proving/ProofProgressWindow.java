@@ -10,7 +10,14 @@ import javax.swing.JButton;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JProgressBar;
-
+import javax.swing.SwingUtilities;
+
+/**
+ * <p>Shows the progress published on a <code>ProgressChannel</code>, and skips
+ * the VC being proved when asked.  Updates arrive on the channel's thread and
+ * are handed to the event dispatch thread, so the prover never waits on
+ * Swing.</p>
+ */
 class ProofProgressWindow extends JFrame
         implements
             ActionListener,
@@ -20,12 +27,11 @@ class ProofProgressWindow extends JFrame
 
     private JProgressBar myProgressBar;
 
-    private ActionCanceller myCanceller;
+    private final ProgressChannel myChannel;
 
-    public ProofProgressWindow(final String name,
-            final ActionCanceller canceller) {
+    public ProofProgressWindow(final ProgressChannel channel) {
 
-        myCanceller = canceller;
+        myChannel = channel;
 
         setTitle("Proof progress...");
 
@@ -40,7 +46,7 @@ class ProofProgressWindow extends JFrame
         Container pane = getContentPane();
         pane.setLayout(new FlowLayout());
 
-        JLabel proving = new JLabel("Trying to \nprove " + name + "...");
+        JLabel proving = new JLabel("Trying to \nprove VC...");
         proving.setPreferredSize(new Dimension(350, 20));
 
         JLabel searched = new JLabel("Proof space searched:");
@@ -55,27 +61,33 @@ class ProofProgressWindow extends JFrame
         setSize(375, 150);
         setLocationRelativeTo(null);
         setVisible(true);
-    }
-
-    public void setActionCanceller(ActionCanceller c) {
-        myCanceller = c;
-    }
 
-    public void setProgress(double progress) {
-        myProgressBar.setValue((int) (10000 * progress));
-        repaint();
+        myChannel.addListener(this);
     }
 
     public void done() {
         dispose();
     }
 
+    @Override
+    public void dispose() {
+        myChannel.removeListener(this);
+        super.dispose();
+    }
+
     public void actionPerformed(ActionEvent e) {
-        myCanceller.cancel();
+        myChannel.cancel();
     }
 
-    public void progressUpdate(double progress) {
-        myProgressBar.setValue((int) (10000 * progress));
-        repaint();
+    public void progressUpdate(final double progress) {
+        final String name = myChannel.getVCName();
+
+        SwingUtilities.invokeLater(new Runnable() {
+
+            public void run() {
+                setTitle("VC " + name);
+                myProgressBar.setValue((int) (10000 * progress));
+            }
+        });
     }
 }
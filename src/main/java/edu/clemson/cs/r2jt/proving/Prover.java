@@ -51,8 +51,14 @@ package edu.clemson.cs.r2jt.proving;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import edu.clemson.cs.r2jt.Main;
 import edu.clemson.cs.r2jt.ResolveCompiler;
@@ -66,6 +72,7 @@ import edu.clemson.cs.r2jt.absyn.ModuleDec;
 import edu.clemson.cs.r2jt.analysis.MathExpTypeResolver;
 import edu.clemson.cs.r2jt.collections.List;
 import edu.clemson.cs.r2jt.compilereport.CompileReport;
+import edu.clemson.cs.r2jt.compilereport.VCResult;
 import edu.clemson.cs.r2jt.data.ModuleID;
 import edu.clemson.cs.r2jt.data.Symbol;
 import edu.clemson.cs.r2jt.errors.ErrorHandler;
@@ -106,6 +113,40 @@ import edu.clemson.cs.r2jt.verification.Verifier;
 public final class Prover {
 
     private static final double FITNESS_THRESHOLD = 0.8;
+
+    /**
+     * <p>
+     * The least time, in milliseconds, between two updates to the progress
+     * window. Ten a second is smooth enough to watch.
+     * </p>
+     */
+    static final long PROGRESS_PERIOD = 100;
+
+    /**
+     * <p>
+     * The milliseconds spent on each VC when <code>FLAG_TIMEOUT</code> is not
+     * given, except under <code>FLAG_DEBUG</code>, where the user sets the
+     * pace.
+     * </p>
+     */
+    public static final long DEFAULT_TIMEOUT = 5000;
+
+    /**
+     * <p>
+     * The proof states each strategy may consider for a VC when
+     * <code>FLAG_MAX_STATES</code> is not given.
+     * </p>
+     */
+    public static final long DEFAULT_MAX_PROOF_STATES = 100000;
+
+    /**
+     * <p>
+     * The longest proof considered when <code>FLAG_MAX_DEPTH</code> is not
+     * given.
+     * </p>
+     */
+    public static final int DEFAULT_MAX_PROOF_DEPTH = 100;
+
     private static final String FLAG_SECTION_NAME = "Proving";
     private static final String FLAG_DESC_PROVE =
             "Verify program with RESOLVE's integrated prover.";
@@ -123,10 +164,61 @@ public final class Prover {
             "Supresses any graphical interfaces so that the compiler can be run "
                     + "headlessly.";
 
+    private static final String FLAG_DESC_MAX_STATES =
+            "Takes the number of proof states each of the prover's strategies "
+                    + "may consider for a VC before reporting it as timed "
+                    + "out.  Defaults to " + DEFAULT_MAX_PROOF_STATES + ".";
+    private static final String FLAG_DESC_MAX_DEPTH =
+            "Takes the maximum number of steps the prover will consider in a "
+                    + "single proof.  Defaults to " + DEFAULT_MAX_PROOF_DEPTH
+                    + ".";
+    private static final String FLAG_DESC_SEARCH_ORDER =
+            "Searches the proof space with an explicit frontier in the given "
+                    + "order: depth-first, iterative-deepening or best-first.";
+    private static final String FLAG_DESC_PORTFOLIO =
+            "Races the prover's strategies against each other on separate "
+                    + "threads rather than trying them one after another.";
+    private static final String FLAG_DESC_PARALLEL =
+            "Proves independent VCs concurrently on the given number of "
+                    + "threads.  A thread count of 0 uses one thread per "
+                    + "available processor.";
+    private static final String FLAG_DESC_PROOF_CACHE =
+            "Keeps the results of proof attempts in the given directory and "
+                    + "reuses them for the same VCs against the same theorems.";
+    private static final String FLAG_DESC_PROOF_METRICS =
+            "Writes the number of proof states each VC took, by proof length, "
+                    + "and what each theorem cost and contributed, to a "
+                    + ".metrics file beside the .proof file.";
+
     public static final String FLAG_TIMEOUT_ARG_NAME = "milliseconds";
 
     private static final String[] FLAG_TIMEOUT_ARGS = { FLAG_TIMEOUT_ARG_NAME };
 
+    public static final String FLAG_MAX_STATES_ARG_NAME = "states";
+
+    private static final String[] FLAG_MAX_STATES_ARGS =
+            { FLAG_MAX_STATES_ARG_NAME };
+
+    public static final String FLAG_MAX_DEPTH_ARG_NAME = "depth";
+
+    private static final String[] FLAG_MAX_DEPTH_ARGS =
+            { FLAG_MAX_DEPTH_ARG_NAME };
+
+    public static final String FLAG_SEARCH_ORDER_ARG_NAME = "order";
+
+    private static final String[] FLAG_SEARCH_ORDER_ARGS =
+            { FLAG_SEARCH_ORDER_ARG_NAME };
+
+    public static final String FLAG_PARALLEL_ARG_NAME = "threads";
+
+    private static final String[] FLAG_PARALLEL_ARGS =
+            { FLAG_PARALLEL_ARG_NAME };
+
+    public static final String FLAG_PROOF_CACHE_ARG_NAME = "directory";
+
+    private static final String[] FLAG_PROOF_CACHE_ARGS =
+            { FLAG_PROOF_CACHE_ARG_NAME };
+
     /**
      * <p>
      * The main prover flag. Causes the integrated prover to attempt to dispatch
@@ -147,8 +239,11 @@ public final class Prover {
             new Flag(FLAG_SECTION_NAME, "prove", FLAG_DESC_LEGACY_PROVE);
 
     private static final String FLAG_DESC_TIMEOUT =
-            "Takes a number of " + "milliseconds to use as a timeout for "
-                    + FLAG_LEGACY_PROVE.invocation + "  Incompatible with "
+            "Takes a number of milliseconds to spend on each VC before "
+                    + "reporting it as timed out.  Defaults to "
+                    + DEFAULT_TIMEOUT + ", or no limit when stepping through "
+                    + "proofs by hand.  May be used with either "
+                    + FLAG_LEGACY_PROVE.invocation + " or "
                     + FLAG_PROVE.invocation + ".";
 
     /**
@@ -171,13 +266,42 @@ public final class Prover {
 
     /**
      * <p>
-     * Puts a rough timeout on the old prover.
+     * Puts a rough timeout on the time spent proving each VC.
      * </p>
      */
     public static final Flag FLAG_TIMEOUT =
             new Flag(FLAG_SECTION_NAME, "timeout", FLAG_DESC_TIMEOUT,
                     FLAG_TIMEOUT_ARGS, Flag.Type.HIDDEN);
 
+    /**
+     * <p>
+     * Limits the number of proof states the integrated prover may consider in
+     * each of its strategies for a single VC.
+     * </p>
+     */
+    public static final Flag FLAG_MAX_STATES =
+            new Flag(FLAG_SECTION_NAME, "maxproofstates", FLAG_DESC_MAX_STATES,
+                    FLAG_MAX_STATES_ARGS, Flag.Type.HIDDEN);
+
+    /**
+     * <p>
+     * Limits the length of the proofs the integrated prover will consider.
+     * </p>
+     */
+    public static final Flag FLAG_MAX_DEPTH =
+            new Flag(FLAG_SECTION_NAME, "maxproofdepth", FLAG_DESC_MAX_DEPTH,
+                    FLAG_MAX_DEPTH_ARGS, Flag.Type.HIDDEN);
+
+    /**
+     * <p>
+     * Selects the order in which the integrated prover explores the proof
+     * space. Without this flag the prover uses its original recursive search.
+     * </p>
+     */
+    public static final Flag FLAG_SEARCH_ORDER =
+            new Flag(FLAG_SECTION_NAME, "proofsearch", FLAG_DESC_SEARCH_ORDER,
+                    FLAG_SEARCH_ORDER_ARGS, Flag.Type.HIDDEN);
+
     /**
      * <p>
      * Prints additional debugging information.
@@ -189,6 +313,60 @@ public final class Prover {
     public static final Flag FLAG_NOGUI =
             new Flag(Main.FLAG_SECTION_GENERAL, "noGUI", FLAG_DESC_NOGUI);
 
+    /**
+     * <p>
+     * Causes the integrated prover to work on several VCs at once using a
+     * bounded pool of worker threads. Results are still reported in VC order.
+     * </p>
+     */
+    public static final Flag FLAG_PARALLEL =
+            new Flag(FLAG_SECTION_NAME, "parallelprove", FLAG_DESC_PARALLEL,
+                    FLAG_PARALLEL_ARGS, Flag.Type.HIDDEN);
+
+    /**
+     * <p>
+     * Causes the prover to attempt all of its strategies for a VC at once,
+     * taking the first proof found, rather than attempting them in sequence.
+     * Only for the new prover, whose racing strategies each get their own
+     * rules; the legacy prover's strategies share state that isn't
+     * thread-safe.
+     * </p>
+     */
+    public static final Flag FLAG_PORTFOLIO =
+            new Flag(FLAG_SECTION_NAME, "portfolioprove", FLAG_DESC_PORTFOLIO,
+                    Flag.Type.HIDDEN);
+
+    /**
+     * <p>
+     * Causes the prover to look up each VC in a cache of earlier results before
+     * searching for a proof, and to add the results it finds to the cache.
+     * </p>
+     */
+    public static final Flag FLAG_PROOF_CACHE =
+            new Flag(FLAG_SECTION_NAME, "proofcache", FLAG_DESC_PROOF_CACHE,
+                    FLAG_PROOF_CACHE_ARGS, Flag.Type.HIDDEN);
+
+    /**
+     * <p>
+     * Causes the prover to record how much work each VC took and what each
+     * theorem did toward it, and to write the totals for the module out in a
+     * machine-readable form.
+     * </p>
+     */
+    public static final Flag FLAG_PROOF_METRICS =
+            new Flag(FLAG_SECTION_NAME, "proofmetrics",
+                    FLAG_DESC_PROOF_METRICS, Flag.Type.HIDDEN);
+
+    /**
+     * <p>
+     * The flags that affect what the prover can prove, and so which cached
+     * results may be reused.
+     * </p>
+     */
+    private static final Flag[] FLAGS_AFFECTING_RESULTS =
+            { FLAG_PROVE, FLAG_LEGACY_PROVE, FLAG_DEBUG, FLAG_MAX_STATES,
+                    FLAG_MAX_DEPTH, FLAG_SEARCH_ORDER, FLAG_PORTFOLIO };
+
     /**
      * <p>
      * An auxiliary flag implied by any flag that attempts to do some proving.
@@ -227,6 +405,14 @@ public final class Prover {
      * </p>
      */
     private ProofProgressWindow myProgressWindow;
+    /**
+     * <p>
+     * The channel through which the prover reports progress to
+     * <code>myProgressWindow</code>, or <code>null</code> if there is no
+     * window.
+     * </p>
+     */
+    private ProgressChannel myProgress;
     /**
      * <p>
      * The current RESOLVE environment, from which we can get information on the
@@ -272,6 +458,22 @@ public final class Prover {
     private final List<String> myTheoremNames = new List<String>();
     private final CompileEnvironment myInstanceEnvironment;
 
+    /**
+     * <p>
+     * The results of earlier proof attempts, or <code>null</code> if they are
+     * not being kept.
+     * </p>
+     */
+    private final ProofCache myProofCache;
+
+    /**
+     * <p>
+     * The metrics of the VCs reported so far, or <code>null</code> if they are
+     * not being kept.
+     * </p>
+     */
+    private final ProofMetricsReport myMetricsReport;
+
     /**
      * <p>
      * Constructs a new prover with the given <code>SymbolTable</code> and sets
@@ -308,21 +510,43 @@ public final class Prover {
                     Long.parseLong(instanceEnvironment.flags.getFlagArgument(
                             FLAG_TIMEOUT, FLAG_TIMEOUT_ARG_NAME));
         }
-        else {
+        else if (instanceEnvironment.flags.isFlagSet(FLAG_DEBUG)) {
             TIMEOUT = Integer.MAX_VALUE;
         }
+        else {
+            TIMEOUT = DEFAULT_TIMEOUT;
+        }
 
         myInstanceEnvironment = instanceEnvironment;
 
         allProved = true;
 
         if (!myInstanceEnvironment.flags.isFlagSet(FLAG_NOGUI)) {
-            myProgressWindow = new ProofProgressWindow("VC", null);
+            myProgress = new ProgressChannel(PROGRESS_PERIOD);
+            myProgressWindow = new ProofProgressWindow(myProgress);
         }
 
         myTyper = typer;
         buildTheories();
 
+        if (myInstanceEnvironment.flags.isFlagSet(FLAG_PROOF_CACHE)) {
+            myProofCache =
+                    new ProofCache(new File(myInstanceEnvironment.flags
+                            .getFlagArgument(FLAG_PROOF_CACHE,
+                                    FLAG_PROOF_CACHE_ARG_NAME)),
+                            describeLibrary());
+        }
+        else {
+            myProofCache = null;
+        }
+
+        if (myInstanceEnvironment.flags.isFlagSet(FLAG_PROOF_METRICS)) {
+            myMetricsReport = new ProofMetricsReport();
+        }
+        else {
+            myMetricsReport = null;
+        }
+
         try {
             proveVCs(vCs);
 
@@ -350,6 +574,7 @@ public final class Prover {
 
         if (!myInstanceEnvironment.flags.isFlagSet(FLAG_NOGUI)) {
             myProgressWindow.dispose();
+            myProgress.close();
         }
     }
 
@@ -401,6 +626,34 @@ public final class Prover {
         }
     }
 
+    /**
+     * <p>
+     * Describes the theorem library and the settings the prover will use, such
+     * that the description changes whenever either does.
+     * </p>
+     */
+    private String describeLibrary() {
+        StringBuilder retval = new StringBuilder();
+
+        retval.append(myInstanceEnvironment.flags.getSettings(Arrays
+                .asList(FLAGS_AFFECTING_RESULTS)));
+        retval.append('\n');
+
+        for (int i = 0; i < myPExpTheorems.size(); i++) {
+            retval.append(myTheoremNames.get(i));
+            retval.append(": ");
+            retval.append(ProofCache.render(myPExpTheorems.get(i)));
+            retval.append('\n');
+        }
+
+        for (Implication i : myImplications) {
+            retval.append(i);
+            retval.append('\n');
+        }
+
+        return retval.toString();
+    }
+
     private void addLocalAxioms(ModuleDec module) {
 
         // TODO : Eventually axioms in any type of module should be supported
@@ -483,8 +736,6 @@ public final class Prover {
     private void proveVCs(final Iterable<VerificationCondition> vcs)
             throws ProverException {
 
-        Metrics metrics = new Metrics();
-
         FileWriter proofFile;
         try {
             proofFile = new FileWriter(getProofFileName());
@@ -493,22 +744,31 @@ public final class Prover {
             proofFile = null;
         }
 
-        VCProver p;
+        if (myInstanceEnvironment.flags.isFlagSet(ResolveCompiler.FLAG_WEB)) {
+            myInstanceEnvironment.getCompileReport().startProveVCs();
+        }
 
-        if (myInstanceEnvironment.flags.isFlagSet(FLAG_PROVE)) {
-            if (myInstanceEnvironment.flags.isFlagSet(FLAG_DEBUG)) {
-                p = setUpProverDebug();
+        if (myInstanceEnvironment.flags.isFlagSet(FLAG_PARALLEL)) {
+            proveVCsInParallel(vcs, proofFile);
+        }
+        else {
+            VCProver p;
+
+            if (myInstanceEnvironment.flags.isFlagSet(FLAG_PROVE)) {
+                if (myInstanceEnvironment.flags.isFlagSet(FLAG_DEBUG)) {
+                    p = setUpProverDebug();
+                }
+                else {
+                    p = setUpProver();
+                }
             }
             else {
-                p = setUpProver();
+                p = null;
             }
-        }
-        else {
-            p = null;
-        }
 
-        for (VerificationCondition vc : vcs) {
-            proveVC(vc, metrics, proofFile, p);
+            for (VerificationCondition vc : vcs) {
+                reportVC(proveVC(vc, p), proofFile);
+            }
         }
 
         if (!myInstanceEnvironment.flags.isFlagSet(ResolveCompiler.FLAG_WEB)) {
@@ -528,27 +788,160 @@ public final class Prover {
             catch (Exception e) {}
         }
 
+        if (myMetricsReport != null) {
+            try {
+                myMetricsReport.write(new File(getModuleFileName(".metrics")));
+            }
+            catch (IOException e) {
+                System.err.println("Could not write proof metrics: "
+                        + e.getMessage());
+            }
+        }
+
         System.out.println(output);
     }
 
+    /**
+     * <p>
+     * Attempts to prove a collection of VCs using a fixed pool of worker
+     * threads. Each worker builds its own prover, since the strategies keep
+     * per-VC state, but all workers share the read-only theorem library.
+     * Outcomes are reported in the original VC order as they become available,
+     * so the output is identical to that of a sequential run.
+     * </p>
+     * 
+     * @param vcs
+     *            The VCs to prove. May not be <code>null</code>.
+     * @param proofFile
+     *            The file to which proofs should be written, or
+     *            <code>null</code> if no proof file is being kept.
+     * 
+     * @throws VCInconsistentException
+     *             If a given VC can be proved inconsistent.
+     */
+    private void proveVCsInParallel(final Iterable<VerificationCondition> vcs,
+            FileWriter proofFile) throws VCInconsistentException {
+
+        int threads =
+                Integer.parseInt(myInstanceEnvironment.flags.getFlagArgument(
+                        FLAG_PARALLEL, FLAG_PARALLEL_ARG_NAME));
+        if (threads <= 0) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+
+        final ThreadLocal<VCProver> workerProvers =
+                new ThreadLocal<VCProver>() {
+
+                    @Override
+                    protected VCProver initialValue() {
+                        return setUpProver();
+                    }
+                };
+
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        try {
+            java.util.List<Future<VCOutcome>> outcomes =
+                    new LinkedList<Future<VCOutcome>>();
+
+            for (final VerificationCondition vc : vcs) {
+                // The absyn expressions are mutable, so all rewriting of the
+                // original VC happens here on the calling thread
+                printVCHeader(vc);
+                vc.propagateExpansionsInPlace();
+                final VerificationCondition toProve = vc.copy();
+
+                outcomes.add(workers.submit(new Callable<VCOutcome>() {
+
+                    public VCOutcome call() throws VCInconsistentException {
+                        return attemptVC(vc.getName(), toProve, workerProvers
+                                .get(), null, new ActionCanceller(), System
+                                .currentTimeMillis());
+                    }
+                }));
+            }
+
+            for (Future<VCOutcome> outcome : outcomes) {
+                reportVC(outcome.get(), proofFile);
+            }
+        }
+        catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(ie);
+        }
+        catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+
+            if (cause instanceof VCInconsistentException) {
+                throw (VCInconsistentException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+        finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * <p>
+     * Merges the outcome of a single proof attempt into the overall output,
+     * proof file, and compile report. Called on the prover's main thread only,
+     * and always in VC order.
+     * </p>
+     * 
+     * @param outcome
+     *            The outcome to report.
+     * @param proofFile
+     *            The file to which proofs should be written, or
+     *            <code>null</code> if no proof file is being kept.
+     */
+    private void reportVC(VCOutcome outcome, FileWriter proofFile) {
+        if (!outcome.proved) {
+            allProved = false;
+        }
+
+        output.append(outcome.output);
+
+        if (proofFile != null) {
+            try {
+                proofFile.append(outcome.proofText);
+            }
+            catch (IOException ex) {}
+        }
+
+        if (myInstanceEnvironment.flags.isFlagSet(ResolveCompiler.FLAG_WEB)) {
+            myInstanceEnvironment.getCompileReport()
+                    .addVCResult(outcome.result);
+        }
+
+        if (myMetricsReport != null) {
+            myMetricsReport.add(outcome.result, outcome.metrics);
+        }
+    }
+
     /**
      * <p>
      * Prints various metrics out at the conclusion of a proof.
      * </p>
      * 
-     * @param startTime
-     *            The time at which the proof was begun, as returned from
-     *            <code>System.currentTimeMillis()</code>.
+     * @param output
+     *            The buffer to print to.
+     * @param milliseconds
+     *            How long the proof took.
      * @param exitInformation
      *            A prover exception containing the metric information to print.
      */
-    private void printExitReport(long startTime,
+    private void printExitReport(StringBuffer output, long milliseconds,
             final ProverException exitInformation) {
 
         Metrics metrics = exitInformation.getMetrics();
-        long endTime = System.currentTimeMillis();
 
-        output.append((endTime - startTime) + " milliseconds.");
+        output.append(milliseconds + " milliseconds.");
         /*
          * System.out.print((endTime - startTime) + " milliseconds.");
          */
@@ -556,8 +949,8 @@ public final class Prover {
         if (!myInstanceEnvironment.flags.isFlagSet(ResolveCompiler.FLAG_WEB)) {
             output.append("  Overall, " + metrics.getNumProofsConsidered()
                     + " proofs were directly considered and "
-                    + metrics.numTimesBacktracked + " useful backtracks were "
-                    + "performed.");
+                    + metrics.getNumTimesBacktracked()
+                    + " useful backtracks were " + "performed.");
         }
 
         output.append("\n");
@@ -575,54 +968,35 @@ public final class Prover {
 
     /**
      * <p>
-     * Attempts to prove a single VC. If this method returns without throwing an
-     * exception, then the VC was proved.
+     * Attempts to prove a single VC on the current thread.
      * </p>
      * 
      * @param vC
      *            The verification condition to be proved. May not be
      *            <code>null</code>.
-     * @param theorems
-     *            A list of theorems that may be applied as part of the proof.
-     *            May not be <code>null</code>.
-     * @param maxDepth
-     *            The maximum number of steps the prover should attempt before
-     *            giving up on a proof.
-     * @param metrics
-     *            A reference to the metrics the prover should keep on the proof
-     *            in progress. May not be <code>null</code>.
      * @param p
      *            The prover to be used if we're using the new prover, or
      *            <code>null</code> if we're supposed to use to legacy prover.
      * 
-     * @throws UnableToProveException
-     *             If the VC cannot be proved in a reasonable amount of time.
+     * @return The outcome of the attempt, ready to be reported.
+     * 
      * @throws VCInconsistentException
      *             If the VC can be proved inconsistent.
      * @throws NullPointerException
-     *             If <code>vC</code>, <code>theorems</code>, or
-     *             <code>metrics</code> is <code>null</code>.
+     *             If <code>vC</code> is <code>null</code>.
      */
-    private void proveVC(final VerificationCondition vC, final Metrics metrics,
-            FileWriter proofFile, VCProver p) throws VCInconsistentException {
-
-        if (myInstanceEnvironment.flags.isFlagSet(FLAG_VERBOSE)) {
-            System.out.println("\n\n############################# VC "
-                    + "#############################");
+    private VCOutcome proveVC(final VerificationCondition vC, VCProver p)
+            throws VCInconsistentException {
 
-            System.out.println(vC);
-        }
+        printVCHeader(vC);
 
         long startTime = System.currentTimeMillis();
         vC.propagateExpansionsInPlace();
 
-        ProverException exitInformation = null;
-
         ActionCanceller c = new ActionCanceller();
 
         if (!myInstanceEnvironment.flags.isFlagSet(FLAG_NOGUI)) {
-            myProgressWindow.setTitle("VC " + vC.getName());
-            myProgressWindow.setActionCanceller(c);
+            myProgress.beginVC(vC.getName(), c);
         }
 
         if (p == null) {
@@ -633,51 +1007,196 @@ public final class Prover {
                 p = setUpOldProver(vC);
             }
         }
+
+        return attemptVC(vC.getName(), vC.copy(), p, myProgress, c, startTime);
+    }
+
+    private void printVCHeader(VerificationCondition vC) {
+        if (myInstanceEnvironment.flags.isFlagSet(FLAG_VERBOSE)) {
+            System.out.println("\n\n############################# VC "
+                    + "#############################");
+
+            System.out.println(vC);
+        }
+    }
+
+    /**
+     * <p>
+     * Runs the given prover on an already-prepared VC and records everything
+     * that should be reported about the attempt. Touches no state shared with
+     * other attempts, so it may be called from any thread.
+     * </p>
+     * 
+     * @param name
+     *            The name of the VC.
+     * @param toProve
+     *            The VC to hand to the prover.
+     * @param p
+     *            The prover to use. Must not be in use by another thread.
+     * @param listener
+     *            The listener for progress updates, or <code>null</code>.
+     * @param c
+     *            The canceller for this attempt.
+     * @param startTime
+     *            The time the attempt is considered to have begun, as returned
+     *            from <code>System.currentTimeMillis()</code>.
+     * 
+     * @return The outcome of the attempt.
+     * 
+     * @throws VCInconsistentException
+     *             If the VC can be proved inconsistent.
+     */
+    private VCOutcome attemptVC(String name, VerificationCondition toProve,
+            VCProver p, ProverListener listener, ActionCanceller c,
+            long startTime) throws VCInconsistentException {
+
+        VCOutcome outcome = new VCOutcome();
+        StringBuffer output = outcome.output;
+
+        ProverException exitInformation = null;
+        VCResult.Status status = null;
+
         if (myInstanceEnvironment.flags.isFlagSet(ResolveCompiler.FLAG_WEB)) {
-            output.append("<vcProve id=\"" + vC.getName() + "\">");
+            output.append("<vcProve id=\"" + name + "\">");
         }
         else {
-            output.append(vC.getName() + " ");
+            output.append(name + " ");
         }
-        // System.out.print(vC.getName() + " ");
 
-        try {
-            p.prove(vC.copy(), myProgressWindow, c, System.currentTimeMillis()
-                    + TIMEOUT);
+        String cacheKey = null;
+        ProofCache.Entry cached = null;
+        if (myProofCache != null) {
+            cacheKey = getCacheKey(toProve);
+            if (cacheKey != null) {
+                cached = myProofCache.lookup(cacheKey);
+            }
         }
-        catch (UnableToProveException e) {
-            exitInformation = e;
-            output.append("Skipped after ");
-            // System.out.print("Skipped after ");
-            allProved = false;
 
-            if (proofFile != null) {
-                try {
-                    proofFile.append(vC.getName() + " failed.\n\n");
-                }
-                catch (IOException ex) {}
+        if (cached != null) {
+            reuseResult(outcome, name, cached, startTime);
+        }
+        else {
+            String proof = "";
+
+            // Whether the search was stopped before it could finish, so that
+            // its failure says nothing about the VC
+            boolean stopped = false;
+
+            try {
+                p.prove(toProve, listener, c, System.currentTimeMillis()
+                        + TIMEOUT);
+            }
+            catch (ProofBudgetExceededException e) {
+                exitInformation = e;
+                output.append("Timed out after ");
+                status = VCResult.Status.TIMED_OUT;
+                outcome.proved = false;
+                outcome.proofText = name + " timed out.\n\n";
             }
+            catch (UnableToProveException e) {
+                exitInformation = e;
+                stopped = !c.running || Thread.currentThread().isInterrupted();
+                output.append("Skipped after ");
+                status = VCResult.Status.SKIPPED;
+                outcome.proved = false;
+                outcome.proofText = name + " failed.\n\n";
+            }
+            catch (VCProvedException e) {
+                exitInformation = e;
+                output.append("Proved in ");
+                status = VCResult.Status.PROVED;
+                outcome.proved = true;
+                proof = e.toString();
+                outcome.proofText = name + " succeeded.\n\n" + proof;
+            }
+
+            long milliseconds = System.currentTimeMillis() - startTime;
+
+            printExitReport(output, milliseconds, exitInformation);
+            if (myInstanceEnvironment.flags.isFlagSet(ResolveCompiler.FLAG_WEB)) {
+                output.append("</vcProve>");
+            }
+
+            Metrics metrics = exitInformation.getMetrics();
+            outcome.metrics = metrics;
+            outcome.result =
+                    new VCResult(name, status, milliseconds, metrics
+                            .getNumProofsConsidered(), metrics
+                            .getNumTimesBacktracked(), output.toString());
+
+            if (cacheKey != null) {
+                myProofCache.store(cacheKey, status, stopped, proof);
+            }
+        }
+
+        return outcome;
+    }
+
+    /**
+     * <p>
+     * Returns the key under which the results for <code>vc</code> are cached,
+     * or <code>null</code> if they cannot be.
+     * </p>
+     */
+    private String getCacheKey(VerificationCondition vc) {
+        String retval;
+
+        try {
+            retval =
+                    myProofCache.keyOf(AlternativeProver.convertToImmutableVC(
+                            vc, myTyper));
         }
-        catch (VCProvedException e) {
-            exitInformation = e;
+        catch (IllegalArgumentException e) {
+            // The VC contains something the immutable representation can't
+            // express, such as a "where" clause, so it just isn't cached.
+            retval = null;
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>
+     * Fills in <code>outcome</code> from a cached result rather than from a
+     * proof attempt. The stored proof is reported as it was found; it is not
+     * checked again.
+     * </p>
+     */
+    private void reuseResult(VCOutcome outcome, String name,
+            ProofCache.Entry cached, long startTime) {
+
+        StringBuffer output = outcome.output;
+
+        outcome.proved = (cached.status == VCResult.Status.PROVED);
+        if (outcome.proved) {
             output.append("Proved in ");
-            // System.out.print("Proved in ");
+            outcome.proofText = name + " succeeded.\n\n" + cached.proofText;
+        }
+        else {
+            output.append("Skipped after ");
+            outcome.proofText = name + " failed.\n\n";
+        }
 
-            if (proofFile != null) {
-                try {
-                    proofFile.append(vC.getName() + " succeeded.\n\n");
-                    proofFile.append(e.toString());
-                }
-                catch (IOException ex) {}
-            }
+        long milliseconds = System.currentTimeMillis() - startTime;
+
+        output.append(milliseconds + " milliseconds.");
+        if (!myInstanceEnvironment.flags.isFlagSet(ResolveCompiler.FLAG_WEB)) {
+            output.append("  Reused the result of an earlier attempt.");
+        }
+        output.append("\n");
+
+        if (outcome.proved
+                && myInstanceEnvironment.flags.isFlagSet(FLAG_VERBOSE)) {
+            output.append("PROOF:\n" + cached.proofText);
         }
 
-        printExitReport(startTime, exitInformation);
         if (myInstanceEnvironment.flags.isFlagSet(ResolveCompiler.FLAG_WEB)) {
             output.append("</vcProve>");
-            myInstanceEnvironment.getCompileReport().setProveVCs(
-                    output.toString());
         }
+
+        outcome.result =
+                new VCResult(name, cached.status, milliseconds, 0, 0, output
+                        .toString());
     }
 
     private VCProver setUpProverDebug() {
@@ -709,12 +1228,79 @@ public final class Prover {
 
         VCTransformer batchDeveloper = buildBatchTheoryDeveloper(5);
 
-        return new AlternativeProver(
-                myInstanceEnvironment,
-                new FirstStepGivenTransformationChooser(
-                        new SimplifyingTransformationChooser(
-                                new GuidedTransformationChooser(steps, myTyper),
-                                0), batchDeveloper), myTyper);
+        return buildSearchStrategy(new FirstStepGivenTransformationChooser(
+                new SimplifyingTransformationChooser(
+                        new GuidedTransformationChooser(steps, myTyper), 0),
+                batchDeveloper));
+    }
+
+    /**
+     * <p>
+     * Returns a prover that searches the proof space suggested by the given
+     * chooser, using a <code>FrontierProver</code> if
+     * <code>FLAG_SEARCH_ORDER</code> is set and an
+     * <code>AlternativeProver</code> otherwise.
+     * </p>
+     */
+    private VCProver buildSearchStrategy(TransformationChooser chooser) {
+        VCProver retval;
+
+        if (myInstanceEnvironment.flags.isFlagSet(FLAG_SEARCH_ORDER)) {
+            FrontierProver.SearchOrder order =
+                    FrontierProver.SearchOrder
+                            .fromName(myInstanceEnvironment.flags
+                                    .getFlagArgument(FLAG_SEARCH_ORDER,
+                                            FLAG_SEARCH_ORDER_ARG_NAME));
+
+            retval =
+                    new FrontierProver(myInstanceEnvironment, chooser, myTyper,
+                            order);
+        }
+        else {
+            retval =
+                    new AlternativeProver(myInstanceEnvironment, chooser,
+                            myTyper);
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>
+     * Returns the number of proof states a single strategy may consider for a
+     * VC, as given by <code>FLAG_MAX_STATES</code>, or
+     * <code>DEFAULT_MAX_PROOF_STATES</code> if it is not set.
+     * </p>
+     */
+    static long getMaxProofStates(FlagManager flags) {
+        long retval = DEFAULT_MAX_PROOF_STATES;
+
+        if (flags.isFlagSet(FLAG_MAX_STATES)) {
+            retval =
+                    Long.parseLong(flags.getFlagArgument(FLAG_MAX_STATES,
+                            FLAG_MAX_STATES_ARG_NAME));
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>
+     * Returns the maximum length of a proof, as given by
+     * <code>FLAG_MAX_DEPTH</code>, or <code>DEFAULT_MAX_PROOF_DEPTH</code> if
+     * it is not set.
+     * </p>
+     */
+    static int getMaxProofDepth(FlagManager flags) {
+        int retval = DEFAULT_MAX_PROOF_DEPTH;
+
+        if (flags.isFlagSet(FLAG_MAX_DEPTH)) {
+            retval =
+                    Integer.parseInt(flags.getFlagArgument(FLAG_MAX_DEPTH,
+                            FLAG_MAX_DEPTH_ARG_NAME));
+        }
+
+        return retval;
     }
 
     private TransformationChooser buildConsequentSubstitutions(
@@ -793,6 +1379,8 @@ public final class Prover {
 
     private VCProver setUpProver() {
 
+        boolean racing = myInstanceEnvironment.flags.isFlagSet(FLAG_PORTFOLIO);
+
         TransformationChooser mainStrategy = setUpMainProofStrategy();
         VCTransformer batchDeveloper = buildBatchTheoryDeveloper(5);
         TransformationChooser reductionStep = setUpReductionTransformer();
@@ -804,33 +1392,70 @@ public final class Prover {
          */
 
         // These are the different depth-first-searches of the proof
-        // space we will try
-        LinkedList<TransformationChooser> rounds =
-                new LinkedList<TransformationChooser>();
-        rounds.add(new LengthWindowTransformationChooser(mainStrategy, 0, 2));
-        rounds.add(new LengthWindowTransformationChooser(mainStrategy, 3, 3));
-        rounds.add(new LengthWindowTransformationChooser(mainStrategy, 4, 4));
-
-        MultiStrategyProver retval = new MultiStrategyProver();
+        // space we will try, as {minimum length, maximum length}
+        int[][] rounds = { { 0, 2 }, { 3, 3 }, { 4, 4 } };
+
+        java.util.List<VCProver> strategies = new LinkedList<VCProver>();
         VCProver curDepth;
 
         // Create a strategy for each defined depth-first-search
         String failoverNote = "--- End of reduction phase. ---";
         TransformationChooser developAndProve;
-        for (TransformationChooser chooser : rounds) {
+        for (int[] round : rounds) {
+
+            // Racing strategies run at the same time, and our choosers keep
+            // per-VC state, so each racer needs choosers of its own
+            if (racing && !strategies.isEmpty()) {
+                mainStrategy = setUpMainProofStrategy();
+                batchDeveloper = buildBatchTheoryDeveloper(5);
+                reductionStep = setUpReductionTransformer();
+            }
 
             // Right before we start proving, we need to develop theories
             developAndProve =
-                    new FirstStepGivenTransformationChooser(chooser,
-                            batchDeveloper);
+                    new FirstStepGivenTransformationChooser(
+                            new LengthWindowTransformationChooser(mainStrategy,
+                                    round[0], round[1]), batchDeveloper);
 
             // And before everything, reduce
             curDepth =
-                    new AlternativeProver(myInstanceEnvironment,
-                            new FailoverChooser(reductionStep, developAndProve,
-                                    failoverNote), myTyper);
+                    buildSearchStrategy(new FailoverChooser(reductionStep,
+                            developAndProve, failoverNote));
 
-            retval.addStrategy(curDepth);
+            strategies.add(curDepth);
+        }
+
+        return combineStrategies(strategies);
+    }
+
+    /**
+     * <p>
+     * Combines several proof strategies into a single prover. Normally the
+     * strategies are attempted one after the other, but if
+     * <code>FLAG_PORTFOLIO</code> is set they are raced against one another.
+     * </p>
+     * 
+     * @param strategies
+     *            The strategies, in the order they should be attempted.
+     * 
+     * @return The combined prover.
+     */
+    private VCProver combineStrategies(java.util.List<VCProver> strategies) {
+        VCProver retval;
+
+        if (myInstanceEnvironment.flags.isFlagSet(FLAG_PORTFOLIO)) {
+            PortfolioProver portfolio = new PortfolioProver();
+            for (VCProver strategy : strategies) {
+                portfolio.addStrategy(strategy);
+            }
+            retval = portfolio;
+        }
+        else {
+            MultiStrategyProver sequence = new MultiStrategyProver();
+            for (VCProver strategy : strategies) {
+                sequence.addStrategy(strategy);
+            }
+            retval = sequence;
         }
 
         return retval;
@@ -930,6 +1555,9 @@ public final class Prover {
 
         vc.simplify();
 
+        // The legacy strategies share their chooser and the theorem library,
+        // none of which is safe to use from two threads, so they are never
+        // raced
         MultiStrategyProver p = new MultiStrategyProver();
 
         SingleStrategyProver slaveProver =
@@ -948,15 +1576,40 @@ public final class Prover {
     }
 
     private String getProofFileName() {
-        File file = myInstanceEnvironment.getTargetFile();
-        ModuleID cid = myInstanceEnvironment.getModuleID(file);
-        file = myInstanceEnvironment.getFile(cid);
+        return getProofFileName(myInstanceEnvironment);
+    }
+
+    /**
+     * <p>
+     * Returns the name of the file the proofs of the VCs of the target file of
+     * <code>env</code> are written to.
+     * </p>
+     */
+    public static String getProofFileName(CompileEnvironment env) {
+        return getModuleFileName(env, ".proof");
+    }
+
+    /**
+     * <p>
+     * Returns the name of the file beside the module being proved that has the
+     * given extension in place of its own.
+     * </p>
+     */
+    private String getModuleFileName(String extension) {
+        return getModuleFileName(myInstanceEnvironment, extension);
+    }
+
+    private static String getModuleFileName(CompileEnvironment env,
+            String extension) {
+        File file = env.getTargetFile();
+        ModuleID cid = env.getModuleID(file);
+        file = env.getFile(cid);
         String filename = file.toString();
         int temp = filename.indexOf(".");
         String tempfile = filename.substring(0, temp);
         String mainFileName;
 
-        mainFileName = tempfile + ".proof";
+        mainFileName = tempfile + extension;
 
         return mainFileName;
     }
@@ -979,6 +1632,42 @@ public final class Prover {
 
         FlagDependencies.addImplies(FLAG_SOME_PROVER, Verifier.FLAG_VERIFY_VC);
 
-        FlagDependencies.addExcludes(FLAG_PROVE, FLAG_TIMEOUT);
+        FlagDependencies.addRequires(FLAG_TIMEOUT, someProveFlag);
+        FlagDependencies.addRequires(FLAG_MAX_STATES, FLAG_PROVE);
+        FlagDependencies.addRequires(FLAG_MAX_DEPTH, FLAG_PROVE);
+        FlagDependencies.addRequires(FLAG_SEARCH_ORDER, FLAG_PROVE);
+
+        FlagDependencies.addRequires(FLAG_PORTFOLIO, FLAG_PROVE);
+        FlagDependencies.addExcludes(FLAG_PORTFOLIO, FLAG_LEGACY_PROVE);
+        FlagDependencies.addExcludes(FLAG_PORTFOLIO, FLAG_DEBUG);
+
+        FlagDependencies.addRequires(FLAG_PARALLEL, FLAG_PROVE);
+
+        FlagDependencies.addRequires(FLAG_PROOF_CACHE, someProveFlag);
+        FlagDependencies.addRequires(FLAG_PROOF_METRICS, someProveFlag);
+        FlagDependencies.addImplies(FLAG_PARALLEL, FLAG_NOGUI);
+    }
+
+    /**
+     * <p>
+     * Everything that needs to be reported about a single proof attempt,
+     * buffered so that attempts made on other threads can be merged into the
+     * output in VC order.
+     * </p>
+     */
+    private static class VCOutcome {
+
+        public final StringBuffer output = new StringBuffer();
+        public String proofText;
+        public boolean proved;
+        public VCResult result;
+
+        /**
+         * <p>
+         * The metrics gathered while searching, or <code>null</code> if a
+         * cached result was reused.
+         * </p>
+         */
+        public Metrics metrics;
     }
 }
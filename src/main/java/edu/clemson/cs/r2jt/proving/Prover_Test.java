@@ -182,6 +182,13 @@ public final class Prover_Test {
      * </p>
      */
     private ProofProgressWindow myProgressWindow;
+
+    /**
+     * <p>The channel through which the prover reports progress to
+     * <code>myProgressWindow</code>, or <code>null</code> if there is no
+     * window.</p>
+     */
+    private ProgressChannel myProgress;
     /**
      * <p>The current RESOLVE environment, from which we can get information on
      * the file structure and available modules.  This is particularly useful
@@ -247,7 +254,8 @@ public final class Prover_Test {
         allProved = true;
 
         if (!myInstanceEnvironment.flags.isFlagSet(FLAG_NOGUI)) {
-            myProgressWindow = new ProofProgressWindow("VC", null);
+            myProgress = new ProgressChannel(Prover.PROGRESS_PERIOD);
+            myProgressWindow = new ProofProgressWindow(myProgress);
         }
 
         myTyper = typer;
@@ -279,6 +287,7 @@ public final class Prover_Test {
 
         if (!myInstanceEnvironment.flags.isFlagSet(FLAG_NOGUI)) {
             myProgressWindow.dispose();
+            myProgress.close();
         }
     }
 
@@ -456,8 +465,8 @@ public final class Prover_Test {
         if (!myInstanceEnvironment.flags.isFlagSet(ResolveCompiler.FLAG_WEB)) {
             output.append("  Overall, " + metrics.getNumProofsConsidered()
                     + " proofs were directly considered and "
-                    + metrics.numTimesBacktracked + " useful backtracks were "
-                    + "performed.");
+                    + metrics.getNumTimesBacktracked()
+                    + " useful backtracks were " + "performed.");
         }
 
         output.append("\n");
@@ -465,7 +474,7 @@ public final class Prover_Test {
         /*
         System.out.println("  Overall, " + metrics.getNumProofsConsidered() +
         " proofs were directly considered and " +
-        metrics.numTimesBacktracked + " useful backtracks were " +
+        metrics.getNumTimesBacktracked() + " useful backtracks were " +
         "performed.");
          */
 
@@ -512,8 +521,7 @@ public final class Prover_Test {
         ActionCanceller c = new ActionCanceller();
 
         if (!myInstanceEnvironment.flags.isFlagSet(FLAG_NOGUI)) {
-            myProgressWindow.setTitle("VC " + vC.getName());
-            myProgressWindow.setActionCanceller(c);
+            myProgress.beginVC(vC.getName(), c);
         }
 
         VCProver p;
@@ -543,7 +551,7 @@ public final class Prover_Test {
         //System.out.print(vC.getName() + " ");
 
         try {
-            p.prove(vC.copy(), myProgressWindow, c, Long.MAX_VALUE);
+            p.prove(vC.copy(), myProgress, c, Long.MAX_VALUE);
         }
         catch (UnableToProveException e) {
             exitInformation = e;
@@ -119,7 +119,7 @@ class SingleStrategyProver implements VCProver {
         for (int j = 0; j < 5; j++) {
             for (Implication i : IMPLICATIONS) {
                 if (System.currentTimeMillis() >= timeoutAt) {
-                    throw new UnableToProveException(m);
+                    throw new ProofBudgetExceededException(m);
                 }
 
                 vC.setAntecedents(new Conjuncts(Utilities
@@ -182,10 +182,10 @@ class SingleStrategyProver implements VCProver {
                 VCInconsistentException {
 
         if (System.currentTimeMillis() >= timeoutAt) {
-            throw new UnableToProveException(metrics);
+            throw new ProofBudgetExceededException(metrics);
         }
 
-        metrics.incrementProofsConsidered();
+        metrics.incrementProofsConsidered(curLength);
 
         if (curLength >= MIN_PROOF_LENGTH) {
             vC.simplify();
@@ -204,8 +204,7 @@ class SingleStrategyProver implements VCProver {
         if (OPTION_BACKTRACK_ON_CYCLE && isRepeatState(vC, pastStates)) {
             //We've decided not to explore the tree from here down, so update
             //the count on the number of times we've usefully backtracked
-            metrics.numTimesBacktracked =
-                    metrics.numTimesBacktracked.add(BigInteger.ONE);
+            metrics.incrementTimesBacktracked();
         }
         else {
             pastStates.push(vC);
@@ -348,9 +347,10 @@ class SingleStrategyProver implements VCProver {
     }
 
     /**
-     * <p>Updates <code>myProgressWindow</code> appropriately, based on whether
-     * or not we have made progress at the top level and whether or the progress
-     * window option is currently active.</p>
+     * <p>Reports progress to the listener, if there is one, whenever a rule
+     * has been exhausted at the top level.  Called from within the search, so
+     * the listener is expected to return at once; the progress window's
+     * <code>ProgressChannel</code> only records the value.</p>
      * 
      * @param topLevel True <strong>iff</strong> the progress was made at the
      *                 top level.
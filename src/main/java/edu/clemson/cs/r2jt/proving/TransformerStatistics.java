@@ -0,0 +1,38 @@
+package edu.clemson.cs.r2jt.proving;
+
+/**
+ * <p>What a single <code>VCTransformer</code> did during one or more proof
+ * attempts: how often it was tried, how many new states it produced, how many
+ * times it was a step of a proof that was found, and how long it took.  Used
+ * to tell which theorems are worth their place in the library and which only
+ * cost time.</p>
+ */
+class TransformerStatistics {
+
+    /**
+     * <p>The number of times the transformer was applied to a state.</p>
+     */
+    public long attempts;
+
+    /**
+     * <p>The number of new states it produced.</p>
+     */
+    public long results;
+
+    /**
+     * <p>The number of times one of those states was a step of a proof.</p>
+     */
+    public long proofSteps;
+
+    /**
+     * <p>The time spent applying it and producing its results.</p>
+     */
+    public long nanoseconds;
+
+    public void add(TransformerStatistics s) {
+        attempts += s.attempts;
+        results += s.results;
+        proofSteps += s.proofSteps;
+        nanoseconds += s.nanoseconds;
+    }
+}
@@ -1,23 +1,104 @@
 package edu.clemson.cs.r2jt.proving;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import edu.clemson.cs.r2jt.analysis.MathExpTypeResolver;
 import edu.clemson.cs.r2jt.init.CompileEnvironment;
+import edu.clemson.cs.r2jt.proving.absyn.DiscriminationTree;
 import edu.clemson.cs.r2jt.proving.absyn.PExp;
 
+/**
+ * <p>A <code>TransformationChooser</code> that ranks its library for each VC
+ * using a fitness function and then suggests the rules meeting a threshold in
+ * order of decreasing fitness, rules of equal fitness keeping their order in
+ * the library.</p>
+ * 
+ * <p>The fitnesses remembered since
+ * {@link #preoptimizeForVC(VC) preoptimizeForVC()} are per-VC state, so a
+ * single instance must not be used to prove two VCs at the same time.
+ * Provers that work on several VCs concurrently should build one instance per
+ * thread.</p>
+ * 
+ * <p>Most library rules can only apply where their pattern binds to some
+ * subexpression of the VC.  These are indexed by pattern when the chooser is
+ * built, and at each step only those rules the index finds for the current VC
+ * are suggested, so that the cost of a step grows with the number of rules
+ * that might apply rather than with the size of the library.  For the same
+ * reason a rule's fitness is only calculated the first time the index finds
+ * it during the proof of a VC, and is remembered until the next VC, rather
+ * than calculated up front for every rule in the library.</p>
+ */
 public class UpfrontFitnessTransformationChooser
         extends
             AbstractTransformationChooser {
 
     private final TransformerFitnessFunction myFitnessFunction;
     private final double myThreshold;
-    private List<VCTransformer> myPerVCOrdering;
     private final CompileEnvironment myInstanceEnvironment;
 
+    private final DiscriminationTree<VCTransformer> myAntecedentIndex =
+            new DiscriminationTree<VCTransformer>();
+    private final DiscriminationTree<VCTransformer> myConsequentIndex =
+            new DiscriminationTree<VCTransformer>();
+
+    /**
+     * <p>Library rules we can't index, which must be suggested for every
+     * VC.</p>
+     */
+    private final Set<VCTransformer> myUnindexedRules =
+            new HashSet<VCTransformer>();
+
+    /**
+     * <p>Maps each library rule to its position in the library, which breaks
+     * ties in fitness.</p>
+     */
+    private final Map<VCTransformer, Integer> myLibraryPositions =
+            new HashMap<VCTransformer, Integer>();
+
+    /**
+     * <p>The VC given to the last call to <code>preoptimizeForVC()</code>,
+     * against which fitness is calculated.</p>
+     */
+    private VC myPerVCOriginal;
+
+    /**
+     * <p>The fitness, for the current VC, of each library rule the index has
+     * found for it so far.</p>
+     */
+    private Map<VCTransformer, Double> myPerVCFitnesses;
+
+    /**
+     * <p>Rules drawn from the current VC's antecedent, which are suggested 
+     * after the library rules.</p>
+     */
+    private List<VCTransformer> myPerVCLocalRules;
+
+    private final Comparator<VCTransformer> myRankOrder =
+            new Comparator<VCTransformer>() {
+
+                public int compare(VCTransformer o1, VCTransformer o2) {
+                    int retval =
+                            Double.compare(getFitness(o2), getFitness(o1));
+
+                    if (retval == 0) {
+                        retval =
+                                myLibraryPositions.get(o1)
+                                        - myLibraryPositions.get(o2);
+                    }
+
+                    return retval;
+                }
+            };
+
     public UpfrontFitnessTransformationChooser(TransformerFitnessFunction f,
             Iterable<VCTransformer> library, double threshold,
             MathExpTypeResolver r, CompileEnvironment e) {
@@ -27,46 +108,78 @@ public class UpfrontFitnessTransformationChooser
         myThreshold = threshold;
 
         myInstanceEnvironment = e;
+
+        for (VCTransformer t : library) {
+            if (!myLibraryPositions.containsKey(t)) {
+                myLibraryPositions.put(t, myLibraryPositions.size());
+                index(t);
+            }
+        }
     }
 
-    @Override
-    public void preoptimizeForVC(VC vc) {
-        myPerVCOrdering = new LinkedList<VCTransformer>();
+    private void index(VCTransformer t) {
+        NewMatchReplace matcher = null;
+        boolean matchesAntecedent = true, matchesConsequent = true;
+
+        if (t instanceof MatchReplaceStep) {
+            matcher = ((MatchReplaceStep) t).getMatcher();
+        }
+        else if (t instanceof ConsequentSubstitutor) {
+            matcher = ((ConsequentSubstitutor) t).getMatcher();
+            matchesAntecedent = false;
+        }
+        else if (t instanceof MatchReplaceDevelopmentStep) {
+            matcher = ((MatchReplaceDevelopmentStep) t).getMatcher();
+            matchesConsequent = false;
+        }
 
-        List<PriorityAugmentedObject<VCTransformer>> priorityList =
-                new LinkedList<PriorityAugmentedObject<VCTransformer>>();
+        //Only NewBindReplace is known to match exactly what binds to its
+        //pattern
+        if (matcher instanceof NewBindReplace) {
+            PExp pattern = matcher.getPattern();
 
-        double curFitness;
-        Iterable<VCTransformer> library = getTransformerLibrary();
-        for (VCTransformer curRule : library) {
-            curFitness = myFitnessFunction.calculateFitness(curRule, vc);
+            if (matchesAntecedent) {
+                myAntecedentIndex.add(pattern, t);
+            }
 
-            if (curFitness >= myThreshold) {
-                priorityList.add(new PriorityAugmentedObject<VCTransformer>(
-                        curRule, curFitness));
+            if (matchesConsequent) {
+                myConsequentIndex.add(pattern, t);
             }
         }
+        else {
+            myUnindexedRules.add(t);
+        }
+    }
 
-        Collections.sort(priorityList);
+    @Override
+    public void preoptimizeForVC(VC vc) {
+        myPerVCOriginal = vc;
+        myPerVCFitnesses = new HashMap<VCTransformer, Double>();
+        myPerVCLocalRules = new LinkedList<VCTransformer>();
 
         if (myInstanceEnvironment.flags.isFlagSet(Prover.FLAG_VERBOSE)) {
+            //Ranking the whole library is only worth it to show it
+            List<VCTransformer> ranking = new ArrayList<VCTransformer>();
+            for (VCTransformer curRule : myLibraryPositions.keySet()) {
+                if (getFitness(curRule) >= myThreshold) {
+                    ranking.add(curRule);
+                }
+            }
+            Collections.sort(ranking, myRankOrder);
+
             System.out.println(vc);
             System.out.println("Rules sorted by: " + myFitnessFunction);
-        }
 
-        for (PriorityAugmentedObject<VCTransformer> curRule : priorityList) {
-            if (myInstanceEnvironment.flags.isFlagSet(Prover.FLAG_VERBOSE)) {
-                System.out.println("  " + curRule.getPriority() + " \t\t "
-                        + curRule.getObject());
+            for (VCTransformer curRule : ranking) {
+                System.out.println("  " + getFitness(curRule) + " \t\t "
+                        + curRule);
             }
-
-            myPerVCOrdering.add(curRule.getObject());
         }
 
         RuleNormalizer n = new SubstitutionRuleNormalizer(myTyper, false);
         for (PExp e : vc.getAntecedent()) {
             for (VCTransformer t : n.normalize(e)) {
-                myPerVCOrdering.add(t);
+                myPerVCLocalRules.add(t);
             }
         }
     }
@@ -77,14 +190,52 @@ public class UpfrontFitnessTransformationChooser
 
         Iterator<ProofPathSuggestion> retval;
 
+        Set<VCTransformer> candidates =
+                new HashSet<VCTransformer>(myUnindexedRules);
+
+        for (PExp e : vc.getAntecedent()) {
+            myAntecedentIndex.collectCandidatesWithin(e, candidates);
+        }
+
+        for (PExp e : vc.getConsequent()) {
+            myConsequentIndex.collectCandidatesWithin(e, candidates);
+        }
+
+        List<VCTransformer> ordering =
+                new ArrayList<VCTransformer>(candidates.size()
+                        + myPerVCLocalRules.size());
+        for (VCTransformer candidate : candidates) {
+            if (getFitness(candidate) >= myThreshold) {
+                ordering.add(candidate);
+            }
+        }
+        Collections.sort(ordering, myRankOrder);
+
+        ordering.addAll(myPerVCLocalRules);
+
         retval =
                 new LazyMappingIterator<VCTransformer, ProofPathSuggestion>(
-                        myPerVCOrdering.iterator(),
+                        ordering.iterator(),
                         new StaticProofDataSuggestionMapper(d));
 
         return retval;
     }
 
+    /**
+     * <p>Returns the fitness of library rule <code>t</code> for the current
+     * VC, calculating it only the first time it is asked for.</p>
+     */
+    private double getFitness(VCTransformer t) {
+        Double retval = myPerVCFitnesses.get(t);
+
+        if (retval == null) {
+            retval = myFitnessFunction.calculateFitness(t, myPerVCOriginal);
+            myPerVCFitnesses.put(t, retval);
+        }
+
+        return retval;
+    }
+
     @Override
     public String toString() {
         return "UpfrontFitness(Ranked by " + myFitnessFunction + ")";
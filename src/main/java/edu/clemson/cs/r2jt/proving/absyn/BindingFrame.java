@@ -0,0 +1,203 @@
+package edu.clemson.cs.r2jt.proving.absyn;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * <p>A set of bindings from pattern variables to the terms they are bound to,
+ * kept in a pair of arrays with one slot per variable, in the order the
+ * variables were bound.  A frame belongs to whoever created it, who can pass
+ * it to {@link PExp#bindTo(PExp, BindingFrame) bindTo()} again and again,
+ * clearing it in between, without allocating a new map for each attempt.
+ * Since nothing about a binding attempt is kept in the terms themselves, any
+ * number of threads can bind the same shared terms at once, each into its own
+ * frame.</p>
+ *
+ * <p>Every change to a frame is recorded in an undo log, so that
+ * {@link #reset(int) reset()} can put back exactly the bindings that held at
+ * a {@link #mark() mark()}, including the old value of any variable that has
+ * been bound again since.</p>
+ *
+ * <p>A frame is a <code>Map</code>, so it can be handed straight to
+ * {@link PExp#substitute(Map) substitute()}.  Patterns bind only a handful of
+ * variables, so a variable is looked up by scanning the slots.</p>
+ */
+public class BindingFrame extends AbstractMap<PExp, PExp> {
+
+    private static final int INITIAL_SLOTS = 8;
+
+    private static final int NEW_SLOT = -1;
+
+    private PExp[] myVariables = new PExp[INITIAL_SLOTS];
+    private PExp[] myValues = new PExp[INITIAL_SLOTS];
+    private int mySize = 0;
+
+    /* One entry per put(), oldest first: the slot it changed, or NEW_SLOT if
+     * it added one, and the value that slot held before. */
+    private int[] myUndoSlots = new int[INITIAL_SLOTS];
+    private PExp[] myUndoValues = new PExp[INITIAL_SLOTS];
+    private int myUndoSize = 0;
+
+    @Override
+    public PExp get(Object variable) {
+        int slot = slotOf(variable);
+
+        return (slot == -1) ? null : myValues[slot];
+    }
+
+    @Override
+    public boolean containsKey(Object variable) {
+        return slotOf(variable) != -1;
+    }
+
+    @Override
+    public PExp put(PExp variable, PExp value) {
+        PExp retval = null;
+
+        int slot = slotOf(variable);
+        if (slot == -1) {
+            if (mySize == myVariables.length) {
+                myVariables = Arrays.copyOf(myVariables, mySize * 2);
+                myValues = Arrays.copyOf(myValues, mySize * 2);
+            }
+
+            myVariables[mySize] = variable;
+            myValues[mySize] = value;
+            mySize++;
+
+            logUndo(NEW_SLOT, null);
+        }
+        else {
+            retval = myValues[slot];
+            myValues[slot] = value;
+
+            logUndo(slot, retval);
+        }
+
+        return retval;
+    }
+
+    @Override
+    public int size() {
+        return mySize;
+    }
+
+    @Override
+    public void clear() {
+        reset(0);
+    }
+
+    /**
+     * <p>Returns a mark that {@link #reset(int) reset()} can later roll this
+     * frame back to, forgetting every variable bound since and restoring the
+     * old value of every variable bound again since.</p>
+     *
+     * @return The mark.
+     */
+    public int mark() {
+        return myUndoSize;
+    }
+
+    /**
+     * <p>Undoes every change made since <code>mark</code> was taken, newest
+     * first, leaving the frame with exactly the bindings it had then.</p>
+     *
+     * @param mark A mark returned by {@link #mark() mark()}, not already
+     *            undone by an earlier reset to an older mark.
+     */
+    public void reset(int mark) {
+        int slot;
+        while (myUndoSize > mark) {
+            myUndoSize--;
+            slot = myUndoSlots[myUndoSize];
+
+            if (slot == NEW_SLOT) {
+                mySize--;
+                myVariables[mySize] = null;
+                myValues[mySize] = null;
+            }
+            else {
+                myValues[slot] = myUndoValues[myUndoSize];
+            }
+
+            myUndoValues[myUndoSize] = null;
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<PExp, PExp>> entrySet() {
+        return new AbstractSet<Map.Entry<PExp, PExp>>() {
+
+            @Override
+            public Iterator<Map.Entry<PExp, PExp>> iterator() {
+                return new SlotIterator();
+            }
+
+            @Override
+            public int size() {
+                return mySize;
+            }
+        };
+    }
+
+    private void logUndo(int slot, PExp oldValue) {
+        if (myUndoSize == myUndoSlots.length) {
+            myUndoSlots = Arrays.copyOf(myUndoSlots, myUndoSize * 2);
+            myUndoValues = Arrays.copyOf(myUndoValues, myUndoSize * 2);
+        }
+
+        myUndoSlots[myUndoSize] = slot;
+        myUndoValues[myUndoSize] = oldValue;
+        myUndoSize++;
+    }
+
+    private int slotOf(Object variable) {
+        int retval = -1;
+
+        //Terms are usually interned, so identity finds most of them
+        for (int i = 0; retval == -1 && i < mySize; i++) {
+            if (myVariables[i] == variable) {
+                retval = i;
+            }
+        }
+
+        for (int i = 0; retval == -1 && i < mySize; i++) {
+            if (myVariables[i].equals(variable)) {
+                retval = i;
+            }
+        }
+
+        return retval;
+    }
+
+    private class SlotIterator implements Iterator<Map.Entry<PExp, PExp>> {
+
+        private int myNextSlot = 0;
+
+        public boolean hasNext() {
+            return myNextSlot < mySize;
+        }
+
+        public Map.Entry<PExp, PExp> next() {
+            if (myNextSlot >= mySize) {
+                throw new NoSuchElementException();
+            }
+
+            Map.Entry<PExp, PExp> retval =
+                    new AbstractMap.SimpleImmutableEntry<PExp, PExp>(
+                            myVariables[myNextSlot], myValues[myNextSlot]);
+            myNextSlot++;
+
+            return retval;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package edu.clemson.cs.r2jt.proving.absyn;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>A <code>DiscriminationTree</code> indexes values by <code>PExp</code>
+ * patterns so that, given some term, the values whose patterns could bind to
+ * that term (in the sense of {@link PExp#bindTo(PExp) bindTo()}) can be found
+ * without attempting a binding against every pattern.</p>
+ *
+ * <p>Patterns are flattened in pre-order into paths through the tree, keyed on
+ * each symbol's name and arity.  A <code>FOR_ALL</code> variable becomes a
+ * wildcard matching any single subterm, and a <code>FOR_ALL</code> function
+ * becomes a wildcard matching any symbol of the same arity.</p>
+ *
+ * <p>The index is conservative: every value whose pattern binds to a term is
+ * returned, but some returned values may not actually bind, since types and
+ * repeated variables are not taken into account.  Callers should still
+ * attempt the binding.</p>
+ *
+ * @param <T> The type of the indexed values.
+ */
+public class DiscriminationTree<T> {
+
+    private final Node<T> myRoot = new Node<T>();
+
+    /**
+     * <p>Indexes <code>value</code> under <code>pattern</code>.</p>
+     *
+     * @param pattern The pattern to index under.
+     * @param value The value to return for terms matching the pattern.
+     */
+    public void add(PExp pattern, T value) {
+        insert(myRoot, pattern).values.add(value);
+    }
+
+    /**
+     * <p>Adds to <code>accumulator</code> every value whose pattern could bind
+     * to <code>term</code> or to any of its subexpressions.  Values may be
+     * added more than once.</p>
+     *
+     * @param term The term to search.
+     * @param accumulator The collection to receive the candidate values.
+     */
+    public void collectCandidatesWithin(PExp term,
+            Collection<? super T> accumulator) {
+
+        collectCandidates(term, accumulator);
+
+        Iterator<PExp> subexpressions = term.getSubExpressions().iterator();
+        while (subexpressions.hasNext()) {
+            collectCandidatesWithin(subexpressions.next(), accumulator);
+        }
+    }
+
+    /**
+     * <p>Adds to <code>accumulator</code> every value whose pattern could bind
+     * to <code>term</code> itself.</p>
+     *
+     * @param term The term to match.
+     * @param accumulator The collection to receive the candidate values.
+     */
+    public void collectCandidates(PExp term,
+            Collection<? super T> accumulator) {
+        collect(myRoot, new PendingTerms(term, null), accumulator);
+    }
+
+    private Node<T> insert(Node<T> node, PExp pattern) {
+        Node<T> retval;
+
+        if (pattern instanceof PSymbol) {
+            PSymbol sPattern = (PSymbol) pattern;
+            int arity = sPattern.arguments.size();
+
+            if (sPattern.quantification == PSymbol.Quantification.FOR_ALL) {
+                if (arity == 0) {
+                    if (node.variableChild == null) {
+                        node.variableChild = new Node<T>();
+                    }
+
+                    retval = node.variableChild;
+                }
+                else {
+                    retval = getOrCreate(node.functionVariableChildren, arity);
+                }
+            }
+            else {
+                retval =
+                        getOrCreate(node.symbolChildren, key(sPattern.name,
+                                arity));
+            }
+
+            for (PExp argument : sPattern.arguments) {
+                retval = insert(retval, argument);
+            }
+        }
+        else {
+            //Anything else only binds to something equal to it
+            if (node.opaqueChild == null) {
+                node.opaqueChild = new Node<T>();
+            }
+
+            retval = node.opaqueChild;
+        }
+
+        return retval;
+    }
+
+    private void collect(Node<T> node, PendingTerms pending,
+            Collection<? super T> accumulator) {
+
+        if (pending == null) {
+            accumulator.addAll(node.values);
+        }
+        else if (pending.term instanceof PSymbol) {
+            PSymbol sTerm = (PSymbol) pending.term;
+            int arity = sTerm.arguments.size();
+
+            if (node.variableChild != null) {
+                collect(node.variableChild, pending.rest, accumulator);
+            }
+
+            Node<T> symbolChild =
+                    node.symbolChildren.get(key(sTerm.name, arity));
+            Node<T> functionVariableChild =
+                    node.functionVariableChildren.get(arity);
+
+            if (symbolChild != null || functionVariableChild != null) {
+                PendingTerms withArguments = pushArguments(sTerm, pending.rest);
+
+                if (symbolChild != null) {
+                    collect(symbolChild, withArguments, accumulator);
+                }
+
+                if (functionVariableChild != null) {
+                    collect(functionVariableChild, withArguments, accumulator);
+                }
+            }
+        }
+        else if (node.opaqueChild != null) {
+            collect(node.opaqueChild, pending.rest, accumulator);
+        }
+    }
+
+    private static PendingTerms pushArguments(PSymbol s, PendingTerms rest) {
+        PendingTerms retval = rest;
+
+        for (int i = s.arguments.size() - 1; i >= 0; i--) {
+            retval = new PendingTerms(s.arguments.get(i), retval);
+        }
+
+        return retval;
+    }
+
+    private static <K, T> Node<T> getOrCreate(Map<K, Node<T>> children, K key) {
+        Node<T> retval = children.get(key);
+
+        if (retval == null) {
+            retval = new Node<T>();
+            children.put(key, retval);
+        }
+
+        return retval;
+    }
+
+    private static String key(String name, int arity) {
+        return arity + "/" + name;
+    }
+
+    private static class Node<T> {
+
+        public final Map<String, Node<T>> symbolChildren =
+                new HashMap<String, Node<T>>();
+
+        public final Map<Integer, Node<T>> functionVariableChildren =
+                new HashMap<Integer, Node<T>>();
+
+        public Node<T> variableChild;
+        public Node<T> opaqueChild;
+
+        public final List<T> values = new LinkedList<T>();
+    }
+
+    /**
+     * <p>The subterms still to be matched, in pre-order.  Shared between
+     * branches of the search, so never modified.</p>
+     */
+    private static class PendingTerms {
+
+        public final PExp term;
+        public final PendingTerms rest;
+
+        public PendingTerms(PExp term, PendingTerms rest) {
+            this.term = term;
+            this.rest = rest;
+        }
+    }
+}
@@ -214,6 +214,43 @@ public class PAlternatives extends PExp {
         return result && myOtherwiseClauseResult.isObviouslyTrue();
     }
 
+    /**
+     * <p>Our subexpressions come from {@link PExp#buildPExp} and so are
+     * already interned.</p>
+     */
+    @Override
+    protected PExp withInternedSubexpressions() {
+        return this;
+    }
+
+    @Override
+    protected boolean isInterchangeableWith(PExp other) {
+        PAlternatives oAsPAlternatives = (PAlternatives) other;
+
+        boolean retval =
+                myType == oAsPAlternatives.myType
+                        && myTyper == oAsPAlternatives.myTyper
+                        && myOtherwiseClauseResult == oAsPAlternatives
+                                .myOtherwiseClauseResult
+                        && myAlternatives.size() == oAsPAlternatives
+                                .myAlternatives.size();
+
+        Iterator<Alternative> localAlts = myAlternatives.iterator();
+        Iterator<Alternative> oAlts =
+                oAsPAlternatives.myAlternatives.iterator();
+        Alternative localAlt, oAlt;
+        while (retval && localAlts.hasNext()) {
+            localAlt = localAlts.next();
+            oAlt = oAlts.next();
+
+            retval =
+                    localAlt.condition == oAlt.condition
+                            && localAlt.result == oAlt.result;
+        }
+
+        return retval;
+    }
+
     @Override
     protected void splitIntoConjuncts(List<PExp> accumulator) {
         accumulator.add(this);
@@ -226,14 +263,10 @@ public class PAlternatives extends PExp {
     }
 
     @Override
-    protected void bindTo(PExp target, Map<PExp, PExp> accumulator)
-            throws BindingException {
+    protected boolean bindInto(PExp target, Map<PExp, PExp> accumulator) {
 
         //For the moment, we only bind to identical things
-        if (!this.equals(target)) {
-            throw BINDING_EXCEPTION;
-        }
-
+        return this.equals(target);
     }
 
     @Override
@@ -41,15 +41,25 @@ public abstract class PExp {
     protected final static BindingException BINDING_EXCEPTION =
             new BindingException();
 
+    private final static PExpInternTable INTERNED_TERMS = new PExpInternTable();
+
     public final int structureHash;
     public final int valueHash;
 
     protected final Type myType;
     protected final MathExpTypeResolver myTyper;
 
-    private Set<String> myCachedSymbolNames = null;
-    private List<PExp> myCachedFunctionApplications = null;
-    private Set<PSymbol> myCachedQuantifiedVariables = null;
+    //These caches may be filled in concurrently when a PExp is shared between
+    //proving threads.  Recalculating is harmless, but each result must be
+    //published safely.
+    private volatile Set<String> myCachedSymbolNames = null;
+    private volatile List<PExp> myCachedFunctionApplications = null;
+    private volatile Set<PSymbol> myCachedQuantifiedVariables = null;
+
+    //Set once, under the intern table's lock, when this PExp becomes the
+    //shared representative of its structure.  A stale read only costs a
+    //redundant trip through the table.
+    private boolean myInternedFlag = false;
 
     public PExp(HashDuple hashes, Type type, MathExpTypeResolver typer) {
         this(hashes.structureHash, hashes.valueHash, type, typer);
@@ -80,6 +90,61 @@ public abstract class PExp {
 
     public abstract boolean isObviouslyTrue();
 
+    /**
+     * <p>Returns the single shared instance of this term's structure--the same
+     * type, symbols, quantifiers and subterms.  Any two interned terms with
+     * the same structure are the same object, so comparing them is a 
+     * reference check, and any term derived from an interned term by
+     * substitution or the like is interned as well.</p>
+     * 
+     * <p>Interned terms are only weakly held by the table and are reclaimed
+     * once nothing else refers to them.</p>
+     * 
+     * @return The shared instance.
+     */
+    public final PExp intern() {
+        PExp retval = this;
+
+        if (!myInternedFlag) {
+            retval = INTERNED_TERMS.intern(withInternedSubexpressions());
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Returns true iff this term is the shared instance of its 
+     * structure.</p>
+     */
+    public final boolean isInterned() {
+        return myInternedFlag;
+    }
+
+    final void markInterned() {
+        myInternedFlag = true;
+    }
+
+    /**
+     * <p>Returns the interned terms with the given value hash that are still
+     * in use, earliest interned first.</p>
+     */
+    static final List<PExp> getInternedTerms(int valueHash) {
+        return INTERNED_TERMS.getInterned(valueHash);
+    }
+
+    /**
+     * <p>Returns a term with this term's structure whose immediate 
+     * subexpressions are all interned, which may be this term itself.</p>
+     */
+    protected abstract PExp withInternedSubexpressions();
+
+    /**
+     * <p>Returns true iff <code>other</code>, a term of the same class whose
+     * immediate subexpressions are interned, has exactly the same structure
+     * as this one and so may be shared in its place.</p>
+     */
+    protected abstract boolean isInterchangeableWith(PExp other);
+
     public final List<PExp> splitIntoConjuncts() {
         List<PExp> conjuncts = new LinkedList<PExp>();
 
@@ -324,19 +389,51 @@ public abstract class PExp {
                             + ")" + varExpAdditional);
         }
 
-        return retval;
+        return retval.intern();
     }
 
     public final Map<PExp, PExp> bindTo(PExp target) throws BindingException {
         Map<PExp, PExp> bindings = new HashMap<PExp, PExp>();
 
-        bindTo(target, bindings);
+        if (!bindInto(target, bindings)) {
+            throw BINDING_EXCEPTION;
+        }
 
         return bindings;
     }
 
-    protected abstract void bindTo(PExp target, Map<PExp, PExp> accumulator)
-            throws BindingException;
+    /**
+     * <p>Attempts to bind this pattern to <code>target</code>, adding the
+     * bindings to <code>frame</code>.  Unlike {@link #bindTo(PExp) bindTo()},
+     * a failed attempt is reported by the return value rather than by an
+     * exception, and the frame is handed back as it was.  Nothing is allocated
+     * unless a subterm of the pattern must be rewritten with the bindings made
+     * so far.</p>
+     * 
+     * @param target The term to bind to.
+     * @param frame The bindings made so far, which the new ones are added to.
+     * 
+     * @return <code>true</code> <strong>iff</strong> the pattern could be
+     *         bound.
+     */
+    public final boolean bindTo(PExp target, BindingFrame frame) {
+        int mark = frame.mark();
+
+        boolean retval = bindInto(target, frame);
+        if (!retval) {
+            frame.reset(mark);
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Adds the bindings that bind this pattern to <code>target</code> to
+     * <code>accumulator</code>, returning <code>false</code> if there are
+     * none.  The accumulator may be left partly changed on failure.</p>
+     */
+    protected abstract boolean bindInto(PExp target,
+            Map<PExp, PExp> accumulator);
 
     public int hashCode() {
         return valueHash;
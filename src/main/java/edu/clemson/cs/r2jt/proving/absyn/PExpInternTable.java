@@ -0,0 +1,168 @@
+package edu.clemson.cs.r2jt.proving.absyn;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>A <code>PExpInternTable</code> maps each distinct term structure to the
+ * single <code>PExp</code> instance that represents it.  Representatives are
+ * only weakly held, so once the last VC mentioning a term is finished with,
+ * the term and its entry are reclaimed.</p>
+ *
+ * <p>The table is safe to share among proving threads.  It is split into
+ * stripes by hash, each with its own lock, so that threads interning
+ * different terms seldom wait on one another.</p>
+ */
+final class PExpInternTable {
+
+    private static final int STRIPE_COUNT = 64;
+
+    private final Stripe[] myStripes = new Stripe[STRIPE_COUNT];
+
+    public PExpInternTable() {
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            myStripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * <p>Returns the representative of <code>candidate</code>'s structure,
+     * making <code>candidate</code> that representative if there is none yet.
+     * The immediate subexpressions of <code>candidate</code> must already be
+     * interned.</p>
+     *
+     * @param candidate The term to intern.
+     *
+     * @return The shared instance.
+     */
+    public PExp intern(PExp candidate) {
+        Stripe stripe = getStripe(candidate.valueHash);
+
+        PExp retval = null;
+
+        synchronized (stripe) {
+            stripe.expungeCollectedTerms();
+
+            List<Entry> bucket = stripe.getBucket(candidate.valueHash);
+
+            Iterator<Entry> entries = bucket.iterator();
+            PExp existing;
+            while (retval == null && entries.hasNext()) {
+                existing = entries.next().get();
+
+                if (existing != null
+                        && existing.getClass() == candidate.getClass()
+                        && candidate.isInterchangeableWith(existing)) {
+                    retval = existing;
+                }
+            }
+
+            if (retval == null) {
+                candidate.markInterned();
+                bucket.add(new Entry(candidate, stripe.myCollectedTerms));
+                retval = candidate;
+            }
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Returns the interned terms with the given value hash that have not
+     * been reclaimed, earliest interned first.</p>
+     *
+     * @param valueHash The value hash.
+     *
+     * @return The terms.
+     */
+    public List<PExp> getInterned(int valueHash) {
+        Stripe stripe = getStripe(valueHash);
+
+        List<PExp> retval = new ArrayList<PExp>();
+
+        synchronized (stripe) {
+            List<Entry> bucket = stripe.myBuckets.get(valueHash);
+
+            if (bucket != null) {
+                PExp existing;
+                for (Entry entry : bucket) {
+                    existing = entry.get();
+                    if (existing != null) {
+                        retval.add(existing);
+                    }
+                }
+            }
+        }
+
+        return retval;
+    }
+
+    private Stripe getStripe(int hash) {
+        //Spread the high bits, since nearby terms often differ only there
+        int spread = hash ^ (hash >>> 16);
+        return myStripes[(spread & 0x7FFFFFFF) % STRIPE_COUNT];
+    }
+
+    /**
+     * <p>The buckets for one range of hashes, together with the queue their
+     * reclaimed terms are reported to.  Guarded by its own lock.</p>
+     */
+    private static class Stripe {
+
+        public final Map<Integer, List<Entry>> myBuckets =
+                new HashMap<Integer, List<Entry>>();
+
+        public final ReferenceQueue<PExp> myCollectedTerms =
+                new ReferenceQueue<PExp>();
+
+        public List<Entry> getBucket(int hash) {
+            List<Entry> retval = myBuckets.get(hash);
+
+            if (retval == null) {
+                retval = new LinkedList<Entry>();
+                myBuckets.put(hash, retval);
+            }
+
+            return retval;
+        }
+
+        public void expungeCollectedTerms() {
+            Reference<? extends PExp> collected = myCollectedTerms.poll();
+
+            Entry entry;
+            List<Entry> bucket;
+            while (collected != null) {
+                entry = (Entry) collected;
+                bucket = myBuckets.get(entry.hash);
+
+                if (bucket != null) {
+                    bucket.remove(entry);
+
+                    if (bucket.isEmpty()) {
+                        myBuckets.remove(entry.hash);
+                    }
+                }
+
+                collected = myCollectedTerms.poll();
+            }
+        }
+    }
+
+    private static class Entry extends WeakReference<PExp> {
+
+        public final Integer hash;
+
+        public Entry(PExp term, ReferenceQueue<PExp> queue) {
+            super(term, queue);
+
+            hash = term.valueHash;
+        }
+    }
+}
@@ -35,6 +35,10 @@ public class PLambda extends PExp {
         v.endPExp(this);
     }
 
+    public PExp getBody() {
+        return myBody;
+    }
+
     @Override
     public SimpleImmutableList<PExp> getSubExpressions() {
         return EMPTY_LIST;
@@ -50,6 +54,31 @@ public class PLambda extends PExp {
         return myBody.isObviouslyTrue();
     }
 
+    @Override
+    protected PExp withInternedSubexpressions() {
+        PExp retval = this;
+
+        PExp internedBody = myBody.intern();
+        if (internedBody != myBody) {
+            retval =
+                    new PLambda(variableName, ((FunctionType) myType)
+                            .getDomain(), internedBody, myTyper);
+        }
+
+        return retval;
+    }
+
+    @Override
+    protected boolean isInterchangeableWith(PExp other) {
+        PLambda oAsPLambda = (PLambda) other;
+        FunctionType oType = (FunctionType) oAsPLambda.myType;
+
+        return myTyper == oAsPLambda.myTyper
+                && variableName.equals(oAsPLambda.variableName)
+                && myBody == oAsPLambda.myBody
+                && ((FunctionType) myType).getDomain() == oType.getDomain();
+    }
+
     @Override
     protected void splitIntoConjuncts(List<PExp> accumulator) {
         accumulator.add(this);
@@ -62,14 +91,11 @@ public class PLambda extends PExp {
     }
 
     @Override
-    protected void bindTo(PExp target, Map<PExp, PExp> accumulator)
-            throws BindingException {
+    protected boolean bindInto(PExp target, Map<PExp, PExp> accumulator) {
 
         //As a lambda expression, we can't be quantified and our body is
         //indivisible, so we only bind to identical things.
-        if (!this.equals(target)) {
-            throw BINDING_EXCEPTION;
-        }
+        return this.equals(target);
     }
 
     @Override
@@ -158,7 +158,11 @@ public class PSymbol extends PExp {
     final String leftPrint, rightPrint;
 
     private int myArgumentsSize;
-    private final PExp[] myScratchSpace;
+
+    private volatile PSymbol myNameSymbol;
+
+    //Found the first time an interned symbol is compared with another
+    private volatile PSymbol myEqualityRepresentative;
 
     public PSymbol(Type type, String leftPrint, String rightPrint,
             Collection<PExp> arguments, Quantification quantification,
@@ -184,7 +188,6 @@ public class PSymbol extends PExp {
 
         this.arguments = arguments;
         myArgumentsSize = arguments.size();
-        myScratchSpace = new PExp[myArgumentsSize];
 
         this.quantification = quantification;
         this.leftPrint = leftPrint;
@@ -303,28 +306,95 @@ public class PSymbol extends PExp {
         return arguments;
     }
 
+    /**
+     * <p>Two symbols are equal if they have the same name and equal
+     * arguments; unlike interning, their types and quantifiers are not
+     * compared, so equal interned symbols need not be the same object.  They
+     * do share an {@link #getEqualityRepresentative() equality
+     * representative}, which is compared in place of walking their
+     * arguments.</p>
+     */
     public boolean equals(Object o) {
-        boolean retval = (o instanceof PSymbol);
+        boolean retval;
+
+        if (o == this) {
+            retval = true;
+        }
+        else if (o instanceof PSymbol && ((PSymbol) o).valueHash == valueHash) {
 
-        if (retval) {
             PSymbol oAsPSymbol = (PSymbol) o;
 
-            retval =
-                    (oAsPSymbol.valueHash == valueHash)
-                            && name.equals(oAsPSymbol.name);
+            if (isInterned() && oAsPSymbol.isInterned()) {
+                retval =
+                        getEqualityRepresentative() == oAsPSymbol
+                                .getEqualityRepresentative();
+            }
+            else {
+                retval = hasEqualNameAndArguments(oAsPSymbol);
+            }
+        }
+        else {
+            retval = false;
+        }
 
-            if (retval) {
-                Iterator<PExp> localArgs = arguments.iterator();
-                Iterator<PExp> oArgs = oAsPSymbol.arguments.iterator();
+        return retval;
+    }
 
-                while (retval && localArgs.hasNext() && oArgs.hasNext()) {
-                    retval = localArgs.next().equals(oArgs.next());
-                }
+    private boolean hasEqualNameAndArguments(PSymbol o) {
+        boolean retval = name.equals(o.name);
+
+        Iterator<PExp> localArgs = arguments.iterator();
+        Iterator<PExp> oArgs = o.arguments.iterator();
+
+        PExp localArg, oArg;
+        while (retval && localArgs.hasNext() && oArgs.hasNext()) {
+            localArg = localArgs.next();
+            oArg = oArgs.next();
+
+            retval = (localArg == oArg) || localArg.equals(oArg);
+        }
+
+        if (retval) {
+            retval = !(localArgs.hasNext() || oArgs.hasNext());
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Returns the earliest interned symbol still in use that is equal to
+     * this one, which must be interned.  Each symbol keeps its answer, which
+     * keeps that symbol in use, so every interned symbol equal to this one
+     * gets the same answer and equality of interned symbols is a reference
+     * check after the first time.  The arguments of interned symbols are
+     * interned and compared the same way, so each symbol's arguments are
+     * walked at most once.</p>
+     */
+    private PSymbol getEqualityRepresentative() {
+        PSymbol retval = myEqualityRepresentative;
+
+        if (retval == null) {
+            Iterator<PExp> earlier = getInternedTerms(valueHash).iterator();
+            PExp candidate;
+            while (retval == null && earlier.hasNext()) {
+                candidate = earlier.next();
 
-                if (retval) {
-                    retval = !(localArgs.hasNext() || oArgs.hasNext());
+                if (candidate == this) {
+                    retval = this;
+                }
+                else if (candidate instanceof PSymbol
+                        && hasEqualNameAndArguments((PSymbol) candidate)) {
+                    retval = (PSymbol) candidate;
                 }
             }
+
+            //This symbol is in the table while it's in use, so this is only
+            //reached if it was never really interned
+            if (retval == null) {
+                retval = this;
+            }
+
+            myEqualityRepresentative = retval;
         }
 
         return retval;
@@ -360,25 +430,34 @@ public class PSymbol extends PExp {
         PExp retval = substitutions.get(this);
 
         if (retval == null) {
-            boolean argumentChanged = false;
+            //Allocated only once some argument actually changes, so that terms
+            //shared between threads never see each other's partial results
+            PExp[] newArguments = null;
             int argIndex = 0;
             Iterator<PExp> argumentsIter = arguments.iterator();
 
-            PExp argument;
+            PExp argument, newArgument;
             while (argumentsIter.hasNext()) {
                 argument = argumentsIter.next();
+                newArgument = argument.substitute(substitutions);
 
-                myScratchSpace[argIndex] = argument.substitute(substitutions);
+                if (newArguments == null && newArgument != argument) {
+                    newArguments = copyPrefix(argIndex);
+                }
+
+                if (newArguments != null) {
+                    newArguments[argIndex] = newArgument;
+                }
 
-                argumentChanged |= (myScratchSpace[argIndex] != argument);
                 argIndex++;
             }
 
-            if (argumentChanged) {
+            if (newArguments != null) {
                 retval =
-                        new PSymbol(myType, leftPrint, rightPrint,
-                                new ImmutableList<PExp>(myScratchSpace),
-                                quantification, displayType, myTyper);
+                        internedLikeThis(new PSymbol(myType, leftPrint,
+                                rightPrint, new ImmutableList<PExp>(
+                                        newArguments), quantification,
+                                displayType, myTyper));
             }
             else {
                 retval = this;
@@ -388,6 +467,24 @@ public class PSymbol extends PExp {
         return retval;
     }
 
+    /**
+     * <p>Returns a fresh array the size of this symbol's argument list, with
+     * the first <code>length</code> arguments already copied in.</p>
+     * 
+     * @param length The number of leading arguments to copy.
+     * 
+     * @return The new array.
+     */
+    private PExp[] copyPrefix(int length) {
+        PExp[] result = new PExp[myArgumentsSize];
+
+        for (int i = 0; i < length; i++) {
+            result[i] = arguments.get(i);
+        }
+
+        return result;
+    }
+
     @Override
     protected void splitIntoConjuncts(List<PExp> accumulator) {
         if (myArgumentsSize == 2 && name.equals("and")) {
@@ -403,43 +500,119 @@ public class PSymbol extends PExp {
         SimpleImmutableList<PExp> newArguments =
                 arguments.set(index, newArgument);
 
-        return new PSymbol(myType, leftPrint, rightPrint, newArguments,
-                quantification, displayType, myTyper);
+        return internedLikeThis(new PSymbol(myType, leftPrint, rightPrint,
+                newArguments, quantification, displayType, myTyper));
     }
 
     public PSymbol setArguments(Collection<PExp> newArguments) {
-        return new PSymbol(myType, leftPrint, rightPrint, newArguments,
-                quantification, displayType, myTyper);
+        return internedLikeThis(new PSymbol(myType, leftPrint, rightPrint,
+                newArguments, quantification, displayType, myTyper));
     }
 
     public PSymbol setName(String newName) {
-        return new PSymbol(myType, newName, rightPrint, arguments,
-                quantification, displayType, myTyper);
+        return internedLikeThis(new PSymbol(myType, newName, rightPrint,
+                arguments, quantification, displayType, myTyper));
+    }
+
+    /**
+     * <p>Returns the interned instance of <code>s</code> if this symbol is
+     * interned, so that terms derived from shared terms are themselves 
+     * shared, or <code>s</code> unchanged otherwise.</p>
+     */
+    private PSymbol internedLikeThis(PSymbol s) {
+        PSymbol retval = s;
+
+        if (isInterned()) {
+            retval = (PSymbol) s.intern();
+        }
+
+        return retval;
+    }
+
+    @Override
+    protected PExp withInternedSubexpressions() {
+        PExp retval = this;
+
+        PExp[] newArguments = null;
+        int argIndex = 0;
+        Iterator<PExp> argumentsIter = arguments.iterator();
+
+        PExp argument, newArgument;
+        while (argumentsIter.hasNext()) {
+            argument = argumentsIter.next();
+            newArgument = argument.intern();
+
+            if (newArguments == null && newArgument != argument) {
+                newArguments = copyPrefix(argIndex);
+            }
+
+            if (newArguments != null) {
+                newArguments[argIndex] = newArgument;
+            }
+
+            argIndex++;
+        }
+
+        if (newArguments != null) {
+            retval =
+                    new PSymbol(myType, leftPrint, rightPrint,
+                            new ImmutableList<PExp>(newArguments),
+                            quantification, displayType, myTyper);
+        }
+
+        return retval;
+    }
+
+    @Override
+    protected boolean isInterchangeableWith(PExp other) {
+        PSymbol oAsPSymbol = (PSymbol) other;
+
+        boolean retval =
+                myType == oAsPSymbol.myType && myTyper == oAsPSymbol.myTyper
+                        && quantification == oAsPSymbol.quantification
+                        && displayType == oAsPSymbol.displayType
+                        && myArgumentsSize == oAsPSymbol.myArgumentsSize
+                        && leftPrint.equals(oAsPSymbol.leftPrint)
+                        && rightPrint.equals(oAsPSymbol.rightPrint);
+
+        Iterator<PExp> localArgs = arguments.iterator();
+        Iterator<PExp> oArgs = oAsPSymbol.arguments.iterator();
+        while (retval && localArgs.hasNext()) {
+            retval = (localArgs.next() == oArgs.next());
+        }
+
+        return retval;
     }
 
     @Override
     public PExp flipQuantifiers() {
         PExp retval;
 
-        boolean argumentChanged = false;
+        PExp[] newArguments = null;
         int argIndex = 0;
         Iterator<PExp> argumentsIter = arguments.iterator();
 
-        PExp argument;
+        PExp argument, newArgument;
         while (argumentsIter.hasNext()) {
             argument = argumentsIter.next();
+            newArgument = argument.flipQuantifiers();
 
-            myScratchSpace[argIndex] = argument.flipQuantifiers();
+            if (newArguments == null && newArgument != argument) {
+                newArguments = copyPrefix(argIndex);
+            }
+
+            if (newArguments != null) {
+                newArguments[argIndex] = newArgument;
+            }
 
-            argumentChanged |= (myScratchSpace[argIndex] != argument);
             argIndex++;
         }
 
-        if (argumentChanged) {
+        if (newArguments != null) {
             retval =
-                    new PSymbol(myType, leftPrint, rightPrint, Arrays
-                            .asList(myScratchSpace), quantification.flipped(),
-                            displayType, myTyper);
+                    internedLikeThis(new PSymbol(myType, leftPrint, rightPrint,
+                            Arrays.asList(newArguments), quantification
+                                    .flipped(), displayType, myTyper));
         }
         else {
             Quantification flipped = quantification.flipped();
@@ -449,8 +622,9 @@ public class PSymbol extends PExp {
             }
             else {
                 retval =
-                        new PSymbol(myType, leftPrint, rightPrint, arguments,
-                                flipped, displayType, myTyper);
+                        internedLikeThis(new PSymbol(myType, leftPrint,
+                                rightPrint, arguments, flipped, displayType,
+                                myTyper));
             }
         }
 
@@ -458,65 +632,71 @@ public class PSymbol extends PExp {
     }
 
     @Override
-    public void bindTo(PExp target, Map<PExp, PExp> accumulator)
-            throws BindingException {
+    protected boolean bindInto(PExp target, Map<PExp, PExp> accumulator) {
 
-        PSymbol sTarget;
-        try {
-            sTarget = (PSymbol) target;
-        }
-        catch (ClassCastException e) {
-            //We can only bind against other instances of PSymbol
-            throw BINDING_EXCEPTION;
-        }
+        //We can only bind against other instances of PSymbol with the same
+        //type as us
+        boolean retval = (target instanceof PSymbol) && typesMatch(target);
 
-        if (!typesMatch(target)) {
-            //We can only bind against things with the same type
-            throw BINDING_EXCEPTION;
-        }
+        if (retval) {
+            PSymbol sTarget = (PSymbol) target;
 
-        //Note that at this point we're guaranteed that target is of the same
-        //type as us
-        if (quantification == Quantification.FOR_ALL) {
-            if (myArgumentsSize == 0) {
-                accumulator.put(this, target);
-            }
-            else {
-                if (myArgumentsSize != sTarget.arguments.size()) {
+            if (quantification == Quantification.FOR_ALL) {
+                if (myArgumentsSize == 0) {
+                    accumulator.put(this, target);
+                }
+                else if (myArgumentsSize != sTarget.myArgumentsSize) {
                     //If we're a function, we can only bind against another
                     //function with the same number of arguments
-                    throw BINDING_EXCEPTION;
+                    retval = false;
                 }
+                else {
+                    accumulator.put(getNameSymbol(), sTarget.getNameSymbol());
 
-                accumulator.put(new PSymbol(myType, name, myTyper),
-                        new PSymbol(sTarget.getType(), sTarget.name, myTyper));
-
-                Iterator<PExp> thisArgumentsIter = arguments.iterator();
-                Iterator<PExp> targetArgumentsIter =
-                        sTarget.arguments.iterator();
-                while (thisArgumentsIter.hasNext()) {
-                    thisArgumentsIter.next().substitute(accumulator).bindTo(
-                            targetArgumentsIter.next(), accumulator);
+                    retval = bindArgumentsInto(sTarget, accumulator);
                 }
             }
-        }
-        else {
-            if (!name.equals(sTarget.name)) {
-                throw BINDING_EXCEPTION;
-            }
-
-            if (myArgumentsSize != sTarget.arguments.size()) {
+            else {
                 //We aren't a "for all", so everything better be exact
-                throw BINDING_EXCEPTION;
+                retval =
+                        name.equals(sTarget.name)
+                                && myArgumentsSize == sTarget.myArgumentsSize
+                                && bindArgumentsInto(sTarget, accumulator);
             }
+        }
 
-            Iterator<PExp> thisArgumentsIter = arguments.iterator();
-            Iterator<PExp> targetArgumentsIter = sTarget.arguments.iterator();
-            while (thisArgumentsIter.hasNext()) {
-                thisArgumentsIter.next().substitute(accumulator).bindTo(
-                        targetArgumentsIter.next(), accumulator);
-            }
+        return retval;
+    }
+
+    private boolean bindArgumentsInto(PSymbol target,
+            Map<PExp, PExp> accumulator) {
+
+        boolean retval = true;
+
+        for (int i = 0; retval && i < myArgumentsSize; i++) {
+            retval =
+                    arguments.get(i).substitute(accumulator).bindInto(
+                            target.arguments.get(i), accumulator);
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Returns a symbol with no arguments that stands for this one's name,
+     * which is what a function variable is bound under.  Built the first time
+     * this symbol is bound as, or to, a function, and kept thereafter, since
+     * terms are shared.</p>
+     */
+    private PSymbol getNameSymbol() {
+        PSymbol retval = myNameSymbol;
+
+        if (retval == null) {
+            retval = new PSymbol(myType, name, myTyper);
+            myNameSymbol = retval;
         }
+
+        return retval;
     }
 
     private boolean typesMatch(PExp target) {
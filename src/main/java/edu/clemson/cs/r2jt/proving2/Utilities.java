@@ -132,7 +132,9 @@ public class Utilities {
             Exp curAntecedent = antecedents.get(curAntecedentIndex);
 
             Type beforeType = curAntecedent.getType();
-            Exp antecedent = curAntecedent.substitute(bindings);
+            //Only ever bound against, never modified, so it may share
+            //whatever the bindings leave alone
+            Exp antecedent = curAntecedent.substituteSharing(bindings);
             Type afterType = antecedent.getType();
 
             if (beforeType != null && afterType == null) {
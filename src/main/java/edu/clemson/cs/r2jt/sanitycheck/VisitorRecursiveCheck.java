@@ -5,7 +5,6 @@ import edu.clemson.cs.r2jt.absyn.CallStmt;
 import edu.clemson.cs.r2jt.absyn.ProcedureDec;
 import edu.clemson.cs.r2jt.absyn.ProgramParamExp;
 import edu.clemson.cs.r2jt.collections.List;
-import edu.clemson.cs.r2jt.init.CompileEnvironment;
 import edu.clemson.cs.r2jt.treewalk.TreeWalker;
 import edu.clemson.cs.r2jt.treewalk.TreeWalkerStackVisitor;
 
@@ -13,7 +12,7 @@ public class VisitorRecursiveCheck extends TreeWalkerStackVisitor {
 
     /* Private Variables */
 
-    private CompileEnvironment myCompileEnvironment;
+    private List<ProcedureDec> myProcedureDecs;
     private ProcedureDec myInitialProcedureDec;
     private Boolean isRecursive = false;
 
@@ -21,18 +20,20 @@ public class VisitorRecursiveCheck extends TreeWalkerStackVisitor {
 
     /* Constructors */
 
-    public VisitorRecursiveCheck(ProcedureDec dec, CompileEnvironment env) {
+    public VisitorRecursiveCheck(ProcedureDec dec,
+            List<ProcedureDec> procedureDecs) {
         myInitialProcedureDec = dec;
-        myCompileEnvironment = env;
+        myProcedureDecs = procedureDecs;
         // System.out.println("Proc: " + dec.getName().getName());
 
         myCheckedProcedureDecs = new List<ProcedureDec>();
     }
 
     private VisitorRecursiveCheck(ProcedureDec dec,
-            List<ProcedureDec> checkedProcDec, CompileEnvironment env) {
+            List<ProcedureDec> checkedProcDec,
+            List<ProcedureDec> procedureDecs) {
         myInitialProcedureDec = dec;
-        myCompileEnvironment = env;
+        myProcedureDecs = procedureDecs;
         // System.out.println("Proc: " + dec.getName().getName());
 
         myCheckedProcedureDecs = checkedProcDec;
@@ -70,8 +71,7 @@ public class VisitorRecursiveCheck extends TreeWalkerStackVisitor {
             isRecursive = true;
         }
         else {
-            Iterator<ProcedureDec> i =
-                    myCompileEnvironment.encounteredProcedures.iterator();
+            Iterator<ProcedureDec> i = myProcedureDecs.iterator();
             while (i.hasNext()) {
                 ProcedureDec dec = i.next();
                 if (!myCheckedProcedureDecs.contains(dec)) {
@@ -81,7 +81,7 @@ public class VisitorRecursiveCheck extends TreeWalkerStackVisitor {
                                 new VisitorRecursiveCheck(
                                         myInitialProcedureDec,
                                         myCheckedProcedureDecs,
-                                        myCompileEnvironment);
+                                        myProcedureDecs);
                         TreeWalker tw = new TreeWalker(vrc);
                         tw.visit(dec);
                         // System.out.println(dec.getName().getName() +
@@ -71,6 +71,7 @@ public class VisitorSanityCheck extends TreeWalkerStackVisitor {
     private WhileStmt myCurWhileStatement = null;
     private ProcedureDec myCurProcedureDec = null;
     private List<String> myEncounteredProcedures;
+    private List<ProcedureDec> myProcedureDecs;
 
     /* Constructors */
 
@@ -87,9 +88,8 @@ public class VisitorSanityCheck extends TreeWalkerStackVisitor {
     public void preAnyStack(ResolveConceptualElement data) {
         //Ensure this is the first element of the dec
         if (this.getParent() == null) {
-            //			 System.out.println("Resetting encounteredProcedures");
-            myCompileEnvironment.encounteredProcedures =
-                    new List<ProcedureDec>();
+            //			 System.out.println("Resetting myProcedureDecs");
+            myProcedureDecs = new List<ProcedureDec>();
         }
     }
 
@@ -100,12 +100,12 @@ public class VisitorSanityCheck extends TreeWalkerStackVisitor {
 
     //Ensure this is the final element of the dec
     /*if(this.getParent() == null) {
-    //			 System.out.println("ProcedureDecs: " + myCompileEnvironment.encounteredProcedures.toString());
+    //			 System.out.println("ProcedureDecs: " + myProcedureDecs.toString());
     	 
-    	 Iterator<ProcedureDec> i = myCompileEnvironment.encounteredProcedures.iterator();
+    	 Iterator<ProcedureDec> i = myProcedureDecs.iterator();
     	 while (i.hasNext()) {
     		 ProcedureDec dec = i.next();
-    		 VisitorRecursiveCheck vrc = new VisitorRecursiveCheck(dec, myCompileEnvironment);
+    		 VisitorRecursiveCheck vrc = new VisitorRecursiveCheck(dec, myProcedureDecs);
     		 TreeWalker tw = new TreeWalker(vrc);
     		 tw.visit(dec);
     //				 System.out.println(dec.getName().getName() + " isRecursive: " + vrc.isRecursive() +"\n\n");
@@ -115,7 +115,7 @@ public class VisitorSanityCheck extends TreeWalkerStackVisitor {
     			 err.error(dec.getName().getLocation(), "Cannot implement procedure " + dec.getName().getName() + " as recursive: " + vrc.isRecursive() + ", when it is declared as recursive: " + dec.getRecursive() + ".");
     		 }
     	}
-    	 myCompileEnvironment.encounteredProcedures = null;
+    	 myProcedureDecs = null;
     }*/
     }
 
@@ -224,7 +224,7 @@ public class VisitorSanityCheck extends TreeWalkerStackVisitor {
     @Override
     public void preProcedureDec(ProcedureDec dec) {
 
-        myCompileEnvironment.encounteredProcedures.add(dec);
+        myProcedureDecs.add(dec);
 
         // Get the name of the procedure as a Symbol
         Symbol procedureSymbol = dec.getName().getSymbol();
@@ -58,6 +58,8 @@
 
 package edu.clemson.cs.r2jt.scope;
 
+import java.io.Serializable;
+
 import edu.clemson.cs.r2jt.collections.Iterator;
 import edu.clemson.cs.r2jt.collections.List;
 import edu.clemson.cs.r2jt.collections.Map;
@@ -73,13 +75,15 @@ import edu.clemson.cs.r2jt.location.SymbolSearchException;
 import edu.clemson.cs.r2jt.location.TypeLocator;
 import edu.clemson.cs.r2jt.type.*;
 
-public class Binding {
+public class Binding implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     // ===========================================================
     // Variables
     // ===========================================================
-    private CompileEnvironment myInstanceEnvironment;
-    private ErrorHandler err;
+    private transient CompileEnvironment myInstanceEnvironment;
+    private transient ErrorHandler err;
 
     private Scope scope;
 
@@ -107,6 +111,11 @@ public class Binding {
     // Accessors
     // ===========================================================
 
+    public void setInstanceEnvironment(CompileEnvironment env) {
+        myInstanceEnvironment = env;
+        this.err = env.getErrorHandler();
+    }
+
     public Scope getScope() {
         return scope;
     }
@@ -70,12 +70,14 @@ import edu.clemson.cs.r2jt.init.CompileEnvironment;
 
 public class DefinitionScope extends Scope {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
 
     private ScopeID sid = null;
-    private ErrorHandler err;
+    private transient ErrorHandler err;
 
     private Map<Symbol, VarEntry> variables = new Map<Symbol, VarEntry>();
 
@@ -101,6 +103,11 @@ public class DefinitionScope extends Scope {
         return binding;
     }
 
+    public void setInstanceEnvironment(CompileEnvironment env) {
+        this.err = env.getErrorHandler();
+        binding.setInstanceEnvironment(env);
+    }
+
     public ScopeID getScopeID() {
         return sid;
     }
@@ -125,6 +132,7 @@ public class DefinitionScope extends Scope {
 
     public void addVariable(VarEntry entry) {
         variables.put(entry.getSymbol(), entry);
+        symbolAdded();
     }
 
     public boolean containsVariable(Symbol sym) {
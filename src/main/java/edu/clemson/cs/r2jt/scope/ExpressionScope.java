@@ -65,6 +65,8 @@ import edu.clemson.cs.r2jt.entry.VarEntry;
 
 public class ExpressionScope extends Scope {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
@@ -103,6 +105,7 @@ public class ExpressionScope extends Scope {
 
     public void addVariable(VarEntry entry) {
         variables.put(entry.getSymbol(), entry);
+        symbolAdded();
     }
 
     public boolean containsVariable(Symbol sym) {
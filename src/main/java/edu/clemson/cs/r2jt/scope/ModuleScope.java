@@ -60,6 +60,7 @@ package edu.clemson.cs.r2jt.scope;
 
 import java.util.Arrays;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import edu.clemson.cs.r2jt.absyn.FacilityDec;
 import edu.clemson.cs.r2jt.absyn.MathVarDec;
@@ -80,14 +81,16 @@ import edu.clemson.cs.r2jt.type.*;
 
 public class ModuleScope extends Scope {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
 
     //private Environment env = Environment.getInstance();
-    private CompileEnvironment myInstanceEnvironment;
+    private transient CompileEnvironment myInstanceEnvironment;
 
-    private ErrorHandler err;
+    private transient ErrorHandler err;
 
     private ScopeID sid = null;
 
@@ -119,6 +122,15 @@ public class ModuleScope extends Scope {
     private List<TypeCorrespondence> typeCorrespondences =
             new List<TypeCorrespondence>();
 
+    /* Bumped whenever this module scope gains a type correspondence or changes
+     * which modules are math visible from it, so that anything computed from
+     * the correspondences visible here can tell when it's out of date. */
+    private final AtomicLong correspondenceVersion = new AtomicLong();
+
+    /* Bumped whenever this module scope gains a definition or changes which
+     * modules are math visible from it, in the same way. */
+    private final AtomicLong definitionVersion = new AtomicLong();
+
     private List<MathVarDec> alternateVarTypes = new List<MathVarDec>();
 
     private Binding binding = null;
@@ -219,6 +231,7 @@ public class ModuleScope extends Scope {
     /** Adds the specified spec id to the module scope. */
     public void addSpec(ModuleID id) {
         specs.add(id);
+        symbolAdded();
     }
 
     /** Adds the specified associate id to the module scope. */
@@ -251,6 +264,8 @@ public class ModuleScope extends Scope {
     public void addFacility(ModuleEntry entry) {
         mathModules.put(entry.getSymbol(), entry);
         progModules.put(entry.getSymbol(), entry);
+        correspondenceVersion.incrementAndGet();
+        definitionVersion.incrementAndGet();
     }
 
     /** Returns an iterator of all import modules visible in a math
@@ -420,11 +435,13 @@ public class ModuleScope extends Scope {
     /** Adds a math definition to the module scope. */
     public void addDefinition(DefinitionEntry entry) {
         definitions.put(entry.getSymbol(), entry);
+        definitionVersion.incrementAndGet();
     }
 
     /** Adds a variable to the module scope. */
     public void addVariable(VarEntry entry) {
         variables.put(entry.getSymbol(), entry);
+        symbolAdded();
     }
 
     /** Adds an operation to the module scope. */
@@ -440,12 +457,48 @@ public class ModuleScope extends Scope {
     public void addTypeCorrespondence(Type t1, Type t2) {
         TypeCorrespondence newTc = new TypeCorrespondence(t1, t2);
         typeCorrespondences.add(newTc);
+        correspondenceVersion.incrementAndGet();
     }
 
     public List<TypeCorrespondence> getTypeCorrespondences() {
         return typeCorrespondences;
     }
 
+    /** Returns a number that changes whenever the type correspondences
+     *  visible from this module scope, its own or those of its math visible
+     *  imports, may have changed.  Correspondences added to unrelated modules
+     *  leave it alone.
+     */
+    public long getCorrespondenceVersion() {
+        // Every count only grows, and changing the visible modules bumps our
+        // own, so the sum moves whenever any correspondence we can see does
+        long version = correspondenceVersion.get();
+        Iterator<ModuleScope> i = getMathVisibleModules();
+        while (i.hasNext()) {
+            ModuleScope visible = i.next();
+            if (visible != this) {
+                version += visible.correspondenceVersion.get();
+            }
+        }
+        return version;
+    }
+
+    /** Returns a number that changes whenever the definitions visible from
+     *  this module scope, its own or those of its math visible imports, may
+     *  have changed.
+     */
+    public long getDefinitionVersion() {
+        long version = definitionVersion.get();
+        Iterator<ModuleScope> i = getMathVisibleModules();
+        while (i.hasNext()) {
+            ModuleScope visible = i.next();
+            if (visible != this) {
+                version += visible.definitionVersion.get();
+            }
+        }
+        return version;
+    }
+
     public void addAlternateVarType(MathVarDec dec) {
         alternateVarTypes.add(dec);
     }
@@ -834,6 +887,26 @@ public class ModuleScope extends Scope {
         this.facbind = facbind;
     }
 
+    public void setInstanceEnvironment(CompileEnvironment env) {
+        myInstanceEnvironment = env;
+        this.err = env.getErrorHandler();
+        binding.setInstanceEnvironment(env);
+        if (facbind != null) {
+            facbind.setInstanceEnvironment(env);
+        }
+        holder.setInstanceEnvironment(env);
+
+        // Only the facilities declared here belong to this scope; imported
+        // modules have symbol tables of their own
+        Iterator<Symbol> i = progModules.keyIterator();
+        while (i.hasNext()) {
+            ModuleEntry entry = progModules.get(i.next());
+            if (entry.isFacilityDec() && entry.getModuleScope() != this) {
+                entry.getModuleScope().setInstanceEnvironment(env);
+            }
+        }
+    }
+
     // -----------------------------------------------------------
     // Instantiation Methods
     // -----------------------------------------------------------
@@ -873,6 +946,8 @@ public class ModuleScope extends Scope {
         }
         if (mathModules.containsKey(facility)) {
             mathModules.remove(facility);
+            correspondenceVersion.incrementAndGet();
+            definitionVersion.incrementAndGet();
         }
     }
 
@@ -1059,6 +1134,8 @@ public class ModuleScope extends Scope {
         ModuleEntry entry = new ModuleEntry(id, myInstanceEnvironment);
         if (!mathModules.containsKey(sym)) {
             mathModules.put(sym, entry);
+            correspondenceVersion.incrementAndGet();
+            definitionVersion.incrementAndGet();
         }
     }
 
@@ -68,6 +68,8 @@ import edu.clemson.cs.r2jt.init.CompileEnvironment;
 
 public class ProcedureScope extends Scope {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
@@ -157,10 +159,12 @@ public class ProcedureScope extends Scope {
 
     public void addFacility(ModuleEntry entry) {
         facilities.put(entry.getSymbol(), entry);
+        symbolAdded();
     }
 
     public void addVariable(VarEntry entry) {
         variables.put(entry.getSymbol(), entry);
+        symbolAdded();
     }
 
     // -----------------------------------------------------------
@@ -194,6 +198,15 @@ public class ProcedureScope extends Scope {
         return binding;
     }
 
+    public void setInstanceEnvironment(CompileEnvironment env) {
+        binding.setInstanceEnvironment(env);
+        Iterator<Symbol> i = facilities.keyIterator();
+        while (i.hasNext()) {
+            facilities.get(i.next()).getModuleScope().setInstanceEnvironment(
+                    env);
+        }
+    }
+
     // -----------------------------------------------------------
     // To String Method
     // -----------------------------------------------------------
@@ -69,6 +69,8 @@ import edu.clemson.cs.r2jt.init.CompileEnvironment;
 
 public class ProofScope extends Scope {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
@@ -84,6 +86,9 @@ public class ProofScope extends Scope {
             new Map<Symbol, DefinitionEntry>();
     private Map<Symbol, TypeEntry> types = new Map<Symbol, TypeEntry>();
 
+    /* Bumped whenever a definition is added. */
+    private long definitionVersion = 0;
+
     private Binding binding = null;
 
     // ===========================================================
@@ -163,14 +168,24 @@ public class ProofScope extends Scope {
 
     public void addFacility(ModuleEntry entry) {
         facilities.put(entry.getSymbol(), entry);
+        symbolAdded();
     }
 
     public void addVariable(VarEntry entry) {
         variables.put(entry.getSymbol(), entry);
+        symbolAdded();
     }
 
     public void addDefinition(DefinitionEntry entry) {
         definitions.put(entry.getSymbol(), entry);
+        definitionVersion++;
+    }
+
+    /** Returns a number that changes whenever a definition is added to this
+     *  scope.
+     */
+    public long getDefinitionVersion() {
+        return definitionVersion;
     }
 
     public void addType(TypeEntry entry) {
@@ -237,6 +252,15 @@ public class ProofScope extends Scope {
         return binding;
     }
 
+    public void setInstanceEnvironment(CompileEnvironment env) {
+        binding.setInstanceEnvironment(env);
+        Iterator<Symbol> i = facilities.keyIterator();
+        while (i.hasNext()) {
+            facilities.get(i.next()).getModuleScope().setInstanceEnvironment(
+                    env);
+        }
+    }
+
     // -----------------------------------------------------------
     // To String Method
     // -----------------------------------------------------------
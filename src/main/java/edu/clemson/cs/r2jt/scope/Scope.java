@@ -59,10 +59,18 @@
 
 package edu.clemson.cs.r2jt.scope;
 
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+
 import edu.clemson.cs.r2jt.data.Symbol;
 import edu.clemson.cs.r2jt.entry.*;
+import edu.clemson.cs.r2jt.init.CompileEnvironment;
+
+public abstract class Scope implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
-public abstract class Scope {
+    private final AtomicLong mySymbolVersion = new AtomicLong();
 
     public abstract ScopeID getScopeID();
 
@@ -75,4 +83,26 @@ public abstract class Scope {
     public abstract boolean containsVariable(Symbol sym);
 
     public abstract VarEntry getVariable(Symbol sym);
+
+    /**
+     * <p>Makes this scope, and anything in it that looks up other modules or
+     * reports errors, use <code>env</code> from now on.  Scopes that hold
+     * nothing tied to an environment need not override this.</p>
+     */
+    public void setInstanceEnvironment(CompileEnvironment env) {}
+
+    /**
+     * <p>Returns a number that changes whenever a symbol that a variable
+     * lookup in this scope could find is added to it.  Names resolved over a
+     * <code>ScopeChain</code> are cached against these numbers.</p>
+     */
+    public final long getSymbolVersion() {
+        return mySymbolVersion.get();
+    }
+
+    /* Subclasses call this after every addition that could change what a
+     * variable name resolves to here. */
+    protected final void symbolAdded() {
+        mySymbolVersion.incrementAndGet();
+    }
 }
@@ -0,0 +1,230 @@
+package edu.clemson.cs.r2jt.scope;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import edu.clemson.cs.r2jt.collections.List;
+import edu.clemson.cs.r2jt.data.Symbol;
+import edu.clemson.cs.r2jt.entry.VarEntry;
+
+/**
+ * <p>An immutable chain of the scopes open at some point during a walk over a
+ * module, innermost first, each linked to the scope enclosing it.  Opening a
+ * scope makes a new chain that shares the enclosing one, and closing it goes
+ * back to the enclosing chain, so a chain once obtained from
+ * {@link SymbolTable#getScopeChain() getScopeChain()} never changes.  Lookups
+ * can walk it from any thread, as often as they like, without disturbing the
+ * table or each other.</p>
+ *
+ * <p>Each link also remembers the nearest enclosing scope that provides a
+ * <code>Binding</code> and the nearest enclosing <code>ProofScope</code>, since
+ * those are asked for far more often than scopes are opened.</p>
+ *
+ * <p>Finally, each link caches what variable names resolve to over it.  The
+ * scopes on a chain are still being populated while it is open, so each
+ * cached resolution is stamped with the chain's symbol version and dropped as
+ * soon as a symbol is added to any of those scopes.</p>
+ */
+public final class ScopeChain implements Iterable<Scope> {
+
+    private final Scope myScope;
+    private final ScopeChain myParent;
+    private final int myDepth;
+
+    private final Scope myBindingScope;
+    private final ProofScope myProofScope;
+
+    private final ConcurrentHashMap<Symbol, VariableResolution> myVariables =
+            new ConcurrentHashMap<Symbol, VariableResolution>();
+
+    /**
+     * <p>Creates the chain that results from opening <code>scope</code>
+     * within <code>parent</code>.</p>
+     *
+     * @param scope The innermost scope.
+     * @param parent The chain of enclosing scopes, or <code>null</code> if
+     *               <code>scope</code> is outermost.
+     */
+    public ScopeChain(Scope scope, ScopeChain parent) {
+        myScope = scope;
+        myParent = parent;
+
+        if (scope instanceof ProcedureScope || scope instanceof ProofScope
+                || scope instanceof ModuleScope) {
+            myBindingScope = scope;
+        }
+        else if (parent != null) {
+            myBindingScope = parent.myBindingScope;
+        }
+        else {
+            myBindingScope = null;
+        }
+
+        if (scope instanceof ProofScope) {
+            myProofScope = (ProofScope) scope;
+        }
+        else if (parent != null) {
+            myProofScope = parent.myProofScope;
+        }
+        else {
+            myProofScope = null;
+        }
+
+        if (parent == null) {
+            myDepth = 1;
+        }
+        else {
+            myDepth = parent.myDepth + 1;
+        }
+    }
+
+    public Scope getScope() {
+        return myScope;
+    }
+
+    /**
+     * <p>Returns the chain of scopes enclosing this one, or <code>null</code>
+     * if this is the outermost.</p>
+     */
+    public ScopeChain getParent() {
+        return myParent;
+    }
+
+    /**
+     * <p>Returns the number of scopes in this chain.</p>
+     */
+    public int getDepth() {
+        return myDepth;
+    }
+
+    /**
+     * <p>Returns the binding of the innermost procedure, proof, or module
+     * scope in this chain, or <code>null</code> if there is none.</p>
+     */
+    public Binding getBinding() {
+        Binding retval = null;
+
+        if (myBindingScope instanceof ProcedureScope) {
+            retval = ((ProcedureScope) myBindingScope).getBinding();
+        }
+        else if (myBindingScope instanceof ProofScope) {
+            retval = ((ProofScope) myBindingScope).getBinding();
+        }
+        else if (myBindingScope instanceof ModuleScope) {
+            retval = ((ModuleScope) myBindingScope).getBinding();
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Returns the innermost <code>ProofScope</code> in this chain, or
+     * <code>null</code> if there is none.</p>
+     */
+    public ProofScope getProofScope() {
+        return myProofScope;
+    }
+
+    /**
+     * <p>Returns a number that changes whenever a symbol is added to any
+     * scope in this chain.</p>
+     */
+    public long getSymbolVersion() {
+        long retval = 0;
+
+        for (ScopeChain link = this; link != null; link = link.myParent) {
+            retval += link.myScope.getSymbolVersion();
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Returns what <code>name</code> was last recorded as resolving to as
+     * a variable in this chain, or <code>null</code> if nothing is recorded
+     * or a symbol has been added to one of its scopes since.</p>
+     */
+    public VariableResolution getVariableResolution(Symbol name) {
+        VariableResolution retval = myVariables.get(name);
+
+        if (retval != null && retval.myVersion != getSymbolVersion()) {
+            myVariables.remove(name, retval);
+            retval = null;
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Records that <code>name</code> resolves to <code>variables</code>
+     * in this chain, as found by a search begun when
+     * <code>getSymbolVersion()</code> returned <code>version</code>.</p>
+     *
+     * @param local Whether the variables were found in a procedure,
+     *              operation, definition, or expression scope.
+     */
+    public void putVariableResolution(Symbol name, long version,
+            List<VarEntry> variables, boolean local) {
+        myVariables.put(name, new VariableResolution(version, variables,
+                local));
+    }
+
+    /**
+     * <p>Iterates over the scopes in this chain from innermost to
+     * outermost.</p>
+     */
+    public Iterator<Scope> iterator() {
+        return new Iterator<Scope>() {
+
+            private ScopeChain myNext = ScopeChain.this;
+
+            public boolean hasNext() {
+                return myNext != null;
+            }
+
+            public Scope next() {
+                if (myNext == null) {
+                    throw new NoSuchElementException();
+                }
+
+                Scope retval = myNext.myScope;
+                myNext = myNext.myParent;
+
+                return retval;
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * <p>The variables a name was found to resolve to over a chain.</p>
+     */
+    public static final class VariableResolution {
+
+        private final long myVersion;
+        private final List<VarEntry> myVariables;
+        private final boolean myLocalFlag;
+
+        private VariableResolution(long version, List<VarEntry> variables,
+                boolean local) {
+            myVersion = version;
+            myVariables = new List<VarEntry>(variables);
+            myLocalFlag = local;
+        }
+
+        /**
+         * <p>Returns a new list of the variables found, innermost first.</p>
+         */
+        public List<VarEntry> getVariables() {
+            return new List<VarEntry>(myVariables);
+        }
+
+        public boolean isLocal() {
+            return myLocalFlag;
+        }
+    }
+}
@@ -58,12 +58,16 @@
 
 package edu.clemson.cs.r2jt.scope;
 
+import java.io.Serializable;
+
 import edu.clemson.cs.r2jt.data.ModuleID;
 import edu.clemson.cs.r2jt.data.PosSymbol;
 import edu.clemson.cs.r2jt.data.Symbol;
 import edu.clemson.cs.r2jt.init.Environment;
 
-public class ScopeID {
+public class ScopeID implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     // ===========================================================
     // Variables
@@ -65,6 +65,8 @@ import edu.clemson.cs.r2jt.entry.VarEntry;
 
 public class StatementScope extends Scope {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
@@ -99,6 +101,7 @@ public class StatementScope extends Scope {
 
     public void addVariable(VarEntry entry) {
         variables.put(entry.getSymbol(), entry);
+        symbolAdded();
     }
 
     public boolean containsVariable(Symbol sym) {
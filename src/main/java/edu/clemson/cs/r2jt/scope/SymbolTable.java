@@ -58,13 +58,16 @@
 
 package edu.clemson.cs.r2jt.scope;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+
 import edu.clemson.cs.r2jt.absyn.MathVarDec;
 import edu.clemson.cs.r2jt.absyn.Ty;
 import edu.clemson.cs.r2jt.analysis.TypeCorrespondence;
 import edu.clemson.cs.r2jt.collections.Iterator;
 import edu.clemson.cs.r2jt.collections.List;
 import edu.clemson.cs.r2jt.collections.Map;
-import edu.clemson.cs.r2jt.collections.Stack;
 import edu.clemson.cs.r2jt.data.Location;
 import edu.clemson.cs.r2jt.data.Mode;
 import edu.clemson.cs.r2jt.data.ModuleID;
@@ -79,7 +82,9 @@ import edu.clemson.cs.r2jt.location.SymbolSearchException;
 import edu.clemson.cs.r2jt.type.Type;
 import edu.clemson.cs.r2jt.type.TypeMatcher;
 
-public class SymbolTable {
+public class SymbolTable implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     // ==========================================================
     // Variables
@@ -90,21 +95,32 @@ public class SymbolTable {
     /* Incremented each time a scope is named using this index. */
     private int scopeIndex = 1;
 
-    private ErrorHandler err;
+    private transient ErrorHandler err;
     //private Environment env = Environment.getInstance();
-    CompileEnvironment myInstanceEnvironment;
+    transient CompileEnvironment myInstanceEnvironment;
 
-    private Stack<Scope> stack = new Stack<Scope>();
+    /* The scopes currently open, innermost first, or null if none are. */
+    private transient ScopeChain chain = null;
     private List<Scope> list = new List<Scope>();
     private int listIndex = 0;
 
-    /* Handle to the module level scope (bottom of stack). */
+    /* Handle to the module level scope (outermost in the chain). */
     private ModuleScope moduleScope = null;
-    /* Handle to the current scope (top of stack). */
+    /* Handle to the current scope (innermost in the chain). */
     private Scope currentScope = null;
 
     private String name = "Anonymous Table";
 
+    /* The transitive closure of the type correspondences visible from this
+     * table for each type asked about, not including the type itself.  Only
+     * valid for the matcher and correspondence version noted below.  Types
+     * compare by identity, so the keys are held weakly.  None of this is
+     * kept when the table is serialized. */
+    private transient java.util.Map<Type, List<Type>> correspondenceClosures =
+            new java.util.WeakHashMap<Type, List<Type>>();
+    private transient TypeMatcher closureMatcher = null;
+    private transient long closureVersion = -1;
+
     // ==========================================================
     // Constructors
     // ==========================================================
@@ -129,6 +145,20 @@ public class SymbolTable {
         return moduleScope;
     }
 
+    /** Makes this table and all of its scopes look up other modules in, and
+     *  report errors to, <code>env</code> from now on.  A table kept from one
+     *  compilation for use by a later one must be given the later one's
+     *  environment before it is used.
+     */
+    public void setInstanceEnvironment(CompileEnvironment env) {
+        myInstanceEnvironment = env;
+        this.err = env.getErrorHandler();
+        Iterator<Scope> i = list.iterator();
+        while (i.hasNext()) {
+            i.next().setInstanceEnvironment(env);
+        }
+    }
+
     public Scope getCurrentScope() {
         return currentScope;
     }
@@ -145,8 +175,24 @@ public class SymbolTable {
         return id;
     }
 
-    public Stack<Scope> getStack() {
-        return stack;
+    /** Returns the scopes currently open, innermost first, or
+     *  <code>null</code> if none are.  The chain returned never changes as
+     *  scopes are later opened and closed.
+     */
+    public ScopeChain getScopeChain() {
+        return chain;
+    }
+
+    /** Returns the scopes currently open, from innermost to outermost. */
+    public Iterable<Scope> getScopes() {
+        Iterable<Scope> scopes;
+        if (chain == null) {
+            scopes = java.util.Collections.<Scope> emptyList();
+        }
+        else {
+            scopes = chain;
+        }
+        return scopes;
     }
 
     public List<Scope> getList() {
@@ -245,19 +291,13 @@ public class SymbolTable {
     }
 
     private void setScopeForDefinition() {
-        Stack<Scope> stackRev = new Stack<Scope>();
-        while (!stack.isEmpty()) {
-            Scope nextScope = stack.pop();
-            stackRev.push(nextScope);
+        for (Scope nextScope : getScopes()) {
             if (nextScope instanceof ProofScope
                     || nextScope instanceof ModuleScope) {
                 currentScope = nextScope;
                 break;
             }
         }
-        while (!stackRev.isEmpty()) {
-            stack.push(stackRev.pop());
-        }
     }
 
     /** Adds the specified definition to the current scope. */
@@ -351,22 +391,83 @@ public class SymbolTable {
         moduleScope.addAlternateVarType(dec);
     }
 
+    /** Returns <code>t</code> followed by every type that may stand in for
+     *  it, directly or through a chain of type correspondences visible from
+     *  this table.  The closure is computed once per type and reused until the
+     *  visible correspondences change.
+     */
     public List<Type> getTypeCorrespondences(Type t, TypeMatcher tm) {
-        List<TypeCorrespondence> equivTypes = getAllTypeCorrespondences();
+        List<Type> closure;
+        synchronized (correspondenceClosures) {
+            long version = getCorrespondenceVersion();
+            if (tm != closureMatcher || version != closureVersion) {
+                correspondenceClosures.clear();
+                closureMatcher = tm;
+                closureVersion = version;
+            }
+            closure = correspondenceClosures.get(t);
+            if (closure == null) {
+                closure = getCorrespondenceClosure(t, tm);
+                correspondenceClosures.put(t, closure);
+            }
+        }
         List<Type> types = new List<Type>();
         types.add(t);
-        int origSize = 1;
-        int skip = 0;
-        while (true) {
-            types.addAll(getTypeCorrespondencesFor(t, tm,
-                    equivTypes.iterator(), skip));
-            if (types.size() == origSize) {
-                break;
+        types.addAll(closure);
+        return types;
+    }
+
+    /** Returns a number that changes whenever the type correspondences
+     *  visible from this table may have changed.
+     */
+    public long getCorrespondenceVersion() {
+        long version = 0;
+        if (moduleScope != null) {
+            version = moduleScope.getCorrespondenceVersion();
+        }
+        return version;
+    }
+
+    /** Returns a number that changes whenever the definitions visible from
+     *  the current scope may have changed.
+     */
+    public long getDefinitionVersion() {
+        long version = 0;
+        for (Scope scope : getScopes()) {
+            if (scope instanceof ModuleScope) {
+                version += ((ModuleScope) scope).getDefinitionVersion();
+            }
+            else if (scope instanceof ProofScope) {
+                version += ((ProofScope) scope).getDefinitionVersion();
             }
-            skip = origSize;
-            origSize = types.size();
         }
-        return types;
+        return version;
+    }
+
+    private List<Type> getCorrespondenceClosure(Type t, TypeMatcher tm) {
+        List<TypeCorrespondence> equivTypes = getAllTypeCorrespondences();
+        List<Type> closure = new List<Type>();
+        int next = 0;
+        Type current = t;
+        while (current != null) {
+            Iterator<Type> found =
+                    getTypeCorrespondencesFor(current, tm,
+                            equivTypes.iterator(), 0).iterator();
+            while (found.hasNext()) {
+                Type candidate = found.next();
+                if (candidate != t && !closure.contains(candidate)) {
+                    closure.add(candidate);
+                }
+            }
+            if (next < closure.size()) {
+                current = closure.get(next);
+                next++;
+            }
+            else {
+                current = null;
+            }
+        }
+        return closure;
     }
 
     private List<TypeCorrespondence> getAllTypeCorrespondences() {
@@ -402,25 +503,8 @@ public class SymbolTable {
 
     public Binding getCurrentBinding() {
         Binding result = null;
-        Stack<Scope> stack2 = new Stack<Scope>();
-        while (stack.size() > 0) {
-            Scope scope = stack.pop();
-            stack2.push(scope);
-            if (scope instanceof ProcedureScope) {
-                result = ((ProcedureScope) scope).getBinding();
-                break;
-            }
-            if (scope instanceof ProofScope) {
-                result = ((ProofScope) scope).getBinding();
-                break;
-            }
-            if (scope instanceof ModuleScope) {
-                result = ((ModuleScope) scope).getBinding();
-                break;
-            }
-        }
-        while (stack2.size() > 0) {
-            stack.push(stack2.pop());
+        if (chain != null) {
+            result = chain.getBinding();
         }
         return result;
     }
@@ -460,7 +544,7 @@ public class SymbolTable {
         ModuleScope scope = new ModuleScope(id, myInstanceEnvironment);
         createNewScope(scope);
         moduleScope = scope;
-        assert stack.size() == 1;
+        assert getDepth() == 1;
         assert list.size() == 1;
     }
 
@@ -518,43 +602,43 @@ public class SymbolTable {
     // -----------------------------------------------------------
 
     public void completeModuleScope() {
-        assert stack.getTop() instanceof ModuleScope;
+        assert getTopScope() instanceof ModuleScope;
         completeNewScope();
-        assert stack.size() == 0;
+        assert getDepth() == 0;
     }
 
     public void completeTypeScope() {
-        assert stack.getTop() instanceof TypeScope;
+        assert getTopScope() instanceof TypeScope;
         completeNewScope();
     }
 
     public void completeOperationScope() {
-        assert stack.getTop() instanceof OperationScope;
+        assert getTopScope() instanceof OperationScope;
         completeNewScope();
     }
 
     public void completeProofScope() {
-        assert stack.getTop() instanceof ProofScope;
+        assert getTopScope() instanceof ProofScope;
         completeNewScope();
     }
 
     public void completeProcedureScope() {
-        assert stack.getTop() instanceof ProcedureScope;
+        assert getTopScope() instanceof ProcedureScope;
         completeNewScope();
     }
 
     public void completeDefinitionScope() {
-        assert stack.getTop() instanceof DefinitionScope;
+        assert getTopScope() instanceof DefinitionScope;
         completeNewScope();
     }
 
     public void completeStatementScope() {
-        assert stack.getTop() instanceof StatementScope;
+        assert getTopScope() instanceof StatementScope;
         completeNewScope();
     }
 
     public void completeExpressionScope() {
-        assert stack.getTop() instanceof ExpressionScope;
+        assert getTopScope() instanceof ExpressionScope;
         completeNewScope();
     }
 
@@ -565,7 +649,7 @@ public class SymbolTable {
     public void beginModuleScope() {
         beginScope();
         assert currentScope instanceof ModuleScope;
-        assert stack.size() == 1;
+        assert getDepth() == 1;
     }
 
     //      public void beginTypeScope() {
@@ -606,7 +690,7 @@ public class SymbolTable {
             scope = list.get(listIndex);
             listIndex++;
         }
-        stack.push(scope);
+        chain = new ScopeChain(scope, chain);
         currentScope = scope;
     }
 
@@ -618,7 +702,7 @@ public class SymbolTable {
             scope = list.get(listIndex);
             listIndex++;
         }
-        stack.push(scope);
+        chain = new ScopeChain(scope, chain);
         currentScope = scope;
     }
 
@@ -630,7 +714,7 @@ public class SymbolTable {
             scope = list.get(listIndex);
             listIndex++;
         }
-        stack.push(scope);
+        chain = new ScopeChain(scope, chain);
         currentScope = scope;
     }
 
@@ -642,7 +726,7 @@ public class SymbolTable {
             scope = list.get(listIndex);
             listIndex++;
         }
-        stack.push(scope);
+        chain = new ScopeChain(scope, chain);
         currentScope = scope;
     }
 
@@ -654,7 +738,7 @@ public class SymbolTable {
             scope = list.get(listIndex);
             listIndex++;
         }
-        stack.push(scope);
+        chain = new ScopeChain(scope, chain);
         currentScope = scope;
     }
 
@@ -666,7 +750,7 @@ public class SymbolTable {
             scope = list.get(listIndex);
             listIndex++;
         }
-        stack.push(scope);
+        chain = new ScopeChain(scope, chain);
         currentScope = scope;
     }
 
@@ -678,7 +762,7 @@ public class SymbolTable {
             scope = list.get(listIndex);
             listIndex++;
         }
-        stack.push(scope);
+        chain = new ScopeChain(scope, chain);
         currentScope = scope;
     }
 
@@ -687,44 +771,44 @@ public class SymbolTable {
     // -----------------------------------------------------------
 
     public void endModuleScope() {
-        assert stack.getTop() instanceof ModuleScope;
+        assert getTopScope() instanceof ModuleScope;
         endScope();
         listIndex = 0;
-        assert stack.size() == 0;
+        assert getDepth() == 0;
     }
 
     public void endTypeScope() {
-        assert stack.getTop() instanceof TypeScope;
+        assert getTopScope() instanceof TypeScope;
         endScope();
     }
 
     public void endOperationScope() {
-        assert stack.getTop() instanceof OperationScope;
+        assert getTopScope() instanceof OperationScope;
         endScope();
     }
 
     public void endProofScope() {
-        assert stack.getTop() instanceof ProofScope;
+        assert getTopScope() instanceof ProofScope;
         endScope();
     }
 
     public void endProcedureScope() {
-        assert stack.getTop() instanceof ProcedureScope;
+        assert getTopScope() instanceof ProcedureScope;
         endScope();
     }
 
     public void endDefinitionScope() {
-        assert stack.getTop() instanceof DefinitionScope;
+        assert getTopScope() instanceof DefinitionScope;
         endScope();
     }
 
     public void endStatementScope() {
-        assert stack.getTop() instanceof StatementScope;
+        assert getTopScope() instanceof StatementScope;
         endScope();
     }
 
     public void endExpressionScope() {
-        assert stack.getTop() instanceof ExpressionScope;
+        assert getTopScope() instanceof ExpressionScope;
         endScope();
     }
 
@@ -749,20 +833,14 @@ public class SymbolTable {
 
     public String printStack() {
         StringBuffer sb = new StringBuffer();
-        Stack<Scope> hold = new Stack<Scope>();
         sb.append("ScopeStack( ");
-        while (!stack.isEmpty()) {
-            Scope scope = stack.pop();
-            sb.append(scope.getScopeID().toString());
-            hold.push(scope);
-            if (!stack.isEmpty()) {
+        for (ScopeChain c = chain; c != null; c = c.getParent()) {
+            sb.append(c.getScope().getScopeID().toString());
+            if (c.getParent() != null) {
                 sb.append(", ");
             }
         }
         sb.append(")");
-        while (!hold.isEmpty()) {
-            stack.push(hold.pop());
-        }
         return sb.toString();
     }
 
@@ -836,27 +914,43 @@ public class SymbolTable {
     // Scope Start and Stop Methods
     // -----------------------------------------------------------
 
+    private Scope getTopScope() {
+        Scope top = null;
+        if (chain != null) {
+            top = chain.getScope();
+        }
+        return top;
+    }
+
+    private int getDepth() {
+        int depth = 0;
+        if (chain != null) {
+            depth = chain.getDepth();
+        }
+        return depth;
+    }
+
     private void createNewScope(Scope scope) {
-        stack.push(scope);
+        chain = new ScopeChain(scope, chain);
         list.add(scope);
         currentScope = scope;
     }
 
     private void completeNewScope() {
-        stack.pop();
-        currentScope = stack.getTop();
+        chain = chain.getParent();
+        currentScope = getTopScope();
     }
 
     private void beginScope() {
         Scope scope = list.get(listIndex);
         listIndex++;
-        stack.push(scope);
+        chain = new ScopeChain(scope, chain);
         currentScope = scope;
     }
 
     private void endScope() {
-        stack.pop();
-        currentScope = stack.getTop();
+        chain = chain.getParent();
+        currentScope = getTopScope();
     }
 
     // -----------------------------------------------------------
@@ -870,4 +964,18 @@ public class SymbolTable {
     private String alreadyModuleDefinedMessage(String loc) {
         return "Symbol already defined in module scope (at " + loc + ")";
     }
+
+    // -----------------------------------------------------------
+    // Serialization Methods
+    // -----------------------------------------------------------
+
+    /* A table read back from disk has no environment until it is given one
+     * with setInstanceEnvironment(), and starts with no closures worked
+     * out. */
+    private void readObject(ObjectInputStream in) throws IOException,
+            ClassNotFoundException {
+        in.defaultReadObject();
+        correspondenceClosures = new java.util.WeakHashMap<Type, List<Type>>();
+        closureVersion = -1;
+    }
 }
@@ -59,6 +59,8 @@
 
 package edu.clemson.cs.r2jt.scope;
 
+import java.io.Serializable;
+
 import edu.clemson.cs.r2jt.data.ModuleID;
 import edu.clemson.cs.r2jt.data.Symbol;
 import edu.clemson.cs.r2jt.errors.ErrorHandler;
@@ -68,12 +70,14 @@ import edu.clemson.cs.r2jt.location.SymbolSearchException;
 import edu.clemson.cs.r2jt.type.Type;
 
 // Changed Char to Character - literal string change
-public class TypeHolder {
+public class TypeHolder implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     // ==========================================================
     // Variables
     // ==========================================================
-    CompileEnvironment myInstanceEnvironment;
+    transient CompileEnvironment myInstanceEnvironment;
 
     private ModuleScope scope;
 
@@ -97,7 +101,7 @@ public class TypeHolder {
 
     private Type typeChar_Str;
 
-    private ErrorHandler err;
+    private transient ErrorHandler err;
 
     // ===========================================================
     // Constructors
@@ -113,6 +117,11 @@ public class TypeHolder {
     // Accessor Methods
     // ===========================================================
 
+    public void setInstanceEnvironment(CompileEnvironment env) {
+        myInstanceEnvironment = env;
+        this.err = env.getErrorHandler();
+    }
+
     // -----------------------------------------------------------
     // Contains Methods
     // -----------------------------------------------------------
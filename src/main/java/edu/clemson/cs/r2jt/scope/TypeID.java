@@ -59,10 +59,14 @@
 
 package edu.clemson.cs.r2jt.scope;
 
+import java.io.Serializable;
+
 import edu.clemson.cs.r2jt.data.PosSymbol;
 import edu.clemson.cs.r2jt.data.Symbol;
 
-public class TypeID {
+public class TypeID implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     // ===========================================================
     // Variables
@@ -64,6 +64,8 @@ import edu.clemson.cs.r2jt.entry.*;
 
 public class TypeScope extends Scope {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
@@ -102,6 +104,7 @@ public class TypeScope extends Scope {
 
     public void addVariable(VarEntry entry) {
         variables.put(entry.getSymbol(), entry);
+        symbolAdded();
     }
 
     public boolean containsVariable(Symbol sym) {
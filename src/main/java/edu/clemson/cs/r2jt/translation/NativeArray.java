@@ -0,0 +1,169 @@
+package edu.clemson.cs.r2jt.translation;
+
+import edu.clemson.cs.r2jt.absyn.ProgramExp;
+import edu.clemson.cs.r2jt.absyn.VariableNameExp;
+import edu.clemson.cs.r2jt.collections.List;
+import edu.clemson.cs.r2jt.collections.Map;
+import edu.clemson.cs.r2jt.data.PosSymbol;
+
+/**
+ * <p>A local array variable that the <code>Translator</code> lowers to a Java
+ * array instead of a <code>Static_Array_Template</code> facility, together
+ * with what it needs to know to do so.</p>
+ *
+ * <p>Element <code>i</code> of the RESOLVE array is element
+ * <code>i - lo</code> of the Java array, so the JVM's own bounds check is
+ * exactly the check that <code>i</code> is between the array's bounds.</p>
+ *
+ * <p>An array of <code>Integer</code>s is an <code>int[]</code>, whose
+ * elements are the entries' values, read and written in place.  Every other
+ * element is an ordinary object of the entry type, so swapping an entry with
+ * a variable and assigning to an entry go through the entry type's facility
+ * just as they would for two variables.  Either way, two entries are swapped
+ * by exchanging the contents of their slots.</p>
+ */
+class NativeArray {
+
+    /**
+     * <p>The concept of the facilities the <code>PreProcessor</code> creates
+     * for array types.</p>
+     */
+    public static final String ARRAY_CONCEPT = "Static_Array_Template";
+
+    private final String myName;
+    private final String myFacilityName;
+    private final String myEntryFacility;
+    private final String myEntryTypeName;
+    private final String myEntryJavaType;
+    private final ProgramExp myLowerBound;
+    private final ProgramExp myUpperBound;
+
+    /**
+     * @param name The array variable.
+     * @param facilityName The <code>Static_Array_Template</code> facility
+     *                     created for it.
+     * @param entryFacility The facility providing the entry type.
+     * @param entryTypeName The RESOLVE name of the entry type.
+     * @param entryJavaType The Java type of an entry.
+     * @param lowerBound The lowest index.
+     * @param upperBound The highest index.
+     */
+    public NativeArray(String name, String facilityName, String entryFacility,
+            String entryTypeName, String entryJavaType, ProgramExp lowerBound,
+            ProgramExp upperBound) {
+        myName = name;
+        myFacilityName = facilityName;
+        myEntryFacility = entryFacility;
+        myEntryTypeName = entryTypeName;
+        myEntryJavaType = entryJavaType;
+        myLowerBound = lowerBound;
+        myUpperBound = upperBound;
+    }
+
+    public String getName() {
+        return myName;
+    }
+
+    public String getFacilityName() {
+        return myFacilityName;
+    }
+
+    public String getEntryFacility() {
+        return myEntryFacility;
+    }
+
+    public String getEntryTypeName() {
+        return myEntryTypeName;
+    }
+
+    public String getEntryJavaType() {
+        return myEntryJavaType;
+    }
+
+    /**
+     * <p>Returns true <strong>iff</strong> the entries are
+     * <code>Integer</code>s, held as Java <code>int</code>s.</p>
+     */
+    public boolean holdsInts() {
+        return "Integer".equals(myEntryTypeName);
+    }
+
+    /**
+     * <p>Returns the Java type of an element of the Java array.</p>
+     */
+    public String getElementJavaType() {
+        String retval = myEntryJavaType;
+        if (holdsInts()) {
+            retval = "int";
+        }
+
+        return retval;
+    }
+
+    public ProgramExp getLowerBound() {
+        return myLowerBound;
+    }
+
+    public ProgramExp getUpperBound() {
+        return myUpperBound;
+    }
+
+    /**
+     * <p>Returns the name of the generated local holding the lowest index.</p>
+     */
+    public String getLowerBoundName() {
+        return "_" + myName + "_Lo";
+    }
+
+    /**
+     * <p>Returns the name of a generated local for use while translating an
+     * operation on this array, distinct from every RESOLVE variable.</p>
+     */
+    public String getTempName(String purpose) {
+        return "_" + myName + "_" + purpose;
+    }
+
+    /**
+     * <p>Returns the array among <code>arrays</code> that a call to the named
+     * operation with the given arguments is an element operation on, or
+     * <code>null</code> if it is not an element operation on any of them.</p>
+     *
+     * @param arrays The arrays, by name.
+     * @param qualifier The qualifier of the call, or <code>null</code>.
+     * @param name The operation called.
+     * @param arguments The arguments of the call.
+     */
+    public static NativeArray getOperand(Map<String, NativeArray> arrays,
+            PosSymbol qualifier, PosSymbol name, List<ProgramExp> arguments) {
+
+        NativeArray retval = null;
+
+        if (isArrayOperation(name.getName()) && arguments != null
+                && !arguments.isEmpty()
+                && arguments.get(0) instanceof VariableNameExp) {
+
+            NativeArray array =
+                    arrays.get(((VariableNameExp) arguments.get(0)).getName()
+                            .getName());
+
+            if (array != null
+                    && (qualifier == null || qualifier.getName().equals(
+                            array.myFacilityName))) {
+                retval = array;
+            }
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Returns true <strong>iff</strong> <code>name</code> is one of the
+     * <code>Static_Array_Template</code> operations the
+     * <code>PreProcessor</code> rewrites array accesses into, all of which
+     * take the array as their first argument.</p>
+     */
+    public static boolean isArrayOperation(String name) {
+        return "Swap_Entry".equals(name) || "Swap_Two_Entries".equals(name)
+                || "Assign_Entry".equals(name) || "Entry_Replica".equals(name);
+    }
+}
@@ -0,0 +1,96 @@
+package edu.clemson.cs.r2jt.translation;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import edu.clemson.cs.r2jt.absyn.CallStmt;
+import edu.clemson.cs.r2jt.absyn.ProgramExp;
+import edu.clemson.cs.r2jt.absyn.ProgramFunctionExp;
+import edu.clemson.cs.r2jt.absyn.ProgramParamExp;
+import edu.clemson.cs.r2jt.absyn.VariableArrayExp;
+import edu.clemson.cs.r2jt.absyn.VariableNameExp;
+import edu.clemson.cs.r2jt.collections.List;
+import edu.clemson.cs.r2jt.collections.Map;
+import edu.clemson.cs.r2jt.data.PosSymbol;
+import edu.clemson.cs.r2jt.treewalk.TreeWalkerVisitor;
+
+/**
+ * <p>Finds which of a procedure's candidate native arrays are used other than
+ * through the element operations of <code>Static_Array_Template</code>, for
+ * instance by being passed whole to another operation.  Such an array must
+ * keep its facility, since whatever receives it expects one.</p>
+ *
+ * <p>Walk each statement of the procedure, then ask for
+ * {@link #getEscapingArrays()}.  This class is public because the
+ * <code>TreeWalker</code> cannot otherwise call its methods.</p>
+ */
+public class NativeArrayUseChecker extends TreeWalkerVisitor {
+
+    private final Map<String, NativeArray> myCandidates;
+
+    /**
+     * <p>Uses of candidates as the array argument of an element operation, by
+     * identity, so that the same name elsewhere is still noticed.</p>
+     */
+    private final Set<VariableNameExp> myElementUses =
+            Collections.newSetFromMap(
+                    new IdentityHashMap<VariableNameExp, Boolean>());
+
+    private final Set<String> myEscaping = new HashSet<String>();
+
+    public NativeArrayUseChecker(Map<String, NativeArray> candidates) {
+        myCandidates = candidates;
+    }
+
+    /**
+     * <p>Returns the names of the candidates used other than element by
+     * element in the statements walked so far.</p>
+     */
+    public Set<String> getEscapingArrays() {
+        return myEscaping;
+    }
+
+    @Override
+    public void preCallStmt(CallStmt stmt) {
+        noteElementUse(stmt.getQualifier(), stmt.getName(), stmt
+                .getArguments());
+    }
+
+    @Override
+    public void preProgramParamExp(ProgramParamExp exp) {
+        noteElementUse(null, exp.getName(), exp.getArguments());
+    }
+
+    @Override
+    public void preProgramFunctionExp(ProgramFunctionExp exp) {
+        noteElementUse(exp.getQualifier(), exp.getName(), exp.getArguments());
+    }
+
+    @Override
+    public void preVariableNameExp(VariableNameExp exp) {
+        String name = exp.getName().getName();
+        if (myCandidates.containsKey(name) && !myElementUses.contains(exp)) {
+            myEscaping.add(name);
+        }
+    }
+
+    @Override
+    public void preVariableArrayExp(VariableArrayExp exp) {
+        // The PreProcessor should have rewritten all of these
+        String name = exp.getName().getName();
+        if (myCandidates.containsKey(name)) {
+            myEscaping.add(name);
+        }
+    }
+
+    private void noteElementUse(PosSymbol qualifier, PosSymbol name,
+            List<ProgramExp> arguments) {
+
+        if (NativeArray.getOperand(myCandidates, qualifier, name,
+                arguments) != null) {
+            myElementUses.add((VariableNameExp) arguments.get(0));
+        }
+    }
+}
@@ -86,6 +86,7 @@ import edu.clemson.cs.r2jt.init.Environment;
 import edu.clemson.cs.r2jt.analysis.TypeResolutionException;
 import edu.clemson.cs.r2jt.analysis.ProgramExpTypeResolver;
 import edu.clemson.cs.r2jt.archiving.Archiver;
+import edu.clemson.cs.r2jt.treewalk.TreeWalker;
 
 // This version has been improved to a point where it's useable.
 // A variety of Resolve concepts, implementations, enhancements, and facilities
@@ -105,6 +106,10 @@ public class Translator extends ResolveConceptualVisitor {
     private static final String FLAG_DESC_TRANSLATE_CLEAN =
             "Regenerates Java code for all supporting RESOLVE files.";
 
+    private static final String FLAG_DESC_NATIVE_ARRAYS =
+            "Translate local arrays of Integer, Boolean, Character, or "
+                    + "Char_Str to Java arrays.";
+
     /**
      * <p>The main translator flag.  Tells the compiler convert
      * RESOLVE source code to Java source code.</p>
@@ -120,6 +125,16 @@ public class Translator extends ResolveConceptualVisitor {
             new Flag(FLAG_SECTION_NAME, "translateClean",
                     FLAG_DESC_TRANSLATE_CLEAN);
 
+    /**
+     * <p>Tells the translator to represent a local array variable whose
+     * entries are of a primitive-backed type as a Java array of its entries,
+     * rather than through a <code>Static_Array_Template</code> facility,
+     * wherever the array is only ever used an entry at a time.</p>
+     */
+    public static final Flag FLAG_NATIVE_ARRAYS =
+            new Flag(FLAG_SECTION_NAME, "nativeArrays",
+                    FLAG_DESC_NATIVE_ARRAYS);
+
     private static String IMPORT_ARRAY =
             "import RESOLVE.Main.Concepts.Standard.Static_Array.*;\n";
 
@@ -146,6 +161,9 @@ public class Translator extends ResolveConceptualVisitor {
     //    private StringBuffer        parmOpBuf          = new StringBuffer(); // removed all its uses
     private List<String> exportedTypeNames = new List<String>();
     private Map<String, String> castLookUpMap = new Map<String, String>();
+    // arrays of the procedure being translated that are lowered to Java arrays
+    private Map<String, NativeArray> nativeArrays =
+            new Map<String, NativeArray>();
     private List<String> importList;
     private List<String> parmOpList;
     //  removed the uses of the following 3 globals
@@ -1479,25 +1497,11 @@ public class Translator extends ResolveConceptualVisitor {
                                     castExp.append("(");
                                     ModuleArgumentItem arrayType =
                                             fDec.getConceptParams().get(0);
-                                    if (arrayType.getName().getName().equals(
-                                            "Integer")) {
-                                        castExp
-                                                .append("Integer_Template.Integer");
-                                    }
-                                    else if (arrayType.getName().getName()
-                                            .equals("Boolean")) {
-                                        castExp
-                                                .append("Boolean_Template.Boolean");
-                                    }
-                                    else if (arrayType.getName().getName()
-                                            .equals("Char_Str")) {
-                                        castExp
-                                                .append("Char_Str_Template.Char_Str");
-                                    }
-                                    else if (arrayType.getName().getName()
-                                            .equals("Character")) {
-                                        castExp
-                                                .append("Character_Template.Character");
+                                    String entryType =
+                                            primitiveJavaType(arrayType
+                                                    .getName().getName());
+                                    if (entryType != null) {
+                                        castExp.append(entryType);
                                     }
                                     castExp.append(")");
                                     castLookUpMap.put(name.toString(), castExp
@@ -1639,6 +1643,8 @@ public class Translator extends ResolveConceptualVisitor {
 
         operBuf.append(") {\n");
 
+        setNativeArrays(findNativeArrays(dec));
+
         if (retTy instanceof NameTy) {
             operBuf.append("\t\t");
             //           FacilityDec fDec = getFacility(((NameTy)retTy).getName().getSymbol());
@@ -1673,26 +1679,22 @@ public class Translator extends ResolveConceptualVisitor {
         Iterator<FacilityDec> facIt = dec.getFacilities().iterator();
         while (facIt.hasNext()) {
             curFac = facIt.next();
-            stmtBuf.setLength(0);
-            visitFacilityDec(curFac);
+            if (!isNativeArrayFacility(curFac)) {
+                stmtBuf.setLength(0);
+                visitFacilityDec(curFac);
+            }
         }
 
-        VarDec curVar;
         Iterator<VarDec> varIt = dec.getVariables().iterator();
         while (varIt.hasNext()) {
-            curVar = varIt.next();
-            stmtBuf.setLength(0);
-            visitVarDec(curVar);
-            operBuf.append(stmtBuf.toString());
+            operBuf.append(translateVarDec(varIt.next()));
         }
         operBuf.append("\n");
 
         List<Statement> statements = dec.getStatements();
         Iterator<Statement> stmtIter = statements.iterator();
         while (stmtIter.hasNext()) {
-            stmtBuf.setLength(0);// clear 
-            visitStatement(stmtIter.next());
-            operBuf.append(stmtBuf.toString());
+            operBuf.append(translateStatement(stmtIter.next()));
         }
 
         if (retTy instanceof NameTy) {
@@ -1703,6 +1705,8 @@ public class Translator extends ResolveConceptualVisitor {
 
         operBuf.append("\t}\n\n");
 
+        setNativeArrays(new Map<String, NativeArray>());
+
         table.endProcedureScope();
         table.endOperationScope();
     }
@@ -1803,12 +1807,32 @@ public class Translator extends ResolveConceptualVisitor {
         return thisBuf.toString();
     }
 
+    // the declaration of a local variable of the current procedure
+    String translateVarDec(VarDec curVar) {
+        stmtBuf.setLength(0);
+        visitVarDec(curVar);
+        return stmtBuf.toString();
+    }
+
+    // a statement of the current procedure
+    String translateStatement(Statement stmt) {
+        stmtBuf.setLength(0);
+        visitStatement(stmt);
+        return stmtBuf.toString();
+    }
+
     //improved this to handle Record type variable declarations
     public void visitVarDec(VarDec curVar) {
         PosSymbol name = curVar.getName();
         Ty ty = curVar.getTy();
-        stmtBuf.append(formVarDecType(name, ty));
-        formVarInit(curVar, stmtBuf);
+        NativeArray array = nativeArrays.get(name.getName());
+        if (array != null) {
+            formNativeArrayDecl(array);
+        }
+        else {
+            stmtBuf.append(formVarDecType(name, ty));
+            formVarInit(curVar, stmtBuf);
+        }
         /*
         stmtBuf.append(name.toString());
         stmtBuf.append(" = ");
@@ -1844,9 +1868,9 @@ public class Translator extends ResolveConceptualVisitor {
     }
 
     public void visitWhileStmt(WhileStmt stmt) {
-        stmtBuf.append("while (((Std_Boolean_Realiz.Boolean)(");
-        visitProgramExp(stmt.getTest());
-        stmtBuf.append(")).val) {\n");
+        stmtBuf.append("while (");
+        appendNativeBoolean(stmt.getTest());
+        stmtBuf.append(") {\n");
         List<Statement> statements = stmt.getStatements();
         Iterator<Statement> stmtIter = statements.iterator();
         while (stmtIter.hasNext()) {
@@ -1860,9 +1884,9 @@ public class Translator extends ResolveConceptualVisitor {
 
     public void visitIfStmt(IfStmt stmt) {
         // if part
-        stmtBuf.append("if (((Std_Boolean_Realiz.Boolean)(");
-        visitProgramExp(stmt.getTest());
-        stmtBuf.append(")).val) {\n");
+        stmtBuf.append("if (");
+        appendNativeBoolean(stmt.getTest());
+        stmtBuf.append(") {\n");
         List<Statement> statements = stmt.getThenclause();
         Iterator<Statement> stmtIt = statements.iterator();
         while (stmtIt.hasNext()) {
@@ -1879,9 +1903,9 @@ public class Translator extends ResolveConceptualVisitor {
             Iterator<ConditionItem> elseifIt = elseifList.iterator();
             while (elseifIt.hasNext()) {
                 condItem = elseifIt.next();
-                stmtBuf.append("else if (((Std_Boolean_Realiz.Boolean)(");
-                visitProgramExp(condItem.getTest());
-                stmtBuf.append(")).val) {\n");
+                stmtBuf.append("else if (");
+                appendNativeBoolean(condItem.getTest());
+                stmtBuf.append(") {\n");
 
                 statements = condItem.getThenclause();
                 stmtIt = statements.iterator();
@@ -1909,6 +1933,13 @@ public class Translator extends ResolveConceptualVisitor {
     }
 
     public void visitCallStmt(CallStmt stmt) {
+        NativeArray array =
+                getNativeArray(stmt.getQualifier(), stmt.getName(), stmt
+                        .getArguments());
+        if (array != null) {
+            visitNativeArrayCall(array, stmt);
+            return;
+        }
 
         if (stmt.getQualifier() != null) {
             stmtBuf.append(stmt.getQualifier().toString());
@@ -2138,7 +2169,26 @@ public class Translator extends ResolveConceptualVisitor {
 
     public void visitFuncAssignStmt(FuncAssignStmt stmt) {
         ProgramExp pgmExp = stmt.getAssign();
-        if (pgmExp instanceof ProgramParamExp
+        NativeArray array = getNativeEntryArray(pgmExp);
+
+        if (array != null && array.holdsInts()) {
+            // X := Entry_Replica(A, i) on a native int array sets the value
+            // of X to the entry
+            appendNativeIntVariable(stmt.getVar());
+            stmtBuf.append(" = ");
+            appendNativeEntry(array, getCallArguments(pgmExp).get(1));
+        }
+        else if (array != null) {
+            // X := Entry_Replica(A, i) on a native array copies the entry
+            // into X, just as X := Y would, rather than making X share it
+            stmtBuf.append(array.getEntryFacility());
+            stmtBuf.append(".assign(");
+            visitVariableExp(stmt.getVar());
+            stmtBuf.append(", ");
+            visitProgramExp(pgmExp);
+            stmtBuf.append(")");
+        }
+        else if (pgmExp instanceof ProgramParamExp
                 || pgmExp instanceof ProgramIntegerExp
                 || pgmExp instanceof ProgramCharExp
                 || pgmExp instanceof ProgramStringExp
@@ -2426,26 +2476,48 @@ public class Translator extends ResolveConceptualVisitor {
         }
         else if (pgmExp instanceof ProgramDoubleExp) {}
         else if (pgmExp instanceof ProgramFunctionExp) {
-            // Since Entry_Replica operation returns something of RType, we need to cast it to the proper type
-            // when using it as parameter to a function invokation.
-            // - YS
-            if (((ProgramFunctionExp) pgmExp).getName().getName().equals(
-                    "Entry_Replica")) {
-                VariableExp tempExp =
-                        (VariableExp) ((ProgramFunctionExp) pgmExp)
-                                .getArguments().get(0);
-                if (tempExp instanceof VariableNameExp) {
-                    VariableNameExp arrayName = (VariableNameExp) tempExp;
-                    stmtBuf.append(castLookUp(arrayName.getName().getName()));
-                }
-                else if (tempExp instanceof VariableDotExp) {
+            ProgramFunctionExp exp = (ProgramFunctionExp) pgmExp;
+            NativeArray array =
+                    getNativeArray(exp.getQualifier(), exp.getName(), exp
+                            .getArguments());
+            if (array != null && array.holdsInts()) {
+                // Entry_Replica of a native int array, where an Integer is
+                // expected: a new one holding the entry's value
+                stmtBuf.append(array.getEntryFacility());
+                stmtBuf.append(".createInteger(");
+                appendNativeEntry(array, exp.getArguments().get(1));
+                stmtBuf.append(")");
+            }
+            else if (array != null) {
+                // Entry_Replica of a native array: the entry is read in
+                // place, just as a variable would be in the same position
+                appendNativeEntry(array, exp.getArguments().get(1));
+            }
+            else {
+                // Since Entry_Replica operation returns something of RType,
+                // we need to cast it to the proper type when using it as
+                // parameter to a function invokation.
+                // - YS
+                if (((ProgramFunctionExp) pgmExp).getName().getName().equals(
+                        "Entry_Replica")) {
+                    VariableExp tempExp =
+                            (VariableExp) ((ProgramFunctionExp) pgmExp)
+                                    .getArguments().get(0);
+                    if (tempExp instanceof VariableNameExp) {
+                        VariableNameExp arrayName = (VariableNameExp) tempExp;
+                        stmtBuf
+                                .append(castLookUp(arrayName.getName()
+                                        .getName()));
+                    }
+                    else if (tempExp instanceof VariableDotExp) {
 
-                    // TODO: Check to see how this needs to work.
-                    //VariableDotExp arrayName = (VariableDotExp) tempExp;
-                    //stmtBuf.append(castLookUp(arrayName.toString()));
+                        // TODO: Check to see how this needs to work.
+                        //VariableDotExp arrayName = (VariableDotExp) tempExp;
+                        //stmtBuf.append(castLookUp(arrayName.toString()));
+                    }
                 }
+                visitProgramFunctionExp((ProgramFunctionExp) pgmExp);
             }
-            visitProgramFunctionExp((ProgramFunctionExp) pgmExp);
         }
         else if (pgmExp instanceof ProgramIntegerExp) {
             stmtBuf.append("Std_Integer_Fac.createInteger(");
@@ -2882,6 +2954,411 @@ public class Translator extends ResolveConceptualVisitor {
         return thisBuf.toString();
     }
 
+    // -----------------------------------------------------------
+    // Native Arrays
+    // -----------------------------------------------------------
+
+    /* Finds the local arrays of dec that can be translated to Java arrays: 
+     * those given a Static_Array_Template facility of their own by the
+     * PreProcessor, whose entries are of a primitive-backed type, and which
+     * the statements of dec only ever use an entry at a time.  Finds none
+     * unless native arrays were asked for.
+     */
+    private Map<String, NativeArray> findNativeArrays(ProcedureDec dec) {
+        Map<String, NativeArray> arrays = new Map<String, NativeArray>();
+
+        if (myInstanceEnvironment.flags.isFlagSet(FLAG_NATIVE_ARRAYS)) {
+            Map<String, FacilityDec> arrayFacs = new Map<String, FacilityDec>();
+            Iterator<FacilityDec> facIt = dec.getFacilities().iterator();
+            while (facIt.hasNext()) {
+                FacilityDec curFac = facIt.next();
+                if (NativeArray.ARRAY_CONCEPT.equals(curFac.getConceptName()
+                        .getName())) {
+                    arrayFacs.put(curFac.getName().getName(), curFac);
+                }
+            }
+
+            Iterator<VarDec> varIt = dec.getVariables().iterator();
+            while (varIt.hasNext()) {
+                VarDec curVar = varIt.next();
+                if (curVar.getTy() instanceof NameTy) {
+                    PosSymbol qualifier =
+                            ((NameTy) curVar.getTy()).getQualifier();
+                    if (qualifier != null
+                            && arrayFacs.containsKey(qualifier.getName())) {
+                        NativeArray array =
+                                formNativeArray(curVar, arrayFacs.get(qualifier
+                                        .getName()));
+                        if (array != null) {
+                            arrays.put(array.getName(), array);
+                        }
+                    }
+                }
+            }
+
+            if (!arrays.isEmpty()) {
+                NativeArrayUseChecker checker =
+                        new NativeArrayUseChecker(arrays);
+                TreeWalker tw = new TreeWalker(checker);
+                Iterator<Statement> stmtIt = dec.getStatements().iterator();
+                while (stmtIt.hasNext()) {
+                    tw.visit(stmtIt.next());
+                }
+                java.util.Iterator<String> escapingIt =
+                        checker.getEscapingArrays().iterator();
+                while (escapingIt.hasNext()) {
+                    arrays.remove(escapingIt.next());
+                }
+            }
+        }
+
+        return arrays;
+    }
+
+    // returns null if the entries of the array are not of a primitive-backed
+    // type
+    private NativeArray formNativeArray(VarDec curVar, FacilityDec arrayFac) {
+        NativeArray array = null;
+
+        List<ModuleArgumentItem> args = arrayFac.getConceptParams();
+        if (args.size() == 3 && args.get(0).getName() != null
+                && args.get(1).getEvalExp() != null
+                && args.get(2).getEvalExp() != null) {
+            NameTy entryTy =
+                    new NameTy(args.get(0).getQualifier(), args.get(0)
+                            .getName());
+            String entryTypeName = entryTy.getName().getName();
+            String entryJavaType = primitiveJavaType(entryTypeName);
+            String entryFacName = getFacilityNameFromNameTy(entryTy);
+            if (entryJavaType != null && entryFacName != null) {
+                array =
+                        new NativeArray(curVar.getName().getName(), arrayFac
+                                .getName().getName(), entryFacName,
+                                entryTypeName, entryJavaType, args.get(1)
+                                        .getEvalExp(), args.get(2)
+                                        .getEvalExp());
+            }
+        }
+
+        return array;
+    }
+
+    // the Java type of the standard types that are backed by a Java value
+    private String primitiveJavaType(String typeName) {
+        String javaType = null;
+        if ("Integer".equals(typeName)) {
+            javaType = "Integer_Template.Integer";
+        }
+        else if ("Boolean".equals(typeName)) {
+            javaType = "Boolean_Template.Boolean";
+        }
+        else if ("Char_Str".equals(typeName)) {
+            javaType = "Char_Str_Template.Char_Str";
+        }
+        else if ("Character".equals(typeName)) {
+            javaType = "Character_Template.Character";
+        }
+        return javaType;
+    }
+
+    // the arrays of the current procedure to translate to Java arrays
+    void setNativeArrays(Map<String, NativeArray> arrays) {
+        nativeArrays = arrays;
+    }
+
+    private boolean isNativeArrayFacility(FacilityDec dec) {
+        boolean isNative = false;
+        java.util.Iterator<NativeArray> arrayIt =
+                nativeArrays.values().iterator();
+        while (arrayIt.hasNext() && !isNative) {
+            isNative =
+                    arrayIt.next().getFacilityName().equals(
+                            dec.getName().getName());
+        }
+        return isNative;
+    }
+
+    private NativeArray getNativeArray(PosSymbol qualifier, PosSymbol name,
+            List<ProgramExp> arguments) {
+        return NativeArray.getOperand(nativeArrays, qualifier, name, arguments);
+    }
+
+    /* Declares the array and fills it with initial values of its entry type:
+     *
+     *     final int _A_Lo = lo;
+     *     Boolean_Template.Boolean[] A =
+     *             new Boolean_Template.Boolean[hi - _A_Lo + 1];
+     *     for (int _A_k = 0; _A_k < A.length; _A_k++) {
+     *         A[_A_k] = Std_Boolean_Fac.createBoolean();
+     *     }
+     *
+     * An int array needs no filling, since Java already starts its elements
+     * at 0, the initial value of an Integer.
+     */
+    private void formNativeArrayDecl(NativeArray array) {
+        String name = array.getName();
+        String loName = array.getLowerBoundName();
+        String k = array.getTempName("k");
+
+        stmtBuf.append("\t\tfinal int ");
+        stmtBuf.append(loName);
+        stmtBuf.append(" = ");
+        appendNativeInt(array.getLowerBound());
+        stmtBuf.append(";\n");
+
+        stmtBuf.append("\t\t");
+        stmtBuf.append(array.getElementJavaType());
+        stmtBuf.append("[] ");
+        stmtBuf.append(name);
+        stmtBuf.append(" = new ");
+        stmtBuf.append(array.getElementJavaType());
+        stmtBuf.append("[");
+        appendNativeInt(array.getUpperBound());
+        stmtBuf.append(" - ");
+        stmtBuf.append(loName);
+        stmtBuf.append(" + 1];\n");
+
+        if (!array.holdsInts()) {
+            stmtBuf.append("\t\tfor (int " + k + " = 0; " + k + " < " + name
+                    + ".length; " + k + "++) {\n");
+            stmtBuf.append("\t\t\t" + name + "[" + k + "] = ");
+            stmtBuf.append(array.getEntryFacility());
+            stmtBuf.append(".create");
+            stmtBuf.append(array.getEntryTypeName());
+            stmtBuf.append("();\n");
+            stmtBuf.append("\t\t}\n");
+        }
+    }
+
+    /* Translates Swap_Entry(A, E, i), Assign_Entry(A, E, i), and
+     * Swap_Two_Entries(A, i, j) on a native array.  The first two go through
+     * the entry type's facility as they would for a variable, or set the
+     * values directly for an int array; the last exchanges the entries'
+     * slots.
+     */
+    private void visitNativeArrayCall(NativeArray array, CallStmt stmt) {
+        String callName = stmt.getName().getName();
+        List<ProgramExp> args = stmt.getArguments();
+
+        if ("Swap_Entry".equals(callName) && array.holdsInts()) {
+            String name = array.getName();
+            String i = array.getTempName("i");
+            String e = array.getTempName("e");
+
+            stmtBuf.append("{\n");
+            stmtBuf.append("\t\t\tint " + i + " = ");
+            appendNativeInt(args.get(2));
+            stmtBuf.append(" - " + array.getLowerBoundName() + ";\n");
+            stmtBuf.append("\t\t\tint " + e + " = " + name + "[" + i
+                    + "];\n");
+            stmtBuf.append("\t\t\t" + name + "[" + i + "] = ");
+            appendNativeInt(args.get(1));
+            stmtBuf.append(";\n");
+            stmtBuf.append("\t\t\t");
+            appendNativeIntVariable((VariableExp) args.get(1));
+            stmtBuf.append(" = " + e + ";\n");
+            stmtBuf.append("\t\t}");
+        }
+        else if ("Assign_Entry".equals(callName) && array.holdsInts()) {
+            appendNativeEntry(array, args.get(2));
+            stmtBuf.append(" = ");
+            appendNativeInt(args.get(1));
+            stmtBuf.append(";");
+        }
+        else if ("Swap_Entry".equals(callName)
+                || "Assign_Entry".equals(callName)) {
+            stmtBuf.append(array.getEntryFacility());
+            if ("Swap_Entry".equals(callName)) {
+                stmtBuf.append(".swap(");
+            }
+            else {
+                stmtBuf.append(".assign(");
+            }
+            appendNativeEntry(array, args.get(2));
+            stmtBuf.append(", ");
+            visitProgramExp(args.get(1));
+            stmtBuf.append(");");
+        }
+        else if ("Swap_Two_Entries".equals(callName)) {
+            String name = array.getName();
+            String loName = array.getLowerBoundName();
+            String i = array.getTempName("i");
+            String j = array.getTempName("j");
+            String e = array.getTempName("e");
+
+            stmtBuf.append("{\n");
+            stmtBuf.append("\t\t\tint " + i + " = ");
+            appendNativeInt(args.get(1));
+            stmtBuf.append(" - " + loName + ";\n");
+            stmtBuf.append("\t\t\tint " + j + " = ");
+            appendNativeInt(args.get(2));
+            stmtBuf.append(" - " + loName + ";\n");
+            stmtBuf.append("\t\t\t" + array.getElementJavaType() + " " + e
+                    + " = " + name + "[" + i + "];\n");
+            stmtBuf.append("\t\t\t" + name + "[" + i + "] = " + name + "[" + j
+                    + "];\n");
+            stmtBuf.append("\t\t\t" + name + "[" + j + "] = " + e + ";\n");
+            stmtBuf.append("\t\t}");
+        }
+        else {
+            assert false : callName + " is not an array statement";
+        }
+    }
+
+    // the entry of the array at the given RESOLVE index
+    private void appendNativeEntry(NativeArray array, ProgramExp index) {
+        stmtBuf.append(array.getName());
+        stmtBuf.append("[");
+        appendNativeInt(index);
+        stmtBuf.append(" - ");
+        stmtBuf.append(array.getLowerBoundName());
+        stmtBuf.append("]");
+    }
+
+    // the arguments of a call to an operation, written either way, or null
+    // if exp is not one
+    private List<ProgramExp> getCallArguments(ProgramExp exp) {
+        List<ProgramExp> args = null;
+        if (exp instanceof ProgramParamExp) {
+            args = ((ProgramParamExp) exp).getArguments();
+        }
+        else if (exp instanceof ProgramFunctionExp) {
+            args = ((ProgramFunctionExp) exp).getArguments();
+        }
+        return args;
+    }
+
+    /* The native array exp is an Entry_Replica of, or null if it is not one.
+     * The PreProcessor writes A[i] as a ProgramParamExp, which analysis
+     * gives a qualified ProgramFunctionExp as its meaning; either may reach
+     * here.
+     */
+    private NativeArray getNativeEntryArray(ProgramExp exp) {
+        NativeArray array = null;
+        if (exp instanceof ProgramParamExp) {
+            ProgramParamExp pExp = (ProgramParamExp) exp;
+            array = getNativeArray(null, pExp.getName(), pExp.getArguments());
+            if (array == null && pExp.getSemanticExp() != null) {
+                array = getNativeEntryArray(pExp.getSemanticExp());
+            }
+        }
+        else if (exp instanceof ProgramFunctionExp) {
+            ProgramFunctionExp fExp = (ProgramFunctionExp) exp;
+            array =
+                    getNativeArray(fExp.getQualifier(), fExp.getName(), fExp
+                            .getArguments());
+        }
+        return array;
+    }
+
+    // the int array exp is an Entry_Replica of, or null if it is not one
+    private NativeArray getNativeIntEntryArray(ProgramExp exp) {
+        NativeArray array = getNativeEntryArray(exp);
+        if (array != null && !array.holdsInts()) {
+            array = null;
+        }
+        return array;
+    }
+
+    /* The value of the test of an if or while statement as a Java boolean.
+     * The PreProcessor has made any comparison there a call, such as
+     * Less_Or_Equal(A[I], X); one with an entry of an int array compares
+     * the ints,
+     *
+     *     A[((Std_Integer_Realiz.Integer) I).val - _A_Lo] <=
+     *             ((Std_Integer_Realiz.Integer) X).val
+     *
+     * rather than making an Integer of the entry to compare through its
+     * facility.
+     */
+    private void appendNativeBoolean(ProgramExp test) {
+        String comparison = null;
+        List<ProgramExp> args = getCallArguments(test);
+        if (args != null && args.size() == 2) {
+            NativeArray array = getNativeIntEntryArray(args.get(0));
+            if (array == null) {
+                array = getNativeIntEntryArray(args.get(1));
+            }
+            if (array != null) {
+                comparison = getIntComparison(test, array);
+            }
+        }
+
+        if (comparison != null) {
+            appendNativeInt(args.get(0));
+            stmtBuf.append(" " + comparison + " ");
+            appendNativeInt(args.get(1));
+        }
+        else {
+            stmtBuf.append("((Std_Boolean_Realiz.Boolean)(");
+            visitProgramExp(test);
+            stmtBuf.append(")).val");
+        }
+    }
+
+    // the Java operator for the comparison call of the entry type of array,
+    // or null if the call is not one
+    private String getIntComparison(ProgramExp call, NativeArray array) {
+        PosSymbol qualifier = null;
+        String name;
+        if (call instanceof ProgramParamExp) {
+            name = ((ProgramParamExp) call).getName().getName();
+        }
+        else {
+            qualifier = ((ProgramFunctionExp) call).getQualifier();
+            name = ((ProgramFunctionExp) call).getName().getName();
+        }
+
+        String comparison = null;
+        if (qualifier == null
+                || qualifier.getName().equals(array.getEntryFacility())) {
+            if ("Are_Equal".equals(name)) {
+                comparison = "==";
+            }
+            else if ("Are_Not_Equal".equals(name)) {
+                comparison = "!=";
+            }
+            else if ("Less".equals(name)) {
+                comparison = "<";
+            }
+            else if ("Less_Or_Equal".equals(name)) {
+                comparison = "<=";
+            }
+            else if ("Greater".equals(name)) {
+                comparison = ">";
+            }
+            else if ("Greater_Or_Equal".equals(name)) {
+                comparison = ">=";
+            }
+        }
+        return comparison;
+    }
+
+    // the value of an Integer expression as a Java int
+    private void appendNativeInt(ProgramExp exp) {
+        NativeArray array = getNativeIntEntryArray(exp);
+
+        if (exp instanceof ProgramIntegerExp) {
+            stmtBuf.append(((ProgramIntegerExp) exp).getValue());
+        }
+        else if (array != null) {
+            // an entry of an int array is already one
+            appendNativeEntry(array, getCallArguments(exp).get(1));
+        }
+        else {
+            stmtBuf.append("((Std_Integer_Realiz.Integer) ");
+            visitProgramExp(exp);
+            stmtBuf.append(").val");
+        }
+    }
+
+    // the value of an Integer variable as a Java int, for assigning to
+    private void appendNativeIntVariable(VariableExp var) {
+        stmtBuf.append("((Std_Integer_Realiz.Integer) ");
+        visitVariableExp(var);
+        stmtBuf.append(").val");
+    }
+
     // this has been rewritten, reusing formVarDecType to handle all cases, in general
     // this used to be recordVarDeclarations
     private void recordVarDeclarations(List<VarDec> varList,
@@ -4334,19 +4811,16 @@ public class Translator extends ResolveConceptualVisitor {
         String inFile = file.toString();
         String[] temp = inFile.split("\\.");
         String ext = temp[temp.length - 1];
-        if (!onNoCompileList(file)) {
-            if (ext.equals("co") || ext.equals("rb") || ext.equals("en")
-                    || ext.equals("fa")) {
-                String javaName = modifyString(inFile, "\\." + ext, ".java");
-                File javaFile = new File(javaName);
-                //addFileToArchive(javaFile);
-                if (!javaFile.exists() || sourceNewerThan(file, javaFile)) {
-                    translate = true;
-                }
-                else if (myInstanceEnvironment.flags
-                        .isFlagSet(FLAG_TRANSLATE_CLEAN)) {
-                    translate = true;
-                }
+        if (isTranslatable(file)) {
+            String javaName = modifyString(inFile, "\\." + ext, ".java");
+            File javaFile = new File(javaName);
+            //addFileToArchive(javaFile);
+            if (!javaFile.exists() || sourceNewerThan(file, javaFile)) {
+                translate = true;
+            }
+            else if (myInstanceEnvironment.flags
+                    .isFlagSet(FLAG_TRANSLATE_CLEAN)) {
+                translate = true;
             }
             /*if(myInstanceEnvironment.flags.isFlagSet(FLAG_TRANSLATE_CLEAN)){
             	translate = true;
@@ -4355,6 +4829,21 @@ public class Translator extends ResolveConceptualVisitor {
         return translate;
     }
 
+    /**
+     * Method to check if the file is one that is translated to Java at all,
+     * whether or not its translation is currently up to date
+     * 
+     * @param file the File that the compiler is currently attempting to translate
+     * @return true if the File has a Java translation
+     */
+    public boolean isTranslatable(File file) {
+        String[] temp = file.toString().split("\\.");
+        String ext = temp[temp.length - 1];
+        return !onNoCompileList(file)
+                && (ext.equals("co") || ext.equals("rb") || ext.equals("en")
+                        || ext.equals("fa"));
+    }
+
     /**
      * Method to check the to see if the File is on the list of files not to translate
      * 
@@ -4405,5 +4894,6 @@ public class Translator extends ResolveConceptualVisitor {
 
     public static final void setUpFlags() {
         FlagDependencies.addRequires(FLAG_TRANSLATE_CLEAN, FLAG_TRANSLATE);
+        FlagDependencies.addRequires(FLAG_NATIVE_ARRAYS, FLAG_TRANSLATE);
     }
 }
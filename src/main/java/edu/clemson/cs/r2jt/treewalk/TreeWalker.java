@@ -63,6 +63,8 @@ public class TreeWalker {
 
     private TreeWalkerVisitor myVisitor;
 
+    private final VisitorMethodTable myMethods;
+
     /**
      * Constructs a new <code>TreeWalker</code> that applies the logic of
      * <code>TreeWalkerVisitor</code> to a RESOLVE abstract syntax tree.
@@ -71,6 +73,7 @@ public class TreeWalker {
      */
     public TreeWalker(TreeWalkerVisitor visitor) {
         this.myVisitor = visitor;
+        this.myMethods = VisitorMethodTable.forVisitor(visitor.getClass());
     }
 
     /**
@@ -133,65 +136,29 @@ public class TreeWalker {
             myVisitor.postAny(e[0]);
         }
 
-        // Get the heirarchy of classes from which this node inherits
-        // e.g., [ConceptModuleDec, ModuleDec, Dec, ResolveConceptualElement]
-        Class<?> elementClass = e[0].getClass();
-        ArrayList<Class<?>> classHierarchy = new ArrayList<Class<?>>();
-
+        // Get the methods to invoke, in order
+        Method[] visitorMethods;
         if (list) {
-            classHierarchy.add(((VirtualListNode) e[0]).getParent().getClass());
-        }
-        else if (pre || post) {
-            while (elementClass != ResolveConceptualElement.class) {
-                if (post) {
-                    classHierarchy.add(elementClass);
-                }
-                else {
-                    classHierarchy.add(0, elementClass);
-                }
-                elementClass = elementClass.getSuperclass();
-            }
+            VirtualListNode listNode = (VirtualListNode) e[0];
+            visitorMethods = myMethods.getListMethods(prefix, listNode);
+            e[0] = listNode.getParent();
         }
         else {
-            classHierarchy.add(elementClass);
+            visitorMethods = myMethods.getNodeMethods(prefix, e[0].getClass());
         }
 
-        // Iterate over the class hierarchy
-        Iterator<Class<?>> iter = classHierarchy.iterator();
-        while (iter.hasNext()) {
-            Class<?> currentClass = iter.next();
+        for (int i = 0; i < visitorMethods.length; i++) {
+            Method visitorMethod = visitorMethods[i];
 
-            // Construct name of method
-            String className, methodName;
-            if (!list) {
-                className = currentClass.getSimpleName();
-            }
-            else {
-                className = ((VirtualListNode) e[0]).getNodeName();
-            }
-            methodName = prefix + className;
-
-            // Get parent and child types if this is a list node
-            Class<?> paramType = ResolveConceptualElement.class;
-            if (list) {
-                paramType = ((VirtualListNode) e[0]).getListType();
-                e[0] = ((VirtualListNode) e[0]).getParent();
+            if (visitorMethod == null) {
+                System.err.println("Tree Walker error: method not found.");
+                System.err
+                        .println("The most likely cause of this error is that the TreeWalkerVisitor class"
+                                + "is out of date and needs to be regenerated.");
+                continue;
             }
 
-            // Now try to obtain the proper visitor method
             try {
-                Method visitorMethod;
-                if (pre || post) { // pre and post methods
-                    visitorMethod =
-                            this.myVisitor.getClass().getMethod(methodName,
-                                    currentClass);
-                }
-                else { // mid methods
-                    visitorMethod =
-                            this.myVisitor.getClass().getMethod(methodName,
-                                    currentClass, paramType, paramType);
-                }
-
                 // Invoking the visitor method now!!!
                 visitorMethod.invoke(this.myVisitor, (Object[]) e);
             }
@@ -201,37 +168,20 @@ public class TreeWalker {
                 ex1.getCause().printStackTrace();
                 throw new RuntimeException();
             }
-            catch (NoSuchMethodException ex2) {
-                System.err.println("Tree Walker error: method not found.");
-                System.err
-                        .println("The most likely cause of this error is that the TreeWalkerVisitor class"
-                                + "is out of date and needs to be regenerated.");
-            }
             catch (Exception exn) {
-                // this is probably a "method not found" or invocation
-                // exception, which either indicates a bug or that the
-                // TreeWalkerVisitor class needs to be regenerated
+                // this is probably an invocation exception, which either
+                // indicates a bug or that the TreeWalkerVisitor class needs
+                // to be regenerated
                 exn.printStackTrace();
             }
         }
     }
 
     private Boolean walkOverride(ResolveConceptualElement e) {
-        Class<?> elementClass = e.getClass();
-        ArrayList<Class<?>> classHierarchy = new ArrayList<Class<?>>();
-        while (elementClass != ResolveConceptualElement.class) {
-            classHierarchy.add(0, elementClass);
-            elementClass = elementClass.getSuperclass();
-        }
-
-        Iterator<Class<?>> iter = classHierarchy.iterator();
-        while (iter.hasNext()) {
-            Class<?> c = iter.next();
-            String walkMethodName = "walk" + c.getSimpleName();
+        Method[] walkMethods = myMethods.getWalkMethods(e.getClass());
+        for (int i = 0; i < walkMethods.length; i++) {
             try {
-                Method walkMethod =
-                        this.myVisitor.getClass().getMethod(walkMethodName, c);
-                walkMethod.invoke(this.myVisitor, e);
+                walkMethods[i].invoke(this.myVisitor, e);
                 return true;
             }
             catch (Exception ex) { /* do nothing */
@@ -239,4 +189,4 @@ public class TreeWalker {
         }
         return false;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,184 @@
+package edu.clemson.cs.r2jt.treewalk;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import edu.clemson.cs.r2jt.absyn.ResolveConceptualElement;
+import edu.clemson.cs.r2jt.absyn.VirtualListNode;
+
+/**
+ * <p>A <code>VisitorMethodTable</code> holds the visitor methods a
+ * <code>TreeWalker</code> calls for each kind of node, for one visitor class.
+ * Each method is looked up by reflection the first time it is needed and
+ * reused for every later node of the same class, by any walker using the same
+ * kind of visitor.</p>
+ */
+final class VisitorMethodTable {
+
+    private static final ConcurrentMap<Class<?>, VisitorMethodTable> TABLES =
+            new ConcurrentHashMap<Class<?>, VisitorMethodTable>();
+
+    private static final Method[] NO_METHODS = new Method[0];
+
+    private final Class<?> myVisitorClass;
+
+    private final ConcurrentMap<Class<?>, Method[]> myPreMethods =
+            new ConcurrentHashMap<Class<?>, Method[]>();
+    private final ConcurrentMap<Class<?>, Method[]> myMidMethods =
+            new ConcurrentHashMap<Class<?>, Method[]>();
+    private final ConcurrentMap<Class<?>, Method[]> myPostMethods =
+            new ConcurrentHashMap<Class<?>, Method[]>();
+    private final ConcurrentMap<Class<?>, Method[]> myWalkMethods =
+            new ConcurrentHashMap<Class<?>, Method[]>();
+    private final ConcurrentMap<String, Method[]> myListMethods =
+            new ConcurrentHashMap<String, Method[]>();
+
+    private VisitorMethodTable(Class<?> visitorClass) {
+        myVisitorClass = visitorClass;
+    }
+
+    /**
+     * <p>Returns the table for the given visitor class.</p>
+     */
+    public static VisitorMethodTable forVisitor(Class<?> visitorClass) {
+        VisitorMethodTable result = TABLES.get(visitorClass);
+        if (result == null) {
+            TABLES.putIfAbsent(visitorClass, new VisitorMethodTable(
+                    visitorClass));
+            result = TABLES.get(visitorClass);
+        }
+        return result;
+    }
+
+    /**
+     * <p>Returns the "pre", "mid" or "post" methods to call, in order, for a
+     * node of the given class.  "Pre" methods run from the most general class
+     * to the most specific, "post" methods the other way, and there is a 
+     * single "mid" method for the node's own class.  A <code>null</code>
+     * entry marks a method the visitor does not have.</p>
+     */
+    public Method[] getNodeMethods(String prefix, Class<?> nodeClass) {
+        ConcurrentMap<Class<?>, Method[]> cache;
+        if (prefix.equals("pre")) {
+            cache = myPreMethods;
+        }
+        else if (prefix.equals("post")) {
+            cache = myPostMethods;
+        }
+        else {
+            cache = myMidMethods;
+        }
+
+        Method[] result = cache.get(nodeClass);
+        if (result == null) {
+            ArrayList<Class<?>> classHierarchy;
+            if (cache == myMidMethods) {
+                classHierarchy = new ArrayList<Class<?>>();
+                classHierarchy.add(nodeClass);
+            }
+            else {
+                classHierarchy = getClassHierarchy(nodeClass);
+                if (cache == myPostMethods) {
+                    Collections.reverse(classHierarchy);
+                }
+            }
+
+            result = new Method[classHierarchy.size()];
+            for (int i = 0; i < result.length; i++) {
+                Class<?> currentClass = classHierarchy.get(i);
+                String methodName = prefix + currentClass.getSimpleName();
+                if (cache == myMidMethods) {
+                    result[i] =
+                            lookUp(methodName, currentClass,
+                                    ResolveConceptualElement.class,
+                                    ResolveConceptualElement.class);
+                }
+                else {
+                    result[i] = lookUp(methodName, currentClass);
+                }
+            }
+            cache.put(nodeClass, result);
+        }
+        return result;
+    }
+
+    /**
+     * <p>Returns the single "pre", "mid" or "post" method to call for the
+     * given list node, as a one-element array whose entry is
+     * <code>null</code> if the visitor does not have it.</p>
+     */
+    public Method[] getListMethods(String prefix, VirtualListNode node) {
+        Class<?> parentClass = node.getParent().getClass();
+        String key =
+                prefix + ":" + parentClass.getName() + ":" + node.getNodeName();
+
+        Method[] result = myListMethods.get(key);
+        if (result == null) {
+            String methodName = prefix + node.getNodeName();
+            Class<?> paramType = node.getListType();
+
+            result = new Method[1];
+            if (prefix.equals("mid")) {
+                result[0] =
+                        lookUp(methodName, parentClass, paramType, paramType);
+            }
+            else {
+                result[0] = lookUp(methodName, parentClass);
+            }
+            myListMethods.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * <p>Returns the "walk" methods the visitor has for a node of the given
+     * class, from the most general class to the most specific.</p>
+     */
+    public Method[] getWalkMethods(Class<?> nodeClass) {
+        Method[] result = myWalkMethods.get(nodeClass);
+        if (result == null) {
+            ArrayList<Method> found = new ArrayList<Method>();
+            for (Class<?> c : getClassHierarchy(nodeClass)) {
+                Method walkMethod = lookUp("walk" + c.getSimpleName(), c);
+                if (walkMethod != null) {
+                    found.add(walkMethod);
+                }
+            }
+
+            if (found.isEmpty()) {
+                result = NO_METHODS;
+            }
+            else {
+                result = found.toArray(new Method[found.size()]);
+            }
+            myWalkMethods.put(nodeClass, result);
+        }
+        return result;
+    }
+
+    // Get the heirarchy of classes from which a node inherits, most general
+    // first, e.g., [ModuleDec, ConceptModuleDec]
+    private static ArrayList<Class<?>> getClassHierarchy(Class<?> nodeClass) {
+        ArrayList<Class<?>> classHierarchy = new ArrayList<Class<?>>();
+        Class<?> elementClass = nodeClass;
+        while (elementClass != ResolveConceptualElement.class) {
+            classHierarchy.add(0, elementClass);
+            elementClass = elementClass.getSuperclass();
+        }
+        return classHierarchy;
+    }
+
+    private Method lookUp(String methodName, Class<?>... parameterTypes) {
+        Method result;
+        try {
+            result = myVisitorClass.getMethod(methodName, parameterTypes);
+        }
+        catch (NoSuchMethodException ex) {
+            result = null;
+        }
+        return result;
+    }
+}
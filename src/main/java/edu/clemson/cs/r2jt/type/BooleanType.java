@@ -1,5 +1,7 @@
 package edu.clemson.cs.r2jt.type;
 
+import java.io.Serializable;
+
 import edu.clemson.cs.r2jt.data.Location;
 import edu.clemson.cs.r2jt.data.ModuleID;
 import edu.clemson.cs.r2jt.data.PosSymbol;
@@ -8,7 +10,9 @@ import edu.clemson.cs.r2jt.init.Environment;
 import edu.clemson.cs.r2jt.scope.Binding;
 import edu.clemson.cs.r2jt.scope.ScopeID;
 
-public class BooleanType extends Type {
+public class BooleanType extends Type implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     public static final BooleanType INSTANCE = new BooleanType();
 
@@ -35,6 +39,12 @@ public class BooleanType extends Type {
         return myName;
     }
 
+    /* The parser puts INSTANCE into the trees it builds, which may be
+     * written to the module cache. */
+    private Object readResolve() {
+        return INSTANCE;
+    }
+
     // ===========================================================
     // Public Methods
     // ===========================================================
@@ -69,6 +69,8 @@ import edu.clemson.cs.r2jt.scope.ScopeID;
 
 public class ConstructedType extends Type {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
@@ -66,6 +66,8 @@ import edu.clemson.cs.r2jt.scope.ScopeID;
 
 public class FieldItem extends Type {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
@@ -16,6 +16,8 @@ import edu.clemson.cs.r2jt.scope.ScopeID;
  */
 public class IsInType extends Type {
 
+    private static final long serialVersionUID = 1L;
+
     private Type retType = BooleanType.INSTANCE;
 
     private PosSymbol name;
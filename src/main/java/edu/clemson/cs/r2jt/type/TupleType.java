@@ -68,6 +68,8 @@ import edu.clemson.cs.r2jt.scope.ScopeID;
 
 public class TupleType extends Type {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
@@ -59,11 +59,15 @@
 
 package edu.clemson.cs.r2jt.type;
 
+import java.io.Serializable;
+
 import edu.clemson.cs.r2jt.scope.Binding;
 import edu.clemson.cs.r2jt.scope.ScopeID;
 import edu.clemson.cs.r2jt.data.Location;
 
-public abstract class Type {
+public abstract class Type implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     // ==========================================================
     // Public Methods
@@ -156,17 +156,18 @@ public class TypeMatcher {
     // Entry & Gamma matched here*
     // Gamma not found in the typeMap, so it is added with it's value
     //     being t1!
+    // The prover may match types from several threads at once, so the
+    //     lookup-then-record below must happen atomically.
     private boolean matchesToMathFormalType2(Type t1, MathFormalType t2) {
-        Iterator<Symbol> i = typeMap.keyIterator();
-        while (i.hasNext()) {
-            Symbol sym = i.next();
-            if (sym == t2.getSymbol()) {
-                Type type2 = typeMap.get(sym);
-                return mathMatches(t1, type2);
+        Type type2;
+        synchronized (typeMap) {
+            if (!typeMap.containsKey(t2.getSymbol())) {
+                typeMap.put(t2.getSymbol(), t1);
+                return true;
             }
+            type2 = typeMap.get(t2.getSymbol());
         }
-        typeMap.put(t2.getSymbol(), t1);
-        return true;
+        return mathMatches(t1, type2);
     }
 
     private boolean formalTypeMathMatches(FormalType type1, Type t2) {
@@ -6,8 +6,16 @@ import edu.clemson.cs.r2jt.scope.ScopeID;
 
 public class TypeType extends Type {
 
+    private static final long serialVersionUID = 1L;
+
     public static final TypeType INSTANCE = new TypeType();
 
+    /* Keeps INSTANCE unique when a table holding it is read back from
+     * disk. */
+    private Object readResolve() {
+        return INSTANCE;
+    }
+
     @Override
     public Type instantiate(ScopeID sid, Binding binding) {
         // TODO Auto-generated method stub
@@ -67,6 +67,8 @@ import edu.clemson.cs.r2jt.scope.ScopeID;
 
 public class VoidType extends Type {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Constructors
     // ===========================================================
@@ -1,10 +1,12 @@
 package edu.clemson.cs.r2jt.utilities;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * <p>A <code>FlagManager</code> represents an actual configuration of flags, as
@@ -90,6 +92,41 @@ public class FlagManager {
         return myFlags.get(f).arguments.get(parameterName);
     }
 
+    /**
+     * <p>Returns a description of which flags are set and with what
+     * arguments.  Two configurations with the same flags and arguments are
+     * described the same way, whatever order the flags were given in, so the
+     * description can be stored alongside an output to tell whether it was
+     * produced under the current settings.</p>
+     *
+     * @return The description.
+     */
+    public String getSettings() {
+        return getSettings(myFlags.keySet());
+    }
+
+    /**
+     * <p>Returns a description, like {@link #getSettings() getSettings()}'s,
+     * of just which of <code>relevant</code> are set and with what
+     * arguments.</p>
+     *
+     * @param relevant The flags that matter.
+     *
+     * @return The description.
+     */
+    public String getSettings(Collection<Flag> relevant) {
+        Map<String, String> settings = new TreeMap<String, String>();
+        for (Flag f : relevant) {
+            FlagInfo info = myFlags.get(f);
+            if (info != null) {
+                settings.put(f.getName(), new TreeMap<String, String>(
+                        info.arguments).toString());
+            }
+        }
+
+        return settings.toString();
+    }
+
     private String[] processArguments(String[] args)
             throws FlagDependencyException {
 
@@ -59,6 +59,7 @@ import edu.clemson.cs.r2jt.init.CompileEnvironment;
 import edu.clemson.cs.r2jt.proving.absyn.PExp;
 import edu.clemson.cs.r2jt.type.*;
 
+import java.util.Collections;
 import java.util.Hashtable;
 
 public class AssertiveCode implements Cloneable {
@@ -66,21 +67,43 @@ public class AssertiveCode implements Cloneable {
     private ModuleID mySourceModule;
     private ErrorHandler err;
 
-    List<VerificationStatement> assertive_code =
-            new List<VerificationStatement>();
-    Exp confirm;
+    /*
+     * The statements, last first. The chain is shared with clones, so that
+     * branching does not copy everything before the branch point; see
+     * StatementNode.
+     */
+    private StatementNode lastStatement = null;
+
+    /*
+     * Shared with clones until one of them needs to change it in place;
+     * everything else only ever sees copies of it. The rules also build
+     * the expressions of shared statements into it, so once one has been
+     * handed out it is never changed in place without being copied first.
+     */
+    private Exp confirm;
+    private boolean confirmShared = false;
+    private boolean sharedStatementTaken = false;
+
     List<ConcType> freeVars2 = new List<ConcType>();
-    Iterator<VerificationStatement> iter = assertive_code.iterator();
     private CompileEnvironment env;
     int count = 0;
-    static int section = 0;
     String name = "";
     private boolean finalAssertion;
-    static private boolean provePart = false;
 
-    static public List<ConcType> currVars;
-    static public Hashtable<String, Boolean> currVarHash =
-            new Hashtable<String, Boolean>();
+    /**
+     * <p>The VC numbering and the state used while a final assertion is being
+     * rendered.  It is kept per thread rather than in plain static fields so
+     * that compilations running side by side in one process, as they do in a
+     * compile server, cannot see each other's numbering or variables.</p>
+     */
+    private static final ThreadLocal<RenderState> STATE =
+            new ThreadLocal<RenderState>() {
+
+                @Override
+                protected RenderState initialValue() {
+                    return new RenderState();
+                }
+            };
 
     public AssertiveCode(CompileEnvironment env) {
         this.env = env;
@@ -108,7 +131,15 @@ public class AssertiveCode implements Cloneable {
      *
      */
     public static void resetVCNumbering() {
-        section = 0;
+        STATE.get().section = 0;
+    }
+
+    /**
+     * <p>Moves on to the next VC number without rendering a final assertion,
+     * for when the final assertions are not being output.</p>
+     */
+    static void skipVCNumber() {
+        STATE.get().section++;
     }
 
     /**
@@ -125,59 +156,91 @@ public class AssertiveCode implements Cloneable {
         this.name = name;
     }
 
+    /**
+     * <p>Returns a copy of this assertive code.  The copy shares its
+     * statements and final confirm with this one.  Statements the rules only
+     * read stay shared when either takes them off the end; one is copied only
+     * if the rule for it changes it, and then without its expressions.</p>
+     */
     public Object clone() {
         AssertiveCode clone = new AssertiveCode(env);
-        clone.setFinalConfirm((Exp) confirm.clone());
-        clone.setIter(iter);
+        clone.confirm = confirm;
+        clone.confirmShared = true;
+        confirmShared = true;
 
         Iterator<ConcType> k = freeVars2.iterator();
         while (k.hasNext()) {
             clone.addFreeVar((ConcType) (k.next()).clone());
         }
 
-        Iterator<VerificationStatement> j = assertive_code.iterator();
-        while (j.hasNext()) {
-            VerificationStatement tmp = j.next();
-            if ((tmp.getType()) == VerificationStatement.ASSUME) {
-                clone.addAssume((Exp) (((Exp) tmp.getAssertion()).clone()));
-            }
-            else if (tmp.getType() == VerificationStatement.CONFIRM) {
-                clone.addConfirm((Exp) (((Exp) tmp.getAssertion()).clone()));
-            }
-            else if (tmp.getType() == VerificationStatement.CODE) {
-                clone.addCode((Statement) (((Statement) tmp.getAssertion())
-                        .clone()));
-            }
-            else if (tmp.getType() == VerificationStatement.VARIABLE) {
-                clone.addVariableDec((VarDec) (((VarDec) tmp.getAssertion())
-                        .clone()));
-            }
-            else if (tmp.getType() == VerificationStatement.REMEMBER) {
-                clone.addRemember();
-            }
-            else if (tmp.getType() == VerificationStatement.CHANGE
-                    && tmp.getAssertion() instanceof List<?>) {
-                clone.addChange((List<?>) (((List<?>) tmp.getAssertion())
-                        .clone()));
-            }
+        clone.lastStatement = lastStatement;
+        if (lastStatement != null) {
+            lastStatement.owners++;
         }
 
         return clone;
     }
 
+    /**
+     * <p>Gives up this assertive code's share of its remaining statements, so
+     * that clones made from it can take them without copying.  Only the
+     * final confirm may be used afterwards.</p>
+     */
+    public void releaseStatements() {
+        if (lastStatement != null) {
+            lastStatement.owners--;
+            lastStatement = null;
+        }
+    }
+
     public VerificationStatement getLastAssertion() {
-        if (!assertive_code.isEmpty())
-            return assertive_code.remove(assertive_code.size() - 1);
-        else
-            return new VerificationStatement();
+        VerificationStatement retval = null;
+        while (retval == null && lastStatement != null) {
+            StatementNode last = lastStatement;
+            lastStatement = last.previous;
+
+            if (last.owners == 1) {
+                //Nobody else can reach it, so we inherit its hold on the rest
+                retval = last.statement;
+            }
+            else {
+                last.owners--;
+                if (lastStatement != null) {
+                    lastStatement.owners++;
+                }
+                retval = shareOf(last.statement);
+                sharedStatementTaken = true;
+            }
+        }
+
+        if (retval == null) {
+            retval = new VerificationStatement();
+        }
+        return retval;
     }
 
     public void setAssertiveCode(List<VerificationStatement> assertive_code) {
-        this.assertive_code = assertive_code;
+        releaseStatements();
+        Iterator<VerificationStatement> i = assertive_code.iterator();
+        while (i.hasNext()) {
+            append(i.next());
+        }
     }
 
-    public void setIter(Iterator<VerificationStatement> iter) {
-        this.iter = iter;
+    /**
+     * <p>Returns the statements of this assertive code in order.  Any that
+     * the rules would change are made this code's own first; the rest may
+     * still be shared with clones, and are for reading only.</p>
+     */
+    public List<VerificationStatement> getStatements() {
+        List<VerificationStatement> statements =
+                new List<VerificationStatement>();
+        while (lastStatement != null) {
+            statements.add(0, getLastAssertion());
+        }
+        setAssertiveCode(statements);
+
+        return statements;
     }
 
     public void setFreeVars2(List<ConcType> freeVars) {
@@ -185,7 +248,7 @@ public class AssertiveCode implements Cloneable {
     }
 
     public boolean hasAnotherAssertion() {
-        return (!assertive_code.isEmpty());
+        return (lastStatement != null);
     }
 
     public void addFreeVar(ConcType freeVar) {
@@ -194,7 +257,7 @@ public class AssertiveCode implements Cloneable {
     }
 
     public int getSection() {
-        return section;
+        return STATE.get().section;
     }
 
     public List<ConcType> getFreeVars2() {
@@ -213,13 +276,14 @@ public class AssertiveCode implements Cloneable {
     }
 
     static public ConcType getCurrVar(PosSymbol name) {
-        Iterator<ConcType> k = currVars.iterator();
+        RenderState state = STATE.get();
+        Iterator<ConcType> k = state.currVars.iterator();
         while (k.hasNext()) {
             ConcType tmp = k.next();
             if (tmp.getName().toString().equals(name.toString())) {
-                if (currVarHash.get(name.toString()) == null
-                        || currVarHash.get(name.toString()) == false) {
-                    currVarHash.put(name.toString(), true);
+                if (state.currVarHash.get(name.toString()) == null
+                        || state.currVarHash.get(name.toString()) == false) {
+                    state.currVarHash.put(name.toString(), true);
                     return tmp;
                 }
 
@@ -229,19 +293,21 @@ public class AssertiveCode implements Cloneable {
     }
 
     public void addVariableDec(VarDec variables) {
-        assertive_code.add(new VerificationStatement(
-                VerificationStatement.VARIABLE, variables));
+        append(new VerificationStatement(VerificationStatement.VARIABLE,
+                variables));
 
     }
 
     public void insertVariableDec(VarDec variables) {
-        assertive_code.add(0, new VerificationStatement(
+        List<VerificationStatement> statements = getStatements();
+        statements.add(0, new VerificationStatement(
                 VerificationStatement.VARIABLE, variables));
+        setAssertiveCode(statements);
 
     }
 
     public VarDec getVariableDec(String name) {
-        for (VerificationStatement stmt : assertive_code) {
+        for (VerificationStatement stmt : getStatements()) {
             if (stmt.getType() == VerificationStatement.getVariableType()) {
                 if (((VarDec) ((VerificationStatement) stmt).getAssertion())
                         .getName().getName().equals(name)) {
@@ -255,8 +321,7 @@ public class AssertiveCode implements Cloneable {
     }
 
     public void addChange(List<?> list) {
-        assertive_code.add(new VerificationStatement(
-                VerificationStatement.CHANGE, list));
+        append(new VerificationStatement(VerificationStatement.CHANGE, list));
 
     }
 
@@ -268,15 +333,14 @@ public class AssertiveCode implements Cloneable {
     }
 
     public void addCode(Statement stmt) {
-        assertive_code.add(new VerificationStatement(VerificationStatement
-                .getCodeType(), stmt));
+        append(new VerificationStatement(VerificationStatement.getCodeType(),
+                stmt));
     }
 
     public void addStatements(List<Statement> statements) {
         Iterator<Statement> i = statements.iterator();
         while (i.hasNext()) {
-            assertive_code.add(new VerificationStatement(VerificationStatement
-                    .getCodeType(), i.next()));
+            addCode(i.next());
         }
     }
 
@@ -299,6 +363,20 @@ public class AssertiveCode implements Cloneable {
         }
 
         this.confirm = confirm;
+        confirmShared = false;
+    }
+
+    /**
+     * <p>Returns the final confirm itself rather than a copy, for changing it
+     * in place.</p>
+     */
+    Exp getFinalConfirmToModify() {
+        if (confirmShared || sharedStatementTaken) {
+            confirm = (Exp) confirm.clone();
+            confirmShared = false;
+            sharedStatementTaken = false;
+        }
+        return confirm;
     }
 
     public void addAssume(Exp assume) {
@@ -310,17 +388,17 @@ public class AssertiveCode implements Cloneable {
     }
 
     public void addRemember() {
-        assertive_code.add(new VerificationStatement(VerificationStatement
+        append(new VerificationStatement(VerificationStatement
                 .getRememberType()));
     }
 
     private String splitAssertionToString() {
         Iterator<ConcType> freeVar2Iter = freeVars2.iterator();
-        Iterator<VerificationStatement> i = assertive_code.iterator();
+        Iterator<VerificationStatement> i = statementsInOrder().iterator();
         String str = new String();
 
-        currVars = freeVars2;
-        currVarHash.clear();
+        STATE.get().currVars = freeVars2;
+        STATE.get().currVarHash.clear();
 
         // Check to see if we want to output an XML file
         Boolean XMLfile = env.flags.isFlagSet(ResolveCompiler.FLAG_XML_OUT);
@@ -409,14 +487,14 @@ public class AssertiveCode implements Cloneable {
         this.finalAssertion = false;
         //	count = 0;
         if (finalAssert) {
-            section++;
+            STATE.get().section++;
         }//count = ((count / 10) + 1) * 10;    	
         return output;
     }
 
     String assertionToString() {
         Iterator<ConcType> freeVar2Iter = freeVars2.iterator();
-        Iterator<VerificationStatement> i = assertive_code.iterator();
+        Iterator<VerificationStatement> i = statementsInOrder().iterator();
         String str = new String();
         count = 0;
 
@@ -440,7 +518,7 @@ public class AssertiveCode implements Cloneable {
         }
 
         str = str.concat("\n");
-        provePart = true;
+        STATE.get().provePart = true;
 
         while (i.hasNext()) {
             VerificationStatement cur = i.next();
@@ -481,7 +559,7 @@ public class AssertiveCode implements Cloneable {
         }
 
         str = str.concat("Confirm \n" + expToString((Exp) confirm) + ";");
-        provePart = false;
+        STATE.get().provePart = false;
 
         return str;
     }
@@ -547,16 +625,15 @@ public class AssertiveCode implements Cloneable {
         Boolean XMLfile = env.flags.isFlagSet(ResolveCompiler.FLAG_XML_OUT);
 
         while (it.hasNext()) {
-            currVarHash.clear();
+            STATE.get().currVarHash.clear();
 
             InfixExp tmpInf = (InfixExp) it.next();
             if (env.flags.isFlagSet(Verifier.FLAG_ISABELLE_VC)) {
                 PrintAssertions printer = new PrintAssertions(env);
                 updateTheCount();
                 // This will be replaced by code below
-                sb
-                        .append("lemma " + name + "_" + section + "_" + count
-                                + ":\n");
+                sb.append("lemma " + name + "_" + STATE.get().section + "_"
+                        + count + ":\n");
                 if (tmpInf.getLeft() == null) {
                     sb.append("\"[| \n" + " \n|] ");
 
@@ -567,15 +644,15 @@ public class AssertiveCode implements Cloneable {
                             + " \n|] ");
                 }
                 sb.append("\n==> \n");
-                provePart = true;
+                STATE.get().provePart = true;
                 sb.append(printer.clearAndVisitAssertion(tmpInf.getRight()));
 
-                provePart = false;
+                STATE.get().provePart = false;
                 sb.append("\"\n" +
                 //	"apply (((simp only: simp_thms), clarify?)+)?;\n" +
                         "apply auto;\n" + "done\n\n");
 
-                currVarHash.clear();
+                STATE.get().currVarHash.clear();
 
             }
             else {
@@ -596,7 +673,8 @@ public class AssertiveCode implements Cloneable {
                     else {
                         loc = tmpInf.getLocation();
                     }
-                    sb.append("{\"vc\":\"" + section + "_" + count + "\",");
+                    sb.append("{\"vc\":\"" + STATE.get().section + "_" + count
+                            + "\",");
                     sb.append("\"sourceFile\":\""
                             + ((loc != null) ? loc.getFilename() : "") + "\",");
                     sb.append("\"lineNum\":\""
@@ -607,7 +685,8 @@ public class AssertiveCode implements Cloneable {
 
                 /* Stuff to appear within the vc tag element */
                 if (!XMLfile) {
-                    tb.append("\nVC: " + section + "_" + count + ": \n");
+                    tb.append("\nVC: " + STATE.get().section + "_" + count
+                            + ": \n");
                 }
                 tb.append(getLocationInformation(tmpInf) + "\n\n");
                 /* end vc tag element */
@@ -632,7 +711,7 @@ public class AssertiveCode implements Cloneable {
                 //tb.append("Confirm: " + tmpInf.toString(0) + "\n");
                 /* Stuff inside the goal tag */
                 tb.append("Goal:\n");
-                provePart = true;
+                STATE.get().provePart = true;
                 tb.append(printer.clearAndVisitAssertion(tmpInf.getRight()));
                 /* end goal tag */
 
@@ -648,7 +727,7 @@ public class AssertiveCode implements Cloneable {
                 //if(XMLfile) sb.append("</vcGoal>");
                 if (XMLfile)
                     sb.append("\",");
-                provePart = false;
+                STATE.get().provePart = false;
                 //if(XMLfile) sb.append("<vcGiven>");
                 if (XMLfile)
                     sb.append("\"vcGivens\":\"");
@@ -766,7 +845,108 @@ public class AssertiveCode implements Cloneable {
     }
 
     static public boolean isProvePart() {
-        return provePart;
+        return STATE.get().provePart;
+    }
+
+    private void append(VerificationStatement statement) {
+        lastStatement = new StatementNode(statement, lastStatement);
+    }
+
+    /*
+     * The statements in order, for reading only: shared ones are not copied.
+     */
+    private List<VerificationStatement> statementsInOrder() {
+        List<VerificationStatement> statements =
+                new List<VerificationStatement>();
+        for (StatementNode n = lastStatement; n != null; n = n.previous) {
+            statements.add(n.statement);
+        }
+        Collections.reverse(statements);
+
+        return statements;
+    }
+
+    /*
+     * The statement as a clone of the code holding it would have it, with
+     * assumes and confirms as code statements. Only statements a rule might
+     * change are copied, and never their expressions: an assume statement,
+     * whose assertion the assume rule replaces, and the program statements
+     * whose rules have not been shown to leave them alone, which clone()
+     * copies only one level deep. Confirm statements, variables and change
+     * lists are shared. Anything clone() used to leave out gives null.
+     */
+    private static VerificationStatement shareOf(VerificationStatement s) {
+        VerificationStatement retval = null;
+
+        if (s.getType() == VerificationStatement.ASSUME) {
+            retval =
+                    new VerificationStatement(VerificationStatement
+                            .getCodeType(), new AssumeStmt((Exp) s
+                            .getAssertion()));
+        }
+        else if (s.getType() == VerificationStatement.CONFIRM) {
+            ConfirmStmt confirm = new ConfirmStmt();
+            confirm.setAssertion((Exp) s.getAssertion());
+            retval =
+                    new VerificationStatement(VerificationStatement
+                            .getCodeType(), confirm);
+        }
+        else if (s.getType() == VerificationStatement.CODE) {
+            Statement stmt = (Statement) s.getAssertion();
+            if (stmt instanceof ConfirmStmt) {
+                retval = s;
+            }
+            else if (stmt instanceof AssumeStmt) {
+                AssumeStmt assume = (AssumeStmt) stmt;
+                retval =
+                        new VerificationStatement(VerificationStatement
+                                .getCodeType(), new AssumeStmt(assume
+                                .getLocation(), assume.getAssertion()));
+            }
+            else {
+                retval =
+                        new VerificationStatement(VerificationStatement
+                                .getCodeType(), stmt.clone());
+            }
+        }
+        else if (s.getType() == VerificationStatement.VARIABLE
+                || s.getType() == VerificationStatement.REMEMBER) {
+            retval = s;
+        }
+        else if (s.getType() == VerificationStatement.CHANGE
+                && s.getAssertion() instanceof List<?>) {
+            retval = s;
+        }
+
+        return retval;
     }
 
+    private static class RenderState {
+
+        public int section = 0;
+        public boolean provePart = false;
+        public List<ConcType> currVars;
+        public final Hashtable<String, Boolean> currVarHash =
+                new Hashtable<String, Boolean>();
+    }
+
+    /*
+     * One statement in a chain that runs from the last statement back to the
+     * first. owners counts the references to the node, from AssertiveCodes
+     * and from the nodes after it. A node with one owner belongs to whoever
+     * reaches it; one with more is reachable from elsewhere too and is
+     * handed out through shareOf().
+     */
+    private static class StatementNode {
+
+        public final VerificationStatement statement;
+        public final StatementNode previous;
+        public int owners = 1;
+
+        public StatementNode(VerificationStatement statement,
+                StatementNode previous) {
+            this.statement = statement;
+            this.previous = previous;
+        }
+    }
 }
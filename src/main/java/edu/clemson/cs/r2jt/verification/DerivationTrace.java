@@ -0,0 +1,96 @@
+package edu.clemson.cs.r2jt.verification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>Records the steps the <code>Verifier</code> takes while deriving VCs, for
+ * the output of the <code>-verbose</code> flag.</p>
+ *
+ * <p>A trace that was not asked for is disabled, and a disabled trace records
+ * nothing and never renders an assertion, so the rules can report every step
+ * without paying for it.  An enabled trace keeps its steps until it is
+ * rendered for the output file or the web report.</p>
+ */
+class DerivationTrace {
+
+    private static final String RULE_SEPARATOR = "\n_____________________ \n";
+
+    private final boolean myEnabledFlag;
+
+    private final List<Step> mySteps = new ArrayList<Step>();
+
+    public DerivationTrace(boolean enabled) {
+        myEnabledFlag = enabled;
+    }
+
+    public boolean isEnabled() {
+        return myEnabledFlag;
+    }
+
+    /**
+     * <p>Records that a rule was applied, along with the assertive code that
+     * resulted.</p>
+     *
+     * @param heading The text that introduces the rule.
+     * @param assertion The assertive code after the rule was applied.
+     */
+    public void rule(String heading, AssertiveCode assertion) {
+        if (myEnabledFlag) {
+            //The assertive code keeps changing, so it has to be rendered now
+            mySteps.add(new Step(heading, assertion.assertionToString()));
+        }
+    }
+
+    /**
+     * <p>Records some free text, such as the name of the declaration the
+     * following rules belong to.</p>
+     *
+     * @param text The text.
+     */
+    public void note(String text) {
+        if (myEnabledFlag) {
+            mySteps.add(new Step(text, null));
+        }
+    }
+
+    /**
+     * <p>Forgets every step recorded so far.</p>
+     */
+    public void clear() {
+        mySteps.clear();
+    }
+
+    /**
+     * <p>Renders the recorded steps in the order they were recorded.</p>
+     *
+     * @return The text of the trace.
+     */
+    public String render() {
+        StringBuilder retval = new StringBuilder();
+
+        for (Step s : mySteps) {
+            if (s.assertion == null) {
+                retval.append(s.text);
+            }
+            else {
+                retval.append(RULE_SEPARATOR);
+                retval.append(s.text);
+                retval.append(s.assertion);
+            }
+        }
+
+        return retval.toString();
+    }
+
+    private static class Step {
+
+        public final String text;
+        public final String assertion;
+
+        public Step(String text, String assertion) {
+            this.text = text;
+            this.assertion = assertion;
+        }
+    }
+}
@@ -108,8 +108,8 @@ public class Verifier extends ResolveConceptualVisitor {
 
     private boolean isInInterface = false;
 
-    // This buffer holds the verbose data
-    private StringBuffer VCBuffer;
+    // This records the derivation for the verbose output
+    private DerivationTrace myTrace;
 
     // This buffer holds just the VCs
     private StringBuffer assrtBuf = new StringBuffer();
@@ -236,7 +236,10 @@ public class Verifier extends ResolveConceptualVisitor {
         	System.err.println("Something went wrong when creating output file");
         }*/
 
-        VCBuffer = new StringBuffer(buildHeaderComment());
+        myTrace =
+                new DerivationTrace(myInstanceEnvironment.flags
+                        .isFlagSet(FLAG_VERBOSE_VC));
+        myTrace.note(buildHeaderComment());
 
         //Reset some static variables in AssertiveCode, in case the compiler
         //has not been re-instantiated since the last Verification attempt.
@@ -395,9 +398,7 @@ public class Verifier extends ResolveConceptualVisitor {
         if ((Exp) assume.getAssertion() instanceof VarExp
                 && ((VarExp) assume.getAssertion()).getName().toString()
                         .equals(getTrueVarExp().getName().toString())) {
-            VCBuffer.append("\n_____________________ \n");
-            VCBuffer.append("\nAssume Rule Applied and Simplified: \n");
-            VCBuffer.append(assertion.assertionToString());
+            myTrace.rule("\nAssume Rule Applied and Simplified: \n", assertion);
         }
         else {
             Exp conf = assertion.getFinalConfirm();
@@ -410,9 +411,7 @@ public class Verifier extends ResolveConceptualVisitor {
             newConf.setOpName(opName);
             newConf.setRight(conf);
             assertion.setFinalConfirm(newConf);
-            VCBuffer.append("\n_____________________ \n");
-            VCBuffer.append("\nAssume Rule Applied: \n");
-            VCBuffer.append(assertion.assertionToString());
+            myTrace.rule("\nAssume Rule Applied: \n", assertion);
         }
     }
 
@@ -423,9 +422,7 @@ public class Verifier extends ResolveConceptualVisitor {
             assertion.addCode(i.next());
         }
 
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\nAux_Code Rule Applied: \n");
-        VCBuffer.append(assertion.assertionToString());
+        myTrace.rule("\nAux_Code Rule Applied: \n", assertion);
 
     }
 
@@ -457,9 +454,7 @@ public class Verifier extends ResolveConceptualVisitor {
             }
         }
         assertion.setFinalConfirm(finalConf);
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\nChange Rule Applied: \n");
-        VCBuffer.append(assertion.assertionToString());
+        myTrace.rule("\nChange Rule Applied: \n", assertion);
     }
 
     private void applyConfirmRule(VerificationStatement confirm,
@@ -467,9 +462,9 @@ public class Verifier extends ResolveConceptualVisitor {
         if ((Exp) confirm.getAssertion() instanceof VarExp
                 && ((VarExp) confirm.getAssertion()).getName().toString()
                         .equals(getTrueVarExp().getName().toString())) {
-            VCBuffer.append("\n_____________________ \n");
-            VCBuffer.append("\nConfirm Rule Applied and Simplified: \n");
-            VCBuffer.append(assertion.assertionToString());
+            myTrace
+                    .rule("\nConfirm Rule Applied and Simplified: \n",
+                            assertion);
         }
         else {
 
@@ -484,9 +479,7 @@ public class Verifier extends ResolveConceptualVisitor {
             newConf.setRight(conf);
 
             assertion.setFinalConfirm(newConf);
-            VCBuffer.append("\n_____________________ \n");
-            VCBuffer.append("\nConfirm Rule Applied: \n");
-            VCBuffer.append(assertion.assertionToString());
+            myTrace.rule("\nConfirm Rule Applied: \n", assertion);
         }
 
     }
@@ -495,9 +488,7 @@ public class Verifier extends ResolveConceptualVisitor {
         if ((Exp) stmt.getAssertion() instanceof VarExp
                 && ((VarExp) stmt.getAssertion()).getName().toString().equals(
                         getTrueVarExp().getName().toString())) {
-            VCBuffer.append("\n_____________________ \n");
-            VCBuffer.append("\nAssume Rule Applied and Simplified: \n");
-            VCBuffer.append(assertion.assertionToString());
+            myTrace.rule("\nAssume Rule Applied and Simplified: \n", assertion);
         }
         else {
             Exp conf = assertion.getFinalConfirm();
@@ -514,9 +505,7 @@ public class Verifier extends ResolveConceptualVisitor {
             }
             else
                 assertion.setFinalConfirm(conf);
-            VCBuffer.append("\n_____________________ \n");
-            VCBuffer.append("\nAssume Rule Applied: \n");
-            VCBuffer.append(assertion.assertionToString());
+            myTrace.rule("\nAssume Rule Applied: \n", assertion);
         }
     }
 
@@ -594,9 +583,7 @@ public class Verifier extends ResolveConceptualVisitor {
         }
         else {
             ensures = getTrueVarExp();
-            VCBuffer.append("\n_____________________ \n");
-            VCBuffer.append("\nSpec not found \n");
-            VCBuffer.append(assertion.assertionToString());
+            myTrace.rule("\nSpec not found \n", assertion);
 
             System.err.println("Error passed operation not found: "
                     + stmt.getName().asString(1, 1));
@@ -650,14 +637,12 @@ public class Verifier extends ResolveConceptualVisitor {
         			(CallStmt)stmt.clone(), paramsRea, assertion);
         
         	assertion.setFinalConfirm(simpleConf);   	
-        	VCBuffer.append("\n_____________________ \n");
-        	VCBuffer.append("\nSimple Operation Call Rule Applied: \n");
-        	VCBuffer.append(assertion.assertionToString());
+        	myTrace.rule("\nSimple Operation Call Rule Applied: \n", assertion);
         	return;
         	}
         }*/
 
-        VCBuffer.append("\n");
+        myTrace.note("\n");
 
         /* General Call Rule */
 
@@ -710,9 +695,7 @@ public class Verifier extends ResolveConceptualVisitor {
         }
 
         assertion.setFinalConfirm(conf);
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\nOperation Call Rule Applied: \n");
-        VCBuffer.append(assertion.assertionToString());
+        myTrace.rule("\nOperation Call Rule Applied: \n", assertion);
 
     }
 
@@ -721,17 +704,17 @@ public class Verifier extends ResolveConceptualVisitor {
         if ((Exp) stmt.getAssertion() instanceof VarExp
                 && ((VarExp) stmt.getAssertion()).getName().toString().equals(
                         getTrueVarExp().getName().toString())) {
-            VCBuffer.append("\n_____________________ \n");
-            VCBuffer.append("\nConfirm Rule Applied and Simplified: \n");
-            VCBuffer.append(assertion.assertionToString());
+            myTrace
+                    .rule("\nConfirm Rule Applied and Simplified: \n",
+                            assertion);
         }
         else if (assertion.getFinalConfirm() instanceof VarExp
                 && ((VarExp) assertion.getFinalConfirm()).getName().toString()
                         .equals(getTrueVarExp().getName().toString())) {
             assertion.setFinalConfirm(stmt.getAssertion());
-            VCBuffer.append("\n_____________________ \n");
-            VCBuffer.append("\nConfirm Rule Applied and Simplified: \n");
-            VCBuffer.append(assertion.assertionToString());
+            myTrace
+                    .rule("\nConfirm Rule Applied and Simplified: \n",
+                            assertion);
         }
         else {
 
@@ -747,9 +730,7 @@ public class Verifier extends ResolveConceptualVisitor {
             newConf.setRight(conf);
 
             assertion.setFinalConfirm(newConf);
-            VCBuffer.append("\n_____________________ \n");
-            VCBuffer.append("\nConfirm Rule Applied: \n");
-            VCBuffer.append(assertion.assertionToString());
+            myTrace.rule("\nConfirm Rule Applied: \n", assertion);
         }
 
     }
@@ -837,9 +818,7 @@ public class Verifier extends ResolveConceptualVisitor {
         conf = conf.replace(var, replacement);
 
         assertion.setFinalConfirm(conf);
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\nFunction Rule Applied: \n");
-        VCBuffer.append(assertion.assertionToString());
+        myTrace.rule("\nFunction Rule Applied: \n", assertion);
     }
 
     /**
@@ -874,7 +853,14 @@ public class Verifier extends ResolveConceptualVisitor {
         }
         assertion.setName(name);
         myFinalVCs.add(assertion);
-        assrtBuf.append(assertion.assertionToString(true) + "\n\n");
+        if (myTrace.isEnabled()) {
+            //Only the trace is output, but its VCs are numbered as though
+            //this one had been rendered
+            AssertiveCode.skipVCNumber();
+        }
+        else {
+            assrtBuf.append(assertion.assertionToString(true) + "\n\n");
+        }
         return;
     }
 
@@ -969,15 +955,13 @@ public class Verifier extends ResolveConceptualVisitor {
 
         assertion.setFinalConfirm(conf);
 
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\nSwap Rule Applied: \n");
-        VCBuffer.append(assertion.assertionToString());
+        myTrace.rule("\nSwap Rule Applied: \n", assertion);
     }
 
     private void applyEBWhileRuleStmt(WhileStmt stmt, AssertiveCode assertion) {
 
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\nWhile Statement Rule: \n");
+        myTrace.note("\n_____________________ \n");
+        myTrace.note("\nWhile Statement Rule: \n");
 
         /* I want to re-arrange this to convert the while rule into an if statement as does the latest version of the rule */
         /* Part One */
@@ -986,7 +970,7 @@ public class Verifier extends ResolveConceptualVisitor {
         /* Part Two */
         applyPartTwoWhileRule(stmt, assertion);
 
-        VCBuffer.append("\n\tEnd While Rule \n");
+        myTrace.note("\n\tEnd While Rule \n");
 
     }
 
@@ -994,8 +978,9 @@ public class Verifier extends ResolveConceptualVisitor {
 
         /* If Part */
         AssertiveCode ifAssertion = (AssertiveCode) assertion.clone();
-        appendToLocation(ifAssertion.confirm, " , If \"if\" condition at "
-                + stmt.getTest().getLocation().toString() + " is true");
+        appendToLocation(ifAssertion.getFinalConfirmToModify(),
+                " , If \"if\" condition at "
+                        + stmt.getTest().getLocation().toString() + " is true");
 
         Exp conf =
                 (Exp) invk_cond((ProgramExp) stmt.getTest().clone(), assertion)
@@ -1029,18 +1014,17 @@ public class Verifier extends ResolveConceptualVisitor {
             ifAssertion.addCode(i.next());
         }
 
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\nIf Part Rule Applied: \n");
-        VCBuffer.append(ifAssertion.assertionToString());
+        myTrace.rule("\nIf Part Rule Applied: \n", ifAssertion);
 
         applyEBRules(ifAssertion);
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\n\nIf Part Rule Completed \n");
+        myTrace.note("\n_____________________ \n");
+        myTrace.note("\n\nIf Part Rule Completed \n");
 
         /* Negation of If Part */
         AssertiveCode negifAssertion = (AssertiveCode) assertion.clone();
-        appendToLocation(negifAssertion.confirm, " , If \"if\" condition at "
-                + stmt.getTest().getLocation().toString() + " is false");
+        appendToLocation(negifAssertion.getFinalConfirmToModify(),
+                " , If \"if\" condition at "
+                        + stmt.getTest().getLocation().toString() + " is false");
 
         Exp cond = invk_cond((ProgramExp) stmt.getTest().clone(), assertion);
         if (cond != null) {
@@ -1076,14 +1060,14 @@ public class Verifier extends ResolveConceptualVisitor {
             }
         }
 
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\nNegation of If Part Rule Applied: \n");
-        VCBuffer.append(negifAssertion.assertionToString());
+        myTrace.rule("\nNegation of If Part Rule Applied: \n", negifAssertion);
 
+        /* Nothing else looks at these, so let the negation take them */
+        assertion.releaseStatements();
         applyEBRules(negifAssertion);
 
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\n\n\nNegation of If Part Rule Completed\n");
+        myTrace.note("\n_____________________ \n");
+        myTrace.note("\n\n\nNegation of If Part Rule Completed\n");
 
     }
 
@@ -1110,9 +1094,7 @@ public class Verifier extends ResolveConceptualVisitor {
         }
 
         assertion.setFinalConfirm(getTrueVarExp());
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\nIterate Statement Rule Applied: \n");
-        VCBuffer.append(assertion.assertionToString());
+        myTrace.rule("\nIterate Statement Rule Applied: \n", assertion);
 
     }
 
@@ -1233,13 +1215,11 @@ public class Verifier extends ResolveConceptualVisitor {
             part_one.setFinalConfirm(conf);
         }
 
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\n\tPart One: \n");
-        VCBuffer.append(part_one.assertionToString());
+        myTrace.rule("\n\tPart One: \n", part_one);
 
         applyEBRules(part_one);
 
-        VCBuffer.append("\n\n\n\tEnd Part One \n");
+        myTrace.note("\n\n\n\tEnd Part One \n");
 
     }
 
@@ -1319,19 +1299,18 @@ public class Verifier extends ResolveConceptualVisitor {
         }
         part_two.addAssume(negateExp);
 
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\n\tPart Two: \n");
-        VCBuffer.append(part_two.assertionToString());
+        myTrace.rule("\n\tPart Two: \n", part_two);
 
+        assertion.releaseStatements();
         applyEBRules(part_two);
 
-        VCBuffer.append("\n\n\n\tEnd Part Two \n");
+        myTrace.note("\n\n\n\tEnd Part Two \n");
 
     }
 
     private void applyProofRulesToAssertiveCode(Statement stmt,
             AssertiveCode assertion) {
-        VCBuffer.append("\t\t");
+        myTrace.note("\t\t");
 
         if (stmt instanceof FuncAssignStmt) {
             applyEBFuncAssignStmtRule((FuncAssignStmt) stmt, assertion);
@@ -1378,7 +1357,7 @@ public class Verifier extends ResolveConceptualVisitor {
             }
         }
 
-        VCBuffer.append("\n");
+        myTrace.note("\n");
     }
 
     /*
@@ -1391,9 +1370,7 @@ public class Verifier extends ResolveConceptualVisitor {
 
         assertion.setFinalConfirm(conf);
 
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\nRemember Rule Applied: \n");
-        VCBuffer.append(assertion.assertionToString());
+        myTrace.rule("\nRemember Rule Applied: \n", assertion);
     }
 
     private Exp applySimpleCallRule(Exp requires, Exp ensures,
@@ -1478,15 +1455,137 @@ public class Verifier extends ResolveConceptualVisitor {
     private void applySimplificationRules(AssertiveCode assertion) {
         Exp simplified = ((Exp) assertion.getFinalConfirm().clone()).simplify();
 
-        if (!simplified.toString(1).equals(
-                assertion.getFinalConfirm().toString(1))) {
+        if (!sameStructure(simplified, assertion.getFinalConfirm())) {
             assertion.setFinalConfirm(simplified);
-            VCBuffer.append("\n_____________________ \n");
-            VCBuffer.append("Assertion Simplified:" + "\n\n");
-            VCBuffer.append(assertion.assertionToString());
+            myTrace.rule("Assertion Simplified:" + "\n\n", assertion);
         }
     }
 
+    /**
+     * <p>Returns <code>true</code> <strong>iff</strong> <code>e1</code> and
+     * <code>e2</code> are the same expression.  Nodes of the common classes
+     * are compared one at a time by their own names, operators and values,
+     * stopping at the first difference; any other node is compared by its
+     * text, as a whole, since its subexpressions do not show everything it
+     * holds.</p>
+     */
+    private static boolean sameStructure(Exp e1, Exp e2) {
+        boolean retval;
+
+        if (e1 == e2) {
+            retval = true;
+        }
+        else if (e1 == null || e2 == null || e1.getClass() != e2.getClass()
+                || e1.structureHash() != e2.structureHash()) {
+            retval = false;
+        }
+        else if (!hasComparableNodes(e1, e2)) {
+            retval = e1.toString(1).equals(e2.toString(1));
+        }
+        else if (!sameNode(e1, e2)) {
+            retval = false;
+        }
+        else {
+            List<Exp> subExps1 = e1.getSubExpressions();
+            List<Exp> subExps2 = e2.getSubExpressions();
+
+            retval = (subExps1.size() == subExps2.size());
+
+            Iterator<Exp> subExps1Iter = subExps1.iterator();
+            Iterator<Exp> subExps2Iter = subExps2.iterator();
+            while (retval && subExps1Iter.hasNext()) {
+                retval =
+                        sameStructure(subExps1Iter.next(), subExps2Iter.next());
+            }
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Returns <code>true</code> <strong>iff</strong> <code>e1</code> and
+     * <code>e2</code>, of the same class, are nodes that {@link #sameNode
+     * sameNode()} can compare and whose subexpressions are all of their
+     * children.  A function with more than one argument list only shows the
+     * first as subexpressions.</p>
+     */
+    private static boolean hasComparableNodes(Exp e1, Exp e2) {
+        boolean retval =
+                e1 instanceof VarExp || e1 instanceof IntegerExp
+                        || e1 instanceof InfixExp || e1 instanceof EqualsExp
+                        || e1 instanceof OutfixExp || e1 instanceof PrefixExp;
+
+        if (e1 instanceof FunctionExp) {
+            retval =
+                    ((FunctionExp) e1).getParamList().size() == 1
+                            && ((FunctionExp) e2).getParamList().size() == 1;
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Returns <code>true</code> <strong>iff</strong> <code>e1</code> and
+     * <code>e2</code>, of the same class and accepted by
+     * {@link #hasComparableNodes hasComparableNodes()}, have the same names,
+     * operators and values of their own.  Their subexpressions are not
+     * compared.</p>
+     */
+    private static boolean sameNode(Exp e1, Exp e2) {
+        boolean retval;
+
+        if (e1 instanceof VarExp) {
+            VarExp v1 = (VarExp) e1;
+            VarExp v2 = (VarExp) e2;
+            retval =
+                    v1.equivalent(v2)
+                            && v1.getQuantification() == v2.getQuantification();
+        }
+        else if (e1 instanceof IntegerExp) {
+            retval =
+                    e1.equivalent(e2)
+                            && Exp.posSymbolEquivalent(((IntegerExp) e1)
+                                    .getQualifier(), ((IntegerExp) e2)
+                                    .getQualifier());
+        }
+        else if (e1 instanceof InfixExp) {
+            retval =
+                    Exp.posSymbolEquivalent(((InfixExp) e1).getOpName(),
+                            ((InfixExp) e2).getOpName());
+        }
+        else if (e1 instanceof EqualsExp) {
+            retval =
+                    ((EqualsExp) e1).getOperator() == ((EqualsExp) e2)
+                            .getOperator();
+        }
+        else if (e1 instanceof OutfixExp) {
+            retval =
+                    ((OutfixExp) e1).getOperator() == ((OutfixExp) e2)
+                            .getOperator();
+        }
+        else if (e1 instanceof PrefixExp) {
+            retval =
+                    Exp.posSymbolEquivalent(((PrefixExp) e1).getSymbol(),
+                            ((PrefixExp) e2).getSymbol());
+        }
+        else {
+            // The natural number, if any, comes first among the
+            // subexpressions, so whether there is one must match
+            FunctionExp f1 = (FunctionExp) e1;
+            FunctionExp f2 = (FunctionExp) e2;
+            retval =
+                    Exp.posSymbolEquivalent(f1.getQualifier(), f2
+                            .getQualifier())
+                            && Exp.posSymbolEquivalent(f1.getName(), f2
+                                    .getName())
+                            && f1.getQuantification() == f2.getQuantification()
+                            && (f1.getNatural() == null)
+                                    == (f2.getNatural() == null);
+        }
+
+        return retval;
+    }
+
     private void applyVariableDeclRule(VerificationStatement var,
             AssertiveCode assertion) {
         if (var != null) {
@@ -1538,7 +1637,7 @@ public class Verifier extends ResolveConceptualVisitor {
 
                             /* Check if we have an assertive code that involves this variable expression */
                             Iterator<VerificationStatement> it =
-                                    assertion.assertive_code.iterator();
+                                    assertion.getStatements().iterator();
                             while (it.hasNext()) {
                                 VerificationStatement st = it.next();
 
@@ -1611,10 +1710,8 @@ public class Verifier extends ResolveConceptualVisitor {
                         else {
                             assertion.setFinalConfirm(tmp);
                         }
-                        VCBuffer.append("\n_____________________ \n");
-                        VCBuffer
-                                .append("\nVariable Declaration Rule Applied: \n");
-                        VCBuffer.append(assertion.assertionToString());
+                        myTrace.rule("\nVariable Declaration Rule Applied: \n",
+                                assertion);
                         return;
                     }
                 }
@@ -1653,9 +1750,7 @@ public class Verifier extends ResolveConceptualVisitor {
                 }
             }
 
-            VCBuffer.append("\n_____________________ \n");
-            VCBuffer.append("\nVariable Declaration Rule Applied: \n");
-            VCBuffer.append(assertion.assertionToString());
+            myTrace.rule("\nVariable Declaration Rule Applied: \n", assertion);
         }
 
     }
@@ -1736,7 +1831,7 @@ public class Verifier extends ResolveConceptualVisitor {
     public void clearMainBuffer() {
         if (myInstanceEnvironment.flags.isFlagSet(FLAG_VERBOSE_VC)) {
             //env.flags.isFlagSet(FLAG_FINALVERB_VC) || env.flags.isFlagSet(FLAG_VERIFY_VC)){
-            VCBuffer = new StringBuffer();
+            myTrace.clear();
         }
         else {
             assrtBuf = new StringBuffer();
@@ -2073,9 +2168,7 @@ public class Verifier extends ResolveConceptualVisitor {
         }
         else {
             ensures = getTrueVarExp();
-            VCBuffer.append("\n_____________________ \n");
-            VCBuffer.append("\nSpec not found \n");
-            VCBuffer.append(assertion.assertionToString());
+            myTrace.rule("\nSpec not found \n", assertion);
 
             System.err.println("Error passed Function operation not found: "
                     + exp.getName().asString(1, 1));
@@ -2400,19 +2493,17 @@ public class Verifier extends ResolveConceptualVisitor {
                     assertion.setFinalConfirm(ens2);
                     assertion.addAssume(ens1);
 
-                    VCBuffer.append("\n Facility Dec Name:\t");
-                    VCBuffer.append(dec.getName().getSymbol().toString());
-                    VCBuffer.append("\n");
+                    myTrace.note("\n Facility Dec Name:\t");
+                    myTrace.note(dec.getName().getSymbol().toString());
+                    myTrace.note("\n");
 
-                    VCBuffer.append("\n_____________________ \n");
-                    VCBuffer
-                            .append("\nFacility Declaration Rule Applied for Operation parameter (requires): "
-                                    + dec2.getName() + "\n\n");
-                    VCBuffer.append(assertion.assertionToString());
+                    myTrace.rule(
+                            "\nFacility Declaration Rule Applied for Operation parameter (requires): "
+                                    + dec2.getName() + "\n\n", assertion);
 
                     /* Applies Proof Rules */
                     applyEBRules(assertion);
-                    VCBuffer.append("\n_____________________ \n\n");
+                    myTrace.note("\n_____________________ \n\n");
 
                 }
                 //else if(((OperationDec)dec2).getEnsures() != null)
@@ -2472,19 +2563,17 @@ public class Verifier extends ResolveConceptualVisitor {
                     assertion2.setFinalConfirm(ens1);
                     assertion2.addAssume(ens2);
 
-                    VCBuffer.append("\n Facility Dec Name:\t");
-                    VCBuffer.append(dec.getName().getSymbol().toString());
-                    VCBuffer.append("\n");
+                    myTrace.note("\n Facility Dec Name:\t");
+                    myTrace.note(dec.getName().getSymbol().toString());
+                    myTrace.note("\n");
 
-                    VCBuffer.append("\n_____________________ \n");
-                    VCBuffer
-                            .append("\nFacility Declaration Rule Applied for Operation parameter (ensures): "
-                                    + dec2.getName() + ": \n\n");
-                    VCBuffer.append(assertion2.assertionToString());
+                    myTrace.rule(
+                            "\nFacility Declaration Rule Applied for Operation parameter (ensures): "
+                                    + dec2.getName() + ": \n\n", assertion2);
 
                     /* Applies Proof Rules */
                     applyEBRules(assertion2);
-                    VCBuffer.append("\n_____________________ \n\n");
+                    myTrace.note("\n_____________________ \n\n");
                 }
             }
 
@@ -4658,7 +4747,7 @@ public class Verifier extends ResolveConceptualVisitor {
     public String getMainBuffer() {
         if (myInstanceEnvironment.flags.isFlagSet(FLAG_VERBOSE_VC)) {
             //	env.flags.isFlagSet(FLAG_FINALVERB_VC) || env.flags.isFlagSet(FLAG_VERIFY_VC)){
-            return VCBuffer.toString();
+            return myTrace.render();
         }
         else {
             if (!myInstanceEnvironment.flags
@@ -4893,9 +4982,7 @@ public class Verifier extends ResolveConceptualVisitor {
         }
 
         if (opDec == null) {
-            VCBuffer.append("\n_____________________ \n");
-            VCBuffer.append("\nSpec not found \n");
-            VCBuffer.append(assertion.assertionToString());
+            myTrace.rule("\nSpec not found \n", assertion);
 
             System.err.println("Error passed operation not found: "
                     + exp.getName().asString(1, 1));
@@ -6408,7 +6495,7 @@ public class Verifier extends ResolveConceptualVisitor {
                     else {
                         sVar = new VarExp();
                         ((VarExp) sVar).setName(stateVar.getName());
-                        VCBuffer.append(" WHY IS "
+                        myTrace.note(" WHY IS "
                                 + ((VarExp) sVar).getName().toString()
                                 + "not in the Free Variable List?");
 
@@ -7037,9 +7124,9 @@ public class Verifier extends ResolveConceptualVisitor {
         typeParms = getTypeParms(cid);
         concParms = getConcParms(cid);
 
-        VCBuffer.append("Concept Name: ");
-        VCBuffer.append(dec.getName().toString());
-        VCBuffer.append("\n");
+        myTrace.note("Concept Name: ");
+        myTrace.note(dec.getName().toString());
+        myTrace.note("\n");
         visitProcedures(dec.getDecs());
 
         table.endModuleScope();
@@ -7083,9 +7170,9 @@ public class Verifier extends ResolveConceptualVisitor {
         EnhancementModuleDec eDec =
                 (EnhancementModuleDec) myInstanceEnvironment.getModuleDec(eid);
 
-        VCBuffer.append("Enhancement Name: ");
-        VCBuffer.append(eDec.getName().toString());
-        VCBuffer.append("\n");
+        myTrace.note("Enhancement Name: ");
+        myTrace.note(eDec.getName().toString());
+        myTrace.note("\n");
 
         List<UsesItem> list = eDec.getUsesItems();
         list.addAll(dec.getUsesItems());
@@ -7417,17 +7504,17 @@ public class Verifier extends ResolveConceptualVisitor {
                 }
             }
 
-            VCBuffer.append("\n Facility Dec Name:\t");
-            VCBuffer.append(dec.getName().getSymbol().toString());
-            VCBuffer.append("\n");
+            myTrace.note("\n Facility Dec Name:\t");
+            myTrace.note(dec.getName().getSymbol().toString());
+            myTrace.note("\n");
 
-            VCBuffer.append("\n_____________________ \n");
-            VCBuffer.append("\nFacility Declaration Rule Applied: \n\n");
-            VCBuffer.append(assertion.assertionToString());
+            myTrace
+                    .rule("\nFacility Declaration Rule Applied: \n\n",
+                            assertion);
 
             /* Applies Proof Rules */
             applyEBRules(assertion);
-            VCBuffer.append("\n_____________________ \n\n");
+            myTrace.note("\n_____________________ \n\n");
 
         }
 
@@ -7724,17 +7811,15 @@ public class Verifier extends ResolveConceptualVisitor {
             assertion.setFinalConfirm(ensures);
         }
 
-        VCBuffer.append("\n Procedure Name:\t");
-        VCBuffer.append(dec.getName().getSymbol().toString());
-        VCBuffer.append("\n");
+        myTrace.note("\n Procedure Name:\t");
+        myTrace.note(dec.getName().getSymbol().toString());
+        myTrace.note("\n");
 
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\nProcedure Declaration Rule Applied: \n\n");
-        VCBuffer.append(assertion.assertionToString());
+        myTrace.rule("\nProcedure Declaration Rule Applied: \n\n", assertion);
 
         /* Applies Proof Rules */
         applyEBRules(assertion);
-        VCBuffer.append("\n_____________________ \n\n");
+        myTrace.note("\n_____________________ \n\n");
         table.endProcedureScope();
         table.endOperationScope();
     }
@@ -8176,17 +8261,15 @@ public class Verifier extends ResolveConceptualVisitor {
             assertion.setFinalConfirm(ensures);
         }
 
-        VCBuffer.append("\n Procedure Name:\t");
-        VCBuffer.append(dec.getName().getSymbol().toString());
-        VCBuffer.append("\n");
+        myTrace.note("\n Procedure Name:\t");
+        myTrace.note(dec.getName().getSymbol().toString());
+        myTrace.note("\n");
 
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\nProcedure Declaration Rule Applied: \n\n");
-        VCBuffer.append(assertion.assertionToString());
+        myTrace.rule("\nProcedure Declaration Rule Applied: \n\n", assertion);
 
         /* Applies Proof Rules */
         applyEBRules(assertion);
-        VCBuffer.append("\n_____________________ \n\n");
+        myTrace.note("\n_____________________ \n\n");
         table.endProcedureScope();
         table.endOperationScope();
     }
@@ -8399,9 +8482,7 @@ public class Verifier extends ResolveConceptualVisitor {
             assertion.addAssume(convention);
         }
 
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\nCorrespondence Rule Applied: \n");
-        VCBuffer.append(assertion.assertionToString());
+        myTrace.rule("\nCorrespondence Rule Applied: \n", assertion);
         applyEBRules(assertion);
 
         AssertiveCode initializeAssert =
@@ -8493,14 +8574,12 @@ public class Verifier extends ResolveConceptualVisitor {
             initializeAssert.addAssume(corrForInit);
         }
 
-        VCBuffer.append("\n_____________________ \n\n");
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\nInitialization Rule Applied: \n");
-        VCBuffer.append(initializeAssert.assertionToString());
+        myTrace.note("\n_____________________ \n\n");
+        myTrace.rule("\nInitialization Rule Applied: \n", initializeAssert);
         initializationRule = true;
         applyEBRules(initializeAssert);
         initializationRule = false;
-        VCBuffer.append("\n_____________________ \n");
+        myTrace.note("\n_____________________ \n");
 
     }
 
@@ -0,0 +1,183 @@
+package edu.clemson.cs.r2jt;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.newEnvironment;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.clemson.cs.r2jt.absyn.ConceptModuleDec;
+import edu.clemson.cs.r2jt.data.ModuleID;
+import edu.clemson.cs.r2jt.data.Symbol;
+import edu.clemson.cs.r2jt.init.CompileEnvironment;
+import edu.clemson.cs.r2jt.init.ModuleRecord;
+import edu.clemson.cs.r2jt.init.WarmLibrary;
+import edu.clemson.cs.r2jt.scope.SymbolTable;
+
+/**
+ * <p>Drives a <code>CompileServer</code> through its request protocol.  The
+ * compiler itself is stood in for by one that imports what it can from the
+ * server's library and otherwise "compiles" a single library module, so that
+ * the replies and the library's reuse can be checked without a RESOLVE
+ * workspace.</p>
+ */
+public class TestCompileServer {
+
+    private static final String COMPILE =
+            "COMPILE Test.fa\n" + "FILE Test - pkg FACILITY 1\n"
+                    + "Facility Test;\n" + "END\n";
+
+    private final WarmLibrary myLibrary = new WarmLibrary();
+
+    private final List<Boolean> mySeedings = new ArrayList<Boolean>();
+
+    private File myMainDir;
+
+    private File myLibraryFile;
+
+    @Before
+    public void setUp() throws IOException {
+        myMainDir = File.createTempFile("compileserver", "");
+        myMainDir.delete();
+        myMainDir.mkdirs();
+
+        myLibraryFile = new File(myMainDir, "Library.co");
+        FileWriter out = new FileWriter(myLibraryFile);
+        try {
+            out.write("Concept Library;\n");
+        }
+        finally {
+            out.close();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        myLibraryFile.delete();
+        myMainDir.delete();
+    }
+
+    private String[] serve(String requests) throws IOException {
+        StringWriter replies = new StringWriter();
+        new StubServer().serve(new StringReader(requests), replies);
+
+        String text = replies.toString().trim();
+        String[] retval = new String[0];
+        if (text.length() > 0) {
+            retval = text.split("\r?\n");
+        }
+
+        return retval;
+    }
+
+    /*
+     * Returns the start of the reply to a request that failed with a message
+     * beginning with prefix.
+     */
+    private static String failure(String prefix) {
+        return "{\"error\":true,\"failure\":\""
+                + ResolveCompiler.webEncode(prefix);
+    }
+
+    @Test
+    public void testStatusOfEmptyLibrary() throws IOException {
+        assertEquals(Arrays.asList("{\"libraryModules\":0}"), Arrays
+                .asList(serve("STATUS\n")));
+    }
+
+    @Test
+    public void testSecondCompileReusesLibrary() throws IOException {
+        String[] replies = serve(COMPILE + COMPILE + "STATUS\n");
+
+        assertEquals(3, replies.length);
+        assertTrue(replies[0], replies[0].startsWith("{\"error\":false,"));
+        assertTrue(replies[0], replies[0].endsWith(",\"libraryModules\":1}"));
+        assertTrue(replies[1], replies[1].endsWith(",\"libraryModules\":1}"));
+        assertEquals("{\"libraryModules\":1}", replies[2]);
+
+        assertEquals(Arrays.asList(false, true), mySeedings);
+    }
+
+    @Test
+    public void testForgetInvalidatesLibrary() throws IOException {
+        String[] replies = serve(COMPILE + "FORGET\n" + "STATUS\n" + COMPILE);
+
+        assertEquals(4, replies.length);
+        assertEquals("{\"libraryModules\":0}", replies[1]);
+        assertEquals("{\"libraryModules\":0}", replies[2]);
+        assertTrue(replies[3], replies[3].endsWith(",\"libraryModules\":1}"));
+
+        assertEquals(Arrays.asList(false, false), mySeedings);
+    }
+
+    @Test
+    public void testChangedLibraryFileInvalidatesLibrary() throws IOException {
+        serve(COMPILE);
+        myLibraryFile.setLastModified(myLibraryFile.lastModified() - 60000);
+        serve(COMPILE);
+
+        assertEquals(Arrays.asList(false, false), mySeedings);
+    }
+
+    @Test
+    public void testMalformedRequestsDoNotStopServer() throws IOException {
+        String[] replies =
+                serve("BOGUS\n" + "COMPILE Test.fa\n" + "FILE Test\n"
+                        + "END\n" + "COMPILE Test.fa\n"
+                        + "FILE Test - pkg FACILITY many\n" + "END\n"
+                        + "STATUS\n" + "QUIT\n" + "STATUS\n");
+
+        assertEquals(4, replies.length);
+        assertEquals(failure("Unknown request: BOGUS") + "\"}", replies[0]);
+        assertTrue(replies[1], replies[1]
+                .startsWith(failure("Expected FILE or END: ")));
+        assertTrue(replies[2], replies[2]
+                .startsWith(failure("Bad line count: ")));
+        assertEquals("{\"libraryModules\":0}", replies[3]);
+
+        assertEquals(0, mySeedings.size());
+    }
+
+    /**
+     * <p>A server whose compiler seeds an environment from the library,
+     * compiles the library module if the library did not hold it, and then
+     * gives the library what it compiled, as <code>Main</code> does.</p>
+     */
+    private class StubServer extends CompileServer {
+
+        public StubServer() {
+            super(myLibrary);
+        }
+
+        @Override
+        void runCompiler(ResolveCompiler compiler, String[] args) {
+            CompileEnvironment env = newEnvironment();
+            env.setMainDir(myMainDir);
+            env.setCompileReport(compiler.getReport());
+
+            mySeedings.add(myLibrary.seed(env, args, null));
+
+            ModuleID id = ModuleID.createTheoryID(Symbol.symbol("Library"));
+            if (!env.getMap().containsKey(id)) {
+                ModuleRecord record = new ModuleRecord(id, myLibraryFile);
+                record.setModuleDec(new ConceptModuleDec());
+                record.setSymbolTable(new SymbolTable(id, env));
+                env.addCompletedRecord(record);
+            }
+
+            myLibrary.absorb(env, args, null);
+        }
+    }
+}
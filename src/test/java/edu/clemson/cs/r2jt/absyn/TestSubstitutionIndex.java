@@ -0,0 +1,126 @@
+package edu.clemson.cs.r2jt.absyn;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import edu.clemson.cs.r2jt.data.Location;
+import edu.clemson.cs.r2jt.data.Pos;
+import edu.clemson.cs.r2jt.data.PosSymbol;
+import edu.clemson.cs.r2jt.data.Symbol;
+
+public class TestSubstitutionIndex {
+
+    private final Location myLocation =
+            new Location(new File("/some/file"), new Pos(1, 1));
+
+    private VarExp var(String name) {
+        return new VarExp(myLocation, null, new PosSymbol(myLocation, Symbol
+                .symbol(name)));
+    }
+
+    private String nameOf(Exp e) {
+        return ((VarExp) e).getName().getName();
+    }
+
+    @Test
+    public void testFirstMatchingKeyWins() {
+        //Two distinct keys that are both equivalent to x
+        VarExp x1 = var("x");
+        VarExp x2 = var("x");
+
+        Map<Exp, Exp> substitutions = new LinkedHashMap<Exp, Exp>();
+        substitutions.put(x1, var("a"));
+        substitutions.put(x2, var("b"));
+
+        SubstitutionIndex index = SubstitutionIndex.of(substitutions, false);
+        assertSame(x1, index.lookup(var("x")).getKey());
+        assertEquals("a", nameOf(var("x").substitute(substitutions)));
+
+        Map<Exp, Exp> reversed = new LinkedHashMap<Exp, Exp>();
+        reversed.put(x2, var("b"));
+        reversed.put(x1, var("a"));
+
+        assertEquals("b", nameOf(var("x").substitute(reversed)));
+    }
+
+    @Test
+    public void testKeysWithSameStructureHash() {
+        //"Aa" and "BB" have the same String hash, so they share a bucket
+        VarExp aa = var("Aa");
+        VarExp bb = var("BB");
+        assertEquals(aa.structureHash(), bb.structureHash());
+
+        Map<Exp, Exp> substitutions = new LinkedHashMap<Exp, Exp>();
+        substitutions.put(aa, var("a"));
+        substitutions.put(bb, var("b"));
+
+        SubstitutionIndex index = SubstitutionIndex.of(substitutions, false);
+        assertSame(aa, index.lookup(var("Aa")).getKey());
+        assertSame(bb, index.lookup(var("BB")).getKey());
+        assertNull(index.lookup(var("Ab")));
+
+        assertEquals("b", nameOf(var("BB").substitute(substitutions)));
+    }
+
+    @Test
+    public void testIndexReusedOnlyForSameSharing() {
+        Map<Exp, Exp> substitutions = new LinkedHashMap<Exp, Exp>();
+        substitutions.put(var("x"), var("a"));
+
+        SubstitutionIndex sharing = SubstitutionIndex.of(substitutions, true);
+        assertTrue(sharing.sharesUnchanged());
+        assertSame(sharing, SubstitutionIndex.of(sharing, true));
+
+        SubstitutionIndex copying = SubstitutionIndex.of(sharing, false);
+        assertNotSame(sharing, copying);
+        assertEquals(false, copying.sharesUnchanged());
+        assertEquals(1, copying.size());
+    }
+
+    @Test
+    public void testSubstituteSharingSharesUnchanged() {
+        VarExp x = var("x");
+        VarExp y = var("y");
+        InfixExp sum = new InfixExp(myLocation, x, var("+").getName(), y);
+
+        Map<Exp, Exp> yToZ = new LinkedHashMap<Exp, Exp>();
+        yToZ.put(var("y"), var("z"));
+
+        InfixExp shared = (InfixExp) sum.substituteSharing(yToZ);
+        assertNotSame(sum, shared);
+        assertSame(x, shared.getLeft());
+        assertEquals("z", nameOf(shared.getRight()));
+
+        Map<Exp, Exp> unrelated = new LinkedHashMap<Exp, Exp>();
+        unrelated.put(var("w"), var("z"));
+        assertSame(sum, sum.substituteSharing(unrelated));
+    }
+
+    @Test
+    public void testSubstituteCopiesUnchanged() {
+        VarExp x = var("x");
+        VarExp y = var("y");
+        InfixExp sum = new InfixExp(myLocation, x, var("+").getName(), y);
+
+        Map<Exp, Exp> yToZ = new LinkedHashMap<Exp, Exp>();
+        yToZ.put(var("y"), var("z"));
+
+        InfixExp copied = (InfixExp) sum.substitute(yToZ);
+        assertNotSame(x, copied.getLeft());
+        assertEquals("x", nameOf(copied.getLeft()));
+        assertEquals("z", nameOf(copied.getRight()));
+
+        Map<Exp, Exp> unrelated = new LinkedHashMap<Exp, Exp>();
+        unrelated.put(var("w"), var("z"));
+        assertNotSame(sum, sum.substitute(unrelated));
+    }
+}
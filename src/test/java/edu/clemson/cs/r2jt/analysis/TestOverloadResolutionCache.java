@@ -0,0 +1,158 @@
+package edu.clemson.cs.r2jt.analysis;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.newEnvironment;
+
+import org.junit.Test;
+
+import edu.clemson.cs.r2jt.data.Location;
+import edu.clemson.cs.r2jt.data.ModuleID;
+import edu.clemson.cs.r2jt.data.Pos;
+import edu.clemson.cs.r2jt.data.PosSymbol;
+import edu.clemson.cs.r2jt.data.Symbol;
+import edu.clemson.cs.r2jt.scope.Scope;
+import edu.clemson.cs.r2jt.scope.ScopeID;
+import edu.clemson.cs.r2jt.scope.SymbolTable;
+import edu.clemson.cs.r2jt.scope.TypeScope;
+import edu.clemson.cs.r2jt.type.BooleanType;
+import edu.clemson.cs.r2jt.type.Type;
+import edu.clemson.cs.r2jt.type.VoidType;
+
+public class TestOverloadResolutionCache {
+
+    private final Location myLocation =
+            new Location(new File("/some/file"), new Pos(1, 1));
+
+    private final ModuleID myModule =
+            ModuleID.createTheoryID(Symbol.symbol("T"));
+
+    private final Scope myScope1 =
+            new TypeScope(ScopeID.createTypeScopeID(myModule, 0));
+    private final Scope myScope2 =
+            new TypeScope(ScopeID.createTypeScopeID(myModule, 1));
+
+    private final Type myType1 = BooleanType.INSTANCE;
+    private final Type myType2 = new VoidType();
+
+    private final VersionedTable myTable = new VersionedTable();
+
+    private final OverloadResolutionCache myCache =
+            new OverloadResolutionCache(myTable);
+
+    private PosSymbol name(String name) {
+        return new PosSymbol(myLocation, Symbol.symbol(name));
+    }
+
+    private List<Type> types(Type... types) {
+        return Arrays.asList(types);
+    }
+
+    @Test
+    public void testRecordedResolutionIsFound() {
+        myCache.putResolution(myScope1, null, name("+"), types(myType1,
+                myType2), myType1, true);
+
+        OverloadResolutionCache.Resolution r =
+                myCache.getResolution(myScope1, null, name("+"), types(myType1,
+                        myType2));
+        assertSame(myType1, r.getType());
+        assertTrue(r.setsType());
+    }
+
+    @Test
+    public void testWhetherTypeWasSetIsKept() {
+        myCache.putResolution(myScope1, null, name("f"), types(myType1),
+                myType2, false);
+
+        assertFalse(myCache.getResolution(myScope1, null, name("f"),
+                types(myType1)).setsType());
+    }
+
+    @Test
+    public void testApplicationsAreDistinguished() {
+        myCache.putResolution(myScope1, null, name("+"), types(myType1,
+                myType2), myType1, true);
+
+        assertNull(myCache.getResolution(myScope1, null, name("-"), types(
+                myType1, myType2)));
+        assertNull(myCache.getResolution(myScope1, null, name("+"), types(
+                myType2, myType1)));
+        assertNull(myCache.getResolution(myScope1, name("Q"), name("+"),
+                types(myType1, myType2)));
+        assertNull(myCache.getResolution(myScope2, null, name("+"), types(
+                myType1, myType2)));
+    }
+
+    @Test
+    public void testNewDefinitionForgetsScope() {
+        myCache.putResolution(myScope1, null, name("+"), types(myType1),
+                myType1, true);
+
+        myTable.myDefinitionVersion++;
+        assertNull(myCache.getResolution(myScope1, null, name("+"),
+                types(myType1)));
+
+        //Once recorded again, the resolution holds at the new version
+        myCache.putResolution(myScope1, null, name("+"), types(myType1),
+                myType2, true);
+        assertSame(myType2, myCache.getResolution(myScope1, null, name("+"),
+                types(myType1)).getType());
+    }
+
+    @Test
+    public void testNewCorrespondenceForgetsEverything() {
+        myCache.putResolution(myScope1, null, name("+"), types(myType1),
+                myType1, true);
+        myCache.putResolution(myScope2, null, name("+"), types(myType1),
+                myType1, true);
+
+        myTable.myCorrespondenceVersion++;
+        assertNull(myCache.getResolution(myScope1, null, name("+"),
+                types(myType1)));
+        assertNull(myCache.getResolution(myScope2, null, name("+"),
+                types(myType1)));
+    }
+
+    @Test
+    public void testWithoutTableEntriesNeverGoStale() {
+        OverloadResolutionCache cache = new OverloadResolutionCache(null);
+        cache.putResolution(myScope1, null, name("+"), types(myType1),
+                myType1, true);
+
+        assertEquals(myType1, cache.getResolution(myScope1, null, name("+"),
+                types(myType1)).getType());
+    }
+
+    /**
+     * <p>A table whose versions are set by the test rather than by the
+     * scopes it holds.</p>
+     */
+    private static class VersionedTable extends SymbolTable {
+
+        public long myCorrespondenceVersion = 0;
+        public long myDefinitionVersion = 0;
+
+        public VersionedTable() {
+            super("Test", newEnvironment());
+        }
+
+        @Override
+        public long getCorrespondenceVersion() {
+            return myCorrespondenceVersion;
+        }
+
+        @Override
+        public long getDefinitionVersion() {
+            return myDefinitionVersion;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package edu.clemson.cs.r2jt.compilereport;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class TestCompileReport {
+
+    private final CompileReport myReport = new CompileReport();
+
+    private static VCResult result(String name) {
+        return new VCResult(name, VCResult.Status.PROVED, 0, 0, 0, "<" + name
+                + ">");
+    }
+
+    @Test
+    public void testResultsAreAppendedInOrder() {
+        myReport.addVCResult(result("0_1"));
+        myReport.addVCResult(result("0_2"));
+
+        assertEquals("<0_1><0_2>", myReport.getProveVCs());
+    }
+
+    @Test
+    public void testEachModuleStartsAfresh() {
+        myReport.startProveVCs();
+        myReport.addVCResult(result("0_1"));
+        myReport.startProveVCs();
+        assertNull(myReport.getProveVCs());
+
+        myReport.addVCResult(result("1_1"));
+        assertEquals("<1_1>", myReport.getProveVCs());
+    }
+
+    @Test
+    public void testListenersHearEveryModule() {
+        final List<String> heard = new ArrayList<String>();
+        myReport.addVCResultListener(new VCResultListener() {
+
+            public void vcFinished(VCResult result) {
+                heard.add(result.getName());
+            }
+        });
+
+        myReport.startProveVCs();
+        myReport.addVCResult(result("0_1"));
+        myReport.startProveVCs();
+        myReport.addVCResult(result("1_1"));
+
+        assertEquals(Arrays.asList("0_1", "1_1"), heard);
+    }
+
+    @Test
+    public void testTextNotRetainedWhenTurnedOff() {
+        myReport.setRetainProveVCs(false);
+        myReport.addVCResult(result("0_1"));
+
+        assertNull(myReport.getProveVCs());
+    }
+}
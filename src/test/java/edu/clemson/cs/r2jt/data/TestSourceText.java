@@ -0,0 +1,118 @@
+package edu.clemson.cs.r2jt.data;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class TestSourceText {
+
+    @Test
+    public void testNewlines() {
+        SourceText text = new SourceText("one\ntwo\nthree");
+
+        assertEquals(3, text.getLineCount());
+        assertEquals("one", text.getLine(1));
+        assertEquals("two", text.getLine(2));
+        assertEquals("three", text.getLine(3));
+    }
+
+    @Test
+    public void testCarriageReturns() {
+        SourceText text = new SourceText("one\rtwo\rthree");
+
+        assertEquals(3, text.getLineCount());
+        assertEquals("one", text.getLine(1));
+        assertEquals("two", text.getLine(2));
+        assertEquals("three", text.getLine(3));
+    }
+
+    @Test
+    public void testCarriageReturnNewlines() {
+        SourceText text = new SourceText("one\r\ntwo\r\nthree");
+
+        assertEquals(3, text.getLineCount());
+        assertEquals("one", text.getLine(1));
+        assertEquals("two", text.getLine(2));
+        assertEquals("three", text.getLine(3));
+    }
+
+    @Test
+    public void testMixedTerminators() {
+        SourceText text = new SourceText("one\r\rtwo\n\r\nthree");
+
+        assertEquals(5, text.getLineCount());
+        assertEquals("one", text.getLine(1));
+        assertEquals("", text.getLine(2));
+        assertEquals("two", text.getLine(3));
+        assertEquals("", text.getLine(4));
+        assertEquals("three", text.getLine(5));
+    }
+
+    @Test
+    public void testTerminatorAtEndOfFile() {
+        assertEquals(2, new SourceText("one\ntwo\n").getLineCount());
+        assertEquals(2, new SourceText("one\rtwo\r").getLineCount());
+        assertEquals(2, new SourceText("one\r\ntwo\r\n").getLineCount());
+
+        SourceText text = new SourceText("one\r\ntwo\r\n");
+        assertEquals("two", text.getLine(2));
+        assertNull(text.getLine(3));
+    }
+
+    @Test
+    public void testBlankLineBeforeEndOfFile() {
+        SourceText text = new SourceText("one\n\n");
+
+        assertEquals(2, text.getLineCount());
+        assertEquals("", text.getLine(2));
+    }
+
+    @Test
+    public void testEmptyText() {
+        SourceText text = new SourceText("");
+
+        assertEquals(1, text.getLineCount());
+        assertEquals("", text.getLine(1));
+    }
+
+    @Test
+    public void testLinesOutOfRange() {
+        SourceText text = new SourceText("one\ntwo");
+
+        assertNull(text.getLine(0));
+        assertNull(text.getLine(3));
+    }
+
+    @Test
+    public void testLoad() throws IOException {
+        File file = File.createTempFile("source", ".txt");
+        try {
+            FileOutputStream out = new FileOutputStream(file);
+            try {
+                out.write("one\r\ntwo\rthree\n".getBytes());
+            }
+            finally {
+                out.close();
+            }
+
+            SourceText text = SourceText.load(file);
+
+            assertEquals(3, text.getLineCount());
+            assertEquals("one", text.getLine(1));
+            assertEquals("two", text.getLine(2));
+            assertEquals("three", text.getLine(3));
+            assertTrue(text.isCurrent(file));
+            assertFalse(new SourceText("one").isCurrent(file));
+        }
+        finally {
+            file.delete();
+        }
+    }
+}
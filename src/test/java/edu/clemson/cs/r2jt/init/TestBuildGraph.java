@@ -0,0 +1,158 @@
+package edu.clemson.cs.r2jt.init;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestBuildGraph {
+
+    private static final String OUTPUT = "output";
+
+    private File myDirectory;
+
+    @Before
+    public void setUp() throws IOException {
+        myDirectory = File.createTempFile("buildgraph", "");
+        myDirectory.delete();
+        myDirectory.mkdirs();
+    }
+
+    @After
+    public void tearDown() {
+        File[] entries = myDirectory.listFiles();
+        if (entries != null) {
+            for (File entry : entries) {
+                entry.delete();
+            }
+        }
+
+        myDirectory.delete();
+    }
+
+    private File source(String name, String text) throws IOException {
+        File retval = new File(myDirectory, name);
+
+        Writer out = new FileWriter(retval);
+        try {
+            out.write(text);
+        }
+        finally {
+            out.close();
+        }
+
+        return retval;
+    }
+
+    /*
+     * Saves the graph and loads it again, as the next run of the compiler
+     * would, so that source files are hashed afresh.
+     */
+    private BuildGraph nextRun(BuildGraph graph) {
+        graph.save();
+        return BuildGraph.load(myDirectory);
+    }
+
+    private void produce(BuildGraph graph, File... modules) {
+        for (File module : modules) {
+            graph.recordOutput(module, OUTPUT);
+        }
+    }
+
+    @Test
+    public void testChangeToTransitiveImportMakesImporterStale()
+            throws IOException {
+        File a = source("A.co", "A");
+        File b = source("B.co", "B");
+        File c = source("C.co", "C");
+        File d = source("D.co", "D");
+
+        BuildGraph graph = BuildGraph.load(myDirectory);
+        graph.recordImports(c, Arrays.asList(b));
+        graph.recordImports(b, Arrays.asList(a));
+        graph.recordImports(a, Collections.<File> emptyList());
+        graph.recordImports(d, Collections.<File> emptyList());
+        produce(graph, a, b, c, d);
+
+        graph = nextRun(graph);
+        assertTrue(graph.isUpToDate(c, OUTPUT));
+        assertTrue(graph.isUpToDate(d, OUTPUT));
+
+        source("A.co", "A, edited");
+        graph = nextRun(graph);
+
+        assertFalse(graph.isUpToDate(a, OUTPUT));
+        assertFalse(graph.isUpToDate(b, OUTPUT));
+        assertFalse(graph.isUpToDate(c, OUTPUT));
+        assertTrue(graph.isUpToDate(d, OUTPUT));
+
+        produce(graph, a, b, c);
+        graph = nextRun(graph);
+        assertTrue(graph.isUpToDate(c, OUTPUT));
+    }
+
+    @Test
+    public void testChangeInImportCycleMakesWholeCycleStale()
+            throws IOException {
+        File a = source("A.co", "A");
+        File b = source("B.co", "B");
+        File c = source("C.co", "C");
+        File d = source("D.co", "D");
+
+        //A and B import one another, C imports the cycle, and the cycle
+        //imports D
+        BuildGraph graph = BuildGraph.load(myDirectory);
+        graph.recordImports(a, Arrays.asList(b, d));
+        graph.recordImports(b, Arrays.asList(a));
+        graph.recordImports(c, Arrays.asList(a));
+        graph.recordImports(d, Collections.<File> emptyList());
+        produce(graph, a, b, c, d);
+
+        graph = nextRun(graph);
+        assertTrue(graph.isUpToDate(a, OUTPUT));
+        assertTrue(graph.isUpToDate(b, OUTPUT));
+        assertTrue(graph.isUpToDate(c, OUTPUT));
+
+        source("B.co", "B, edited");
+        graph = nextRun(graph);
+
+        assertFalse(graph.isUpToDate(b, OUTPUT));
+        assertFalse(graph.isUpToDate(a, OUTPUT));
+        assertFalse(graph.isUpToDate(c, OUTPUT));
+        assertTrue(graph.isUpToDate(d, OUTPUT));
+
+        produce(graph, a, b, c);
+        source("D.co", "D, edited");
+        graph = nextRun(graph);
+
+        assertFalse(graph.isUpToDate(c, OUTPUT));
+        assertFalse(graph.isUpToDate(a, OUTPUT));
+        assertFalse(graph.isUpToDate(b, OUTPUT));
+        assertFalse(graph.isUpToDate(d, OUTPUT));
+    }
+
+    @Test
+    public void testUnreadableImportIsNeverUpToDate() throws IOException {
+        File a = source("A.co", "A");
+        File b = source("B.co", "B");
+
+        BuildGraph graph = BuildGraph.load(myDirectory);
+        graph.recordImports(a, Arrays.asList(b));
+        graph.recordImports(b, Collections.<File> emptyList());
+        produce(graph, a, b);
+
+        b.delete();
+        graph = nextRun(graph);
+
+        assertFalse(graph.isUpToDate(a, OUTPUT));
+    }
+}
@@ -0,0 +1,286 @@
+package edu.clemson.cs.r2jt.init;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.newEnvironment;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.clemson.cs.r2jt.absyn.ConceptModuleDec;
+import edu.clemson.cs.r2jt.absyn.ModuleDec;
+import edu.clemson.cs.r2jt.collections.Iterator;
+import edu.clemson.cs.r2jt.data.Location;
+import edu.clemson.cs.r2jt.data.Mode;
+import edu.clemson.cs.r2jt.data.ModuleID;
+import edu.clemson.cs.r2jt.data.Pos;
+import edu.clemson.cs.r2jt.data.PosSymbol;
+import edu.clemson.cs.r2jt.data.Symbol;
+import edu.clemson.cs.r2jt.entry.VarEntry;
+import edu.clemson.cs.r2jt.errors.ErrorHandler;
+import edu.clemson.cs.r2jt.scope.ModuleScope;
+import edu.clemson.cs.r2jt.scope.SymbolTable;
+import edu.clemson.cs.r2jt.type.BooleanType;
+
+public class TestModuleCache {
+
+    private static final String SETTINGS = "{}";
+
+    private File myDirectory;
+
+    private File myCacheDirectory;
+
+    private final StringWriter myDiagnostics = new StringWriter();
+
+    private CompileEnvironment myEnvironment;
+
+    @Before
+    public void setUp() throws IOException {
+        myDirectory = File.createTempFile("modulecache", "");
+        myDirectory.delete();
+        myDirectory.mkdirs();
+
+        myCacheDirectory = new File(myDirectory, "cache");
+        nextRun();
+    }
+
+    @After
+    public void tearDown() {
+        delete(myDirectory);
+    }
+
+    private static void delete(File file) {
+        File[] entries = file.listFiles();
+        if (entries != null) {
+            for (File entry : entries) {
+                delete(entry);
+            }
+        }
+
+        file.delete();
+    }
+
+    private File source(String name, String text) throws IOException {
+        File retval = new File(myDirectory, name + ".mt");
+
+        Writer out = new FileWriter(retval);
+        try {
+            out.write(text);
+        }
+        finally {
+            out.close();
+        }
+
+        return retval;
+    }
+
+    private static PosSymbol name(File file, String name) {
+        return new PosSymbol(new Location(file, new Pos(1, 1)), Symbol
+                .symbol(name));
+    }
+
+    /*
+     * Compiles, after a fashion, the theory in file into the environment: its
+     * module scope holds one variable, named for the theory, and uses each of
+     * the given theories.
+     */
+    private SymbolTable compile(File file, String... uses) {
+        String theory = file.getName().replace(".mt", "");
+        ModuleID id = ModuleID.createTheoryID(Symbol.symbol(theory));
+
+        ConceptModuleDec dec = new ConceptModuleDec();
+        dec.setName(name(file, theory));
+        myEnvironment.constructRecord(id, file, dec);
+
+        SymbolTable retval = new SymbolTable(id, myEnvironment);
+        retval.createModuleScope();
+        for (String used : uses) {
+            retval.addUsesItem(name(file, used));
+        }
+        retval.addVariableToScope(new VarEntry(retval.getModuleScope(),
+                Mode.MATH, name(file, "Var_" + theory), BooleanType.INSTANCE));
+        retval.completeModuleScope();
+
+        myEnvironment.completeRecord(id, retval);
+
+        return retval;
+    }
+
+    private ModuleCache cache() {
+        return cache(SETTINGS);
+    }
+
+    private ModuleCache cache(String settings) {
+        return new ModuleCache(myCacheDirectory, settings, myEnvironment
+                .getErrorHandler());
+    }
+
+    /*
+     * Starts what the cache and the modules in it see as a new run of the
+     * compiler.
+     */
+    private void nextRun() {
+        myEnvironment = newEnvironment();
+        myEnvironment.setErrorHandler(new ErrorHandler(myEnvironment,
+                new PrintWriter(myDiagnostics, true)));
+        myEnvironment.setDebugOff();
+    }
+
+    private int countAnalysisEntries() {
+        int retval = 0;
+
+        File[] entries = myCacheDirectory.listFiles();
+        if (entries != null) {
+            for (File entry : entries) {
+                if (entry.getName().endsWith(".analysis")) {
+                    retval++;
+                }
+            }
+        }
+
+        return retval;
+    }
+
+    @Test
+    public void testAnalysisIsReadBackLinkedToImports() throws IOException {
+        File a = source("A", "Theory A;");
+        File b = source("B", "Theory B; uses A;");
+
+        ModuleCache cache = cache();
+        compile(a);
+        assertNotNull(cache.fingerprint(a, Collections.<File> emptyList()));
+        SymbolTable table = compile(b, "A");
+        assertNotNull(cache.fingerprint(b, Arrays.asList(a)));
+        cache.storeAnalysis(b, myEnvironment.getModuleDec(table
+                .getModuleID()), table, myEnvironment);
+
+        nextRun();
+        cache = cache();
+        SymbolTable importedTable = compile(a);
+        cache.fingerprint(a, Collections.<File> emptyList());
+        cache.fingerprint(b, Arrays.asList(a));
+
+        ModuleCache.AnalyzedModule cached =
+                cache.loadAnalysis(b, myEnvironment);
+        assertNotNull(cached);
+
+        ModuleDec dec = cached.getModuleDec();
+        assertEquals("B", dec.getName().getName());
+
+        SymbolTable cachedTable = cached.getSymbolTable();
+        cachedTable.setInstanceEnvironment(myEnvironment);
+        ModuleScope scope = cachedTable.getModuleScope();
+        VarEntry variable = scope.getVariable(Symbol.symbol("Var_B"));
+        assertSame(BooleanType.INSTANCE, variable.getType());
+        assertSame(scope, variable.getScope());
+
+        Iterator<ModuleScope> visible = scope.getMathVisibleModules();
+        assertTrue(visible.hasNext());
+        assertSame(importedTable.getModuleScope(), visible.next());
+        assertFalse(visible.hasNext());
+    }
+
+    @Test
+    public void testEditingTransitiveImportChangesFingerprint()
+            throws IOException {
+        File a = source("A", "Theory A;");
+        File b = source("B", "Theory B; uses A;");
+        File c = source("C", "Theory C; uses B;");
+
+        ModuleCache cache = cache();
+        cache.fingerprint(a, Collections.<File> emptyList());
+        cache.fingerprint(b, Arrays.asList(a));
+        String before = cache.fingerprint(c, Arrays.asList(b));
+
+        nextRun();
+        cache = cache();
+        cache.fingerprint(a, Collections.<File> emptyList());
+        cache.fingerprint(b, Arrays.asList(a));
+        assertEquals(before, cache.fingerprint(c, Arrays.asList(b)));
+
+        source("A", "Theory A; -- edited");
+        nextRun();
+        cache = cache();
+        cache.fingerprint(a, Collections.<File> emptyList());
+        cache.fingerprint(b, Arrays.asList(a));
+        String after = cache.fingerprint(c, Arrays.asList(b));
+
+        assertNotNull(after);
+        assertFalse(before.equals(after));
+    }
+
+    @Test
+    public void testSettingsChangeFingerprint() throws IOException {
+        File a = source("A", "Theory A;");
+
+        String before = cache().fingerprint(a, Collections.<File> emptyList());
+        String after =
+                cache("{verify={}}").fingerprint(a,
+                        Collections.<File> emptyList());
+
+        assertFalse(before.equals(after));
+    }
+
+    @Test
+    public void testImportWithoutFingerprintIsNotCached() throws IOException {
+        File a = source("A", "Theory A;");
+        File b = source("B", "Theory B; uses A;");
+
+        ModuleCache cache = cache();
+        compile(a);
+        SymbolTable table = compile(b, "A");
+
+        assertNull(cache.fingerprint(b, Arrays.asList(a)));
+        cache.storeAnalysis(b, myEnvironment.getModuleDec(table
+                .getModuleID()), table, myEnvironment);
+        assertEquals(0, countAnalysisEntries());
+        assertNull(cache.loadAnalysis(b, myEnvironment));
+    }
+
+    @Test
+    public void testUnreadableEntriesAreReportedAndMissed() throws IOException {
+        File a = source("A", "Theory A;");
+
+        ModuleCache cache = cache();
+        SymbolTable table = compile(a);
+        ModuleDec dec = myEnvironment.getModuleDec(table.getModuleID());
+        cache.store(a, dec);
+        cache.fingerprint(a, Collections.<File> emptyList());
+        cache.storeAnalysis(a, dec, table, myEnvironment);
+
+        File[] entries = myCacheDirectory.listFiles();
+        assertEquals(2, entries.length);
+        for (File entry : entries) {
+            Writer out = new FileWriter(entry);
+            try {
+                out.write("damaged");
+            }
+            finally {
+                out.close();
+            }
+        }
+
+        ErrorHandler err = myEnvironment.getErrorHandler();
+        int initWarningCount = err.getWarningCount();
+        assertNull(cache.load(a));
+        assertNull(cache.loadAnalysis(a, myEnvironment));
+        assertEquals(initWarningCount + 2, err.getWarningCount());
+        assertTrue(myDiagnostics.toString(), myDiagnostics.toString()
+                .contains("Ignoring unreadable module cache entry"));
+    }
+}
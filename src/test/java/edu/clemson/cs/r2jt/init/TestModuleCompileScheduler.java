@@ -0,0 +1,198 @@
+package edu.clemson.cs.r2jt.init;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.newEnvironment;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.clemson.cs.r2jt.errors.ErrorHandler;
+
+public class TestModuleCompileScheduler {
+
+    private static final File A = new File("A.co");
+    private static final File B = new File("B.co");
+    private static final File C = new File("C.co");
+    private static final File D = new File("D.co");
+
+    private final StringWriter myDiagnostics = new StringWriter();
+
+    private final List<File> myCompiled =
+            Collections.synchronizedList(new ArrayList<File>());
+
+    private CompileEnvironment myEnvironment;
+
+    private ModuleCompileScheduler myScheduler;
+
+    @Before
+    public void setUp() {
+        myEnvironment = newEnvironment();
+        myEnvironment.setErrorHandler(new ErrorHandler(myEnvironment,
+                new PrintWriter(myDiagnostics, true)));
+        myEnvironment.setDebugOff();
+
+        myScheduler = new ModuleCompileScheduler(myEnvironment, 2);
+    }
+
+    @After
+    public void tearDown() {
+        myScheduler.shutdown();
+    }
+
+    /*
+     * Schedules file, which imports imports, to be compiled by waiting for
+     * started to be counted down and then noting that it was compiled.
+     */
+    private void schedule(final File file, final CountDownLatch started,
+            File... imports) {
+        myScheduler.schedule(file, Arrays.asList(imports),
+                new ModuleCompileScheduler.Compilation() {
+
+                    public void compile() {
+                        try {
+                            assertTrue(started.await(10, TimeUnit.SECONDS));
+                        }
+                        catch (InterruptedException ie) {
+                            throw new RuntimeException(ie);
+                        }
+                        myCompiled.add(file);
+                    }
+                });
+    }
+
+    private void schedule(File file, File... imports) {
+        schedule(file, new CountDownLatch(0), imports);
+    }
+
+    /*
+     * Schedules file to report an error and fail.
+     */
+    private void scheduleFailure(final File file, File... imports) {
+        myScheduler.schedule(file, Arrays.asList(imports),
+                new ModuleCompileScheduler.Compilation() {
+
+                    public void compile() throws CompilerException {
+                        myCompiled.add(file);
+                        myEnvironment.getErrorHandler().error(
+                                "Failed " + file.getName());
+                        throw new CompilerException();
+                    }
+                });
+    }
+
+    private static List<File> files(
+            List<ModuleCompileScheduler.ScheduledCompile> compiles) {
+        List<File> retval = new ArrayList<File>();
+
+        for (ModuleCompileScheduler.ScheduledCompile compile : compiles) {
+            retval.add(compile.getFile());
+        }
+
+        return retval;
+    }
+
+    @Test
+    public void testImportsCompiledBeforeImporters() {
+        //A cannot finish until D has been compiled, so D must run beside it
+        final CountDownLatch dCompiled = new CountDownLatch(1);
+        schedule(A, dCompiled);
+        schedule(B, A);
+        schedule(C, A, B);
+        myScheduler.schedule(D, Collections.<File> emptyList(),
+                new ModuleCompileScheduler.Compilation() {
+
+                    public void compile() {
+                        myCompiled.add(D);
+                        dCompiled.countDown();
+                    }
+                });
+
+        List<ModuleCompileScheduler.ScheduledCompile> compiles =
+                myScheduler.finish();
+        assertEquals(Arrays.asList(A, B, C, D), files(compiles));
+        for (ModuleCompileScheduler.ScheduledCompile compile : compiles) {
+            assertTrue(compile.succeeded());
+            assertNull(compile.getFailure());
+        }
+
+        assertEquals(4, myCompiled.size());
+        assertTrue(myCompiled.indexOf(A) < myCompiled.indexOf(B));
+        assertTrue(myCompiled.indexOf(B) < myCompiled.indexOf(C));
+    }
+
+    @Test
+    public void testFailedImportFailsImportersWithoutRunningThem() {
+        scheduleFailure(A);
+        schedule(B, A);
+        schedule(C, B);
+        schedule(D);
+
+        List<ModuleCompileScheduler.ScheduledCompile> compiles =
+                myScheduler.finish();
+        assertEquals(Arrays.asList(A, B, C, D), files(compiles));
+        assertFalse(compiles.get(0).succeeded());
+        assertFalse(compiles.get(1).succeeded());
+        assertFalse(compiles.get(2).succeeded());
+        assertTrue(compiles.get(3).succeeded());
+
+        assertEquals(2, myCompiled.size());
+        assertFalse(myCompiled.contains(B));
+        assertFalse(myCompiled.contains(C));
+        assertNull(compiles.get(1).getDiagnostics());
+    }
+
+    @Test
+    public void testDiagnosticsKeptApartUntilAbsorbed() {
+        scheduleFailure(A);
+        List<ModuleCompileScheduler.ScheduledCompile> compiles =
+                myScheduler.finish();
+
+        ErrorHandler err = myEnvironment.getErrorHandler();
+        assertEquals(0, err.getErrorCount());
+        assertEquals("", myDiagnostics.toString());
+
+        ModuleCompileScheduler.ScheduledCompile compile = compiles.get(0);
+        assertEquals(1, compile.getDiagnostics().getErrorCount());
+        assertTrue(compile.getOutput().contains("Failed A.co"));
+
+        err.absorb(compile.getDiagnostics(), compile.getOutput());
+        assertEquals(1, err.getErrorCount());
+        assertTrue(myDiagnostics.toString().contains("Failed A.co"));
+    }
+
+    @Test
+    public void testUnexpectedExceptionIsKeptForCompilingThread() {
+        final RuntimeException bug = new RuntimeException("bug");
+        myScheduler.schedule(A, Collections.<File> emptyList(),
+                new ModuleCompileScheduler.Compilation() {
+
+                    public void compile() {
+                        throw bug;
+                    }
+                });
+        schedule(B, A);
+
+        List<ModuleCompileScheduler.ScheduledCompile> compiles =
+                myScheduler.finish();
+        assertSame(bug, compiles.get(0).getFailure());
+        assertFalse(compiles.get(0).succeeded());
+        assertFalse(compiles.get(1).succeeded());
+        assertEquals(0, myCompiled.size());
+    }
+}
@@ -0,0 +1,88 @@
+package edu.clemson.cs.r2jt.proving;
+
+import java.util.Arrays;
+
+import edu.clemson.cs.r2jt.Main;
+import edu.clemson.cs.r2jt.absyn.Exp;
+import edu.clemson.cs.r2jt.absyn.VarExp;
+import edu.clemson.cs.r2jt.analysis.MathExpTypeResolver;
+import edu.clemson.cs.r2jt.data.PosSymbol;
+import edu.clemson.cs.r2jt.data.Symbol;
+import edu.clemson.cs.r2jt.init.CompileEnvironment;
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
+import edu.clemson.cs.r2jt.proving.absyn.PSymbol;
+import edu.clemson.cs.r2jt.type.BooleanType;
+import edu.clemson.cs.r2jt.utilities.FlagDependencyException;
+
+/**
+ * <p>What the tests of the prover and its neighbours build over and over: a
+ * compile environment with few or no flags set, a type resolver with no symbol
+ * table, and terms and propositions built with them.</p>
+ */
+public final class ProverTestFixtures {
+
+    private static MathExpTypeResolver ourTyper;
+
+    private ProverTestFixtures() {}
+
+    /**
+     * <p>Returns a new environment with only the given flags set, setting up
+     * the compiler's flags first if no test has yet.</p>
+     */
+    public static CompileEnvironment newEnvironment(String... flags) {
+        Main.setUpFlagDependencies();
+
+        try {
+            return new CompileEnvironment(flags);
+        }
+        catch (FlagDependencyException fde) {
+            throw new RuntimeException(fde);
+        }
+    }
+
+    /**
+     * <p>Returns the resolver every term built here shares.</p>
+     */
+    public static synchronized MathExpTypeResolver typer() {
+        if (ourTyper == null) {
+            ourTyper = new MathExpTypeResolver(null, null, newEnvironment());
+        }
+
+        return ourTyper;
+    }
+
+    public static PSymbol constant(String name) {
+        return new PSymbol(null, name, typer());
+    }
+
+    public static PSymbol variable(String name) {
+        return new PSymbol(null, name, PSymbol.Quantification.FOR_ALL,
+                typer());
+    }
+
+    public static PSymbol apply(String name, PExp... arguments) {
+        return new PSymbol(null, name, Arrays.asList(arguments), typer());
+    }
+
+    /**
+     * <p>Returns the application of the universally quantified function
+     * <code>name</code> to <code>arguments</code>.</p>
+     */
+    public static PSymbol applyVariable(String name, PExp... arguments) {
+        return new PSymbol(null, name, Arrays.asList(arguments),
+                PSymbol.Quantification.FOR_ALL, typer());
+    }
+
+    /**
+     * <p>Returns a boolean name, as the antecedent or consequent of a
+     * <code>VerificationCondition</code>.</p>
+     */
+    public static Exp proposition(String name) {
+        VarExp retval =
+                new VarExp(null, null, new PosSymbol(null, Symbol
+                        .symbol(name)));
+        retval.setType(BooleanType.INSTANCE);
+
+        return retval;
+    }
+}
@@ -0,0 +1,134 @@
+package edu.clemson.cs.r2jt.proving;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.constant;
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.newEnvironment;
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.proposition;
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.typer;
+
+import org.junit.Test;
+
+import edu.clemson.cs.r2jt.init.CompileEnvironment;
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
+
+/**
+ * <p>Checks that an <code>AlternativeProver</code> left to its default
+ * budgets gives up on a search that would otherwise never end.</p>
+ */
+public class TestAlternativeProver {
+
+    private final CompileEnvironment myEnvironment = newEnvironment();
+
+    private final VerificationCondition myVC =
+            new VerificationCondition(proposition("true"), proposition("s"),
+                    "0_1");
+
+    private ProverException prove(int branches) throws ProverException {
+        AlternativeProver prover =
+                new AlternativeProver(myEnvironment, new RunawayChooser(
+                        branches), typer());
+
+        ProverException retval = null;
+        try {
+            prover.prove(myVC, null, null, Long.MAX_VALUE);
+            fail("Proved");
+        }
+        catch (UnableToProveException e) {
+            retval = e;
+        }
+
+        return retval;
+    }
+
+    @Test
+    public void testDefaultsAreFinite() {
+        assertEquals(Prover.DEFAULT_MAX_PROOF_STATES, Prover
+                .getMaxProofStates(myEnvironment.flags));
+        assertEquals(Prover.DEFAULT_MAX_PROOF_DEPTH, Prover
+                .getMaxProofDepth(myEnvironment.flags));
+    }
+
+    @Test
+    public void testEndlessChainStopsAtDefaultDepth() throws ProverException {
+        ProverException result = prove(1);
+
+        assertEquals(UnableToProveException.class, result.getClass());
+        assertEquals(Prover.DEFAULT_MAX_PROOF_DEPTH + 1, result.getMetrics()
+                .getNumProofsConsidered());
+    }
+
+    @Test
+    public void testEndlessBranchingStopsAtDefaultStates()
+            throws ProverException {
+
+        //Two ways forward at every step would take 2^100 states to exhaust
+        ProverException result = prove(2);
+
+        assertEquals(ProofBudgetExceededException.class, result.getClass());
+        assertEquals(Prover.DEFAULT_MAX_PROOF_STATES, result.getMetrics()
+                .getNumProofsConsidered());
+    }
+
+    /**
+     * <p>A chooser that always offers the given number of steps, each to a VC
+     * never seen before, so that no proof is ever found.</p>
+     */
+    private static class RunawayChooser implements TransformationChooser {
+
+        private final int myBranches;
+        private int myNextName = 0;
+
+        public RunawayChooser(int branches) {
+            myBranches = branches;
+        }
+
+        public void preoptimizeForVC(VC vc) {}
+
+        public Iterator<ProofPathSuggestion> suggestTransformations(VC vc,
+                int curLength, Metrics metrics, ProofData d) {
+
+            List<ProofPathSuggestion> retval =
+                    new ArrayList<ProofPathSuggestion>();
+            for (int i = 0; i < myBranches; i++) {
+                retval.add(new ProofPathSuggestion(new Fresh(), d));
+            }
+
+            return retval.iterator();
+        }
+
+        /**
+         * <p>A step that replaces the consequent with a fresh name.</p>
+         */
+        private class Fresh implements VCTransformer {
+
+            public Iterator<VC> transform(VC original) {
+                List<PExp> consequents =
+                        Collections.<PExp> singletonList(constant("n"
+                                + myNextName++));
+
+                return Collections.singletonList(
+                        new VC(original.getName(), original.getAntecedent(),
+                                new Consequent(consequents))).iterator();
+            }
+
+            public Antecedent getPattern() {
+                throw new UnsupportedOperationException();
+            }
+
+            public Consequent getReplacementTemplate() {
+                throw new UnsupportedOperationException();
+            }
+
+            public boolean introducesQuantifiedVariables() {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package edu.clemson.cs.r2jt.proving;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.constant;
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.newEnvironment;
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.proposition;
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.typer;
+
+import org.junit.Test;
+
+import edu.clemson.cs.r2jt.init.CompileEnvironment;
+import edu.clemson.cs.r2jt.proving.FrontierProver.SearchOrder;
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
+import edu.clemson.cs.r2jt.proving.absyn.PSymbol;
+
+public class TestFrontierProver {
+
+    private final CompileEnvironment myEnvironment = newEnvironment();
+
+    private final ScriptedChooser myChooser = new ScriptedChooser();
+
+    private VerificationCondition vc(String consequent) {
+        return new VerificationCondition(proposition("true"),
+                proposition(consequent), "0_1");
+    }
+
+    /**
+     * <p>Proves the VC whose consequent is <code>consequent</code> and returns
+     * the names of the steps of the proof, in order.</p>
+     */
+    private List<String> prove(SearchOrder order, String consequent)
+            throws ProverException {
+
+        FrontierProver prover =
+                new FrontierProver(myEnvironment, myChooser, typer(), order);
+
+        List<String> retval = null;
+        try {
+            prover.prove(vc(consequent), null, null, Long.MAX_VALUE);
+            fail("Not proved");
+        }
+        catch (VCProvedException e) {
+            retval = myChooser.stepsIn(e.toString());
+        }
+
+        return retval;
+    }
+
+    private void assertNotProved(SearchOrder order, String consequent,
+            ActionCanceller canceller, long timeoutAt,
+            Class<? extends ProverException> expected) throws ProverException {
+
+        FrontierProver prover =
+                new FrontierProver(myEnvironment, myChooser, typer(), order);
+
+        try {
+            prover.prove(vc(consequent), null, canceller, timeoutAt);
+            fail("No exception");
+        }
+        catch (UnableToProveException e) {
+            assertEquals(expected, e.getClass());
+        }
+    }
+
+    private void scriptBranchingSearch() {
+        //A long proof is suggested before a short one
+        myChooser.step("s", "s-d1", "d1");
+        myChooser.step("s", "s-t", "t");
+        myChooser.step("d1", "d1-d2", "d2");
+        myChooser.step("d2", "d2-done");
+        myChooser.step("t", "t-done");
+    }
+
+    @Test
+    public void testDepthFirstFollowsSuggestionOrder() throws ProverException {
+        scriptBranchingSearch();
+
+        assertEquals(list("s-d1", "d1-d2", "d2-done"), prove(
+                SearchOrder.DEPTH_FIRST, "s"));
+    }
+
+    @Test
+    public void testIterativeDeepeningFindsShortestProof()
+            throws ProverException {
+        scriptBranchingSearch();
+
+        assertEquals(list("s-t", "t-done"), prove(
+                SearchOrder.ITERATIVE_DEEPENING, "s"));
+    }
+
+    @Test
+    public void testBestFirstPrefersSmallerConsequent()
+            throws ProverException {
+        //Depth first would find the two-step proof through "p q"
+        myChooser.step("s", "s-pq", "p", "q");
+        myChooser.step("s", "s-r", "r");
+        myChooser.step("p q", "pq-done");
+        myChooser.step("r", "r-r2", "r2");
+        myChooser.step("r2", "r2-done");
+
+        assertEquals(list("s-pq", "pq-done"), prove(SearchOrder.DEPTH_FIRST,
+                "s"));
+        assertEquals(list("s-r", "r-r2", "r2-done"), prove(
+                SearchOrder.BEST_FIRST, "s"));
+    }
+
+    @Test
+    public void testDeepProofDoesNotOverflowStack() throws ProverException {
+        int length = 100000;
+        for (int i = 0; i < length; i++) {
+            myChooser.step("n" + i, "step" + i, "n" + (i + 1));
+        }
+        myChooser.step("n" + length, "done");
+
+        //Far beyond the default budgets
+        CompileEnvironment unlimited =
+                newEnvironment("-altprove", "-maxproofdepth", "" + length * 2,
+                        "-maxproofstates", "" + length * 2);
+
+        FrontierProver prover =
+                new FrontierProver(unlimited, myChooser, typer(),
+                        SearchOrder.DEPTH_FIRST);
+        try {
+            prover.prove(vc("n0"), null, null, Long.MAX_VALUE);
+            fail("Not proved");
+        }
+        catch (VCProvedException e) {
+            assertEquals(length + 2, e.getMetrics().getNumProofsConsidered());
+        }
+    }
+
+    @Test
+    public void testExhaustedSearchIsUnableToProve() throws ProverException {
+        myChooser.step("s", "s-u", "u");
+        myChooser.step("s", "s-v", "v");
+
+        for (SearchOrder order : SearchOrder.values()) {
+            assertNotProved(order, "s", null, Long.MAX_VALUE,
+                    UnableToProveException.class);
+        }
+    }
+
+    @Test
+    public void testTimeoutExceedsBudget() throws ProverException {
+        myChooser.step("s", "s-u", "u");
+
+        for (SearchOrder order : SearchOrder.values()) {
+            assertNotProved(order, "s", null, 0,
+                    ProofBudgetExceededException.class);
+        }
+    }
+
+    @Test
+    public void testCancelledSearchStops() throws ProverException {
+        scriptBranchingSearch();
+
+        ActionCanceller canceller = new ActionCanceller();
+        canceller.cancel();
+
+        for (SearchOrder order : SearchOrder.values()) {
+            assertNotProved(order, "s", canceller, Long.MAX_VALUE,
+                    UnableToProveException.class);
+        }
+    }
+
+    @Test
+    public void testOrderNames() {
+        assertEquals(SearchOrder.BEST_FIRST, SearchOrder
+                .fromName("best-first"));
+        assertEquals(SearchOrder.ITERATIVE_DEEPENING, SearchOrder
+                .fromName(" Iterative_Deepening "));
+        assertFalse(SearchOrder.DEPTH_FIRST.equals(SearchOrder
+                .fromName("best_first")));
+    }
+
+    private static List<String> list(String... elements) {
+        List<String> retval = new ArrayList<String>();
+        Collections.addAll(retval, elements);
+        return retval;
+    }
+
+    /**
+     * <p>A chooser that suggests steps given to it by the test, keyed by the
+     * names in the consequent of the VC they apply to.</p>
+     */
+    private class ScriptedChooser implements TransformationChooser {
+
+        private final Map<String, List<ProofPathSuggestion>> mySteps =
+                new HashMap<String, List<ProofPathSuggestion>>();
+
+        public void step(String from, String name, String... to) {
+            List<ProofPathSuggestion> steps = mySteps.get(from);
+            if (steps == null) {
+                steps = new ArrayList<ProofPathSuggestion>();
+                mySteps.put(from, steps);
+            }
+
+            steps.add(new ProofPathSuggestion(new Rewrite(name, to),
+                    new ProofData()));
+        }
+
+        /**
+         * <p>Returns the names of the steps applied in the given proof, in
+         * order.</p>
+         */
+        public List<String> stepsIn(String proof) {
+            List<String> retval = new ArrayList<String>();
+
+            for (String line : proof.split("\n")) {
+                if (line.startsWith("Applying ")) {
+                    retval.add(line.substring("Applying ".length(), line
+                            .length() - "...".length()));
+                }
+            }
+
+            return retval;
+        }
+
+        public void preoptimizeForVC(VC vc) {}
+
+        public Iterator<ProofPathSuggestion> suggestTransformations(VC vc,
+                int curLength, Metrics metrics, ProofData d) {
+
+            String key = "";
+            for (PExp c : vc.getConsequent()) {
+                if (key.length() > 0) {
+                    key += " ";
+                }
+                key += ((PSymbol) c).name;
+            }
+
+            List<ProofPathSuggestion> retval = mySteps.get(key);
+            if (retval == null) {
+                retval = Collections.emptyList();
+            }
+
+            return retval.iterator();
+        }
+    }
+
+    /**
+     * <p>A step that replaces the whole consequent with the given names.</p>
+     */
+    private class Rewrite implements VCTransformer {
+
+        private final String myName;
+        private final String[] myResult;
+
+        public Rewrite(String name, String[] result) {
+            myName = name;
+            myResult = result;
+        }
+
+        public Iterator<VC> transform(VC original) {
+            List<PExp> consequents = new ArrayList<PExp>();
+            for (String name : myResult) {
+                consequents.add(constant(name));
+            }
+
+            return Collections.singletonList(
+                    new VC(original.getName(), original.getAntecedent(),
+                            new Consequent(consequents))).iterator();
+        }
+
+        public Antecedent getPattern() {
+            throw new UnsupportedOperationException();
+        }
+
+        public Consequent getReplacementTemplate() {
+            throw new UnsupportedOperationException();
+        }
+
+        public boolean introducesQuantifiedVariables() {
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return myName;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package edu.clemson.cs.r2jt.proving;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.apply;
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.constant;
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.variable;
+
+import org.junit.Test;
+
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
+import edu.clemson.cs.r2jt.proving.absyn.PSymbol;
+
+public class TestImmutableConjuncts {
+
+    private final PSymbol myA = constant("a");
+    private final PSymbol myB = constant("b");
+    private final PSymbol myC = constant("c");
+    private final PSymbol myX = constant("x");
+    private final PSymbol myZ = constant("z");
+
+    //"Aa" and "BB" have the same String hash, and so the same term hash
+    private final PSymbol myAa = constant("Aa");
+    private final PSymbol myBB = constant("BB");
+
+    private static ImmutableConjuncts conjuncts(PExp... exps) {
+        return new ImmutableConjuncts(Arrays.asList(exps));
+    }
+
+    @Test
+    public void testEqualsIgnoresOrder() {
+        ImmutableConjuncts abc = conjuncts(myA, myB, myC);
+        ImmutableConjuncts cab = conjuncts(myC, myA, myB);
+
+        assertTrue(abc.equals(cab));
+        assertTrue(cab.equals(abc));
+        assertEquals(abc.hashCode(), cab.hashCode());
+        assertFalse(abc.orderEqual(cab));
+    }
+
+    @Test
+    public void testEqualsIgnoresDuplicates() {
+        ImmutableConjuncts aab = conjuncts(myA, myA, myB);
+        ImmutableConjuncts ba = conjuncts(myB, myA);
+
+        assertTrue(aab.equals(ba));
+        assertTrue(ba.equals(aab));
+        assertEquals(aab.hashCode(), ba.hashCode());
+    }
+
+    @Test
+    public void testNotEqual() {
+        assertFalse(conjuncts(myA, myB).equals(conjuncts(myA, myC)));
+        assertFalse(conjuncts(myA, myB).equals(conjuncts(myA)));
+        assertFalse(conjuncts(myA).equals(conjuncts(myA, myB)));
+    }
+
+    @Test
+    public void testEqualsOtherIterable() {
+        ImmutableConjuncts ab = conjuncts(myA, myB);
+
+        assertTrue(ab.equals(Arrays.<PExp> asList(myB, myA)));
+        assertFalse(ab.equals(Arrays.<PExp> asList(myA, myC)));
+    }
+
+    @Test
+    public void testContainsEqual() {
+        ImmutableConjuncts abc = conjuncts(myA, myB, myC);
+
+        assertTrue(abc.containsEqual(myB));
+        assertTrue(abc.containsEqual(constant("c")));
+        assertFalse(abc.containsEqual(myX));
+        assertFalse(ImmutableConjuncts.EMPTY.containsEqual(myA));
+    }
+
+    @Test
+    public void testEliminateRedundantKeepsFirstOccurrence() {
+        //Equal to myX, since equality ignores quantifiers, but a different
+        //term, so we can tell which one survives
+        PSymbol forAllX = variable("x");
+
+        ImmutableConjuncts original =
+                conjuncts(forAllX, myB, myX, myA, myB, forAllX);
+        ImmutableConjuncts reduced = original.eliminateRedundantConjuncts();
+
+        assertEquals(3, reduced.size());
+        assertSame(forAllX, reduced.get(0));
+        assertSame(myB, reduced.get(1));
+        assertSame(myA, reduced.get(2));
+        assertTrue(reduced.equals(original));
+    }
+
+    @Test
+    public void testEliminateRedundantWithoutDuplicates() {
+        ImmutableConjuncts abc = conjuncts(myA, myB, myC);
+
+        assertSame(abc, abc.eliminateRedundantConjuncts());
+    }
+
+    @Test
+    public void testHashCollisions() {
+        assertEquals(myAa.hashCode(), myBB.hashCode());
+        assertFalse(myAa.equals(myBB));
+
+        ImmutableConjuncts aa = conjuncts(myAa);
+        ImmutableConjuncts bb = conjuncts(myBB);
+
+        assertFalse(aa.equals(bb));
+        assertFalse(aa.containsEqual(myBB));
+        assertTrue(conjuncts(myAa, myBB).equals(conjuncts(myBB, myAa)));
+        assertFalse(conjuncts(myAa, myAa).equals(conjuncts(myAa, myBB)));
+
+        ImmutableConjuncts reduced =
+                conjuncts(myBB, myAa, myBB, myAa).eliminateRedundantConjuncts();
+
+        assertEquals(2, reduced.size());
+        assertSame(myBB, reduced.get(0));
+        assertSame(myAa, reduced.get(1));
+    }
+
+    @Test
+    public void testSubstituteUnchangedReturnsThis() {
+        ImmutableConjuncts original = conjuncts(apply("f", myX), myB);
+
+        Map<PExp, PExp> unrelated =
+                Collections.<PExp, PExp> singletonMap(myZ, myA);
+        assertSame(original, original.substitute(unrelated));
+
+        Map<PExp, PExp> xToA = Collections.<PExp, PExp> singletonMap(myX, myA);
+        ImmutableConjuncts substituted = original.substitute(xToA);
+
+        assertNotSame(original, substituted);
+        assertTrue(substituted.equals(conjuncts(apply("f", myA), myB)));
+        assertSame(myB, substituted.get(1));
+    }
+}
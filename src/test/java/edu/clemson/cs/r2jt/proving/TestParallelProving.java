@@ -0,0 +1,281 @@
+package edu.clemson.cs.r2jt.proving;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.apply;
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.constant;
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.newEnvironment;
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.proposition;
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.typer;
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.variable;
+
+import org.junit.Test;
+
+import edu.clemson.cs.r2jt.init.CompileEnvironment;
+import edu.clemson.cs.r2jt.proving.FrontierProver.SearchOrder;
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
+import edu.clemson.cs.r2jt.proving.absyn.PSymbol;
+
+/**
+ * <p>Checks that proving on several threads at once, as
+ * <code>-parallelprove</code> does, gives the same results as proving on one:
+ * that terms shared between the threads are never disturbed by them, and that
+ * workers with their own provers but a shared library agree with a sequential
+ * run.</p>
+ */
+public class TestParallelProving {
+
+    private static final int THREADS = 4;
+
+    private static final int VCS = 40;
+
+    private final CompileEnvironment myEnvironment = newEnvironment();
+
+    /**
+     * <p>The steps every worker may use, shared between them as the theorem
+     * library is.  Step <em>i</em> takes <code>n</code><em>i</em> to
+     * <code>n</code><em>i - 1</em>, and step 0 proves <code>n0</code>.</p>
+     */
+    private final List<Rewrite> myLibrary = buildLibrary();
+
+    private List<Rewrite> buildLibrary() {
+        List<Rewrite> retval = new ArrayList<Rewrite>();
+
+        retval.add(new Rewrite("step0", null));
+        for (int i = 1; i <= VCS; i++) {
+            retval.add(new Rewrite("step" + i, constant("n" + (i - 1))));
+        }
+
+        return retval;
+    }
+
+    private static VerificationCondition vc(int index) {
+        return new VerificationCondition(proposition("true"),
+                proposition("n" + index), "" + index);
+    }
+
+    /**
+     * <p>Runs <code>task</code> on every thread of a fixed pool at once and
+     * returns each thread's result.</p>
+     */
+    private static <T> List<T> onEveryThread(final Callable<T> task)
+            throws Exception {
+
+        ExecutorService workers = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<T>> futures = new LinkedList<Future<T>>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(workers.submit(task));
+            }
+
+            List<T> retval = new ArrayList<T>();
+            for (Future<T> future : futures) {
+                retval.add(future.get());
+            }
+
+            return retval;
+        }
+        finally {
+            workers.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSharedTermsAreNotDisturbed() throws Exception {
+        final PSymbol x = variable("x");
+        final PSymbol y = variable("y");
+
+        //Only later arguments change, so that a substitution must copy the
+        //unchanged ones
+        final PSymbol shared =
+                apply("f", constant("a"), constant("b"), x, apply("g",
+                        constant("a"), y));
+        final String original = shared.toString();
+
+        List<Boolean> results = onEveryThread(new Callable<Boolean>() {
+
+            public Boolean call() {
+                boolean retval = true;
+
+                Map<PExp, PExp> substitutions = new HashMap<PExp, PExp>();
+                String expected;
+                PSymbol c, d;
+                for (int i = 0; i < 2000; i++) {
+                    c = constant("c" + i);
+                    d = constant("d" + i);
+                    substitutions.put(x, c);
+                    substitutions.put(y, d);
+
+                    expected =
+                            apply("f", constant("a"), constant("b"), c,
+                                    apply("g", constant("a"), d)).toString();
+
+                    retval &=
+                            expected.equals(shared.substitute(substitutions)
+                                    .toString());
+                    retval &= shared.flipQuantifiers().equals(shared);
+                }
+
+                return retval;
+            }
+        });
+
+        assertEquals(Collections.nCopies(THREADS, true), results);
+        assertEquals(original, shared.toString());
+    }
+
+    @Test
+    public void testWorkersAgreeWithSequentialRun() throws Exception {
+        List<String> sequential = new ArrayList<String>();
+        FrontierProver prover = newProver();
+        for (int i = 0; i < VCS; i++) {
+            sequential.add(prove(prover, vc(i)));
+        }
+
+        //As in Prover, each worker builds its own prover, and outcomes are
+        //collected in VC order
+        final ThreadLocal<FrontierProver> workerProvers =
+                new ThreadLocal<FrontierProver>() {
+
+                    @Override
+                    protected FrontierProver initialValue() {
+                        return newProver();
+                    }
+                };
+
+        List<String> parallel = new ArrayList<String>();
+        ExecutorService workers = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<String>> outcomes = new LinkedList<Future<String>>();
+            for (int i = 0; i < VCS; i++) {
+                final VerificationCondition toProve = vc(i);
+
+                outcomes.add(workers.submit(new Callable<String>() {
+
+                    public String call() {
+                        return prove(workerProvers.get(), toProve);
+                    }
+                }));
+            }
+
+            for (Future<String> outcome : outcomes) {
+                parallel.add(outcome.get());
+            }
+        }
+        finally {
+            workers.shutdownNow();
+        }
+
+        assertEquals(sequential, parallel);
+        assertTrue(sequential.get(VCS - 1).contains("Applying step0"));
+    }
+
+    private FrontierProver newProver() {
+        return new FrontierProver(myEnvironment, new LibraryChooser(),
+                typer(), SearchOrder.DEPTH_FIRST);
+    }
+
+    private static String prove(FrontierProver prover,
+            VerificationCondition vc) {
+
+        String retval;
+
+        try {
+            prover.prove(vc, null, null, Long.MAX_VALUE);
+            retval = "Not proved";
+        }
+        catch (VCProvedException e) {
+            retval = e.toString();
+        }
+        catch (ProverException e) {
+            retval = e.getClass().getName();
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>A chooser that suggests every step of the library, in order.  One is
+     * built for each worker, as the real choosers are.</p>
+     */
+    private class LibraryChooser implements TransformationChooser {
+
+        public void preoptimizeForVC(VC vc) {}
+
+        public Iterator<ProofPathSuggestion> suggestTransformations(VC vc,
+                int curLength, Metrics metrics, ProofData d) {
+
+            List<ProofPathSuggestion> retval =
+                    new ArrayList<ProofPathSuggestion>();
+            for (Rewrite step : myLibrary) {
+                retval.add(new ProofPathSuggestion(step, d));
+            }
+
+            return retval.iterator();
+        }
+    }
+
+    /**
+     * <p>A step that applies to a consequent of one name and replaces it with
+     * a single shared term, or with nothing.</p>
+     */
+    private class Rewrite implements VCTransformer {
+
+        private final String myName;
+        private final PSymbol myPattern;
+        private final PSymbol myResult;
+
+        public Rewrite(String name, PSymbol result) {
+            myName = name;
+            myPattern = constant("n" + name.substring("step".length()));
+            myResult = result;
+        }
+
+        public Iterator<VC> transform(VC original) {
+            List<VC> retval = new LinkedList<VC>();
+
+            Iterator<PExp> consequents = original.getConsequent().iterator();
+            if (consequents.hasNext() && consequents.next().equals(myPattern)) {
+                List<PExp> newConsequents = new LinkedList<PExp>();
+                if (myResult != null) {
+                    newConsequents.add(myResult);
+                }
+
+                retval.add(new VC(original.getName(), original.getAntecedent(),
+                        new Consequent(newConsequents)));
+            }
+
+            return retval.iterator();
+        }
+
+        public Antecedent getPattern() {
+            throw new UnsupportedOperationException();
+        }
+
+        public Consequent getReplacementTemplate() {
+            throw new UnsupportedOperationException();
+        }
+
+        public boolean introducesQuantifiedVariables() {
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return myName;
+        }
+    }
+}
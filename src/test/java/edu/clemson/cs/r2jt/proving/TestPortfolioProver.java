@@ -0,0 +1,229 @@
+package edu.clemson.cs.r2jt.proving;
+
+import java.math.BigInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.proposition;
+
+import org.junit.Test;
+
+public class TestPortfolioProver {
+
+    /**
+     * <p>How long, in milliseconds, a strategy that waits to be stopped will
+     * wait before giving up, so that a broken race fails rather than
+     * hangs.</p>
+     */
+    private static final long PATIENCE = 10000;
+
+    private final VerificationCondition myVC =
+            new VerificationCondition(proposition("true"), proposition("p"),
+                    "0_1");
+
+    private static Metrics metrics(int proofsConsidered) {
+        Metrics retval = new Metrics();
+
+        for (int i = 0; i < proofsConsidered; i++) {
+            retval.incrementProofsConsidered(0);
+        }
+
+        return retval;
+    }
+
+    private static PortfolioProver race(VCProver... strategies) {
+        PortfolioProver retval = new PortfolioProver();
+
+        for (VCProver strategy : strategies) {
+            retval.addStrategy(strategy);
+        }
+
+        return retval;
+    }
+
+    private ProverException prove(PortfolioProver prover,
+            ActionCanceller canceller) throws VCInconsistentException {
+
+        ProverException retval = null;
+
+        try {
+            prover.prove(myVC, null, canceller, Long.MAX_VALUE);
+            fail("No result");
+        }
+        catch (VCProvedException e) {
+            retval = e;
+        }
+        catch (UnableToProveException e) {
+            retval = e;
+        }
+
+        return retval;
+    }
+
+    @Test
+    public void testFirstProofWinsAndStopsTheRest()
+            throws VCInconsistentException {
+
+        Strategy slow = new Strategy(Outcome.WAIT, 3);
+        Strategy fast = new Strategy(Outcome.PROVE, 5);
+
+        ProverException result = prove(race(slow, fast), null);
+
+        assertEquals(VCProvedException.class, result.getClass());
+        assertTrue(slow.wasStopped);
+        assertEquals(8, result.getMetrics().getNumProofsConsidered());
+    }
+
+    @Test
+    public void testFailsOnlyIfEveryStrategyFails()
+            throws VCInconsistentException {
+
+        ProverException result =
+                prove(race(new Strategy(Outcome.FAIL, 1), new Strategy(
+                        Outcome.FAIL, 2)), null);
+
+        assertEquals(UnableToProveException.class, result.getClass());
+        assertEquals(3, result.getMetrics().getNumProofsConsidered());
+    }
+
+    @Test
+    public void testBudgetExceededIfAnyStrategyRanOut()
+            throws VCInconsistentException {
+
+        ProverException result =
+                prove(race(new Strategy(Outcome.FAIL, 1), new Strategy(
+                        Outcome.RUN_OUT, 1)), null);
+
+        assertEquals(ProofBudgetExceededException.class, result.getClass());
+    }
+
+    @Test
+    public void testOutsideCancelStopsEveryStrategy()
+            throws VCInconsistentException {
+
+        Strategy first = new Strategy(Outcome.WAIT, 0);
+        Strategy second = new Strategy(Outcome.WAIT, 0);
+
+        ActionCanceller canceller = new ActionCanceller();
+        canceller.cancel();
+
+        ProverException result = prove(race(first, second), canceller);
+
+        assertEquals(UnableToProveException.class, result.getClass());
+        assertTrue(first.wasStopped);
+        assertTrue(second.wasStopped);
+    }
+
+    @Test
+    public void testStrategyErrorStopsTheRestAndIsThrown()
+            throws VCInconsistentException {
+
+        Strategy waiting = new Strategy(Outcome.WAIT, 0);
+        Strategy broken = new Strategy(Outcome.BREAK, 0);
+
+        try {
+            prove(race(waiting, broken), null);
+            fail("No exception");
+        }
+        catch (IllegalStateException e) {
+            assertSame(Strategy.FAILURE, e);
+        }
+
+        assertTrue(waiting.wasStopped);
+    }
+
+    @Test
+    public void testEachStrategyGetsItsOwnCopy()
+            throws VCInconsistentException {
+
+        Strategy first = new Strategy(Outcome.FAIL, 0);
+        Strategy second = new Strategy(Outcome.FAIL, 0);
+
+        prove(race(first, second), null);
+
+        assertNotSame(myVC, first.given);
+        assertNotSame(myVC, second.given);
+        assertNotSame(first.given, second.given);
+        assertEquals(myVC.toString(), first.given.toString());
+    }
+
+    @Test
+    public void testProofCountOrderIsTheSum() {
+        assertEquals(BigInteger.valueOf(5), race(new Strategy(Outcome.FAIL,
+                0, 2), new Strategy(Outcome.FAIL, 0, 3)).getProofCountOrder());
+        assertEquals(BigInteger.valueOf(-1), race(new Strategy(Outcome.FAIL,
+                0, 2), new Strategy(Outcome.FAIL, 0, -1))
+                .getProofCountOrder());
+    }
+
+    private static enum Outcome {
+        PROVE, FAIL, RUN_OUT, WAIT, BREAK
+    }
+
+    /**
+     * <p>A strategy whose outcome is decided by the test.</p>
+     */
+    private static class Strategy implements VCProver {
+
+        public static final IllegalStateException FAILURE =
+                new IllegalStateException();
+
+        private final Outcome myOutcome;
+        private final int myProofsConsidered;
+        private final long myProofCountOrder;
+
+        public volatile VerificationCondition given;
+        public volatile boolean wasStopped;
+
+        public Strategy(Outcome outcome, int proofsConsidered) {
+            this(outcome, proofsConsidered, 1);
+        }
+
+        public Strategy(Outcome outcome, int proofsConsidered,
+                long proofCountOrder) {
+            myOutcome = outcome;
+            myProofsConsidered = proofsConsidered;
+            myProofCountOrder = proofCountOrder;
+        }
+
+        public void prove(VerificationCondition vC,
+                ProverListener progressListener,
+                ActionCanceller actionCanceller, long timeoutAt)
+                throws VCInconsistentException,
+                    VCProvedException,
+                    UnableToProveException {
+
+            given = vC;
+            Metrics metrics = metrics(myProofsConsidered);
+
+            switch (myOutcome) {
+            case PROVE:
+                throw new VCProvedException(metrics);
+            case RUN_OUT:
+                throw new ProofBudgetExceededException(metrics);
+            case BREAK:
+                throw FAILURE;
+            case WAIT:
+                long giveUpAt = System.currentTimeMillis() + PATIENCE;
+                while (actionCanceller.running
+                        && System.currentTimeMillis() < giveUpAt) {
+                    Thread.yield();
+                }
+                wasStopped = !actionCanceller.running;
+                break;
+            default:
+                break;
+            }
+
+            throw new UnableToProveException(metrics);
+        }
+
+        public BigInteger getProofCountOrder() {
+            return BigInteger.valueOf(myProofCountOrder);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package edu.clemson.cs.r2jt.proving;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.apply;
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.constant;
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.variable;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.clemson.cs.r2jt.compilereport.VCResult;
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
+import edu.clemson.cs.r2jt.proving.absyn.PSymbol;
+
+public class TestProofCache {
+
+    private File myDirectory;
+
+    private ProofCache myCache;
+
+    @Before
+    public void setUp() throws IOException {
+        myDirectory = File.createTempFile("proofcache", "");
+        myDirectory.delete();
+
+        myCache = new ProofCache(myDirectory, "library");
+    }
+
+    @After
+    public void tearDown() {
+        File[] entries = myDirectory.listFiles();
+        if (entries != null) {
+            for (File entry : entries) {
+                entry.delete();
+            }
+        }
+
+        myDirectory.delete();
+    }
+
+    private VC vc(String name, PExp[] antecedents, PExp... consequents) {
+        return new VC(name, new Antecedent(Arrays.asList(antecedents)),
+                new Consequent(Arrays.asList(consequents)));
+    }
+
+    private PExp[] conjuncts(PExp... conjuncts) {
+        return conjuncts;
+    }
+
+    @Test
+    public void testEquivalentVCsShareAKey() {
+        PSymbol x = variable("x");
+        PSymbol y = variable("y");
+        PSymbol c = constant("c");
+
+        VC original =
+                vc("0_1", conjuncts(apply("p", x), apply("q", x, c)), apply(
+                        "r", x));
+
+        //Renamed, reordered, repeated and filed under another name
+        VC equivalent =
+                vc("0_2", conjuncts(apply("q", y, c), apply("p", y), apply(
+                        "p", y)), apply("r", y));
+
+        assertEquals(myCache.keyOf(original), myCache.keyOf(equivalent));
+    }
+
+    @Test
+    public void testDifferentVCsHaveDifferentKeys() {
+        PSymbol x = variable("x");
+        PSymbol y = variable("y");
+
+        String key = myCache.keyOf(vc("0_1", conjuncts(apply("p", x)), apply(
+                "r", x)));
+
+        //Free names are kept
+        assertFalse(key.equals(myCache.keyOf(vc("0_1", conjuncts(apply("p",
+                constant("x"))), apply("r", constant("x"))))));
+
+        //Which conjuncts share a variable is kept
+        assertFalse(key.equals(myCache.keyOf(vc("0_1", conjuncts(apply("p",
+                x)), apply("r", y)))));
+
+        //Antecedents and consequents are not confused
+        assertFalse(key.equals(myCache.keyOf(vc("0_1", conjuncts(apply("r",
+                x)), apply("p", x)))));
+    }
+
+    @Test
+    public void testDifferentLibrariesHaveDifferentKeys() {
+        VC vc = vc("0_1", conjuncts(), apply("r", variable("x")));
+        ProofCache other = new ProofCache(myDirectory, "other library");
+
+        assertFalse(myCache.keyOf(vc).equals(other.keyOf(vc)));
+    }
+
+    @Test
+    public void testProvedResultIsKept() {
+        String key = myCache.keyOf(vc("0_1", conjuncts(), constant("c")));
+        myCache.store(key, VCResult.Status.PROVED, false, "proof");
+
+        ProofCache.Entry entry = myCache.lookup(key);
+        assertEquals(VCResult.Status.PROVED, entry.status);
+        assertEquals("proof", entry.proofText);
+    }
+
+    @Test
+    public void testExhaustedSearchIsKept() {
+        String key = myCache.keyOf(vc("0_1", conjuncts(), constant("c")));
+        myCache.store(key, VCResult.Status.SKIPPED, false, "");
+
+        assertEquals(VCResult.Status.SKIPPED, myCache.lookup(key).status);
+    }
+
+    @Test
+    public void testStoppedSearchIsNotKept() {
+        String key = myCache.keyOf(vc("0_1", conjuncts(), constant("c")));
+        myCache.store(key, VCResult.Status.SKIPPED, true, "");
+
+        assertNull(myCache.lookup(key));
+    }
+
+    @Test
+    public void testTimeoutIsNotKept() {
+        String key = myCache.keyOf(vc("0_1", conjuncts(), constant("c")));
+        myCache.store(key, VCResult.Status.TIMED_OUT, false, "");
+
+        assertNull(myCache.lookup(key));
+    }
+}
@@ -0,0 +1,139 @@
+package edu.clemson.cs.r2jt.proving;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.apply;
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.constant;
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.newEnvironment;
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.typer;
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.variable;
+
+import org.junit.Test;
+
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
+
+public class TestUpfrontFitnessTransformationChooser {
+
+    private final CountingFitness myFitness = new CountingFitness();
+
+    private final List<VCTransformer> myLibrary =
+            new ArrayList<VCTransformer>();
+
+    /*
+     * Returns a library rule rewriting name(x) to x, with the given fitness.
+     */
+    private VCTransformer rule(String name, double fitness) {
+        VCTransformer retval =
+                new MatchReplaceStep(new NewBindReplace(apply(name,
+                        variable("x")), variable("x")));
+
+        myLibrary.add(retval);
+        myFitness.myFitnesses.put(retval, fitness);
+
+        return retval;
+    }
+
+    private UpfrontFitnessTransformationChooser chooser() {
+        return new UpfrontFitnessTransformationChooser(myFitness, myLibrary,
+                0, typer(), newEnvironment());
+    }
+
+    private static VC vc(String name, PExp consequent) {
+        return new VC(name, new Antecedent(Collections.<PExp> emptyList()),
+                new Consequent(Collections.singletonList(consequent)));
+    }
+
+    private static List<VCTransformer> suggestions(
+            TransformationChooser chooser, VC vc) {
+
+        List<VCTransformer> retval = new ArrayList<VCTransformer>();
+
+        Iterator<ProofPathSuggestion> suggestions =
+                chooser.suggestTransformations(vc, 0, new Metrics(),
+                        new ProofData());
+        while (suggestions.hasNext()) {
+            retval.add(suggestions.next().step);
+        }
+
+        return retval;
+    }
+
+    @Test
+    public void testFitnessOnlyCalculatedForIndexedCandidates() {
+        VCTransformer f = rule("f", 0.5);
+        for (int i = 0; i < 100; i++) {
+            rule("h" + i, 0.5);
+        }
+
+        UpfrontFitnessTransformationChooser chooser = chooser();
+        VC vc = vc("0_1", apply("f", constant("a")));
+        chooser.preoptimizeForVC(vc);
+
+        assertEquals(0, myFitness.myCalculations.size());
+        assertEquals(Arrays.asList(f), suggestions(chooser, vc));
+        assertEquals(Arrays.asList(f), myFitness.myCalculations);
+    }
+
+    @Test
+    public void testFitnessRememberedUntilNextVC() {
+        VCTransformer f = rule("f", 0.5);
+
+        UpfrontFitnessTransformationChooser chooser = chooser();
+        VC vc = vc("0_1", apply("f", constant("a")));
+        chooser.preoptimizeForVC(vc);
+
+        suggestions(chooser, vc);
+        suggestions(chooser, vc("0_1", apply("f", apply("f",
+                constant("a")))));
+        assertEquals(Arrays.asList(f), myFitness.myCalculations);
+
+        chooser.preoptimizeForVC(vc("0_2", apply("f", constant("b"))));
+        suggestions(chooser, vc);
+        assertEquals(Arrays.asList(f, f), myFitness.myCalculations);
+    }
+
+    @Test
+    public void testRankedByFitnessThenLibraryOrder() {
+        VCTransformer low = rule("f", 0.25);
+        VCTransformer first = rule("g", 0.75);
+        VCTransformer unfit = rule("f", -0.5);
+        VCTransformer second = rule("f", 0.75);
+
+        UpfrontFitnessTransformationChooser chooser = chooser();
+        VC vc = vc("0_1", apply("f", apply("g", constant("a"))));
+        chooser.preoptimizeForVC(vc);
+
+        assertEquals(Arrays.asList(first, second, low), suggestions(chooser,
+                vc));
+        assertEquals(4, myFitness.myCalculations.size());
+        assertFalse(suggestions(chooser, vc).contains(unfit));
+    }
+
+    /**
+     * <p>A fitness function that gives each rule a set fitness and records
+     * which rules it was asked about.</p>
+     */
+    private static class CountingFitness extends TransformerFitnessFunction {
+
+        public final Map<VCTransformer, Double> myFitnesses =
+                new HashMap<VCTransformer, Double>();
+
+        public final List<VCTransformer> myCalculations =
+                new ArrayList<VCTransformer>();
+
+        @Override
+        public double calculateFitness(VCTransformer t, VC vc) {
+            myCalculations.add(t);
+            return myFitnesses.get(t);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package edu.clemson.cs.r2jt.proving.absyn;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.apply;
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.constant;
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.variable;
+
+import org.junit.Test;
+
+public class TestBindingFrame {
+
+    private final PSymbol myX = variable("x");
+    private final PSymbol myY = variable("y");
+    private final PSymbol myA = constant("a");
+    private final PSymbol myB = constant("b");
+    private final PSymbol myC = constant("c");
+    private final PSymbol myD = constant("d");
+
+    @Test
+    public void testResetForgetsNewBindings() {
+        BindingFrame frame = new BindingFrame();
+        frame.put(myX, myA);
+
+        int mark = frame.mark();
+        frame.put(myY, myB);
+        frame.reset(mark);
+
+        assertEquals(1, frame.size());
+        assertSame(myA, frame.get(myX));
+        assertFalse(frame.containsKey(myY));
+    }
+
+    @Test
+    public void testResetRestoresOverwrittenBinding() {
+        BindingFrame frame = new BindingFrame();
+        frame.put(myX, myA);
+
+        int mark = frame.mark();
+        assertSame(myA, frame.put(myX, myB));
+        frame.put(myY, myC);
+        assertSame(myB, frame.get(myX));
+
+        frame.reset(mark);
+
+        assertEquals(1, frame.size());
+        assertSame(myA, frame.get(myX));
+        assertNull(frame.get(myY));
+    }
+
+    @Test
+    public void testResetToNestedMarks() {
+        BindingFrame frame = new BindingFrame();
+        frame.put(myX, myA);
+
+        int outer = frame.mark();
+        frame.put(myX, myB);
+
+        int inner = frame.mark();
+        frame.put(myX, myC);
+        frame.put(myY, myD);
+
+        frame.reset(inner);
+        assertSame(myB, frame.get(myX));
+        assertFalse(frame.containsKey(myY));
+
+        frame.reset(outer);
+        assertSame(myA, frame.get(myX));
+        assertEquals(1, frame.size());
+    }
+
+    @Test
+    public void testResetPastManyBindings() {
+        BindingFrame frame = new BindingFrame();
+
+        //More changes than the initial slots, so the undo log has to grow
+        PSymbol[] variables = new PSymbol[20];
+        for (int i = 0; i < variables.length; i++) {
+            variables[i] = variable("v" + i);
+            frame.put(variables[i], myA);
+        }
+
+        int mark = frame.mark();
+        for (int i = 0; i < variables.length; i++) {
+            frame.put(variables[i], myB);
+        }
+        frame.reset(mark);
+
+        assertEquals(variables.length, frame.size());
+        for (int i = 0; i < variables.length; i++) {
+            assertSame(myA, frame.get(variables[i]));
+        }
+    }
+
+    @Test
+    public void testClearAfterOverwrite() {
+        BindingFrame frame = new BindingFrame();
+        frame.put(myX, myA);
+        frame.put(myX, myB);
+
+        frame.clear();
+
+        assertTrue(frame.isEmpty());
+        assertEquals(0, frame.mark());
+    }
+
+    @Test
+    public void testFailedBindLeavesFrameAsItWas() {
+        PSymbol pattern = apply("f", myX, myC);
+        PSymbol target = apply("f", myA, myD);
+
+        BindingFrame frame = new BindingFrame();
+        frame.put(myY, myB);
+
+        //x binds to a before c fails to match d
+        assertFalse(pattern.bindTo(target, frame));
+
+        assertEquals(1, frame.size());
+        assertSame(myB, frame.get(myY));
+        assertFalse(frame.containsKey(myX));
+    }
+
+    @Test
+    public void testSuccessfulBindKeepsBindings() {
+        PSymbol pattern = apply("f", myX, myC);
+        PSymbol target = apply("f", myA, myC);
+
+        BindingFrame frame = new BindingFrame();
+        frame.put(myY, myB);
+
+        assertTrue(pattern.bindTo(target, frame));
+
+        assertEquals(2, frame.size());
+        assertSame(myA, frame.get(myX));
+        assertSame(myB, frame.get(myY));
+    }
+}
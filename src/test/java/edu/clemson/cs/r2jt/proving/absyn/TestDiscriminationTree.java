@@ -0,0 +1,112 @@
+package edu.clemson.cs.r2jt.proving.absyn;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.apply;
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.applyVariable;
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.constant;
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.variable;
+
+import org.junit.Test;
+
+public class TestDiscriminationTree {
+
+    private final PSymbol myX = variable("x");
+    private final PSymbol myY = variable("y");
+    private final PSymbol myA = constant("a");
+    private final PSymbol myB = constant("b");
+    private final PSymbol myC = constant("c");
+    private final PSymbol myH = constant("h");
+
+    //No pattern repeats a variable, so that the index is exact for them
+    private final List<PExp> myPatterns =
+            Arrays.<PExp> asList(myX, apply("f", myX, myY),
+                    apply("f", myA, myY), apply("g", myX),
+                    applyVariable("F", myX, myB),
+                    apply("f", apply("g", myX), myY), myH, myA);
+
+    private final List<PExp> myTerms =
+            Arrays.<PExp> asList(apply("f", myA, myB),
+                    apply("f", apply("g", myA), myC), apply("g", myH), myH,
+                    apply("k", myA, myB), apply("f", myB, apply("g", myA)),
+                    apply("k", myC, myC));
+
+    private DiscriminationTree<PExp> index() {
+        DiscriminationTree<PExp> retval = new DiscriminationTree<PExp>();
+
+        for (PExp pattern : myPatterns) {
+            retval.add(pattern, pattern);
+        }
+
+        return retval;
+    }
+
+    private Set<PExp> scan(PExp term) {
+        Set<PExp> retval = new HashSet<PExp>();
+
+        for (PExp pattern : myPatterns) {
+            if (pattern.bindTo(term, new BindingFrame())) {
+                retval.add(pattern);
+            }
+        }
+
+        return retval;
+    }
+
+    private Set<PExp> scanWithin(PExp term) {
+        Set<PExp> retval = scan(term);
+
+        for (PExp subexpression : term.getSubExpressions()) {
+            retval.addAll(scanWithin(subexpression));
+        }
+
+        return retval;
+    }
+
+    @Test
+    public void testCandidatesMatchLinearScan() {
+        DiscriminationTree<PExp> index = index();
+
+        Set<PExp> candidates;
+        for (PExp term : myTerms) {
+            candidates = new HashSet<PExp>();
+            index.collectCandidates(term, candidates);
+
+            assertEquals(term.toString(), scan(term), candidates);
+        }
+    }
+
+    @Test
+    public void testCandidatesWithinMatchLinearScan() {
+        DiscriminationTree<PExp> index = index();
+
+        Set<PExp> candidates;
+        for (PExp term : myTerms) {
+            candidates = new HashSet<PExp>();
+            index.collectCandidatesWithin(term, candidates);
+
+            assertEquals(term.toString(), scanWithin(term), candidates);
+        }
+    }
+
+    @Test
+    public void testRepeatedVariableIsConservative() {
+        DiscriminationTree<PExp> index = new DiscriminationTree<PExp>();
+        PExp pattern = apply("k", myX, myX);
+        index.add(pattern, pattern);
+
+        //Doesn't bind, since a and b differ, but is still a candidate
+        Set<PExp> candidates = new HashSet<PExp>();
+        index.collectCandidates(apply("k", myA, myB), candidates);
+        assertEquals(new HashSet<PExp>(Arrays.asList(pattern)), candidates);
+
+        candidates.clear();
+        index.collectCandidates(apply("k", myA), candidates);
+        assertEquals(new HashSet<PExp>(), candidates);
+    }
+}
@@ -0,0 +1,103 @@
+package edu.clemson.cs.r2jt.proving.absyn;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.apply;
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.constant;
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.variable;
+
+import org.junit.Test;
+
+public class TestPExpInterning {
+
+    private PSymbol x() {
+        return variable("x");
+    }
+
+    private PSymbol f(PExp first, PExp second) {
+        return apply("f", first, second);
+    }
+
+    @Test
+    public void testEqualStructuresShareOneInstance() {
+        PSymbol first = f(x(), constant("a"));
+        PSymbol second = f(x(), constant("a"));
+        assertNotSame(first, second);
+
+        PExp internedFirst = first.intern();
+        PExp internedSecond = second.intern();
+
+        assertSame(internedFirst, internedSecond);
+        assertTrue(internedFirst.isInterned());
+        assertFalse(second.isInterned());
+    }
+
+    @Test
+    public void testInternIsIdempotent() {
+        PExp interned = f(x(), constant("a")).intern();
+
+        assertSame(interned, interned.intern());
+    }
+
+    @Test
+    public void testSubtermsAreShared() {
+        PSymbol interned = (PSymbol) f(x(), constant("a")).intern();
+
+        assertSame(constant("a").intern(), interned.arguments.get(1));
+        assertSame(x().intern(), interned.arguments.get(0));
+    }
+
+    @Test
+    public void testDifferentStructuresStayDistinct() {
+        PExp fxa = f(x(), constant("a")).intern();
+
+        assertNotSame(fxa, f(constant("a"), x()).intern());
+        assertNotSame(fxa, f(x(), constant("b")).intern());
+
+        //Quantification is part of the structure, though equals() ignores it
+        PExp unquantified = f(constant("x"), constant("a")).intern();
+        assertNotSame(fxa, unquantified);
+        assertEquals(fxa, unquantified);
+    }
+
+    @Test
+    public void testDerivedTermsAreInterned() {
+        PSymbol fxa = (PSymbol) f(x(), constant("a")).intern();
+
+        PSymbol fxb = fxa.setArgument(1, constant("b").intern());
+        assertTrue(fxb.isInterned());
+        assertSame(f(x(), constant("b")).intern(), fxb);
+
+        Map<PExp, PExp> substitutions = new HashMap<PExp, PExp>();
+        substitutions.put(x(), constant("c"));
+        PExp fca = fxa.substitute(substitutions);
+        assertTrue(fca.isInterned());
+        assertSame(f(constant("c"), constant("a")).intern(), fca);
+    }
+
+    @Test
+    public void testUninternedTermsAreLeftAlone() {
+        PSymbol fxa = f(x(), constant("a"));
+
+        assertFalse(fxa.isInterned());
+        assertFalse(fxa.setArgument(1, constant("b")).isInterned());
+    }
+
+    @Test
+    public void testInternedAndUninternedTermsCompareEqual() {
+        PSymbol fresh = f(x(), constant("a"));
+        PExp interned = f(x(), constant("a")).intern();
+
+        assertEquals(fresh, interned);
+        assertEquals(interned, fresh);
+        assertEquals(fresh.hashCode(), interned.hashCode());
+        assertFalse(interned.equals(f(x(), constant("b")).intern()));
+    }
+}
@@ -0,0 +1,217 @@
+package edu.clemson.cs.r2jt.scope;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.newEnvironment;
+
+import org.junit.Test;
+
+import edu.clemson.cs.r2jt.data.Location;
+import edu.clemson.cs.r2jt.data.Mode;
+import edu.clemson.cs.r2jt.data.ModuleID;
+import edu.clemson.cs.r2jt.data.Pos;
+import edu.clemson.cs.r2jt.data.PosSymbol;
+import edu.clemson.cs.r2jt.data.Symbol;
+import edu.clemson.cs.r2jt.entry.VarEntry;
+import edu.clemson.cs.r2jt.init.CompileEnvironment;
+import edu.clemson.cs.r2jt.location.SymbolSearchException;
+import edu.clemson.cs.r2jt.location.VariableLocator;
+
+public class TestScopeChain {
+
+    private final CompileEnvironment myEnvironment = newEnvironment();
+
+    private final ModuleID myModule =
+            ModuleID.createTheoryID(Symbol.symbol("T"));
+
+    private int myScopeIndex = 0;
+
+    private PosSymbol name(String name) {
+        return new PosSymbol(new Location(new File("/some/file"), new Pos(1,
+                1)), Symbol.symbol(name));
+    }
+
+    private Scope typeScope() {
+        return new TypeScope(ScopeID.createTypeScopeID(myModule,
+                myScopeIndex++));
+    }
+
+    private Scope statementScope() {
+        return new StatementScope(ScopeID.createStatementScopeID(myModule,
+                myScopeIndex++));
+    }
+
+    private ProofScope proofScope(String name) {
+        return new ProofScope(null, ScopeID.createProofScopeID(name(name)),
+                myEnvironment);
+    }
+
+    private ProcedureScope procedureScope(String name) {
+        return new ProcedureScope(null, ScopeID.createProcedureScopeID(
+                name(name), myModule), myEnvironment);
+    }
+
+    private List<Scope> scopesOf(ScopeChain chain) {
+        List<Scope> retval = new ArrayList<Scope>();
+
+        for (Scope s : chain) {
+            retval.add(s);
+        }
+
+        return retval;
+    }
+
+    @Test
+    public void testIteratesInnermostFirst() {
+        Scope outer = typeScope();
+        Scope middle = statementScope();
+        Scope inner = statementScope();
+
+        ScopeChain chain =
+                new ScopeChain(inner, new ScopeChain(middle, new ScopeChain(
+                        outer, null)));
+
+        assertEquals(Arrays.asList(inner, middle, outer), scopesOf(chain));
+        assertEquals(3, chain.getDepth());
+        assertSame(inner, chain.getScope());
+        assertSame(middle, chain.getParent().getScope());
+        assertNull(chain.getParent().getParent().getParent());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testIteratorEnds() {
+        Iterator<Scope> i = new ScopeChain(typeScope(), null).iterator();
+        i.next();
+        i.next();
+    }
+
+    @Test
+    public void testOpeningAScopeLeavesTheEnclosingChainAlone() {
+        Scope outer = typeScope();
+        ScopeChain enclosing = new ScopeChain(outer, null);
+
+        ScopeChain first = new ScopeChain(statementScope(), enclosing);
+        ScopeChain second = new ScopeChain(statementScope(), enclosing);
+
+        assertEquals(Arrays.asList(outer), scopesOf(enclosing));
+        assertEquals(1, enclosing.getDepth());
+        assertSame(enclosing, first.getParent());
+        assertSame(enclosing, second.getParent());
+    }
+
+    @Test
+    public void testNearestProofScopeIsFound() {
+        ProofScope outer = proofScope("Outer");
+        ProofScope inner = proofScope("Inner");
+
+        ScopeChain chain = new ScopeChain(typeScope(), null);
+        assertNull(chain.getProofScope());
+
+        chain = new ScopeChain(outer, chain);
+        chain = new ScopeChain(statementScope(), chain);
+        assertSame(outer, chain.getProofScope());
+
+        chain = new ScopeChain(inner, chain);
+        chain = new ScopeChain(statementScope(), chain);
+        assertSame(inner, chain.getProofScope());
+        assertSame(outer, chain.getParent().getParent().getProofScope());
+    }
+
+    @Test
+    public void testNearestBindingIsFound() {
+        ProcedureScope procedure = procedureScope("P");
+        ProofScope proof = proofScope("Q");
+
+        ScopeChain chain = new ScopeChain(typeScope(), null);
+        assertNull(chain.getBinding());
+
+        chain = new ScopeChain(procedure, chain);
+        chain = new ScopeChain(statementScope(), chain);
+        assertSame(procedure.getBinding(), chain.getBinding());
+
+        chain = new ScopeChain(proof, chain);
+        chain = new ScopeChain(statementScope(), chain);
+        assertSame(proof.getBinding(), chain.getBinding());
+    }
+
+    @Test
+    public void testTableChainDoesNotChange() {
+        SymbolTable table = new SymbolTable(myModule, myEnvironment);
+        assertNull(table.getScopeChain());
+
+        table.createTypeScope();
+        ScopeChain outer = table.getScopeChain();
+        List<Scope> outerScopes = scopesOf(outer);
+
+        table.createStatementScope();
+        ScopeChain inner = table.getScopeChain();
+        assertSame(outer, inner.getParent());
+        assertEquals(outerScopes, scopesOf(outer));
+
+        table.completeStatementScope();
+        assertSame(outer, table.getScopeChain());
+        assertEquals(2, inner.getDepth());
+        assertSame(table.getCurrentScope(), outer.getScope());
+    }
+
+    @Test
+    public void testResolutionIsCachedUntilASymbolIsAdded()
+            throws SymbolSearchException {
+        SymbolTable table = new SymbolTable(myModule, myEnvironment);
+        VariableLocator locator = new VariableLocator(table, null);
+
+        table.createTypeScope();
+        Scope outer = table.getCurrentScope();
+        VarEntry outerX = new VarEntry(outer, Mode.LOCAL, name("X"), null);
+        outer.addVariable(outerX);
+
+        table.createStatementScope();
+        ScopeChain chain = table.getScopeChain();
+        Symbol x = Symbol.symbol("X");
+
+        assertNull(chain.getVariableResolution(x));
+        assertEquals(Arrays.asList(outerX), locator
+                .locateVariablesInStack(name("X")));
+        assertNotNull(chain.getVariableResolution(x));
+        assertEquals(Arrays.asList(outerX), locator
+                .locateVariablesInStack(name("X")));
+
+        //Shadowing X in the inner scope must be seen at once
+        Scope inner = chain.getScope();
+        VarEntry innerX = new VarEntry(inner, Mode.LOCAL, name("X"), null);
+        inner.addVariable(innerX);
+
+        assertNull(chain.getVariableResolution(x));
+        assertEquals(Arrays.asList(innerX), locator
+                .locateVariablesInStack(name("X")));
+    }
+
+    @Test
+    public void testAddingToAnEnclosingScopeDropsCachedMisses()
+            throws SymbolSearchException {
+        SymbolTable table = new SymbolTable(myModule, myEnvironment);
+        VariableLocator locator = new VariableLocator(table, null);
+
+        table.createTypeScope();
+        Scope outer = table.getCurrentScope();
+        table.createStatementScope();
+
+        assertEquals(0, locator.locateVariablesInStack(name("Y")).size());
+
+        VarEntry y = new VarEntry(outer, Mode.LOCAL, name("Y"), null);
+        outer.addVariable(y);
+
+        assertEquals(Arrays.asList(y), locator
+                .locateVariablesInStack(name("Y")));
+    }
+}
@@ -0,0 +1,272 @@
+package edu.clemson.cs.r2jt.translation;
+
+import java.util.Random;
+
+/**
+ * <p>Times an insertion sort and a binary search written the way the
+ * <code>Translator</code> writes them for a native array of
+ * <code>Integer</code>s: first as an array of entry objects, as every native
+ * array used to be, then as the <code>int[]</code> it is now.  Index
+ * variables are <code>Integer</code> objects in both, as in translated
+ * code, so only the array differs.</p>
+ *
+ * <p>The RESOLVE runtime library is not part of this tree, so
+ * <code>Std_Integer_Realiz.Integer</code>,
+ * <code>Std_Boolean_Realiz.Boolean</code> and the few
+ * <code>Std_Integer_Fac</code> operations used stand in here as the classes
+ * and methods below, which do just what the library's do.  Run
+ * with <code>java edu.clemson.cs.r2jt.translation.NativeArrayBenchmark
+ * [entries] [searches] [rounds]</code>.</p>
+ */
+public class NativeArrayBenchmark {
+
+    private static final class Integer {
+
+        public int val;
+
+        public Integer(int val) {
+            this.val = val;
+        }
+    }
+
+    private static final class Boolean {
+
+        public final boolean val;
+
+        public Boolean(boolean val) {
+            this.val = val;
+        }
+    }
+
+    private static Integer createInteger(int val) {
+        return new Integer(val);
+    }
+
+    private static void assign(Integer target, Integer source) {
+        target.val = source.val;
+    }
+
+    private static Integer Sum(Integer i, Integer j) {
+        return new Integer(i.val + j.val);
+    }
+
+    private static Integer Difference(Integer i, Integer j) {
+        return new Integer(i.val - j.val);
+    }
+
+    private static Integer Div(Integer i, Integer j) {
+        return new Integer(i.val / j.val);
+    }
+
+    private static Boolean Less(Integer i, Integer j) {
+        return new Boolean(i.val < j.val);
+    }
+
+    private static Boolean Less_Or_Equal(Integer i, Integer j) {
+        return new Boolean(i.val <= j.val);
+    }
+
+    /*
+     * Sorts A[1..N], held as entry objects, as translated from
+     *
+     *     I := 2;
+     *     While I <= N do
+     *         J := I;
+     *         While 1 < J do
+     *             If A[J] < A[J - 1] then
+     *                 A[J] :=: A[J - 1];
+     *                 J := J - 1;
+     *             else
+     *                 J := 1;
+     *             end;
+     *         end;
+     *         I := I + 1;
+     *     end;
+     */
+    private static void sortObjects(Integer[] A, Integer N) {
+        final int _A_Lo = 1;
+        Integer I = createInteger(0);
+        Integer J = createInteger(0);
+        assign(I, createInteger(2));
+        while (Less_Or_Equal(I, N).val) {
+            assign(J, I);
+            while (Less(createInteger(1), J).val) {
+                if (Less(A[J.val - _A_Lo],
+                        A[Difference(J, createInteger(1)).val - _A_Lo]).val) {
+                    {
+                        int _A_i = J.val - _A_Lo;
+                        int _A_j = Difference(J, createInteger(1)).val - _A_Lo;
+                        Integer _A_e = A[_A_i];
+                        A[_A_i] = A[_A_j];
+                        A[_A_j] = _A_e;
+                    }
+                    assign(J, Difference(J, createInteger(1)));
+                }
+                else {
+                    assign(J, createInteger(1));
+                }
+            }
+            assign(I, Sum(I, createInteger(1)));
+        }
+    }
+
+    /*
+     * Sorts A[1..N], held as ints, as translated from the same.
+     */
+    private static void sortInts(int[] A, Integer N) {
+        final int _A_Lo = 1;
+        Integer I = createInteger(0);
+        Integer J = createInteger(0);
+        assign(I, createInteger(2));
+        while (Less_Or_Equal(I, N).val) {
+            assign(J, I);
+            while (Less(createInteger(1), J).val) {
+                if (A[J.val - _A_Lo] < A[Difference(J, createInteger(1)).val
+                        - _A_Lo]) {
+                    {
+                        int _A_i = J.val - _A_Lo;
+                        int _A_j = Difference(J, createInteger(1)).val - _A_Lo;
+                        int _A_e = A[_A_i];
+                        A[_A_i] = A[_A_j];
+                        A[_A_j] = _A_e;
+                    }
+                    assign(J, Difference(J, createInteger(1)));
+                }
+                else {
+                    assign(J, createInteger(1));
+                }
+            }
+            assign(I, Sum(I, createInteger(1)));
+        }
+    }
+
+    /*
+     * Returns where Key is in the sorted A[1..N], held as entry objects, or
+     * 0, as translated from
+     *
+     *     Lo := 1;
+     *     Hi := N;
+     *     While Lo <= Hi do
+     *         Mid := (Lo + Hi) div 2;
+     *         If A[Mid] < Key then
+     *             Lo := Mid + 1;
+     *         elseif Key < A[Mid] then
+     *             Hi := Mid - 1;
+     *         else
+     *             Find := Mid;
+     *             Lo := Hi + 1;
+     *         end;
+     *     end;
+     */
+    private static int searchObjects(Integer[] A, Integer N, Integer Key) {
+        final int _A_Lo = 1;
+        Integer Find = createInteger(0);
+        Integer Lo = createInteger(0);
+        Integer Hi = createInteger(0);
+        Integer Mid = createInteger(0);
+        assign(Lo, createInteger(1));
+        assign(Hi, N);
+        while (Less_Or_Equal(Lo, Hi).val) {
+            assign(Mid, Div(Sum(Lo, Hi), createInteger(2)));
+            if (Less(A[Mid.val - _A_Lo], Key).val) {
+                assign(Lo, Sum(Mid, createInteger(1)));
+            }
+            else if (Less(Key, A[Mid.val - _A_Lo]).val) {
+                assign(Hi, Difference(Mid, createInteger(1)));
+            }
+            else {
+                assign(Find, Mid);
+                assign(Lo, Sum(Hi, createInteger(1)));
+            }
+        }
+        return Find.val;
+    }
+
+    /*
+     * Returns where Key is in the sorted A[1..N], held as ints, or 0, as
+     * translated from the same.
+     */
+    private static int searchInts(int[] A, Integer N, Integer Key) {
+        final int _A_Lo = 1;
+        Integer Find = createInteger(0);
+        Integer Lo = createInteger(0);
+        Integer Hi = createInteger(0);
+        Integer Mid = createInteger(0);
+        assign(Lo, createInteger(1));
+        assign(Hi, N);
+        while (Less_Or_Equal(Lo, Hi).val) {
+            assign(Mid, Div(Sum(Lo, Hi), createInteger(2)));
+            if (A[Mid.val - _A_Lo] < Key.val) {
+                assign(Lo, Sum(Mid, createInteger(1)));
+            }
+            else if (Key.val < A[Mid.val - _A_Lo]) {
+                assign(Hi, Difference(Mid, createInteger(1)));
+            }
+            else {
+                assign(Find, Mid);
+                assign(Lo, Sum(Hi, createInteger(1)));
+            }
+        }
+        return Find.val;
+    }
+
+    public static void main(String[] args) {
+        int entries = 20000;
+        int searches = 2000000;
+        int rounds = 8;
+        if (args.length > 0) {
+            entries = java.lang.Integer.parseInt(args[0]);
+        }
+        if (args.length > 1) {
+            searches = java.lang.Integer.parseInt(args[1]);
+        }
+        if (args.length > 2) {
+            rounds = java.lang.Integer.parseInt(args[2]);
+        }
+
+        Random random = new Random(0);
+        int[] values = new int[entries];
+        for (int i = 0; i < entries; i++) {
+            values[i] = random.nextInt();
+        }
+        int[] keys = new int[searches];
+        for (int i = 0; i < searches; i++) {
+            keys[i] = values[random.nextInt(entries)];
+        }
+        Integer N = createInteger(entries);
+
+        for (int round = 1; round <= rounds; round++) {
+            long checksum = 0;
+
+            Integer[] objects = new Integer[entries];
+            for (int i = 0; i < entries; i++) {
+                objects[i] = createInteger(values[i]);
+            }
+            long start = System.nanoTime();
+            sortObjects(objects, N);
+            long objectSort = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int key : keys) {
+                checksum += searchObjects(objects, N, createInteger(key));
+            }
+            long objectSearch = System.nanoTime() - start;
+
+            int[] ints = values.clone();
+            start = System.nanoTime();
+            sortInts(ints, N);
+            long intSort = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int key : keys) {
+                checksum -= searchInts(ints, N, createInteger(key));
+            }
+            long intSearch = System.nanoTime() - start;
+
+            System.out.println("round " + round + ": sort "
+                    + (objectSort / 1000000) + " ms as objects, "
+                    + (intSort / 1000000) + " ms as ints; search "
+                    + (objectSearch / 1000000) + " ms as objects, "
+                    + (intSearch / 1000000) + " ms as ints"
+                    + (checksum == 0 ? "" : " (results differ!)"));
+        }
+    }
+}
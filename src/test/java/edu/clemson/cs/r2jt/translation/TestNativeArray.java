@@ -0,0 +1,227 @@
+package edu.clemson.cs.r2jt.translation;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.newEnvironment;
+
+import org.junit.Test;
+
+import edu.clemson.cs.r2jt.absyn.CallStmt;
+import edu.clemson.cs.r2jt.absyn.FacilityModuleDec;
+import edu.clemson.cs.r2jt.absyn.FuncAssignStmt;
+import edu.clemson.cs.r2jt.absyn.NameTy;
+import edu.clemson.cs.r2jt.absyn.ProgramExp;
+import edu.clemson.cs.r2jt.absyn.ProgramFunctionExp;
+import edu.clemson.cs.r2jt.absyn.ProgramIntegerExp;
+import edu.clemson.cs.r2jt.absyn.ProgramParamExp;
+import edu.clemson.cs.r2jt.absyn.Statement;
+import edu.clemson.cs.r2jt.absyn.VarDec;
+import edu.clemson.cs.r2jt.absyn.VariableNameExp;
+import edu.clemson.cs.r2jt.absyn.WhileStmt;
+import edu.clemson.cs.r2jt.collections.List;
+import edu.clemson.cs.r2jt.collections.Map;
+import edu.clemson.cs.r2jt.data.Location;
+import edu.clemson.cs.r2jt.data.Pos;
+import edu.clemson.cs.r2jt.data.PosSymbol;
+import edu.clemson.cs.r2jt.data.Symbol;
+import edu.clemson.cs.r2jt.treewalk.TreeWalker;
+
+public class TestNativeArray {
+
+    private final Location myLocation =
+            new Location(new File("Test.fa"), new Pos(1, 1));
+
+    /**
+     * <p><code>A</code>, an array of <code>Integer</code>s from 1 to
+     * <code>N</code>.</p>
+     */
+    private final NativeArray myArray =
+            new NativeArray("A", "A_Fac", "Std_Integer_Fac", "Integer",
+                    "Integer_Template.Integer", integer(1), name("N"));
+
+    /**
+     * <p><code>F</code>, an array of <code>Boolean</code>s from 0 to
+     * <code>N</code>.</p>
+     */
+    private final NativeArray myFlags =
+            new NativeArray("F", "F_Fac", "Std_Boolean_Fac", "Boolean",
+                    "Boolean_Template.Boolean", integer(0), name("N"));
+
+    private final Map<String, NativeArray> myArrays = makeArrays();
+
+    private final Translator myTranslator = makeTranslator();
+
+    private Map<String, NativeArray> makeArrays() {
+        Map<String, NativeArray> retval = new Map<String, NativeArray>();
+        retval.put(myArray.getName(), myArray);
+        retval.put(myFlags.getName(), myFlags);
+        return retval;
+    }
+
+    private Translator makeTranslator() {
+        FacilityModuleDec dec = new FacilityModuleDec();
+        dec.setName(symbol("Test"));
+
+        Translator retval = new Translator(newEnvironment(), null, dec, null);
+        retval.setNativeArrays(myArrays);
+
+        return retval;
+    }
+
+    private PosSymbol symbol(String name) {
+        return new PosSymbol(myLocation, Symbol.symbol(name));
+    }
+
+    private VariableNameExp name(String name) {
+        return new VariableNameExp(myLocation, null, symbol(name));
+    }
+
+    private ProgramIntegerExp integer(int value) {
+        return new ProgramIntegerExp(myLocation, value);
+    }
+
+    private List<ProgramExp> arguments(ProgramExp... arguments) {
+        List<ProgramExp> retval = new List<ProgramExp>();
+        Collections.addAll(retval, arguments);
+        return retval;
+    }
+
+    private CallStmt call(String name, ProgramExp... arguments) {
+        return new CallStmt(symbol("A_Fac"), symbol(name),
+                arguments(arguments));
+    }
+
+    private CallStmt flagCall(String name, ProgramExp... arguments) {
+        List<ProgramExp> withArray = arguments(name("F"));
+        Collections.addAll(withArray, arguments);
+        return new CallStmt(symbol("F_Fac"), symbol(name), withArray);
+    }
+
+    private ProgramFunctionExp replica(ProgramExp index) {
+        return new ProgramFunctionExp(myLocation, symbol("A_Fac"),
+                symbol("Entry_Replica"), arguments(name("A"), index));
+    }
+
+    /*
+     * Returns A[index] as the PreProcessor writes it.
+     */
+    private ProgramParamExp entry(ProgramExp index) {
+        return new ProgramParamExp(myLocation, symbol("Entry_Replica"),
+                arguments(name("A"), index), replica(index));
+    }
+
+    private VarDec declaration(String name) {
+        return new VarDec(symbol(name), new NameTy(symbol(name + "_Fac"),
+                symbol("Static_Array")));
+    }
+
+    private String translate(Statement stmt) {
+        return myTranslator.translateStatement(stmt);
+    }
+
+    @Test
+    public void testIntegerArrayIsIntArray() {
+        assertEquals("\t\tfinal int _A_Lo = 1;\n" + "\t\tint[] A = new int["
+                + "((Std_Integer_Realiz.Integer) N).val - _A_Lo + 1];\n",
+                myTranslator.translateVarDec(declaration("A")));
+    }
+
+    @Test
+    public void testOtherArraysHoldEntryObjects() {
+        assertEquals("\t\tfinal int _F_Lo = 0;\n"
+                + "\t\tBoolean_Template.Boolean[] F = "
+                + "new Boolean_Template.Boolean["
+                + "((Std_Integer_Realiz.Integer) N).val - _F_Lo + 1];\n"
+                + "\t\tfor (int _F_k = 0; _F_k < F.length; _F_k++) {\n"
+                + "\t\t\tF[_F_k] = Std_Boolean_Fac.createBoolean();\n"
+                + "\t\t}\n", myTranslator.translateVarDec(declaration("F")));
+    }
+
+    @Test
+    public void testSwapTwoEntriesExchangesSlots() {
+        assertEquals("\t\t{\n"
+                + "\t\t\tint _A_i = ((Std_Integer_Realiz.Integer) I).val"
+                + " - _A_Lo;\n" + "\t\t\tint _A_j = 3 - _A_Lo;\n"
+                + "\t\t\tint _A_e = A[_A_i];\n"
+                + "\t\t\tA[_A_i] = A[_A_j];\n" + "\t\t\tA[_A_j] = _A_e;\n"
+                + "\t\t}\n", translate(call("Swap_Two_Entries", name("A"),
+                name("I"), integer(3))));
+    }
+
+    @Test
+    public void testEntryReplicaIsCopied() {
+        assertEquals("\t\t((Std_Integer_Realiz.Integer) X).val = "
+                + "A[((Std_Integer_Realiz.Integer) I).val - _A_Lo];\n",
+                translate(new FuncAssignStmt(myLocation, name("X"),
+                        replica(name("I")))));
+    }
+
+    @Test
+    public void testIntEntriesReadInPlace() {
+        assertEquals("\t\tA[2 - _A_Lo] = A[3 - _A_Lo];\n",
+                translate(call("Assign_Entry", name("A"), replica(integer(3)),
+                        integer(2))));
+
+        //Only an operation expecting an Integer needs one made
+        assertEquals("\t\tStd_Integer_Fac.Write("
+                + "Std_Integer_Fac.createInteger(A[3 - _A_Lo]));\n",
+                translate(new CallStmt(symbol("Std_Integer_Fac"),
+                        symbol("Write"), arguments(replica(integer(3))))));
+    }
+
+    @Test
+    public void testComparisonWithIntEntryComparesInts() {
+        ProgramParamExp test =
+                new ProgramParamExp(myLocation, symbol("Less_Or_Equal"),
+                        arguments(entry(name("I")), name("X")), null);
+        List<Statement> body = new List<Statement>();
+        body.add(new FuncAssignStmt(myLocation, name("X"), entry(integer(1))));
+
+        assertEquals("\t\twhile (A[((Std_Integer_Realiz.Integer) I).val"
+                + " - _A_Lo] <= ((Std_Integer_Realiz.Integer) X).val) {\n"
+                + "\t\t\t((Std_Integer_Realiz.Integer) X).val = "
+                + "A[1 - _A_Lo];\n\n" + "\t\t}\n\n", translate(new WhileStmt(
+                myLocation, test, null, null, null, null, body)));
+    }
+
+    @Test
+    public void testSwapAndAssignIntEntrySetValues() {
+        assertEquals("\t\t{\n" + "\t\t\tint _A_i = 2 - _A_Lo;\n"
+                + "\t\t\tint _A_e = A[_A_i];\n"
+                + "\t\t\tA[_A_i] = ((Std_Integer_Realiz.Integer) E).val;\n"
+                + "\t\t\t((Std_Integer_Realiz.Integer) E).val = _A_e;\n"
+                + "\t\t}\n", translate(call("Swap_Entry", name("A"),
+                name("E"), integer(2))));
+        assertEquals("\t\tA[2 - _A_Lo] = "
+                + "((Std_Integer_Realiz.Integer) E).val;\n",
+                translate(call("Assign_Entry", name("A"), name("E"),
+                        integer(2))));
+    }
+
+    @Test
+    public void testSwapAndAssignEntryUseEntryFacility() {
+        assertEquals("\t\tStd_Boolean_Fac.swap(F[2 - _F_Lo], E);\n",
+                translate(flagCall("Swap_Entry", name("E"), integer(2))));
+        assertEquals("\t\tStd_Boolean_Fac.assign(F[2 - _F_Lo], E);\n",
+                translate(flagCall("Assign_Entry", name("E"), integer(2))));
+    }
+
+    @Test
+    public void testOnlyElementUsesKeepAnArrayNative() {
+        NativeArrayUseChecker checker = new NativeArrayUseChecker(myArrays);
+        TreeWalker walker = new TreeWalker(checker);
+
+        walker.visit(call("Swap_Two_Entries", name("A"), integer(1),
+                integer(2)));
+        walker.visit(call("Swap_Entry", name("A"), name("E"), integer(1)));
+        assertEquals(new HashSet<String>(), checker.getEscapingArrays());
+
+        //Passing the whole array elsewhere needs its facility
+        walker.visit(new CallStmt(null, symbol("Sort"), arguments(name("A"))));
+        assertEquals(Collections.singleton("A"), checker.getEscapingArrays());
+    }
+}
@@ -0,0 +1,153 @@
+package edu.clemson.cs.r2jt.verification;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.newEnvironment;
+import static edu.clemson.cs.r2jt.proving.ProverTestFixtures.proposition;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.clemson.cs.r2jt.absyn.AssumeStmt;
+import edu.clemson.cs.r2jt.absyn.CallStmt;
+import edu.clemson.cs.r2jt.absyn.ConfirmStmt;
+import edu.clemson.cs.r2jt.absyn.Exp;
+import edu.clemson.cs.r2jt.absyn.VarDec;
+import edu.clemson.cs.r2jt.init.CompileEnvironment;
+
+public class TestAssertiveCode {
+
+    private CompileEnvironment myEnvironment;
+
+    private final Exp myAssume = proposition("P");
+    private final Exp myConfirm = proposition("Q");
+    private final VarDec myVariable = new VarDec();
+    private final CallStmt myCall = new CallStmt();
+
+    @Before
+    public void setUp() {
+        myEnvironment = newEnvironment();
+        myEnvironment.setDebugOff();
+    }
+
+    /*
+     * Returns the code of a procedure that declares a variable, assumes P,
+     * calls something and confirms Q, before whatever branches follow.
+     */
+    private AssertiveCode procedure() {
+        AssertiveCode retval = new AssertiveCode(myEnvironment);
+        retval.addVariableDec(myVariable);
+        retval.addAssume(myAssume);
+        retval.addCode(myCall);
+        retval.addConfirm(myConfirm);
+
+        return retval;
+    }
+
+    /*
+     * Returns the assertion of an assume or confirm, however it is held.
+     */
+    private static Exp assertionOf(VerificationStatement s) {
+        Object retval = s.getAssertion();
+        if (retval instanceof AssumeStmt) {
+            retval = ((AssumeStmt) retval).getAssertion();
+        }
+        else if (retval instanceof ConfirmStmt) {
+            retval = ((ConfirmStmt) retval).getAssertion();
+        }
+
+        return (Exp) retval;
+    }
+
+    @Test
+    public void testSharedStatementsCopiedOnlyWhereRulesChangeThem() {
+        AssertiveCode code = procedure();
+        AssertiveCode branch = (AssertiveCode) code.clone();
+
+        VerificationStatement confirm = branch.getLastAssertion();
+        assertSame(myConfirm, assertionOf(confirm));
+        assertSame(confirm, code.getLastAssertion());
+
+        //Calls are still copied, though not what they hold
+        Object call = branch.getLastAssertion().getAssertion();
+        assertNotSame(myCall, call);
+        assertTrue(call instanceof CallStmt);
+        assertSame(myCall, code.getLastAssertion().getAssertion());
+
+        //The assume rule replaces the assertion of the statement it is
+        //given, so each branch gets a statement of its own
+        VerificationStatement assume = branch.getLastAssertion();
+        assertTrue(assume.getAssertion() instanceof AssumeStmt);
+        assertSame(myAssume, assertionOf(assume));
+        ((AssumeStmt) assume.getAssertion()).setAssertion(null);
+        assertSame(myAssume, assertionOf(code.getLastAssertion()));
+
+        assertSame(myVariable, branch.getLastAssertion().getAssertion());
+        assertSame(myVariable, code.getLastAssertion().getAssertion());
+        assertFalse(branch.hasAnotherAssertion());
+        assertFalse(code.hasAnotherAssertion());
+    }
+
+    /*
+     * Branches code as nested if statements depth deep would, and counts,
+     * for each assertion of an assume or confirm, how many of the leaves
+     * were handed that very expression.
+     */
+    private void branch(AssertiveCode code, int depth,
+            Map<Exp, Integer> reached) {
+        if (depth == 0) {
+            while (code.hasAnotherAssertion()) {
+                VerificationStatement s = code.getLastAssertion();
+                if (s.getType() != VerificationStatement.VARIABLE
+                        && !(s.getAssertion() instanceof CallStmt)) {
+                    Exp assertion = assertionOf(s);
+                    Integer count = reached.get(assertion);
+                    reached.put(assertion, count == null ? 1 : count + 1);
+                }
+            }
+        }
+        else {
+            AssertiveCode ifCode = (AssertiveCode) code.clone();
+            ifCode.addAssume(proposition("B" + depth));
+            branch(ifCode, depth - 1, reached);
+
+            AssertiveCode elseCode = (AssertiveCode) code.clone();
+            code.releaseStatements();
+            elseCode.addAssume(proposition("not_B" + depth));
+            branch(elseCode, depth - 1, reached);
+        }
+    }
+
+    @Test
+    public void testNestedBranchesCopyNoAssertions() {
+        int depth = 10;
+        Map<Exp, Integer> reached = new IdentityHashMap<Exp, Integer>();
+        branch(procedure(), depth, reached);
+
+        //Every one of the 2^depth paths is handed the procedure's own
+        //assertions, where each used to get copies of them
+        int paths = 1 << depth;
+        assertEquals(paths, reached.get(myAssume).intValue());
+        assertEquals(paths, reached.get(myConfirm).intValue());
+    }
+
+    @Test
+    public void testFinalConfirmCopiedBeforeChangeOnceSharingStatements() {
+        AssertiveCode code = procedure();
+        AssertiveCode branch = (AssertiveCode) code.clone();
+
+        Exp shared = assertionOf(branch.getLastAssertion());
+        branch.setFinalConfirm(shared);
+        assertNotSame(shared, branch.getFinalConfirmToModify());
+
+        Exp own = branch.getFinalConfirmToModify();
+        assertSame(own, branch.getFinalConfirmToModify());
+    }
+}